@@ -0,0 +1,79 @@
+package breakout.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.BrickGrid;
+import breakout.balls.StandardBehavior;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Vector;
+
+/**
+ * Checks that a steady-state atomic tick does not allocate.
+ *
+ * The balls fly horizontally through a large empty field, so they only hit a wall once every few hundred thousand ticks
+ * and the allocations of these bounces do not show up in the result.
+ * Run with {@code -prof gc} (the default when using {@link BenchmarkMain}):
+ * {@code gc.alloc.rate.norm} should be (close to) 0 bytes per operation.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AllocationBenchmark
+{
+    private static final int COLUMN_COUNT = 400;
+
+    private static final int ROW_COUNT = 200;
+
+    private static final int BRICK_WIDTH = 10000;
+
+    private static final int BRICK_HEIGHT = 3000;
+
+    @Param({ "1", "100" })
+    public int ballCount;
+
+    private BreakoutState state;
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        var brickGrid = new BrickGrid(COLUMN_COUNT, ROW_COUNT, BRICK_WIDTH, BRICK_HEIGHT);
+        // A single brick out of the balls' way, so that the game is not won
+        brickGrid.addStandardBrick(new Point(0, 0));
+        state = new BreakoutState(brickGrid, BRICK_WIDTH, BRICK_WIDTH / 100);
+
+        for ( int i = 0; i != ballCount; ++i )
+        {
+            var y = (ROW_COUNT / 4 + i % (ROW_COUNT / 2)) * BRICK_HEIGHT;
+            var x = (long) (i * 7919 % COLUMN_COUNT) * BRICK_WIDTH + BRICK_WIDTH / 2;
+            var direction = i % 2 == 0 ? 1 : -1;
+
+            state.addBall(new Circle(new Point(x, y), 500), new Vector(direction, 0), new StandardBehavior());
+        }
+    }
+
+    @Benchmark
+    public BreakoutState freeFlightTick()
+    {
+        state.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+
+        return state;
+    }
+}
@@ -0,0 +1,32 @@
+package breakout.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar.
+ * Accepts the usual JMH command line options, but always enables the gc profiler
+ * so that every run also reports the allocation rate.
+ */
+public class BenchmarkMain
+{
+    private BenchmarkMain()
+    {
+        // NOP
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        var commandLineOptions = new CommandLineOptions(args);
+        var options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
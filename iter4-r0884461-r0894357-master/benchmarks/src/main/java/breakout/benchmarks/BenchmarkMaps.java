@@ -0,0 +1,111 @@
+package breakout.benchmarks;
+
+import java.util.Random;
+
+import breakout.BreakoutState;
+import breakout.GameMapParser;
+
+/**
+ * Resolves the map names used as benchmark parameters.
+ * 
+ * Besides the maps shipped in {@link GameMapParser}, names of the form
+ * {@code SYNTHETIC_<columns>x<rows>} denote a generated map whose upper
+ * part is filled with randomly chosen (non-lock) bricks.
+ * The same name always produces the same map.
+ */
+public class BenchmarkMaps
+{
+    public static final int FACTOR = 100;
+
+    public static final int BRICK_WIDTH = 100 * FACTOR;
+
+    public static final int BRICK_HEIGHT = 30 * FACTOR;
+
+    private static final String SYNTHETIC_PREFIX = "SYNTHETIC_";
+
+    private static final String SYNTHETIC_BRICKS = "#####S+-WF><";
+
+    private BenchmarkMaps()
+    {
+        // NOP
+    }
+
+    /**
+     * @throws IllegalArgumentException | name == null
+     */
+    public static String[] getMap(String name)
+    {
+        if ( name == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( name.startsWith(SYNTHETIC_PREFIX) )
+        {
+            var dimensions = name.substring(SYNTHETIC_PREFIX.length()).split("x");
+
+            if ( dimensions.length != 2 )
+            {
+                throw new IllegalArgumentException("Invalid synthetic map name: " + name);
+            }
+
+            return createSyntheticMap(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        }
+
+        var map = GameMapParser.getMap(name);
+
+        if ( map == null )
+        {
+            throw new IllegalArgumentException("Unknown map: " + name);
+        }
+
+        return map;
+    }
+
+    /**
+     * Creates a fresh game for the map with the given name,
+     * using the same brick size as the application.
+     */
+    public static BreakoutState createState(String name)
+    {
+        return GameMapParser.parse(getMap(name), BRICK_WIDTH, BRICK_HEIGHT);
+    }
+
+    /**
+     * Generates a map of which the top 60% of the rows are filled with bricks.
+     * 
+     * @throws IllegalArgumentException | columnCount <= 0 || rowCount <= 0
+     */
+    public static String[] createSyntheticMap(int columnCount, int rowCount)
+    {
+        if ( columnCount <= 0 || rowCount <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        var random = new Random(31L * columnCount + rowCount);
+        var filledRows = rowCount * 6 / 10;
+        var lines = new String[rowCount];
+
+        for ( int y = 0; y != rowCount; ++y )
+        {
+            var line = new StringBuilder(columnCount);
+
+            for ( int x = 0; x != columnCount; ++x )
+            {
+                if ( y < filledRows )
+                {
+                    line.append(SYNTHETIC_BRICKS.charAt(random.nextInt(SYNTHETIC_BRICKS.length())));
+                }
+                else
+                {
+                    line.append(' ');
+                }
+            }
+
+            lines[y] = line.toString();
+        }
+
+        return lines;
+    }
+}
@@ -0,0 +1,111 @@
+package breakout.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.CollisionBatch;
+import breakout.balls.Ball;
+import breakout.balls.StandardBehavior;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Vector;
+
+/**
+ * Measures the earliest wall, paddle and brick collision times of many balls, computed one ball at a time,
+ * in one {@link CollisionBatch} on a single thread, and in one batch in parallel.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CollisionBatchBenchmark
+{
+    @Param({ "OGP_MAP", "SYNTHETIC_400x200" })
+    public String map;
+
+    @Param({ "100", "10000" })
+    public int ballCount;
+
+    private BreakoutState state;
+
+    private final CollisionBatch batch = new CollisionBatch();
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        state = BenchmarkMaps.createState(map);
+
+        var random = new Random(ballCount);
+        var field = state.getBoundingRectangle();
+
+        for ( var i = 0; i != ballCount; ++i )
+        {
+            var center = new Point(random.nextLong(field.getLeft() + 1000, field.getRight() - 1000),
+                    random.nextLong(field.getTop() + 1000, field.getBottom() - 1000));
+            var velocity = new Vector(random.nextInt(-20, 21), random.nextInt(-20, 21));
+
+            state.addBall(new Circle(center, 700), velocity, new StandardBehavior());
+        }
+
+        batch.addAll(state.getBalls());
+    }
+
+    @Benchmark
+    public long perBall()
+    {
+        var sum = 0L;
+
+        for ( var ball : state.getBalls() )
+        {
+            sum += findEarliestCollisionTime(ball);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public CollisionBatch batched()
+    {
+        batch.compute(state);
+
+        return batch;
+    }
+
+    @Benchmark
+    public CollisionBatch batchedInParallel()
+    {
+        batch.computeInParallel(state);
+
+        return batch;
+    }
+
+    private long findEarliestCollisionTime(Ball ball)
+    {
+        var earliest = state.getPaddle().findCollisionTime(ball);
+
+        for ( var i = 0; i != state.getWallCount(); ++i )
+        {
+            earliest = Math.min(earliest, state.getWall(i).findCollisionTime(ball));
+        }
+
+        var brickCollision = state.getBrickGrid().findEarliestCollision(ball);
+
+        return brickCollision == null ? earliest : Math.min(earliest, brickCollision.getMillisecondsUntilCollision());
+    }
+}
@@ -0,0 +1,87 @@
+package breakout.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.headless.TrackingController;
+
+/**
+ * Compares the fixed-step engine ({@link BreakoutState#tick(long)}) with the event-driven one
+ * ({@link BreakoutState#tickEventDriven(long)}) by simulating one second of game time per operation.
+ * Both engines play out a game steered by a {@link TrackingController} identically, so both benchmarks time the same game.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EngineComparisonBenchmark
+{
+    private static final long SIMULATED_MILLISECONDS = 1000;
+
+    @Param({ "descr3", "OGP_MAP", "SYNTHETIC_100x60", "SYNTHETIC_400x200" })
+    public String map;
+
+    private final TrackingController controller = new TrackingController();
+
+    private FreshStates freshStates;
+
+    private BreakoutState state;
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        if ( freshStates == null )
+        {
+            freshStates = new FreshStates(map);
+        }
+
+        freshStates.refill();
+        state = freshStates.take();
+    }
+
+    /**
+     * Swaps in a fresh game when the previous operation ended the game, like {@link TickBenchmark} does.
+     */
+    private void restartIfGameOver()
+    {
+        if ( state.isGameOver() )
+        {
+            state = freshStates.take();
+        }
+    }
+
+    @Benchmark
+    public BreakoutState fixedStep()
+    {
+        restartIfGameOver();
+        state.getPaddle().setMotionDirection(controller.chooseDirection(state));
+        state.tick(SIMULATED_MILLISECONDS);
+
+        return state;
+    }
+
+    @Benchmark
+    public BreakoutState eventDriven()
+    {
+        restartIfGameOver();
+        state.getPaddle().setMotionDirection(controller.chooseDirection(state));
+        state.tickEventDriven(SIMULATED_MILLISECONDS);
+
+        return state;
+    }
+}
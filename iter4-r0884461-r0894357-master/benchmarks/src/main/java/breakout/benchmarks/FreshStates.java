@@ -0,0 +1,72 @@
+package breakout.benchmarks;
+
+import java.util.ArrayDeque;
+
+import breakout.BreakoutState;
+
+/**
+ * Fresh games for one map, created outside the measured time, so that a benchmark can replace a game
+ * that has ended by a fresh one with a reference swap.
+ *
+ * Benchmarks refill it in {@code @Setup(Level.Iteration)} rather than restarting the game in {@code @Setup(Level.Invocation)},
+ * which would add timestamps to every operation and skew the measurement of operations that take microseconds.
+ * The number of games created per iteration starts at one and doubles until it covers the number of games the previous
+ * iteration used, so after warmup every game comes from the pool.
+ */
+public class FreshStates
+{
+    /**
+     * @invar | map != null
+     */
+    private final String map;
+
+    private final ArrayDeque<BreakoutState> states = new ArrayDeque<>();
+
+    private int capacity = 1;
+
+    private int takenCount;
+
+    /**
+     * @throws IllegalArgumentException | map == null
+     */
+    public FreshStates(String map)
+    {
+        if ( map == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.map = map;
+    }
+
+    /**
+     * Creates fresh games until the pool holds as many as the previous iteration used.
+     * To be called outside the measured time.
+     */
+    public void refill()
+    {
+        while ( capacity < takenCount )
+        {
+            capacity *= 2;
+        }
+
+        takenCount = 0;
+
+        while ( states.size() < capacity )
+        {
+            states.add(BenchmarkMaps.createState(map));
+        }
+    }
+
+    /**
+     * Returns a fresh game, taken from the pool unless the pool has run out.
+     */
+    public BreakoutState take()
+    {
+        ++takenCount;
+
+        var state = states.poll();
+
+        return state != null ? state : BenchmarkMaps.createState(map);
+    }
+}
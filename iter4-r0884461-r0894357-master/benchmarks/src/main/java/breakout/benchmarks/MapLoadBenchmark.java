@@ -0,0 +1,95 @@
+package breakout.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BrickGrid;
+import breakout.CompiledMap;
+import breakout.GameMapParser;
+import breakout.LevelTemplate;
+
+/**
+ * Measures opening a level: parsing its text form with {@link GameMapParser}, loading it with {@link CompiledMap},
+ * and creating it from a {@link LevelTemplate}.
+ * Besides the synthetic maps, {@code SPARSE_<size>} is a square level of the given size with a brick in every corner.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapLoadBenchmark
+{
+    @Param({ "OGP_MAP", "SYNTHETIC_400x200", "SPARSE_4000" })
+    public String map;
+
+    private String[] lines;
+
+    private Path path;
+
+    private LevelTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        lines = map.startsWith("SPARSE_") ? createSparseMap(Integer.parseInt(map.substring("SPARSE_".length()))) : BenchmarkMaps.getMap(map);
+        path = Files.createTempFile("breakout", ".map");
+        CompiledMap.compile(lines, path);
+        template = new LevelTemplate(lines, BenchmarkMaps.BRICK_WIDTH, BenchmarkMaps.BRICK_HEIGHT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(path);
+    }
+
+    private static String[] createSparseMap(int size)
+    {
+        var lines = new String[size];
+        var empty = " ".repeat(size);
+        var corners = "#" + " ".repeat(size - 2) + "#";
+
+        Arrays.fill(lines, empty);
+        lines[0] = corners;
+        lines[size - 1] = corners;
+
+        return lines;
+    }
+
+    @Benchmark
+    public Object parse()
+    {
+        return GameMapParser.parse(lines, BenchmarkMaps.BRICK_WIDTH, BenchmarkMaps.BRICK_HEIGHT);
+    }
+
+    @Benchmark
+    public BrickGrid load() throws IOException
+    {
+        return CompiledMap.loadBrickGrid(path, BenchmarkMaps.BRICK_WIDTH, BenchmarkMaps.BRICK_HEIGHT);
+    }
+
+    @Benchmark
+    public BrickGrid fromTemplate()
+    {
+        return template.createBrickGrid();
+    }
+}
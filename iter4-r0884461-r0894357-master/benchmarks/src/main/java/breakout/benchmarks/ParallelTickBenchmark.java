@@ -0,0 +1,78 @@
+package breakout.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.balls.StandardBehavior;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Vector;
+
+/**
+ * Measures a tick of a game with many balls, by {@link BreakoutState#tick(long)} and by {@link BreakoutState#tickInParallel(long)}.
+ * Both produce the same game, so a fresh game is started every iteration and both benchmarks tick the same sequence of states.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelTickBenchmark
+{
+    @Param({ "OGP_MAP", "SYNTHETIC_400x200" })
+    public String map;
+
+    @Param({ "1000", "10000" })
+    public int ballCount;
+
+    private BreakoutState state;
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        state = BenchmarkMaps.createState(map);
+
+        var random = new Random(ballCount);
+        var field = state.getBoundingRectangle();
+
+        for ( var i = 0; i != ballCount; ++i )
+        {
+            var center = new Point(random.nextLong(field.getLeft() + 1000, field.getRight() - 1000),
+                    random.nextLong(field.getTop() + 1000, field.getBottom() - 1000));
+            var velocity = new Vector(random.nextInt(-20, 21), -random.nextInt(1, 21));
+
+            state.addBall(new Circle(center, 700), velocity, new StandardBehavior());
+        }
+    }
+
+    @Benchmark
+    public BreakoutState sequential()
+    {
+        state.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+
+        return state;
+    }
+
+    @Benchmark
+    public BreakoutState parallel()
+    {
+        state.tickInParallel(BreakoutState.MAXIMUM_TIME_DELTA);
+
+        return state;
+    }
+}
@@ -0,0 +1,105 @@
+package breakout.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.GameMapParser;
+import breakout.headless.TrackingController;
+import breakout.replay.InputLog;
+import breakout.replay.InputRecorder;
+import breakout.replay.Replayer;
+
+/**
+ * Replays a recorded game, see {@link Replayer}. Each operation replays the whole log on a fresh game.
+ *
+ * Pass a log recorded with {@code BREAKOUT_RECORD} using {@code -p log=<path>}.
+ * Without it, a game on descr2 steered by {@link TrackingController} is recorded first.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReplayBenchmark
+{
+    private static final int RECORDED_TICK_COUNT = 20_000;
+
+    @Param({ "" })
+    public String log;
+
+    private InputLog inputLog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        if ( log.isEmpty() )
+        {
+            var path = Files.createTempFile("breakout", ".log");
+
+            try
+            {
+                recordGame(path);
+                inputLog = InputLog.read(path);
+            }
+            finally
+            {
+                Files.delete(path);
+            }
+        }
+        else
+        {
+            inputLog = InputLog.read(Path.of(log));
+        }
+
+        if ( !Replayer.verify(inputLog) )
+        {
+            throw new IllegalStateException("Replay does not reproduce the recorded game");
+        }
+    }
+
+    private static void recordGame(Path path) throws IOException
+    {
+        var state = GameMapParser.parse(GameMapParser.descr2, BenchmarkMaps.BRICK_WIDTH, BenchmarkMaps.BRICK_HEIGHT);
+        var controller = new TrackingController();
+
+        try ( var recorder = new InputRecorder(path, "descr2", BenchmarkMaps.BRICK_WIDTH, BenchmarkMaps.BRICK_HEIGHT) )
+        {
+            for ( var i = 0; i != RECORDED_TICK_COUNT && !state.isGameOver(); ++i )
+            {
+                var direction = controller.chooseDirection(state);
+
+                state.getPaddle().setMotionDirection(direction);
+                recorder.record(BreakoutState.MAXIMUM_TIME_DELTA, direction);
+                state.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+            }
+
+            recorder.finish(state);
+        }
+    }
+
+    @Benchmark
+    public BreakoutState replay()
+    {
+        var state = Replayer.createInitialState(inputLog);
+        Replayer.replay(inputLog, state);
+
+        return state;
+    }
+}
@@ -0,0 +1,88 @@
+package breakout.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.headless.TrackingController;
+
+/**
+ * Measures {@link BreakoutState#tick(long)} on every shipped map and on a few synthetic large maps.
+ * 
+ * Each benchmark operation is a single {@code tick(MAXIMUM_TIME_DELTA)}, which the engine
+ * executes as exactly one atomic tick. The throughput benchmark therefore reports ticks per second,
+ * the sample-time benchmark reports the latency distribution of one atomic tick.
+ * Run with {@code -prof gc} (the default when using {@link BenchmarkMain}) to get the allocation rate.
+ * 
+ * The paddle is steered by {@link TrackingController}, which keeps most games alive for thousands of ticks.
+ * When a game ends anyway, the next operation swaps in a fresh one that {@link FreshStates} created outside the measured time,
+ * so that every operation ticks a running game and the latency does not include parsing a map.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TickBenchmark
+{
+    @Param({ "descr1", "descr2", "descr3", "descr4", "descr5", "descr6", "descr7", "OGP_MAP", "OOP_MAP", "SYNTHETIC_100x60", "SYNTHETIC_400x200" })
+    public String map;
+
+    private final TrackingController controller = new TrackingController();
+
+    private FreshStates freshStates;
+
+    private BreakoutState state;
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        if ( freshStates == null )
+        {
+            freshStates = new FreshStates(map);
+        }
+
+        freshStates.refill();
+        state = freshStates.take();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public BreakoutState ticksPerSecond()
+    {
+        return atomicTick();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BreakoutState atomicTickLatency()
+    {
+        return atomicTick();
+    }
+
+    private BreakoutState atomicTick()
+    {
+        if ( state.isGameOver() )
+        {
+            state = freshStates.take();
+        }
+
+        state.getPaddle().setMotionDirection(controller.chooseDirection(state));
+        state.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+
+        return state;
+    }
+}
@@ -0,0 +1,66 @@
+package breakout;
+
+import breakout.balls.Ball;
+import breakout.balls.BallBehavior;
+import breakout.math.Circle;
+import breakout.math.Vector;
+import breakout.paddles.PaddleMotionDirection;
+
+/**
+ * State of a {@link BreakoutState} at the moment {@link BreakoutState#snapshot()} was called.
+ * It can only be used to restore the game it was taken of, see {@link BreakoutState#restore(BreakoutSnapshot)}.
+ *
+ * @immutable
+ */
+public class BreakoutSnapshot
+{
+    /**
+     * The game this snapshot was taken of.
+     */
+    final BreakoutState state;
+
+    final BrickGridSnapshot brickGrid;
+
+    /**
+     * The balls are restored as the same objects, with the recorded geometry, velocity and behavior.
+     */
+    final Ball[] balls;
+
+    final Circle[] ballGeometries;
+
+    final Vector[] ballVelocities;
+
+    /**
+     * Never given to a ball: restoring gives each ball a copy.
+     */
+    final BallBehavior[] ballBehaviors;
+
+    final long paddleTopCenterX;
+
+    final long paddleHalfWidth;
+
+    final PaddleMotionDirection paddleMotionDirection;
+
+    BreakoutSnapshot(BreakoutState state, BrickGridSnapshot brickGrid, Ball[] balls, Circle[] ballGeometries, Vector[] ballVelocities,
+            BallBehavior[] ballBehaviors, long paddleTopCenterX, long paddleHalfWidth, PaddleMotionDirection paddleMotionDirection)
+    {
+        this.state = state;
+        this.brickGrid = brickGrid;
+        this.balls = balls;
+        this.ballGeometries = ballGeometries;
+        this.ballVelocities = ballVelocities;
+        this.ballBehaviors = ballBehaviors;
+        this.paddleTopCenterX = paddleTopCenterX;
+        this.paddleHalfWidth = paddleHalfWidth;
+        this.paddleMotionDirection = paddleMotionDirection;
+    }
+
+    /**
+     * Returns the number of balls at the moment this snapshot was taken.
+     * @post | result >= 0
+     */
+    public int getBallCount()
+    {
+        return balls.length;
+    }
+}
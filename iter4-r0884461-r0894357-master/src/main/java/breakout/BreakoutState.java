@@ -6,6 +6,7 @@ import java.util.List;
 
 import breakout.balls.Ball;
 import breakout.balls.BallBehavior;
+import breakout.balls.BallStore;
 import breakout.bricks.Brick;
 import breakout.math.Circle;
 import breakout.math.Interval;
@@ -29,13 +30,12 @@ public class BreakoutState
     public static int MAXIMUM_TIME_DELTA = 20;
 
     /**
-     * List of all balls.
+     * All balls, in order.
      * @invar | balls != null
-     * @invar | balls.stream().allMatch(b -> b != null && b.getAllowedArea().equals(getBoundingRectanglePrivate()))
-     * @invar | !SpecUtil.containsDuplicateObjects(balls)
+     * @invar | balls.getAllowedArea().equals(getBoundingRectanglePrivate())
      * @representationObject
      */
-    private ArrayList<Ball> balls; 
+    private final BallStore balls;
 
     /**
      * @invar | bricks != null
@@ -57,6 +57,11 @@ public class BreakoutState
      */
     private final ArrayList<Wall> walls;
 
+    /**
+     * Updates the balls for {@link #tick(long)} and {@link #tickInParallel(long)}; created when first needed.
+     */
+    private ParallelBallUpdater ballUpdater;
+
     /**
      * Construct a new BreakoutState.
      *
@@ -81,10 +86,10 @@ public class BreakoutState
             throw new IllegalArgumentException();
         }
 
-        this.balls = new ArrayList<>();
         this.bricks = brickGrid;
         this.paddle = createPaddle(brickGrid, initialPaddleHalfWidth, paddleSpeed);
         this.walls = createWalls(brickGrid);
+        this.balls = new BallStore(getBoundingRectanglePrivate());
     }
 
     /**
@@ -120,7 +125,16 @@ public class BreakoutState
      */
     public ArrayList<Ball> getBalls()
     {	
-        return new ArrayList<Ball>(balls);
+        return balls.getBalls();
+    }
+
+    /**
+     * Returns the store holding the balls, in the order of getBalls().
+     * Used by {@link ImpactScheduler} and {@link ParallelBallUpdater}, which must not add or remove balls through it.
+     */
+    BallStore getBallStore()
+    {
+        return balls;
     }
 
     /**
@@ -175,22 +189,67 @@ public class BreakoutState
         while ( elapsedMilliseconds > 0 )
         {
             var dt = Math.min(MAXIMUM_TIME_DELTA, elapsedMilliseconds);
-            atomicTick(dt);
+            atomicTick(dt, false);
             elapsedMilliseconds -= dt;
         }
     }
 
     /**
-     * LEGIT
+     * Move all moving objects forward, like {@link #tick(long)} and with exactly the same result,
+     * but using the event-driven {@link ImpactScheduler} instead of updating every ball every {@link #MAXIMUM_TIME_DELTA} milliseconds.
+     * The paddle still moves per step of {@link #MAXIMUM_TIME_DELTA} milliseconds, as in {@link #tick(long)}, and impacts within
+     * a step are handled ball by ball, so the game plays out the same whatever the paddle's motion direction.
+     *
+     * @pre | elapsedMilliseconds >= 0
+     *
+     * @mutates | this
+     * @mutates | ...getBalls()
      */
-    private void atomicTick(long elapsedTime)
+    public void tickEventDriven(long elapsedMilliseconds)
     {
-        paddle.tick(this, elapsedTime);
+        new ImpactScheduler(this).advance(elapsedMilliseconds);
+    }
 
-        for ( var ball : new ArrayList<>(this.balls) )
+    /**
+     * From this number of balls on, {@link #tickInParallel(long)} updates the balls on several threads
+     * and {@link #tickEventDriven(long)} computes its first predictions on several threads.
+     */
+    public static final int PARALLEL_BALL_COUNT = 4 * ParallelBallUpdater.CHUNK_SIZE;
+
+    /**
+     * Move all moving objects forward, like {@link #tick(long)} and with exactly the same result,
+     * but update the balls on several threads when there are many of them, see {@link ParallelBallUpdater}.
+     *
+     * @pre | elapsedMilliseconds >= 0
+     *
+     * @mutates | this
+     * @mutates | ...getBalls()
+     */
+    public void tickInParallel(long elapsedMilliseconds)
+    {
+        while ( elapsedMilliseconds > 0 )
+        {
+            var dt = Math.min(MAXIMUM_TIME_DELTA, elapsedMilliseconds);
+
+            atomicTick(dt, balls.getBallCount() >= PARALLEL_BALL_COUNT);
+            elapsedMilliseconds -= dt;
+        }
+    }
+
+    /**
+     * LEGIT
+     * The balls are updated by a {@link ParallelBallUpdater}, on the calling thread unless parallel holds,
+     * which moves the balls that hit nothing together, with {@link BallStore#moveAll(long, boolean[], int)}.
+     */
+    private void atomicTick(long elapsedTime, boolean parallel)
+    {
+        if ( ballUpdater == null )
         {
-            ball.tick(this, elapsedTime);
+            ballUpdater = new ParallelBallUpdater(this);
         }
+
+        paddle.tick(this, elapsedTime);
+        ballUpdater.update(elapsedTime, parallel);
     }
 
     /**
@@ -209,7 +268,7 @@ public class BreakoutState
      */
     public boolean isGameWon()
     {
-        return getBricks().isEmpty();
+        return bricks.isEmpty();
     }
 
     /**
@@ -219,7 +278,7 @@ public class BreakoutState
      */
     public boolean isGameLost()
     {
-        return getBalls().isEmpty();
+        return balls.getBallCount() == 0;
     }
 
     /**
@@ -234,6 +293,25 @@ public class BreakoutState
         return new ArrayList<Wall>(walls);
     }
 
+    /**
+     * Returns the number of walls.
+     * Together with {@link #getWall(int)}, this allows iterating over the walls without copying them.
+     * @post | result == getWalls().size()
+     */
+    public int getWallCount()
+    {
+        return walls.size();
+    }
+
+    /**
+     * @pre | 0 <= index && index < getWallCount()
+     * @post | result == getWalls().get(index)
+     */
+    public Wall getWall(int index)
+    {
+        return walls.get(index);
+    }
+
     /**
      * Returns a list of bricks.
      * 
@@ -257,7 +335,10 @@ public class BreakoutState
      */
     public void removeBall(Ball ball)
     {
-        this.balls.remove(ball);
+        if ( balls.contains(ball) )
+        {
+            balls.remove(ball);
+        }
     }
 
     /**
@@ -269,7 +350,16 @@ public class BreakoutState
      */
     public boolean isBallLost(Ball ball)
     {
-        return !getBoundingRectangle().contains(ball.getCenter());
+        return isPositionLost(ball.getCenterX(), ball.getCenterY());
+    }
+
+    /**
+     * Returns whether a ball whose center is at (x, y) is lost, see {@link #isBallLost(Ball)}.
+     */
+    boolean isPositionLost(long x, long y)
+    {
+        // Same as !getBoundingRectangle().contains(new Point(x, y)), without allocating
+        return !(0 <= x && x <= this.bricks.getWidth() && 0 <= y && y <= this.bricks.getHeight() + this.paddle.getHeight());
     }
 
     /**
@@ -289,9 +379,73 @@ public class BreakoutState
      */
     public Ball addBall(Circle geometry, Vector velocity, BallBehavior behavior)
     {
-    	Ball newBall = new Ball(getBoundingRectanglePrivate(), geometry, velocity, behavior);
-    	balls.add(newBall);
-        return newBall;
+        return balls.add(geometry, velocity, behavior);
+    }
+
+    /**
+     * Records the current state of the game, so that it can be restored later using {@link #restore(BreakoutSnapshot)},
+     * e.g., to look ahead or to roll back.
+     *
+     * Taking a snapshot does not copy the bricks: the brick grid is shared with the snapshot copy-on-write,
+     * and only the state of bricks that have changed since the previous snapshot is recorded again.
+     * The balls and the paddle are recorded in full.
+     *
+     * @creates | result
+     * @post | result != null
+     * @post | result.getBallCount() == getBalls().size()
+     */
+    public BreakoutSnapshot snapshot()
+    {
+        var ballCount = balls.getBallCount();
+        var snapshotBalls = balls.toArray(new Ball[ballCount]);
+        var geometries = new Circle[ballCount];
+        var velocities = new Vector[ballCount];
+        var behaviors = new BallBehavior[ballCount];
+
+        for ( int i = 0; i != ballCount; ++i )
+        {
+            geometries[i] = snapshotBalls[i].getGeometry();
+            velocities[i] = snapshotBalls[i].getVelocity();
+            behaviors[i] = snapshotBalls[i].getBehavior().copy();
+        }
+
+        return new BreakoutSnapshot(this, bricks.createSnapshot(), snapshotBalls, geometries, velocities, behaviors,
+                paddle.getTopCenterX(), paddle.getHalfWidth(), paddle.getMotionDirection());
+    }
+
+    /**
+     * Puts the game back in the state it was in when the given snapshot was taken.
+     * The balls, bricks and paddle are the same objects as before, so references to them remain valid.
+     * The snapshot itself is left unchanged, so it can be restored again later.
+     *
+     * @throws IllegalArgumentException | snapshot == null
+     * @throws IllegalArgumentException | the snapshot was not taken of this game
+     * @mutates | this
+     * @mutates | ...getBalls()
+     * @mutates | ...getBricks()
+     * @post | getBalls().size() == snapshot.getBallCount()
+     */
+    public void restore(BreakoutSnapshot snapshot)
+    {
+        if ( snapshot == null || snapshot.state != this )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        bricks.restore(snapshot.brickGrid);
+
+        var behaviors = new BallBehavior[snapshot.balls.length];
+
+        for ( int i = 0; i != behaviors.length; ++i )
+        {
+            behaviors[i] = snapshot.ballBehaviors[i].copy();
+        }
+
+        balls.restore(snapshot.balls, snapshot.ballGeometries, snapshot.ballVelocities, behaviors);
+
+        paddle.setHalfWidth(snapshot.paddleHalfWidth);
+        paddle.setTopCenterX(snapshot.paddleTopCenterX);
+        paddle.setMotionDirection(snapshot.paddleMotionDirection);
     }
 
     /**
@@ -1,10 +1,16 @@
 package breakout;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import breakout.balls.Ball;
 import breakout.bricks.Brick;
+import breakout.bricks.BrickMemento;
 import breakout.bricks.GrowPaddleBrick;
 import breakout.bricks.ShrinkPaddleBrick;
 import breakout.bricks.SlowDownBrick;
@@ -19,6 +25,7 @@ import breakout.math.Point;
 import breakout.math.Rectangle;
 import breakout.math.Vector;
 import breakout.util.Grid;
+import breakout.ui.Canvas;
 import breakout.util.SpecUtil;
 
 /**
@@ -28,16 +35,90 @@ import breakout.util.SpecUtil;
 public class BrickGrid
 {
 	/**
+	 * Every cell holds null, a brick, or a {@link CompactBrick} standing for a brick without mutable state
+	 * whose object has not necessarily been created yet, see {@link #views}.
 	 * @invar | grid != null
 	 * @invar | grid.getPositions().stream()
      * |  		.map(pos -> grid.at(pos))
-     * |  		.filter(brick -> brick != null)
-     * |        .allMatch(brick -> grid.at(brick.getGridPosition()) == brick)
+     * |  		.filter(cell -> cell instanceof Brick)
+     * |        .allMatch(brick -> grid.at(((Brick) brick).getGridPosition()) == brick)
      * this means that all bricks in the grid have a position corresponding to
      * the position in the grid (otherwise it might be shown on the different
      * place than where the brick itself thinks it actually is!
 	 */
-    private final Grid<Brick> grid;
+    private Grid<Object> grid;
+
+    /**
+     * The bricks created for cells holding a {@link CompactBrick}, by cell index, so that such a cell yields the same brick
+     * for as long as that brick is referenced elsewhere, also after restoring a snapshot that holds the cell again.
+     * The references are weak, so the bricks of e.g. a {@link #getBricks()} list are not kept once the list is dropped;
+     * their entries are removed on the next lookup that creates a brick.
+     * A view is dropped when a new compact brick is put in its cell, and ignored if its cell holds a compact brick of another type.
+     * Views are created on demand, also by threads looking up bricks in parallel, so each one is created atomically for its own cell.
+     * @invar | views != null
+     */
+    private final ConcurrentHashMap<Long, View> views;
+
+    /**
+     * Receives the views whose brick has been garbage collected.
+     */
+    private final ReferenceQueue<Brick> collectedViews = new ReferenceQueue<>();
+
+    /**
+     * A weak reference to the brick created for a compact brick cell, see {@link #views}.
+     */
+    private static final class View extends WeakReference<Brick>
+    {
+        final long cellIndex;
+
+        final int type;
+
+        View(Brick brick, long cellIndex, int type, ReferenceQueue<Brick> queue)
+        {
+            super(brick, queue);
+            this.cellIndex = cellIndex;
+            this.type = type;
+        }
+    }
+
+    /**
+     * A brick without mutable state stored as its type alone: its geometry follows from its cell and the brick size.
+     * One instance per type is shared by all cells and grids, so a compact brick costs a single reference.
+     *
+     * @immutable
+     */
+    private static final class CompactBrick
+    {
+        final int type;
+
+        CompactBrick(int type)
+        {
+            this.type = type;
+        }
+    }
+
+    /**
+     * The compact brick of every {@link CellType} for which {@link CellType#isCompact(int)} holds, indexed by type.
+     */
+    private static final CompactBrick[] COMPACT_BRICKS = new CompactBrick[CellType.SLOW_DOWN + 1];
+
+    /**
+     * A brick of every compact type, shared by all cells and grids, that stands in for compact bricks
+     * where only their class and appearance matter, see {@link #forEachBrick(BrickVisitor)}.
+     */
+    private static final Brick[] PROTOTYPES = new Brick[CellType.SLOW_DOWN + 1];
+
+    static
+    {
+        for ( var type = 0; type != COMPACT_BRICKS.length; ++type )
+        {
+            if ( CellType.isCompact(type) )
+            {
+                COMPACT_BRICKS[type] = new CompactBrick(type);
+                PROTOTYPES[type] = createBrick(type, new Point(0, 0), new Rectangle(0, 0, 1, 1));
+            }
+        }
+    }
 
     /**
      * @invar | brickWidth > 0
@@ -48,6 +129,96 @@ public class BrickGrid
      * @invar | brickHeight > 0
      */
     private final int brickHeight;
+
+    /**
+     * Number of bricks in the grid.
+     * @invar | brickCount == getBricks().size()
+     */
+    private int brickCount;
+
+    /**
+     * Number of bricks in each row.
+     * @invar | rowCounts != null
+     * @invar | rowCounts.length == getRowCount()
+     * @invar | IntStream.range(0, rowCounts.length).allMatch(y -> rowCounts[y] == getBricks().stream().filter(b -> b.getGridPosition().y() == y).count())
+     */
+    private final int[] rowCounts;
+
+    /**
+     * Number of bricks in each column.
+     * @invar | columnCounts != null
+     * @invar | columnCounts.length == getColumnCount()
+     * @invar | IntStream.range(0, columnCounts.length).allMatch(x -> columnCounts[x] == getBricks().stream().filter(b -> b.getGridPosition().x() == x).count())
+     */
+    private final int[] columnCounts;
+
+    /**
+     * Bit y is set iff row y contains at least one brick.
+     * @invar | occupiedRows != null
+     * @invar | IntStream.range(0, getRowCount()).allMatch(y -> occupiedRows.get(y) == (rowCounts[y] != 0))
+     */
+    private final BitSet occupiedRows;
+
+    /**
+     * Bit x is set iff column x contains at least one brick.
+     * @invar | occupiedColumns != null
+     * @invar | IntStream.range(0, getColumnCount()).allMatch(x -> occupiedColumns.get(x) == (columnCounts[x] != 0))
+     */
+    private final BitSet occupiedColumns;
+
+    /**
+     * Incremented every time a brick is added or removed.
+     */
+    private long version;
+
+    /**
+     * The snapshot most recently created or restored, or null if there is none.
+     */
+    private BrickGridSnapshot lastSnapshot;
+
+    /**
+     * Bit y is set iff a brick in row y has been added or removed since {@link #lastSnapshot}.
+     * @invar | changedRows != null
+     */
+    private final BitSet changedRows = new BitSet();
+
+    /**
+     * Bit y is set iff a brick in row y has been modified since {@link #lastSnapshot}, as reported by {@link #modificationListener}.
+     * The bricks with mutable state placed in this grid report to it, so a snapshot only looks at these rows and {@link #changedRows}.
+     * @invar | modifiedRows != null
+     */
+    private final BitSet modifiedRows = new BitSet();
+
+    private final Brick.ModificationListener modificationListener = brick -> modifiedRows.set((int) brick.getGridPosition().y());
+
+    /**
+     * Marks that a ray crosses no further column or row boundary.
+     */
+    private static final long NO_BOUNDARY = Long.MIN_VALUE;
+
+    /**
+     * Number of cell changes that can be retrieved with {@link #getChangedCellIndex(long)}.
+     */
+    public static final int CELL_CHANGE_JOURNAL_SIZE = 1024;
+
+    /**
+     * Cell index (see {@link #getChangedCellIndex(long)}) of the last {@link #CELL_CHANGE_JOURNAL_SIZE} cell changes,
+     * change c being stored at c % CELL_CHANGE_JOURNAL_SIZE.
+     * @invar | cellChangeJournal != null && cellChangeJournal.length == CELL_CHANGE_JOURNAL_SIZE
+     */
+    private final long[] cellChangeJournal = new long[CELL_CHANGE_JOURNAL_SIZE];
+
+    /**
+     * @invar | cellChangeCount >= 0
+     */
+    private long cellChangeCount;
+
+    /**
+     * Changes before this one cannot be retrieved anymore, because the journal has wrapped around
+     * or because the whole grid was changed at once.
+     * @invar | cellChangeCount - CELL_CHANGE_JOURNAL_SIZE <= firstAvailableCellChange && firstAvailableCellChange <= cellChangeCount
+     */
+    private long firstAvailableCellChange;
     
     /**
      * @throws IllegalArgumentException
@@ -68,7 +239,44 @@ public class BrickGrid
         }	// grid constructor doet de andere @throws!
         this.brickWidth = brickWidth;
         this.brickHeight = brickHeight;
-        this.grid = new Grid<Brick>(columnCount, rowCount);
+        this.grid = new Grid<Object>(columnCount, rowCount);
+        this.views = new ConcurrentHashMap<Long, View>();
+        this.rowCounts = new int[rowCount];
+        this.columnCounts = new int[columnCount];
+        this.occupiedRows = new BitSet(rowCount);
+        this.occupiedColumns = new BitSet(columnCount);
+    }
+
+    /**
+     * Creates a grid with the same size and the same bricks as the given one, in constant time apart from
+     * copying a few values per row and column: the cells are shared with the given grid copy-on-write.
+     * The given grid is only read if its cells are already shared, e.g. because it was created by this constructor itself,
+     * so such a grid can be copied by several threads at once.
+     *
+     * Brick objects are shared too, which is only correct for bricks without mutable state.
+     * The caller replaces the others with fresh bricks, see {@link #replaceBrick(Brick)}.
+     * Compact bricks get their own objects in each grid, when needed.
+     *
+     * @pre | template != null
+     * @post | getBricks().equals(template.getBricks())
+     */
+    BrickGrid(BrickGrid template)
+    {
+        this.brickWidth = template.brickWidth;
+        this.brickHeight = template.brickHeight;
+        this.grid = template.grid.giveCopy();
+        // Views are not shared: each game creates its own bricks for the compact cells it needs
+        this.views = new ConcurrentHashMap<Long, View>();
+        this.brickCount = template.brickCount;
+        this.rowCounts = template.rowCounts.clone();
+        this.columnCounts = template.columnCounts.clone();
+        // BitSet.clone may trim the original, so copy through the words instead
+        this.occupiedRows = BitSet.valueOf(template.occupiedRows.toLongArray());
+        this.occupiedColumns = BitSet.valueOf(template.occupiedColumns.toLongArray());
+        this.version = template.version;
+        // Like after a restore, the whole grid counts as changed at once
+        this.cellChangeCount = template.cellChangeCount;
+        this.firstAvailableCellChange = cellChangeCount;
     }
     
     /**
@@ -126,7 +334,137 @@ public class BrickGrid
      */
     public Brick getBrickAt(Point gridPosition)
     {
-        return grid.at(gridPosition);
+        return getBrickAt((int) gridPosition.x(), (int) gridPosition.y());
+    }
+
+    /**
+     * Allocation-free variant of {@link #getBrickAt(Point)}, apart from creating the object of a compact brick the first time it is needed.
+     *
+     * @pre | 0 <= column && column < getColumnCount() && 0 <= row && row < getRowCount()
+     * @post | result == getBrickAt(new Point(column, row))
+     */
+    public Brick getBrickAt(int column, int row)
+    {
+        return toBrick(grid.at(column, row), column, row);
+    }
+
+    /**
+     * Returns the brick for the given content of cell (x, y), creating the object of a compact brick the first time it is needed.
+     */
+    private Brick toBrick(Object cell, int x, int y)
+    {
+        if ( !(cell instanceof CompactBrick compactBrick) )
+        {
+            return (Brick) cell;
+        }
+
+        var cellIndex = (long) y * getColumnCount() + x;
+        var view = views.get(cellIndex);
+        var brick = view != null && view.type == compactBrick.type ? view.get() : null;
+
+        if ( brick != null )
+        {
+            return brick;
+        }
+
+        expungeCollectedViews();
+
+        var created = new Brick[1];
+
+        views.compute(cellIndex, (index, current) -> {
+            created[0] = current != null && current.type == compactBrick.type ? current.get() : null;
+
+            if ( created[0] != null )
+            {
+                return current;
+            }
+
+            var gridPosition = new Point(x, y);
+            created[0] = createBrick(compactBrick.type, gridPosition, getBrickRectangle(gridPosition));
+
+            return new View(created[0], index, compactBrick.type, collectedViews);
+        });
+
+        return created[0];
+    }
+
+    private void expungeCollectedViews()
+    {
+        for ( var view = collectedViews.poll(); view != null; view = collectedViews.poll() )
+        {
+            views.remove(((View) view).cellIndex, view);
+        }
+    }
+
+    private static Brick createBrick(int type, Point gridPosition, Rectangle rectangle)
+    {
+        switch ( type )
+        {
+        case CellType.STANDARD:
+            return new StandardBrick(rectangle, gridPosition);
+
+        case CellType.GROW_PADDLE:
+            return new GrowPaddleBrick(rectangle, gridPosition);
+
+        case CellType.SHRINK_PADDLE:
+            return new ShrinkPaddleBrick(rectangle, gridPosition);
+
+        case CellType.WEAKENING:
+            return new WeakeningBrick(rectangle, gridPosition);
+
+        case CellType.STRENGTHENING:
+            return new StrengtheningBrick(rectangle, gridPosition);
+
+        case CellType.SPEED_UP:
+            return new SpeedUpBrick(rectangle, gridPosition);
+
+        case CellType.SLOW_DOWN:
+            return new SlowDownBrick(rectangle, gridPosition);
+
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Returns the {@link CellType} of the given brick if it can be stored as a compact brick, or {@link CellType#INVALID}.
+     */
+    private static int getCompactType(Brick brick)
+    {
+        var brickClass = brick.getClass();
+
+        if ( brickClass == StandardBrick.class )
+        {
+            return CellType.STANDARD;
+        }
+        else if ( brickClass == GrowPaddleBrick.class )
+        {
+            return CellType.GROW_PADDLE;
+        }
+        else if ( brickClass == ShrinkPaddleBrick.class )
+        {
+            return CellType.SHRINK_PADDLE;
+        }
+        else if ( brickClass == WeakeningBrick.class )
+        {
+            return CellType.WEAKENING;
+        }
+        else if ( brickClass == StrengtheningBrick.class )
+        {
+            return CellType.STRENGTHENING;
+        }
+        else if ( brickClass == SpeedUpBrick.class )
+        {
+            return CellType.SPEED_UP;
+        }
+        else if ( brickClass == SlowDownBrick.class )
+        {
+            return CellType.SLOW_DOWN;
+        }
+        else
+        {
+            return CellType.INVALID;
+        }
     }
 
     /**
@@ -162,161 +500,447 @@ public class BrickGrid
 
     /**
      * LEGIT
+     *
+     * Returns the first brick hit by the point of the ball that leads in its direction of motion,
+     * see {@link #raycast(Point, Vector, long, RayVisitor)}.
      */
     public BrickCollision findEarliestCollision(Ball ball)
     {
-        var earliestHorizontalCollision = findEarliestHorizontalCollision(ball);
-        var earliestVerticalCollision = findEarliestVerticalCollision(ball);
+        var earliestCollision = new BrickCollision[1];
 
-        return Collision.getEarliestCollision(earliestHorizontalCollision, earliestVerticalCollision);
+        findEarliestCollision(ball, (column, row, time, kiloNormal) -> {
+            earliestCollision[0] = new BrickCollision(time, kiloNormal, getBrickAt(column, row));
+            return false;
+        });
+
+        return earliestCollision[0];
     }
 
     /**
-     * LEGIT
+     * Reports the cell of the brick that {@link #findEarliestCollision(Ball)} would return to the visitor, if there is one,
+     * without creating an object for the brick. The visitor's result is ignored.
+     *
+     * @pre | ball != null && visitor != null
+     * @inspects | this, ball
      */
-    private BrickCollision findEarliestVerticalCollision(Ball ball)
+    public void findEarliestCollision(Ball ball, CellRayVisitor visitor)
     {
-        if ( ball.getVelocity().y() < 0 )
+        var vx = ball.getVelocityX();
+        var vy = ball.getVelocityY();
+
+        if ( vx == 0 && vy == 0 )
         {
-            return findEarliestUpwardsCollision(ball);
+            return;
         }
-        else if ( ball.getVelocity().y() > 0 )
+
+        var length = Vector.getLength(vx, vy);
+        var px = ball.getCenterX() + vx * ball.getRadius() / length;
+        var py = ball.getCenterY() + vy * ball.getRadius() / length;
+
+        raycast(px, py, vx, vy, Long.MAX_VALUE, (column, row, time, kiloNormal) -> {
+            visitor.visit(column, row, time, kiloNormal);
+            return false;
+        });
+    }
+
+    /**
+     * Writes the time until ball i of the batch hits its first brick to {@code times[i]}, and the index
+     * {@code y * getColumnCount() + x} of that brick's cell to {@code cells[i]},
+     * for every i in [from, to), as {@link #findEarliestCollision(Ball)} would find them for that ball.
+     * If a ball hits no brick, its time is {@link Long#MAX_VALUE} and its cell is -1.
+     * No brick objects are created.
+     *
+     * @pre | balls != null && times != null && cells != null
+     * @pre | 0 <= from && from <= to && to <= balls.size() && to <= times.length && to <= cells.length
+     * @inspects | this, balls
+     * @mutates | times, cells
+     */
+    public void findEarliestCollisionTimes(CollisionBatch balls, int from, int to, long[] times, long[] cells)
+    {
+        var firstHit = new FirstHit();
+
+        for ( var i = from; i < to; ++i )
         {
-            return findEarliestDownwardsCollision(ball);
+            var vx = balls.getVelocityX(i);
+            var vy = balls.getVelocityY(i);
+
+            firstHit.cell = -1;
+            firstHit.time = Long.MAX_VALUE;
+
+            if ( vx != 0 || vy != 0 )
+            {
+                var length = Vector.getLength(vx, vy);
+                var px = balls.getCenterX(i) + vx * balls.getRadius(i) / length;
+                var py = balls.getCenterY(i) + vy * balls.getRadius(i) / length;
+
+                raycast(px, py, vx, vy, Long.MAX_VALUE, firstHit);
+            }
+
+            times[i] = firstHit.time;
+            cells[i] = firstHit.cell;
         }
-        else
+    }
+
+    /**
+     * Remembers the cell of the first brick of a ray, so that the batched search does not allocate per ball.
+     */
+    private class FirstHit implements CellRayVisitor
+    {
+        private long cell;
+
+        private long time;
+
+        @Override
+        public boolean visit(int column, int row, long time, Vector kiloNormal)
         {
-            return null;
+            this.cell = (long) row * getColumnCount() + column;
+            this.time = time;
+            return false;
         }
     }
 
     /**
-     * LEGIT
+     * Receives the bricks found by {@link BrickGrid#raycast(Point, Vector, long, RayVisitor)}.
+     */
+    public interface RayVisitor
+    {
+        /**
+         * Called for each brick the ray enters, in order.
+         *
+         * @param time the number of whole milliseconds until the ray enters the brick.
+         * @param kiloNormal the normal of the side of the brick through which the ray enters it,
+         *   one of {@link Vector#KILO_UP}, {@link Vector#KILO_DOWN}, {@link Vector#KILO_LEFT} and {@link Vector#KILO_RIGHT}.
+         * @return whether to continue with the next brick.
+         */
+        boolean visit(Brick brick, long time, Vector kiloNormal);
+    }
+
+    /**
+     * Like {@link RayVisitor}, but receives the cells of the bricks, so that no objects need to be created for compact bricks.
+     */
+    public interface CellRayVisitor
+    {
+        /**
+         * Called for the cell of each brick the ray enters, in order, see {@link RayVisitor#visit(Brick, long, Vector)}.
+         *
+         * @return whether to continue with the next brick.
+         */
+        boolean visit(int column, int row, long time, Vector kiloNormal);
+    }
+
+    /**
+     * Follows the ray from {@code from} with the given velocity, in units per millisecond,
+     * and reports every brick it enters within {@code maxTime} milliseconds, in order, until the visitor returns false.
+     *
+     * The grid is walked in a single pass, in the style of Amanatides and Woo: the next column boundary and
+     * the next row boundary the ray crosses are tracked separately, and the earlier of both is crossed first.
+     * Columns and rows without bricks are skipped. The position at which a boundary is crossed is computed
+     * with the crossing time rounded to thousandths of a millisecond, like the collision searches always did,
+     * and crossings are ordered by their time in whole milliseconds, column boundaries first.
+     * The ray does not report the cell that contains {@code from}, since a ball cannot be inside a brick.
+     *
+     * @pre | from != null && velocity != null && visitor != null
+     * @pre | maxTime >= 0
+     * @inspects | this
+     */
+    public void raycast(Point from, Vector velocity, long maxTime, RayVisitor visitor)
+    {
+        // Only a brick that is reported needs an object
+        raycast(from.x(), from.y(), velocity.x(), velocity.y(), maxTime,
+                (column, row, time, kiloNormal) -> visitor.visit(getBrickAt(column, row), time, kiloNormal));
+    }
+
+    /**
+     * Allocation-free variant of {@link #raycast(Point, Vector, long, RayVisitor)}, which reports the cells of the bricks.
      */
-    private BrickCollision findEarliestHorizontalCollision(Ball ball)
+    private void raycast(long px, long py, long vx, long vy, long maxTime, CellRayVisitor visitor)
     {
-        if ( ball.getVelocity().x() < 0 )
+        var x = NO_BOUNDARY;
+        var y = NO_BOUNDARY;
+
+        if ( vx < 0 )
         {
-            return findEarliestLeftwardsCollision(ball);
+            x = findColumnBoundaryLeftOf(px / brickWidth * brickWidth);
         }
-        else if ( ball.getVelocity().x() > 0 )
+        else if ( vx > 0 )
         {
-            return findEarliestRightwardsCollision(ball);
+            x = findColumnBoundaryRightOf((px + brickWidth - 1) / brickWidth * brickWidth);
         }
-        else
+
+        if ( vy < 0 )
         {
-            return null;
+            y = findRowBoundaryAbove(py / brickHeight * brickHeight);
+        }
+        else if ( vy > 0 )
+        {
+            y = findRowBoundaryBelow((py + brickHeight - 1) / brickHeight * brickHeight);
         }
-    }
 
-    /**
-     * LEGIT
-     */
-    private BrickCollision findEarliestUpwardsCollision(Ball ball)
-    {
-        var v = ball.getVelocity();
-        var p = ball.getGeometry().getPointInDirection(v);
-        var y = p.y() / this.brickHeight * this.brickHeight;
+        var previousColumn = -1L;
+        var previousRow = -1L;
 
-        while ( y > 0 )
+        while ( x != NO_BOUNDARY || y != NO_BOUNDARY )
         {
-            var preciseT = (y - p.y()) * 1000 / v.y();
-            var x = p.x() + v.x() * preciseT / 1000;
-            var brickGridPosition = new Point(Math.floorDiv(x, brickWidth), Math.floorDiv(y, brickHeight) - 1);
-            var brick = getBrickAtGridPositionOrNull(brickGridPosition);
+            // Times in thousandths of a millisecond
+            var xTime = x == NO_BOUNDARY ? Long.MAX_VALUE : (x - px) * 1000 / vx;
+            var yTime = y == NO_BOUNDARY ? Long.MAX_VALUE : (y - py) * 1000 / vy;
+            long time;
+            long column;
+            long row;
+            Vector kiloNormal;
 
-            if ( brick != null )
+            if ( xTime / 1000 <= yTime / 1000 )
             {
-                return new BrickCollision(preciseT / 1000, Vector.KILO_DOWN, brick);
+                time = xTime / 1000;
+
+                if ( time > maxTime )
+                {
+                    return;
+                }
+
+                row = Math.floorDiv(py + vy * xTime / 1000, brickHeight);
+
+                if ( vx < 0 )
+                {
+                    column = x / brickWidth - 1;
+                    kiloNormal = Vector.KILO_RIGHT;
+                    x = findColumnBoundaryLeftOf(x - brickWidth);
+                }
+                else
+                {
+                    column = x / brickWidth;
+                    kiloNormal = Vector.KILO_LEFT;
+                    x = findColumnBoundaryRightOf(x + brickWidth);
+                }
             }
+            else
+            {
+                time = yTime / 1000;
 
-            y -= this.brickHeight;
-        }
+                if ( time > maxTime )
+                {
+                    return;
+                }
 
-        return null;
+                column = Math.floorDiv(px + vx * yTime / 1000, brickWidth);
+
+                if ( vy < 0 )
+                {
+                    row = y / brickHeight - 1;
+                    kiloNormal = Vector.KILO_DOWN;
+                    y = findRowBoundaryAbove(y - brickHeight);
+                }
+                else
+                {
+                    row = y / brickHeight;
+                    kiloNormal = Vector.KILO_UP;
+                    y = findRowBoundaryBelow(y + brickHeight);
+                }
+            }
+
+            var cell = cellAtOrNull(column, row);
+
+            if ( cell == null && 0 <= column && column < getColumnCount() && 0 <= row && row < getRowCount()
+                    && grid.isTileEmpty((int) column, (int) row) )
+            {
+                // The ray entered a tile without bricks: the crossings until it leaves the tile find nothing either
+                var tileLeft = column / Grid.TILE_SIZE * Grid.TILE_SIZE;
+                var tileTop = row / Grid.TILE_SIZE * Grid.TILE_SIZE;
+
+                x = skipColumnBoundariesInTile(x, px, py, vx, vy, tileLeft, tileTop);
+                y = skipRowBoundariesInTile(y, px, py, vx, vy, tileLeft, tileTop);
+            }
+
+            // A ray through a corner may enter the same cell through both boundaries
+            if ( cell != null && (column != previousColumn || row != previousRow) )
+            {
+                if ( !visitor.visit((int) column, (int) row, time, kiloNormal) )
+                {
+                    return;
+                }
+
+                previousColumn = column;
+                previousRow = row;
+            }
+        }
     }
 
     /**
-     * LEGIT
+     * Returns the first column boundary from {@code x} on, in the direction of the ray, that the ray does not cross
+     * inside the tile with the given top left cell, moved to the nearest column with bricks like the walk does.
+     * The crossings of successive column boundaries enter successive columns, at rows that change monotonically,
+     * so the crossings inside the tile are a prefix of them, which is found by bisection.
      */
-    private BrickCollision findEarliestDownwardsCollision(Ball ball)
+    private long skipColumnBoundariesInTile(long x, long px, long py, long vx, long vy, long tileLeft, long tileTop)
     {
-        var v = ball.getVelocity();
-        var p = ball.getGeometry().getPointInDirection(v);
-        var y = (p.y() + this.brickHeight - 1) / this.brickHeight * this.brickHeight;
-        var yMax = this.getHeight();
+        if ( x == NO_BOUNDARY )
+        {
+            return x;
+        }
+
+        var step = vx < 0 ? -brickWidth : brickWidth;
+        // Number of boundaries after x that still enter a column of the tile
+        var lastStep = vx < 0 ? (x - (tileLeft + 1) * brickWidth) / brickWidth : ((tileLeft + Grid.TILE_SIZE - 1) * brickWidth - x) / brickWidth;
 
-        while ( y < yMax )
+        if ( lastStep < 0 || !isColumnCrossingInTileRows(x, px, py, vx, vy, tileTop) )
         {
-            var preciseT = (y - p.y()) * 1000 / v.y();
-            var x = p.x() + v.x() * preciseT / 1000;
-            var brickGridPosition = new Point(Math.floorDiv(x, brickWidth), Math.floorDiv(y, brickHeight));
-            var brick = getBrickAtGridPositionOrNull(brickGridPosition);
+            return x;
+        }
+
+        var low = 0L;
+        var high = lastStep;
+
+        while ( low < high )
+        {
+            var middle = low + (high - low + 1) / 2;
 
-            if ( brick != null )
+            if ( isColumnCrossingInTileRows(x + middle * step, px, py, vx, vy, tileTop) )
             {
-                return new BrickCollision(preciseT / 1000, Vector.KILO_UP, brick);
+                low = middle;
+            }
+            else
+            {
+                high = middle - 1;
             }
-
-            y += this.brickHeight;
         }
 
-        return null;
+        var next = x + (low + 1) * step;
+
+        return vx < 0 ? findColumnBoundaryLeftOf(next) : findColumnBoundaryRightOf(next);
+    }
+
+    private boolean isColumnCrossingInTileRows(long x, long px, long py, long vx, long vy, long tileTop)
+    {
+        var row = Math.floorDiv(py + vy * ((x - px) * 1000 / vx) / 1000, brickHeight);
+
+        return tileTop <= row && row < tileTop + Grid.TILE_SIZE;
     }
 
     /**
-     * LEGIT
+     * Row boundary counterpart of {@link #skipColumnBoundariesInTile(long, long, long, long, long, long, long)}.
      */
-    private BrickCollision findEarliestLeftwardsCollision(Ball ball)
+    private long skipRowBoundariesInTile(long y, long px, long py, long vx, long vy, long tileLeft, long tileTop)
     {
-        var v = ball.getVelocity();
-        var p = ball.getGeometry().getPointInDirection(v);
-        var x = p.x() / this.brickWidth * this.brickWidth;
+        if ( y == NO_BOUNDARY )
+        {
+            return y;
+        }
+
+        var step = vy < 0 ? -brickHeight : brickHeight;
+        var lastStep = vy < 0 ? (y - (tileTop + 1) * brickHeight) / brickHeight : ((tileTop + Grid.TILE_SIZE - 1) * brickHeight - y) / brickHeight;
 
-        while ( x > 0 )
+        if ( lastStep < 0 || !isRowCrossingInTileColumns(y, px, py, vx, vy, tileLeft) )
         {
-            var preciseT = (x - p.x()) * 1000 / v.x();
-            var y = p.y() + v.y() * preciseT / 1000;
-            var brickGridPosition = new Point(Math.floorDiv(x, brickWidth) - 1, Math.floorDiv(y, brickHeight)); 
-            var brick = getBrickAtGridPositionOrNull(brickGridPosition);
+            return y;
+        }
+
+        var low = 0L;
+        var high = lastStep;
+
+        while ( low < high )
+        {
+            var middle = low + (high - low + 1) / 2;
 
-            if ( brick != null )
+            if ( isRowCrossingInTileColumns(y + middle * step, px, py, vx, vy, tileLeft) )
             {
-                return new BrickCollision(preciseT / 1000, Vector.KILO_RIGHT, brick);
+                low = middle;
             }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+
+        var next = y + (low + 1) * step;
 
-            x -= this.brickWidth;
+        return vy < 0 ? findRowBoundaryAbove(next) : findRowBoundaryBelow(next);
+    }
+
+    private boolean isRowCrossingInTileColumns(long y, long px, long py, long vx, long vy, long tileLeft)
+    {
+        var column = Math.floorDiv(px + vx * ((y - py) * 1000 / vy) / 1000, brickWidth);
+
+        return tileLeft <= column && column < tileLeft + Grid.TILE_SIZE;
+    }
+
+    /**
+     * Returns the right side of the nearest column with bricks whose right side is at or left of {@code x},
+     * or {@link #NO_BOUNDARY}.
+     */
+    private long findColumnBoundaryLeftOf(long x)
+    {
+        if ( x <= 0 )
+        {
+            return NO_BOUNDARY;
         }
 
-        return null;
+        var column = occupiedColumns.previousSetBit((int) Math.min(Math.floorDiv(x, brickWidth) - 1, Integer.MAX_VALUE - 1));
+
+        return column < 0 ? NO_BOUNDARY : (long) (column + 1) * brickWidth;
     }
 
     /**
-     * LEGIT
+     * Returns the left side of the nearest column with bricks whose left side is at or right of {@code x},
+     * or {@link #NO_BOUNDARY}.
      */
-    private BrickCollision findEarliestRightwardsCollision(Ball ball)
+    private long findColumnBoundaryRightOf(long x)
     {
-        var v = ball.getVelocity();
-        var p = ball.getGeometry().getPointInDirection(v);
-        var x = (p.x() + this.brickWidth - 1) / this.brickWidth * this.brickWidth;
-        var xMax = this.getWidth();
+        if ( x >= getWidth() )
+        {
+            return NO_BOUNDARY;
+        }
+
+        var column = occupiedColumns.nextSetBit((int) Math.max(Math.floorDiv(x, brickWidth), 0));
 
-        while ( x < xMax )
+        return column < 0 ? NO_BOUNDARY : (long) column * brickWidth;
+    }
+
+    /**
+     * Returns the bottom side of the nearest row with bricks whose bottom side is at or above {@code y},
+     * or {@link #NO_BOUNDARY}.
+     */
+    private long findRowBoundaryAbove(long y)
+    {
+        if ( y <= 0 )
         {
-            var preciseT = (x - p.x()) * 1000 / v.x();
-            var y = p.y() + v.y() * preciseT / 1000;
-            var brickGridPosition = new Point(Math.floorDiv(x, brickWidth), Math.floorDiv(y, brickHeight));
-            var brick = getBrickAtGridPositionOrNull(brickGridPosition);
+            return NO_BOUNDARY;
+        }
 
-            if ( brick != null )
-            {
-                return new BrickCollision(preciseT / 1000, Vector.KILO_LEFT, brick);
-            }
+        var row = occupiedRows.previousSetBit((int) Math.min(Math.floorDiv(y, brickHeight) - 1, Integer.MAX_VALUE - 1));
 
-            x += this.brickWidth;
+        return row < 0 ? NO_BOUNDARY : (long) (row + 1) * brickHeight;
+    }
+
+    /**
+     * Returns the top side of the nearest row with bricks whose top side is at or below {@code y},
+     * or {@link #NO_BOUNDARY}.
+     */
+    private long findRowBoundaryBelow(long y)
+    {
+        if ( y >= getHeight() )
+        {
+            return NO_BOUNDARY;
         }
 
-        return null;
+        var row = occupiedRows.nextSetBit((int) Math.max(Math.floorDiv(y, brickHeight), 0));
+
+        return row < 0 ? NO_BOUNDARY : (long) row * brickHeight;
+    }
+
+    /**
+     * Allocation-free variant of {@link #getBrickAtGridPositionOrNull(Point)} for the collision searches,
+     * which returns the content of the cell instead of a brick.
+     */
+    private Object cellAtOrNull(long column, long row)
+    {
+        if ( 0 <= column && column < getColumnCount() && 0 <= row && row < getRowCount() )
+        {
+            return grid.at((int) column, (int) row);
+        }
+        else
+        {
+            return null;
+        }
     }
 
     /**
@@ -327,9 +951,183 @@ public class BrickGrid
      */
     public boolean containsBrickAt(Point gridPosition)
     {
-        return this.getBrickAtGridPositionOrNull(gridPosition) != null;
+        return isValidGridPosition(gridPosition) && containsBrickAt((int) gridPosition.x(), (int) gridPosition.y());
+    }
+
+    /**
+     * Variant of {@link #containsBrickAt(Point)} that neither allocates nor creates the object of a compact brick.
+     *
+     * @pre | 0 <= column && column < getColumnCount() && 0 <= row && row < getRowCount()
+     * @post | result == containsBrickAt(new Point(column, row))
+     */
+    public boolean containsBrickAt(int column, int row)
+    {
+        return grid.at(column, row) != null;
+    }
+
+    /**
+     * Receives the bricks of {@link BrickGrid#forEachBrick(BrickVisitor)}.
+     */
+    public interface BrickVisitor
+    {
+        void visit(int column, int row, Brick brick);
+    }
+
+    /**
+     * Calls the visitor for every brick, ordered row by row like {@link #getBricks()}, without creating objects for compact bricks:
+     * for a compact brick, the visitor receives a brick of the same class that is shared by all compact bricks of that class,
+     * see {@link #getBrickOrPrototypeAt(int, int)}.
+     *
+     * @pre | visitor != null
+     * @inspects | this
+     */
+    public void forEachBrick(BrickVisitor visitor)
+    {
+        for ( int y = occupiedRows.nextSetBit(0); y >= 0; y = occupiedRows.nextSetBit(y + 1) )
+        {
+            grid.forEachOccupiedCellInRow(y, (x, row, cell) -> visitor.visit(x, row, toBrickOrPrototype(cell)));
+        }
+    }
+
+    /**
+     * Returns the brick at the given position, or null, like {@link #getBrickAt(int, int)}, but without creating the object of a compact brick:
+     * for a compact brick, the result is a brick of the same class, with the same color and appearance, that is shared
+     * by all compact bricks of that class. Its grid position and geometry are not those of the cell, so a client that needs them,
+     * e.g. to paint it, uses the cell instead, see {@link #paintBrickAt(Canvas, int, int)}.
+     *
+     * @pre | 0 <= column && column < getColumnCount() && 0 <= row && row < getRowCount()
+     * @post | result == null ? getBrickAt(column, row) == null : result.getClass() == getBrickAt(column, row).getClass()
+     */
+    public Brick getBrickOrPrototypeAt(int column, int row)
+    {
+        return toBrickOrPrototype(grid.at(column, row));
+    }
+
+    private static Brick toBrickOrPrototype(Object cell)
+    {
+        return cell instanceof CompactBrick compactBrick ? PROTOTYPES[compactBrick.type] : (Brick) cell;
+    }
+
+    /**
+     * Paints the brick at the given position, if there is one, as {@link Brick#paint(Canvas)} would,
+     * without creating the object of a compact brick.
+     *
+     * @pre | canvas != null
+     * @pre | 0 <= column && column < getColumnCount() && 0 <= row && row < getRowCount()
+     * @mutates | canvas
+     */
+    public void paintBrickAt(Canvas canvas, int column, int row)
+    {
+        var cell = grid.at(column, row);
+
+        if ( cell instanceof CompactBrick compactBrick )
+        {
+            PROTOTYPES[compactBrick.type].paint(canvas, getBrickRectangle(new Point(column, row)));
+        }
+        else if ( cell != null )
+        {
+            ((Brick) cell).paint(canvas);
+        }
     }
     
+    /**
+     * Adds a brick without mutable state as its type code alone, e.g. {@link CellType#STANDARD}.
+     * Its object is only created when it is asked for, e.g. by {@link #getBrickAt(Point)} or when a ray enters it,
+     * and is then the same for as long as the brick is in the grid.
+     * Until then the brick takes a single reference in its tile, instead of a brick, a {@link Point} and a {@link Rectangle}.
+     *
+     * @pre | 0 <= x && x < getColumnCount() && 0 <= y && y < getRowCount()
+     * @pre | !containsBrickAt(new Point(x, y))
+     * @throws IllegalArgumentException | !CellType.isCompact(type)
+     * @mutates_properties | getBricks()
+     */
+    void addCompactBrick(int x, int y, int type)
+    {
+        if ( !CellType.isCompact(type) )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        place(x, y, COMPACT_BRICKS[type]);
+    }
+
+    /**
+     * Returns what a cell holding a compact brick of the given type stores, for use by a loader passed to {@link #addLazyTile(int, int, Grid.TileLoader)}.
+     *
+     * @throws IllegalArgumentException | !CellType.isCompact(type)
+     */
+    static Object getCompactCell(int type)
+    {
+        if ( !CellType.isCompact(type) )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        return COMPACT_BRICKS[type];
+    }
+
+    /**
+     * Lets the given loader supply the bricks of the tile of {@link Grid#TILE_SIZE} by {@link Grid#TILE_SIZE} cells that contains cell (x, y),
+     * the first time one of its cells is accessed, instead of adding them now.
+     * The loader stores {@link #getCompactCell(int)} for a compact brick and the brick itself for any other brick.
+     * Its bricks only count once they are passed to {@link #addLazyBrickCounts(int[], int[])}.
+     *
+     * @pre | 0 <= x && x < getColumnCount() && 0 <= y && y < getRowCount()
+     * @pre | the tile holds no bricks
+     * @throws IllegalArgumentException | loader == null
+     */
+    void addLazyTile(int x, int y, Grid.TileLoader<Object> loader)
+    {
+        grid.setTileLoader(x, y, (left, top, cells) -> loader.loadTile(left, top, (cellX, cellY, cell) -> {
+            if ( cell instanceof Brick brick )
+            {
+                brick.setModificationListener(modificationListener);
+            }
+
+            cells.visit(cellX, cellY, cell);
+        }));
+    }
+
+    /**
+     * Counts the bricks that the loaders passed to {@link #addLazyTile(int, int, Grid.TileLoader)} will supply:
+     * {@code rowCounts[y]} in row y and {@code columnCounts[x]} in column x. Like a restore, this counts as a change of every cell.
+     *
+     * @pre | rowCounts != null && rowCounts.length == getRowCount()
+     * @pre | columnCounts != null && columnCounts.length == getColumnCount()
+     * @pre | Arrays.stream(rowCounts).sum() == Arrays.stream(columnCounts).sum()
+     */
+    void addLazyBrickCounts(int[] rowCounts, int[] columnCounts)
+    {
+        for ( var y = 0; y != rowCounts.length; ++y )
+        {
+            brickCount += rowCounts[y];
+            this.rowCounts[y] += rowCounts[y];
+
+            if ( this.rowCounts[y] != 0 )
+            {
+                occupiedRows.set(y);
+            }
+
+            if ( rowCounts[y] != 0 )
+            {
+                changedRows.set(y);
+            }
+        }
+
+        for ( var x = 0; x != columnCounts.length; ++x )
+        {
+            this.columnCounts[x] += columnCounts[x];
+
+            if ( this.columnCounts[x] != 0 )
+            {
+                occupiedColumns.set(x);
+            }
+        }
+
+        version++;
+        firstAvailableCellChange = cellChangeCount;
+    }
+
     /**
      * @creates | result
      * @pre | gridPosition != null
@@ -347,7 +1145,7 @@ public class BrickGrid
     {
         var rectangle = getBrickRectangle(gridPosition);
         var brick = new StandardBrick(rectangle, gridPosition);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -367,7 +1165,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new SturdyBrick(rectangle, gridPosition, lives);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
     
@@ -386,7 +1184,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new GrowPaddleBrick(rectangle, gridPosition);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -405,7 +1203,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new ShrinkPaddleBrick(rectangle, gridPosition);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -424,7 +1222,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new WeakeningBrick(rectangle, gridPosition);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -443,7 +1241,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new StrengtheningBrick(rectangle, gridPosition);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -462,7 +1260,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new SpeedUpBrick(rectangle, gridPosition);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -481,7 +1279,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new SlowDownBrick(rectangle, gridPosition);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -501,7 +1299,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new MasterBrick(rectangle, gridPosition, lockedBricks);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -520,7 +1318,7 @@ public class BrickGrid
     {
     	var rectangle = getBrickRectangle(gridPosition);
         var brick = new LockedBrick(rectangle, gridPosition);
-        this.grid.setAt(gridPosition, brick);
+        place(gridPosition, brick);
         return brick;
     }
 
@@ -545,11 +1343,51 @@ public class BrickGrid
      */
     public boolean isEmpty()
     {
-        return !grid.getPositionStream().anyMatch(this::containsBrickAt);
+        return brickCount == 0;
+    }
+
+    /**
+     * Returns the number of bricks in the grid.
+     * @post | result == getBricks().size()
+     */
+    public int getBrickCount()
+    {
+        return brickCount;
+    }
+
+    /**
+     * Returns the modification version of this grid.
+     * The version changes every time a brick is added or removed,
+     * so results computed from the bricks remain valid as long as the version stays the same.
+     */
+    public long getVersion()
+    {
+        return version;
     }
 
     /**
-     * Returns all bricks from the grid in a list.
+     * Checks whether the given row contains no bricks.
+     * @pre | 0 <= row && row < getRowCount()
+     * @post | result == getBricks().stream().noneMatch(b -> b.getGridPosition().y() == row)
+     */
+    public boolean isRowEmpty(int row)
+    {
+        return !occupiedRows.get(row);
+    }
+
+    /**
+     * Checks whether the given column contains no bricks.
+     * @pre | 0 <= column && column < getColumnCount()
+     * @post | result == getBricks().stream().noneMatch(b -> b.getGridPosition().x() == column)
+     */
+    public boolean isColumnEmpty(int column)
+    {
+        return !occupiedColumns.get(column);
+    }
+
+    /**
+     * Returns all bricks from the grid in a list, ordered row by row.
+     * Rows without bricks are skipped.
      * @post | result != null
      * @post | result.stream().allMatch(brick -> brick != null 
      * | && getBrickAt(brick.getGridPosition()) == brick)
@@ -557,10 +1395,113 @@ public class BrickGrid
      */
     public ArrayList<Brick> getBricks()
     {
-        return new ArrayList<Brick>(enumerateGridPositions()
-        		.map(pos -> grid.at(pos))
-        		.filter(brick -> brick != null)
-        		.toList());
+        var bricks = new ArrayList<Brick>(brickCount);
+
+        for ( int y = occupiedRows.nextSetBit(0); y >= 0; y = occupiedRows.nextSetBit(y + 1) )
+        {
+            grid.forEachOccupiedCellInRow(y, (x, row, cell) -> bricks.add(toBrick(cell, x, row)));
+        }
+
+        return bricks;
+    }
+
+    /**
+     * Puts the given brick in the place of the brick at its grid position, which has the same geometry object,
+     * without counting this as a change of the grid: the new brick takes over the role of the old one.
+     * Only meant for grids created by {@link #BrickGrid(BrickGrid)}.
+     *
+     * @pre | brick != null
+     * @pre | getBrickAt(brick.getGridPosition()) != null
+     * @pre | getBrickAt(brick.getGridPosition()).getGeometry() == brick.getGeometry()
+     * @mutates | this
+     */
+    void replaceBrick(Brick brick)
+    {
+        brick.setModificationListener(modificationListener);
+        grid.setAt(brick.getGridPosition(), brick);
+    }
+
+    /**
+     * Returns the bricks that are stored as objects, ordered row by row: all bricks except the compact ones,
+     * for which no objects are created.
+     * @post | result != null
+     */
+    ArrayList<Brick> getStoredBricks()
+    {
+        var bricks = new ArrayList<Brick>();
+
+        for ( int y = occupiedRows.nextSetBit(0); y >= 0; y = occupiedRows.nextSetBit(y + 1) )
+        {
+            grid.forEachOccupiedCellInRow(y, (x, row, cell) -> {
+                if ( cell instanceof Brick brick )
+                {
+                    bricks.add(brick);
+                }
+            });
+        }
+
+        return bricks;
+    }
+
+    /**
+     * Stores the given brick (or null) at the given position,
+     * keeping the brick count and the occupancy of rows and columns up to date.
+     */
+    private void place(Point gridPosition, Object brick)
+    {
+        place((int) gridPosition.x(), (int) gridPosition.y(), brick);
+    }
+
+    private void place(int x, int y, Object brick)
+    {
+        var previous = grid.at(x, y);
+        var cellIndex = (long) y * getColumnCount() + x;
+
+        grid.setAt(x, y, brick);
+
+        if ( brick instanceof Brick placed )
+        {
+            placed.setModificationListener(modificationListener);
+        }
+
+        if ( brick instanceof CompactBrick )
+        {
+            // A new compact brick gets a new object; the view of a removed one is kept for when a snapshot restores it
+            views.remove(cellIndex);
+        }
+
+        version++;
+        changedRows.set(y);
+        recordCellChange(cellIndex);
+
+        if ( previous == null && brick != null )
+        {
+            brickCount++;
+
+            if ( rowCounts[y]++ == 0 )
+            {
+                occupiedRows.set(y);
+            }
+
+            if ( columnCounts[x]++ == 0 )
+            {
+                occupiedColumns.set(x);
+            }
+        }
+        else if ( previous != null && brick == null )
+        {
+            brickCount--;
+
+            if ( --rowCounts[y] == 0 )
+            {
+                occupiedRows.clear(y);
+            }
+
+            if ( --columnCounts[x] == 0 )
+            {
+                occupiedColumns.clear(x);
+            }
+        }
     }
 
     /**
@@ -584,7 +1525,157 @@ public class BrickGrid
      */
     public void removeBrickAt(Point gridPosition)
     {
-    	grid.setAt(gridPosition, null);
+    	place(gridPosition, null);
+    }
+
+    /**
+     * Records the current bricks and their state.
+     *
+     * The cells are shared with this grid copy-on-write, and rows in which no brick has been added, removed or modified
+     * since the previous snapshot share that snapshot's brick mementos. If no brick has been added or removed,
+     * the snapshot also shares the previous snapshot's counts. Apart from copying a reference per row,
+     * the cost of a snapshot is therefore proportional to what has changed since the previous one.
+     */
+    BrickGridSnapshot createSnapshot()
+    {
+        BrickMemento[][] rowMementos;
+
+        if ( lastSnapshot == null )
+        {
+            rowMementos = new BrickMemento[getRowCount()][];
+
+            for ( int y = 0; y != rowMementos.length; ++y )
+            {
+                rowMementos[y] = createRowMementos(y);
+            }
+        }
+        else
+        {
+            rowMementos = lastSnapshot.rowMementos.clone();
+            modifiedRows.or(changedRows);
+
+            for ( int y = modifiedRows.nextSetBit(0); y >= 0; y = modifiedRows.nextSetBit(y + 1) )
+            {
+                rowMementos[y] = createRowMementos(y);
+            }
+        }
+
+        BrickGridSnapshot snapshot;
+
+        if ( lastSnapshot != null && changedRows.isEmpty() )
+        {
+            // Snapshots never modify their counts, so they can be shared
+            snapshot = new BrickGridSnapshot(grid.giveCopy(), brickCount, lastSnapshot.rowCounts, lastSnapshot.columnCounts,
+                    lastSnapshot.occupiedRows, lastSnapshot.occupiedColumns, rowMementos);
+        }
+        else
+        {
+            snapshot = new BrickGridSnapshot(grid.giveCopy(), brickCount, rowCounts.clone(), columnCounts.clone(),
+                    (BitSet) occupiedRows.clone(), (BitSet) occupiedColumns.clone(), rowMementos);
+        }
+
+        lastSnapshot = snapshot;
+        changedRows.clear();
+        modifiedRows.clear();
+
+        return snapshot;
+    }
+
+    private BrickMemento[] createRowMementos(int row)
+    {
+        var mementos = new ArrayList<BrickMemento>();
+
+        grid.forEachOccupiedCellInRow(row, (x, y, cell) -> {
+            // Compact bricks have no mutable state
+            var memento = cell instanceof Brick brick ? brick.createMemento() : null;
+
+            if ( memento != null )
+            {
+                mementos.add(memento);
+            }
+        });
+
+        return mementos.toArray(new BrickMemento[mementos.size()]);
+    }
+
+    /**
+     * Puts the bricks and their state back the way they were when the given snapshot was created.
+     * The snapshot itself is left unchanged, so it can be restored again later.
+     *
+     * The snapshot must have been created by this grid.
+     *
+     * @pre | snapshot != null
+     * @post | getVersion() > old(getVersion())
+     */
+    void restore(BrickGridSnapshot snapshot)
+    {
+        grid = snapshot.grid.giveCopy();
+        brickCount = snapshot.brickCount;
+        System.arraycopy(snapshot.rowCounts, 0, rowCounts, 0, rowCounts.length);
+        System.arraycopy(snapshot.columnCounts, 0, columnCounts, 0, columnCounts.length);
+        occupiedRows.clear();
+        occupiedRows.or(snapshot.occupiedRows);
+        occupiedColumns.clear();
+        occupiedColumns.or(snapshot.occupiedColumns);
+
+        for ( var mementos : snapshot.rowMementos )
+        {
+            for ( var memento : mementos )
+            {
+                memento.restore();
+            }
+        }
+
+        version++;
+        lastSnapshot = snapshot;
+        changedRows.clear();
+        modifiedRows.clear();
+        firstAvailableCellChange = cellChangeCount;
+    }
+
+    private void recordCellChange(long cellIndex)
+    {
+        cellChangeJournal[(int) (cellChangeCount % CELL_CHANGE_JOURNAL_SIZE)] = cellIndex;
+        cellChangeCount++;
+
+        if ( cellChangeCount - firstAvailableCellChange > CELL_CHANGE_JOURNAL_SIZE )
+        {
+            firstAvailableCellChange = cellChangeCount - CELL_CHANGE_JOURNAL_SIZE;
+        }
+    }
+
+    /**
+     * Returns the number of times a brick has been added to or removed from a cell of this grid.
+     * Together with {@link #getChangedCellIndex(long)}, this lets a client that caches something per cell,
+     * e.g. a rendering of the bricks, update only the cells that changed since it last looked.
+     * @post | result >= 0
+     */
+    public long getCellChangeCount()
+    {
+        return cellChangeCount;
+    }
+
+    /**
+     * Returns whether the cells changed by all changes from the given one on can still be retrieved.
+     * If not, a client must assume that every cell has changed.
+     * Changes are forgotten when more than {@link #CELL_CHANGE_JOURNAL_SIZE} changes happen after them,
+     * and when the grid is restored from a snapshot.
+     * @pre | 0 <= change && change <= getCellChangeCount()
+     */
+    public boolean areCellChangesAvailableSince(long change)
+    {
+        return change >= firstAvailableCellChange;
+    }
+
+    /**
+     * Returns the index {@code y * getColumnCount() + x} of the cell changed by the given change.
+     * @pre | change < getCellChangeCount()
+     * @pre | areCellChangesAvailableSince(change)
+     * @post | 0 <= result && result < (long) getColumnCount() * getRowCount()
+     */
+    public long getChangedCellIndex(long change)
+    {
+        return cellChangeJournal[(int) (change % CELL_CHANGE_JOURNAL_SIZE)];
     }
 
     /**
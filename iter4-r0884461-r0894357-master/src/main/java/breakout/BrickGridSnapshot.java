@@ -0,0 +1,49 @@
+package breakout;
+
+import java.util.BitSet;
+
+import breakout.bricks.BrickMemento;
+import breakout.util.Grid;
+
+/**
+ * State of a {@link BrickGrid} at the moment {@link BrickGrid#createSnapshot()} was called.
+ *
+ * The cells are shared copy-on-write with the grid, and the mementos of a row are shared
+ * with the previous snapshot if nothing in that row has changed in between.
+ *
+ * @immutable
+ */
+class BrickGridSnapshot
+{
+    /**
+     * Never modified: restoring gives the grid a copy of it.
+     */
+    final Grid<Object> grid;
+
+    final int brickCount;
+
+    final int[] rowCounts;
+
+    final int[] columnCounts;
+
+    final BitSet occupiedRows;
+
+    final BitSet occupiedColumns;
+
+    /**
+     * Mementos of the bricks with mutable state, per row.
+     */
+    final BrickMemento[][] rowMementos;
+
+    BrickGridSnapshot(Grid<Object> grid, int brickCount, int[] rowCounts, int[] columnCounts, BitSet occupiedRows, BitSet occupiedColumns,
+            BrickMemento[][] rowMementos)
+    {
+        this.grid = grid;
+        this.brickCount = brickCount;
+        this.rowCounts = rowCounts;
+        this.columnCounts = columnCounts;
+        this.occupiedRows = occupiedRows;
+        this.occupiedColumns = occupiedColumns;
+        this.rowMementos = rowMementos;
+    }
+}
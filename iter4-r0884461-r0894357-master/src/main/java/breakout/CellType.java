@@ -0,0 +1,128 @@
+package breakout;
+
+/**
+ * The cell types of the text form of a level, as read by {@link GameMapParser}, {@link MapFileParser} and {@link CompiledMap}.
+ * The codes are also those of the cells in a compiled level, and the types without mutable state
+ * are those stored by {@link BrickGrid#addCompactBrick(int, int, int)}.
+ *
+ * <ul>
+ * <li>{@code ' '}: empty</li>
+ * <li>{@code #}: standard brick</li>
+ * <li>{@code S}: sturdy brick with {@link #STURDY_LIVES} lives</li>
+ * <li>{@code +}/{@code -}: grow/shrink paddle brick</li>
+ * <li>{@code W}/{@code F}: weakening/strengthening brick</li>
+ * <li>{@code >}/{@code <}: speed up/slow down brick</li>
+ * <li>{@code M}/{@code m}: master brick of lock group 0/1</li>
+ * <li>{@code L}/{@code l}: locked brick of lock group 0/1</li>
+ * </ul>
+ */
+final class CellType
+{
+    /**
+     * Returned by {@link #of(char)} for a character that does not describe a cell.
+     */
+    static final int INVALID = -1;
+
+    static final int EMPTY = 0;
+
+    static final int STANDARD = 1;
+
+    static final int STURDY = 2;
+
+    static final int GROW_PADDLE = 3;
+
+    static final int SHRINK_PADDLE = 4;
+
+    static final int WEAKENING = 5;
+
+    static final int STRENGTHENING = 6;
+
+    static final int SPEED_UP = 7;
+
+    static final int SLOW_DOWN = 8;
+
+    static final int MASTER = 9;
+
+    static final int LOCKED = 10;
+
+    /**
+     * Lives of a sturdy brick in the text form.
+     */
+    static final int STURDY_LIVES = 3;
+
+    /**
+     * Number of lock groups: {@code M}/{@code L} and {@code m}/{@code l}.
+     */
+    static final int LOCK_GROUP_COUNT = 2;
+
+    private CellType()
+    {
+        // NOP
+    }
+
+    /**
+     * Returns the type of the cell described by the given character, or {@link #INVALID}.
+     */
+    static int of(char character)
+    {
+        switch ( character )
+        {
+        case ' ':
+            return EMPTY;
+
+        case '#':
+            return STANDARD;
+
+        case 'S':
+            return STURDY;
+
+        case '+':
+            return GROW_PADDLE;
+
+        case '-':
+            return SHRINK_PADDLE;
+
+        case 'W':
+            return WEAKENING;
+
+        case 'F':
+            return STRENGTHENING;
+
+        case '>':
+            return SPEED_UP;
+
+        case '<':
+            return SLOW_DOWN;
+
+        case 'M':
+        case 'm':
+            return MASTER;
+
+        case 'L':
+        case 'l':
+            return LOCKED;
+
+        default:
+            return INVALID;
+        }
+    }
+
+    /**
+     * Returns the lock group of a master or locked brick cell: 0 for {@code M} and {@code L}, 1 for {@code m} and {@code l}.
+     *
+     * @pre | of(character) == MASTER || of(character) == LOCKED
+     * @post | 0 <= result && result < LOCK_GROUP_COUNT
+     */
+    static int getLockGroup(char character)
+    {
+        return Character.isUpperCase(character) ? 0 : 1;
+    }
+
+    /**
+     * Returns whether bricks of the given type have no mutable state, so {@link BrickGrid} can store them as their type alone.
+     */
+    static boolean isCompact(int type)
+    {
+        return type == STANDARD || (GROW_PADDLE <= type && type <= SLOW_DOWN);
+    }
+}
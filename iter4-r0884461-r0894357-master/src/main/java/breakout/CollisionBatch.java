@@ -0,0 +1,285 @@
+package breakout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import breakout.balls.Ball;
+import breakout.bricks.Brick;
+
+/**
+ * Computes the earliest wall, paddle and brick collision times of many balls at once.
+ *
+ * The positions, radii and velocities of the balls are copied into parallel arrays of primitives,
+ * and the collision times are written to primitive arrays, so a query allocates no {@link Collision}s.
+ * Each wall, the paddle and the brick grid process a whole range of balls in one loop
+ * (see {@link breakout.walls.Wall#findCollisionTimes(CollisionBatch, int, int, long[])}),
+ * which keeps the loops free of virtual calls and lets the JIT unroll them.
+ * The balls are split in chunks of {@link #CHUNK_SIZE}, which {@link #computeInParallel(BreakoutState)}
+ * processes on the common fork/join pool.
+ *
+ * The times are exactly those returned by {@link breakout.walls.Wall#findCollisionTime(Ball)},
+ * {@link breakout.paddles.Paddle#findCollisionTime(Ball)} and {@link BrickGrid#findEarliestCollision(Ball)}.
+ * The arrays are reused after {@link #clear()}, so computing the times of the same number of balls again does not allocate.
+ * The bricks hit are recorded as cells, so no objects are created for compact bricks that are not asked for.
+ */
+public class CollisionBatch
+{
+    /**
+     * Number of balls processed together by one task of {@link #computeInParallel(BreakoutState)}.
+     */
+    public static final int CHUNK_SIZE = 256;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * @invar | 0 <= size && size <= centersX.length
+     */
+    private int size;
+
+    private long[] centersX = new long[INITIAL_CAPACITY];
+
+    private long[] centersY = new long[INITIAL_CAPACITY];
+
+    private long[] radii = new long[INITIAL_CAPACITY];
+
+    private long[] velocitiesX = new long[INITIAL_CAPACITY];
+
+    private long[] velocitiesY = new long[INITIAL_CAPACITY];
+
+    private long[] wallTimes = new long[INITIAL_CAPACITY];
+
+    private long[] paddleTimes = new long[INITIAL_CAPACITY];
+
+    private long[] brickTimes = new long[INITIAL_CAPACITY];
+
+    /**
+     * The index of the cell of the brick each ball hits first, or -1, see {@link BrickGrid#findEarliestCollisionTimes(CollisionBatch, int, int, long[], long[])}.
+     */
+    private long[] brickCells = new long[INITIAL_CAPACITY];
+
+    /**
+     * The grid of the last computation, or null.
+     */
+    private BrickGrid brickGrid;
+
+    /**
+     * Returns the number of balls in this batch.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes all balls from this batch.
+     *
+     * @post | size() == 0
+     */
+    public void clear()
+    {
+        size = 0;
+        brickGrid = null;
+    }
+
+    /**
+     * Adds the current position, radius and velocity of the ball to this batch.
+     *
+     * @pre | ball != null
+     * @post | size() == old(size()) + 1
+     */
+    public void add(Ball ball)
+    {
+        add(ball.getCenterX(), ball.getCenterY(), ball.getRadius(), ball.getVelocityX(), ball.getVelocityY());
+    }
+
+    /**
+     * Adds the current position, radius and velocity of each ball to this batch.
+     *
+     * @pre | balls != null
+     * @post | size() == old(size()) + balls.size()
+     */
+    public void addAll(List<Ball> balls)
+    {
+        for ( var ball : balls )
+        {
+            add(ball);
+        }
+    }
+
+    /**
+     * Adds a ball with the given center, radius and velocity to this batch.
+     *
+     * @pre | radius >= 0
+     * @post | size() == old(size()) + 1
+     */
+    public void add(long centerX, long centerY, long radius, long velocityX, long velocityY)
+    {
+        if ( size == centersX.length )
+        {
+            var capacity = size * 2;
+            centersX = Arrays.copyOf(centersX, capacity);
+            centersY = Arrays.copyOf(centersY, capacity);
+            radii = Arrays.copyOf(radii, capacity);
+            velocitiesX = Arrays.copyOf(velocitiesX, capacity);
+            velocitiesY = Arrays.copyOf(velocitiesY, capacity);
+            wallTimes = Arrays.copyOf(wallTimes, capacity);
+            paddleTimes = Arrays.copyOf(paddleTimes, capacity);
+            brickTimes = Arrays.copyOf(brickTimes, capacity);
+            brickCells = Arrays.copyOf(brickCells, capacity);
+        }
+
+        centersX[size] = centerX;
+        centersY[size] = centerY;
+        radii[size] = radius;
+        velocitiesX[size] = velocityX;
+        velocitiesY[size] = velocityY;
+        wallTimes[size] = Long.MAX_VALUE;
+        paddleTimes[size] = Long.MAX_VALUE;
+        brickTimes[size] = Long.MAX_VALUE;
+        brickCells[size] = -1;
+        size++;
+    }
+
+    /**
+     * @pre | 0 <= index && index < size()
+     */
+    public long getCenterX(int index)
+    {
+        return centersX[index];
+    }
+
+    /**
+     * @pre | 0 <= index && index < size()
+     */
+    public long getCenterY(int index)
+    {
+        return centersY[index];
+    }
+
+    /**
+     * @pre | 0 <= index && index < size()
+     */
+    public long getRadius(int index)
+    {
+        return radii[index];
+    }
+
+    /**
+     * @pre | 0 <= index && index < size()
+     */
+    public long getVelocityX(int index)
+    {
+        return velocitiesX[index];
+    }
+
+    /**
+     * @pre | 0 <= index && index < size()
+     */
+    public long getVelocityY(int index)
+    {
+        return velocitiesY[index];
+    }
+
+    /**
+     * Returns the time until the ball's earliest wall collision, as computed by the last call of
+     * {@link #compute(BreakoutState)} or {@link #computeInParallel(BreakoutState)}, or {@link Long#MAX_VALUE} if there is none.
+     *
+     * @pre | 0 <= index && index < size()
+     */
+    public long getWallCollisionTime(int index)
+    {
+        return wallTimes[index];
+    }
+
+    /**
+     * Returns the time until the ball's paddle collision, or {@link Long#MAX_VALUE} if there is none.
+     *
+     * @pre | 0 <= index && index < size()
+     */
+    public long getPaddleCollisionTime(int index)
+    {
+        return paddleTimes[index];
+    }
+
+    /**
+     * Returns the time until the ball's earliest brick collision, or {@link Long#MAX_VALUE} if there is none.
+     *
+     * @pre | 0 <= index && index < size()
+     */
+    public long getBrickCollisionTime(int index)
+    {
+        return brickTimes[index];
+    }
+
+    /**
+     * Returns the brick the ball hits first, or null if there is none.
+     *
+     * @pre | 0 <= index && index < size()
+     */
+    public Brick getBrick(int index)
+    {
+        var cell = brickCells[index];
+
+        if ( cell < 0 )
+        {
+            return null;
+        }
+
+        var columnCount = brickGrid.getColumnCount();
+
+        return brickGrid.getBrickAt((int) (cell % columnCount), (int) (cell / columnCount));
+    }
+
+    /**
+     * Returns the index {@code y * getColumnCount() + x} in the brick grid of the cell of the brick the ball hits first,
+     * or -1 if there is none. Unlike {@link #getBrick(int)}, this never creates a brick object.
+     *
+     * @pre | 0 <= index && index < size()
+     */
+    public long getBrickCell(int index)
+    {
+        return brickCells[index];
+    }
+
+    /**
+     * Computes the collision times of all balls in this batch on the current thread.
+     *
+     * @pre | state != null
+     * @inspects | state
+     */
+    public void compute(BreakoutState state)
+    {
+        brickGrid = state.getBrickGrid();
+        compute(state, 0, size);
+    }
+
+    /**
+     * Computes the collision times of all balls in this batch, processing the chunks in parallel.
+     * The state must not be modified until this method returns.
+     *
+     * @pre | state != null
+     * @inspects | state
+     */
+    public void computeInParallel(BreakoutState state)
+    {
+        var chunkCount = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        brickGrid = state.getBrickGrid();
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> compute(state, chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)));
+    }
+
+    private void compute(BreakoutState state, int from, int to)
+    {
+        Arrays.fill(wallTimes, from, to, Long.MAX_VALUE);
+        Arrays.fill(paddleTimes, from, to, Long.MAX_VALUE);
+
+        for ( var i = 0; i != state.getWallCount(); ++i )
+        {
+            state.getWall(i).findCollisionTimes(this, from, to, wallTimes);
+        }
+
+        state.getPaddle().findCollisionTimes(this, from, to, paddleTimes);
+        state.getBrickGrid().findEarliestCollisionTimes(this, from, to, brickTimes, brickCells);
+    }
+}
@@ -0,0 +1,714 @@
+package breakout;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import breakout.bricks.Brick;
+import breakout.bricks.SturdyBrick;
+import breakout.bricks.lock.LockedBrick;
+import breakout.bricks.lock.MasterBrick;
+import breakout.math.Point;
+import breakout.math.Rectangle;
+import breakout.util.Grid;
+
+/**
+ * Compiles levels in the text form read by {@link GameMapParser} to a compact binary file,
+ * and loads such files by memory-mapping them, without parsing any text.
+ *
+ * The file is stored in big-endian byte order:
+ * <ul>
+ * <li>the magic bytes {@code BRKM} and the format version,</li>
+ * <li>the column count, the row count, the number of stored chunks, the number of sturdy bricks and the number of lock groups,</li>
+ * <li>the chunk directory: for every chunk of {@link #CHUNK_SIZE} by {@link #CHUNK_SIZE} cells, row of chunks by row of chunks,
+ *     0 if the chunk holds no bricks, or 1 plus the position of its cells among the stored chunks,</li>
+ * <li>the number of bricks in every row, followed by the number of bricks in every column,</li>
+ * <li>the sturdy table: the cell index and the lives of every sturdy brick, by increasing cell index,</li>
+ * <li>the link tables: for every lock group, the number of master bricks and of locked bricks, followed by their cell indices,</li>
+ * <li>the cells of the stored chunks, row by row, as their {@link CellType} in four bits: even columns in the low half of a byte.</li>
+ * </ul>
+ * The cell index of cell (x, y) is the long {@code y * columnCount + x}. All counts are ints.
+ *
+ * The chunks coincide with the tiles of {@link Grid}. Loading a level reads the header, the brick counts and the tables,
+ * and creates the master and locked bricks, but decodes a chunk only the first time one of its cells is accessed
+ * (see {@link Grid#setTileLoader(int, int, Grid.TileLoader)}). Opening a level therefore takes time proportional to
+ * its number of rows, columns, chunks and linked bricks, but not to its number of bricks.
+ * The file stays mapped for as long as the grid has chunks left to decode.
+ */
+public class CompiledMap
+{
+    static final byte[] MAGIC = { 'B', 'R', 'K', 'M' };
+
+    static final int VERSION = 2;
+
+    static final int HEADER_SIZE = MAGIC.length + 6 * Integer.BYTES;
+
+    /**
+     * Width and height of a chunk, in cells.
+     */
+    public static final int CHUNK_SIZE = Grid.TILE_SIZE;
+
+    static final int CHUNK_BYTES = CHUNK_SIZE * CHUNK_SIZE / 2;
+
+    /**
+     * The stored chunks are mapped in windows of this size, since a single mapping cannot exceed 2 GiB.
+     */
+    static final long SEGMENT_SIZE = 1L << 30;
+
+    private CompiledMap()
+    {
+        // NOP
+    }
+
+    /**
+     * Compiles a level in the text form of {@link GameMapParser#parse(String[], int, int)} and writes it to the given file,
+     * replacing an existing file.
+     *
+     * @throws IllegalArgumentException | lines == null || path == null
+     * @throws IllegalArgumentException | lines.length == 0 || Arrays.stream(lines).anyMatch(line -> line == null)
+     * @throws IllegalArgumentException | IntStream.range(0, lines.length).anyMatch(i -> lines[0].length() != lines[i].length())
+     * @throws IllegalArgumentException if a line contains a character that is not a cell, or there are locked bricks without master brick
+     */
+    public static void compile(String[] lines, Path path) throws IOException
+    {
+        if ( lines == null || path == null || lines.length == 0 || lines[0] == null || lines[0].isEmpty() )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        var columnCount = lines[0].length();
+        var rowCount = lines.length;
+        var chunkColumnCount = getChunkCount(columnCount);
+        var directory = new int[getChunkCount(rowCount) * chunkColumnCount];
+        var chunks = new ArrayList<byte[]>();
+        var sturdyCells = new ArrayList<Long>();
+        var rowCounts = new int[rowCount];
+        var columnCounts = new int[columnCount];
+        var masterCells = new ArrayList<ArrayList<Long>>();
+        var lockedCells = new ArrayList<ArrayList<Long>>();
+
+        for ( var group = 0; group != CellType.LOCK_GROUP_COUNT; ++group )
+        {
+            masterCells.add(new ArrayList<>());
+            lockedCells.add(new ArrayList<>());
+        }
+
+        // The cells of every chunk that holds a brick; the chunks are numbered afterwards, in directory order
+        var chunkCells = new byte[directory.length][];
+
+        for ( var y = 0; y != rowCount; ++y )
+        {
+            if ( lines[y] == null || lines[y].length() != columnCount )
+            {
+                throw new IllegalArgumentException();
+            }
+
+            for ( var x = 0; x != columnCount; ++x )
+            {
+                var character = lines[y].charAt(x);
+                var type = CellType.of(character);
+
+                if ( type == CellType.INVALID )
+                {
+                    throw new IllegalArgumentException();
+                }
+
+                if ( type == CellType.EMPTY )
+                {
+                    continue;
+                }
+
+                rowCounts[y]++;
+                columnCounts[x]++;
+
+                var cellIndex = (long) y * columnCount + x;
+                var chunk = (y / CHUNK_SIZE) * chunkColumnCount + x / CHUNK_SIZE;
+
+                if ( chunkCells[chunk] == null )
+                {
+                    chunkCells[chunk] = new byte[CHUNK_BYTES];
+                }
+
+                var cell = (y % CHUNK_SIZE) * CHUNK_SIZE + x % CHUNK_SIZE;
+                chunkCells[chunk][cell / 2] |= (byte) (cell % 2 == 0 ? type : type << 4);
+
+                switch ( type )
+                {
+                case CellType.STURDY:
+                    sturdyCells.add(cellIndex);
+                    break;
+
+                case CellType.MASTER:
+                    masterCells.get(CellType.getLockGroup(character)).add(cellIndex);
+                    break;
+
+                case CellType.LOCKED:
+                    lockedCells.get(CellType.getLockGroup(character)).add(cellIndex);
+                    break;
+
+                default:
+                    // NOP
+                }
+            }
+        }
+
+        for ( var group = 0; group != CellType.LOCK_GROUP_COUNT; ++group )
+        {
+            if ( masterCells.get(group).isEmpty() && !lockedCells.get(group).isEmpty() )
+            {
+                throw new IllegalArgumentException("Cannot have locked bricks without master brick");
+            }
+        }
+
+        for ( var chunk = 0; chunk != directory.length; ++chunk )
+        {
+            if ( chunkCells[chunk] != null )
+            {
+                chunks.add(chunkCells[chunk]);
+                directory[chunk] = chunks.size();
+            }
+        }
+
+        var tableSize = HEADER_SIZE + ((long) directory.length + rowCount + columnCount) * Integer.BYTES
+                + (long) sturdyCells.size() * (Long.BYTES + Integer.BYTES);
+
+        for ( var group = 0; group != CellType.LOCK_GROUP_COUNT; ++group )
+        {
+            tableSize += 2 * Integer.BYTES + (long) (masterCells.get(group).size() + lockedCells.get(group).size()) * Long.BYTES;
+        }
+
+        if ( tableSize > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException("Level too large to compile");
+        }
+
+        var tables = ByteBuffer.allocate((int) tableSize);
+        tables.put(MAGIC);
+        tables.putInt(VERSION);
+        tables.putInt(columnCount);
+        tables.putInt(rowCount);
+        tables.putInt(chunks.size());
+        tables.putInt(sturdyCells.size());
+        tables.putInt(masterCells.size());
+
+        for ( var entry : directory )
+        {
+            tables.putInt(entry);
+        }
+
+        for ( var count : rowCounts )
+        {
+            tables.putInt(count);
+        }
+
+        for ( var count : columnCounts )
+        {
+            tables.putInt(count);
+        }
+
+        for ( var cellIndex : sturdyCells )
+        {
+            tables.putLong(cellIndex);
+            tables.putInt(CellType.STURDY_LIVES);
+        }
+
+        for ( var group = 0; group != masterCells.size(); ++group )
+        {
+            tables.putInt(masterCells.get(group).size());
+            tables.putInt(lockedCells.get(group).size());
+
+            for ( var cellIndex : masterCells.get(group) )
+            {
+                tables.putLong(cellIndex);
+            }
+
+            for ( var cellIndex : lockedCells.get(group) )
+            {
+                tables.putLong(cellIndex);
+            }
+        }
+
+        tables.flip();
+
+        try ( var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE) )
+        {
+            writeFully(channel, tables);
+
+            for ( var cells : chunks )
+            {
+                writeFully(channel, ByteBuffer.wrap(cells));
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while ( buffer.hasRemaining() )
+        {
+            channel.write(buffer);
+        }
+    }
+
+    private static int getChunkCount(int cellCount)
+    {
+        return (cellCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Returns whether the file starts with the magic bytes of a compiled level.
+     *
+     * @throws IllegalArgumentException | path == null
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isCompiledMap(Path path) throws IOException
+    {
+        if ( path == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        try ( var input = Files.newInputStream(path) )
+        {
+            return Arrays.equals(input.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    /**
+     * Creates a fresh BreakoutState from a compiled level, like {@link GameMapParser#parse(String[], int, int)} does
+     * for the text it was compiled from.
+     *
+     * @throws IllegalArgumentException | path == null || brickWidth <= 0 || brickHeight <= 0
+     * @throws IOException if the file cannot be read or is not a valid compiled level
+     * @post | result != null
+     */
+    public static BreakoutState load(Path path, int brickWidth, int brickHeight) throws IOException
+    {
+        return GameMapParser.createState(loadBrickGrid(path, brickWidth, brickHeight));
+    }
+
+    /**
+     * Creates the bricks of a compiled level. Only the master and locked bricks are created right away;
+     * the other bricks are created chunk by chunk, the first time a cell of their chunk is accessed.
+     * A chunk whose cells turn out to be invalid then throws an {@link java.io.UncheckedIOException}.
+     *
+     * @throws IllegalArgumentException | path == null || brickWidth <= 0 || brickHeight <= 0
+     * @throws IOException if the file cannot be read or is not a valid compiled level
+     * @post | result != null
+     * @post | result.getBrickWidth() == brickWidth
+     * @post | result.getBrickHeight() == brickHeight
+     */
+    public static BrickGrid loadBrickGrid(Path path, int brickWidth, int brickHeight) throws IOException
+    {
+        if ( path == null || brickWidth <= 0 || brickHeight <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        try ( var channel = FileChannel.open(path, StandardOpenOption.READ) )
+        {
+            // Mapping reserves address space only; pages are read when the chunks are decoded
+            var size = channel.size();
+            var tables = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+
+            return new Loader(channel, size, tables, brickWidth, brickHeight).load();
+        }
+        catch ( BufferUnderflowException | IndexOutOfBoundsException e )
+        {
+            throw new IOException("Truncated compiled map", e);
+        }
+    }
+
+    /**
+     * Decodes one mapped file: the tables when the grid is created, and the chunks when the grid first needs them.
+     * Decoding a chunk only reads the mapped buffers at absolute positions, so chunks can be decoded on several threads at once.
+     */
+    private static class Loader implements Grid.TileLoader<Object>
+    {
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final MappedByteBuffer tables;
+
+        private final int brickWidth;
+
+        private final int brickHeight;
+
+        private int columnCount;
+
+        private int rowCount;
+
+        private int chunkCount;
+
+        private int sturdyCount;
+
+        private int groupCount;
+
+        private int sturdyTableOffset;
+
+        private MappedByteBuffer[] segments;
+
+        /**
+         * The master and locked bricks by cell index.
+         */
+        private final HashMap<Long, Brick> linkedBricks = new HashMap<>();
+
+        Loader(FileChannel channel, long size, MappedByteBuffer tables, int brickWidth, int brickHeight)
+        {
+            this.channel = channel;
+            this.size = size;
+            this.tables = tables;
+            this.brickWidth = brickWidth;
+            this.brickHeight = brickHeight;
+        }
+
+        BrickGrid load() throws IOException
+        {
+            readHeader();
+
+            var chunkColumnCount = getChunkCount(columnCount);
+            var directoryLength = (long) getChunkCount(rowCount) * chunkColumnCount;
+            var countsOffset = HEADER_SIZE + directoryLength * Integer.BYTES;
+            var sturdyTableLength = (long) sturdyCount * (Long.BYTES + Integer.BYTES);
+
+            if ( countsOffset + ((long) rowCount + columnCount) * Integer.BYTES + sturdyTableLength > tables.limit() )
+            {
+                throw new IOException("Truncated compiled map");
+            }
+
+            tables.position((int) countsOffset);
+            var rowCounts = readCounts(rowCount, columnCount);
+            var columnCounts = readCounts(columnCount, rowCount);
+
+            if ( Arrays.stream(rowCounts).asLongStream().sum() != Arrays.stream(columnCounts).asLongStream().sum()
+                    || Arrays.stream(rowCounts).asLongStream().sum() > Integer.MAX_VALUE )
+            {
+                throw new IOException("Invalid brick counts in compiled map");
+            }
+
+            sturdyTableOffset = tables.position();
+            tables.position((int) (sturdyTableOffset + sturdyTableLength));
+            loadLinks();
+            segments = mapChunks(tables.position());
+
+            var brickGrid = new BrickGrid(columnCount, rowCount, brickWidth, brickHeight);
+
+            for ( var chunk = 0; chunk != directoryLength; ++chunk )
+            {
+                var entry = tables.getInt(HEADER_SIZE + chunk * Integer.BYTES);
+
+                if ( entry != 0 )
+                {
+                    if ( entry < 0 || entry > chunkCount )
+                    {
+                        throw new IOException("Invalid chunk directory in compiled map");
+                    }
+
+                    brickGrid.addLazyTile((chunk % chunkColumnCount) * CHUNK_SIZE, (chunk / chunkColumnCount) * CHUNK_SIZE, this);
+                }
+            }
+
+            brickGrid.addLazyBrickCounts(rowCounts, columnCounts);
+
+            return brickGrid;
+        }
+
+        private void readHeader() throws IOException
+        {
+            var magic = new byte[MAGIC.length];
+            tables.get(magic);
+
+            if ( !Arrays.equals(magic, MAGIC) )
+            {
+                throw new IOException("Not a compiled map");
+            }
+
+            var version = tables.getInt();
+
+            if ( version != VERSION )
+            {
+                throw new IOException("Unsupported compiled map version: " + version);
+            }
+
+            columnCount = tables.getInt();
+            rowCount = tables.getInt();
+            chunkCount = tables.getInt();
+            sturdyCount = tables.getInt();
+            groupCount = tables.getInt();
+
+            if ( columnCount <= 0 || rowCount <= 0 || chunkCount < 0 || sturdyCount < 0 || groupCount < 0 )
+            {
+                throw new IOException("Invalid compiled map header");
+            }
+        }
+
+        /**
+         * Reads the given number of brick counts, none of which may exceed the given maximum.
+         */
+        private int[] readCounts(int length, int maximum) throws IOException
+        {
+            var counts = new int[length];
+
+            for ( var i = 0; i != length; ++i )
+            {
+                counts[i] = tables.getInt();
+
+                if ( counts[i] < 0 || counts[i] > maximum )
+                {
+                    throw new IOException("Invalid brick counts in compiled map");
+                }
+            }
+
+            return counts;
+        }
+
+        /**
+         * Creates the master and locked bricks listed by the link tables, in the order in which {@link GameMapParser} creates them.
+         */
+        private void loadLinks() throws IOException
+        {
+            var masterCells = new ArrayList<long[]>();
+            var lockedBricks = new ArrayList<ArrayList<LockedBrick>>();
+
+            for ( var group = 0; group != groupCount; ++group )
+            {
+                var masters = tables.getInt();
+                var locked = tables.getInt();
+
+                if ( masters < 0 || locked < 0 || tables.position() + ((long) masters + locked) * Long.BYTES > tables.limit() )
+                {
+                    throw new IOException("Invalid link table in compiled map");
+                }
+
+                if ( masters == 0 && locked != 0 )
+                {
+                    throw new IOException("Cannot have locked bricks without master brick");
+                }
+
+                var cells = new long[masters];
+
+                for ( var i = 0; i != masters; ++i )
+                {
+                    cells[i] = readCellIndex();
+                }
+
+                var bricks = new ArrayList<LockedBrick>(locked);
+
+                for ( var i = 0; i != locked; ++i )
+                {
+                    var cellIndex = readCellIndex();
+                    var brick = new LockedBrick(getBrickRectangle(cellIndex), getCellPosition(cellIndex));
+
+                    addLinkedBrick(cellIndex, brick);
+                    bricks.add(brick);
+                }
+
+                masterCells.add(cells);
+                lockedBricks.add(bricks);
+            }
+
+            for ( var group = 0; group != groupCount; ++group )
+            {
+                for ( var cellIndex : masterCells.get(group) )
+                {
+                    addLinkedBrick(cellIndex, new MasterBrick(getBrickRectangle(cellIndex), getCellPosition(cellIndex), lockedBricks.get(group)));
+                }
+            }
+        }
+
+        private long readCellIndex() throws IOException
+        {
+            var cellIndex = tables.getLong();
+
+            if ( cellIndex < 0 || cellIndex >= (long) columnCount * rowCount )
+            {
+                throw new IOException("Cell index outside the compiled map");
+            }
+
+            return cellIndex;
+        }
+
+        private void addLinkedBrick(long cellIndex, Brick brick) throws IOException
+        {
+            if ( linkedBricks.put(cellIndex, brick) != null )
+            {
+                throw new IOException("Link tables of compiled map list a cell twice");
+            }
+        }
+
+        /**
+         * Maps the stored chunks, which start at the given offset, in windows of {@link #SEGMENT_SIZE}.
+         */
+        private MappedByteBuffer[] mapChunks(long offset) throws IOException
+        {
+            var length = (long) chunkCount * CHUNK_BYTES;
+
+            if ( offset + length > size )
+            {
+                throw new IOException("Truncated compiled map");
+            }
+
+            var segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+
+            for ( var i = 0; i != segments.length; ++i )
+            {
+                var start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, Math.min(SEGMENT_SIZE, length - start));
+            }
+
+            return segments;
+        }
+
+        @Override
+        public void loadTile(int left, int top, Grid.CellVisitor<Object> cells)
+        {
+            var chunk = (top / CHUNK_SIZE) * getChunkCount(columnCount) + left / CHUNK_SIZE;
+            var offset = (long) (tables.getInt(HEADER_SIZE + chunk * Integer.BYTES) - 1) * CHUNK_BYTES;
+            var segment = segments[(int) (offset / SEGMENT_SIZE)];
+            var start = (int) (offset % SEGMENT_SIZE);
+
+            for ( var i = 0; i != CHUNK_BYTES; ++i )
+            {
+                var pair = segment.get(start + i);
+
+                if ( pair == 0 )
+                {
+                    continue;
+                }
+
+                var y = top + 2 * i / CHUNK_SIZE;
+                var x = left + 2 * i % CHUNK_SIZE;
+
+                loadCell(cells, x, y, pair & 0xF);
+                loadCell(cells, x + 1, y, (pair >> 4) & 0xF);
+            }
+        }
+
+        private void loadCell(Grid.CellVisitor<Object> cells, int x, int y, int type)
+        {
+            if ( type == CellType.EMPTY )
+            {
+                return;
+            }
+
+            if ( x >= columnCount || y >= rowCount )
+            {
+                throw invalid("Brick outside the compiled map");
+            }
+
+            var cellIndex = (long) y * columnCount + x;
+
+            switch ( type )
+            {
+            case CellType.STURDY:
+                cells.visit(x, y, new SturdyBrick(getBrickRectangle(cellIndex), getCellPosition(cellIndex), findSturdyLives(cellIndex)));
+                break;
+
+            case CellType.MASTER:
+            case CellType.LOCKED:
+            {
+                var brick = linkedBricks.get(cellIndex);
+
+                if ( !(type == CellType.MASTER ? brick instanceof MasterBrick : brick instanceof LockedBrick) )
+                {
+                    throw invalid("Link tables of compiled map do not match its master and locked bricks");
+                }
+
+                cells.visit(x, y, brick);
+                break;
+            }
+
+            default:
+                if ( !CellType.isCompact(type) )
+                {
+                    throw invalid("Invalid cell type in compiled map: " + type);
+                }
+
+                cells.visit(x, y, BrickGrid.getCompactCell(type));
+            }
+        }
+
+        /**
+         * Looks the cell up in the sturdy table by bisection.
+         */
+        private int findSturdyLives(long cellIndex)
+        {
+            var low = 0;
+            var high = sturdyCount - 1;
+
+            while ( low <= high )
+            {
+                var middle = (low + high) >>> 1;
+                var entry = sturdyTableOffset + middle * (Long.BYTES + Integer.BYTES);
+                var entryCellIndex = tables.getLong(entry);
+
+                if ( entryCellIndex < cellIndex )
+                {
+                    low = middle + 1;
+                }
+                else if ( entryCellIndex > cellIndex )
+                {
+                    high = middle - 1;
+                }
+                else
+                {
+                    var lives = tables.getInt(entry + Long.BYTES);
+
+                    if ( lives <= 0 )
+                    {
+                        throw invalid("Invalid sturdy brick lives in compiled map");
+                    }
+
+                    return lives;
+                }
+            }
+
+            throw invalid("Sturdy brick missing from the sturdy table of the compiled map");
+        }
+
+        private Point getCellPosition(long cellIndex)
+        {
+            return new Point(cellIndex % columnCount, cellIndex / columnCount);
+        }
+
+        private Rectangle getBrickRectangle(long cellIndex)
+        {
+            return new Rectangle(cellIndex % columnCount * brickWidth, cellIndex / columnCount * brickHeight, brickWidth, brickHeight);
+        }
+
+        private static UncheckedIOException invalid(String message)
+        {
+            return new UncheckedIOException(new IOException(message));
+        }
+    }
+
+    /**
+     * Usage: {@code CompiledMap <map> <output>}, where map is the name of a shipped map or the path of a text file in the same form.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if ( args.length != 2 )
+        {
+            System.out.println("Usage: CompiledMap <map> <output>");
+            System.exit(-1);
+        }
+
+        var lines = GameMapParser.getMap(args[0]);
+
+        if ( lines == null )
+        {
+            lines = Files.readAllLines(Path.of(args[0])).toArray(String[]::new);
+        }
+
+        compile(lines, Path.of(args[1]));
+    }
+}
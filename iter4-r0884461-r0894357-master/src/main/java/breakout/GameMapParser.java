@@ -2,6 +2,7 @@ package breakout;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.IntStream;
 
 import breakout.balls.StandardBehavior;
@@ -85,9 +86,20 @@ public class GameMapParser
      */
     public static BreakoutState parse(String[] lines, int brickWidth, int brickHeight)
     {
-        var brickGrid = parseBrickGrid(lines, brickWidth, brickHeight);
-        var paddleHalfWidth = brickWidth;
-        var paddleSpeed = brickWidth / 100;
+        return createState(parseBrickGrid(lines, brickWidth, brickHeight));
+    }
+
+    /**
+     * Creates a fresh BreakoutState around the given bricks, with the paddle and ball {@link #parse(String[], int, int)} uses.
+     *
+     * @pre | brickGrid != null
+     * @post | result != null
+     * @post | result.getBrickGrid() == brickGrid
+     */
+    static BreakoutState createState(BrickGrid brickGrid)
+    {
+        var paddleHalfWidth = brickGrid.getBrickWidth();
+        var paddleSpeed = brickGrid.getBrickWidth() / 100;
         var state = new BreakoutState(brickGrid, paddleHalfWidth, paddleSpeed);
         addBalls(state);
         
@@ -106,7 +118,7 @@ public class GameMapParser
 	 * M/m: master/master2
 	 * L/l: locked/locked2
      */
-    private static BrickGrid parseBrickGrid(String[] lines, int brickWidth, int brickHeight)
+    static BrickGrid parseBrickGrid(String[] lines, int brickWidth, int brickHeight)
     {
         var width = lines[0].length();
         var height = lines.length;
@@ -120,70 +132,35 @@ public class GameMapParser
         {
             for ( int x = 0; x != width; ++x )
             {
-                var gridPosition = new Point(x, y);
+                var character = lines[y].charAt(x);
+                var type = CellType.of(character);
 
-                switch ( lines[y].charAt(x) )
+                switch ( type )
                 {
-                case ' ':
+                case CellType.EMPTY:
                     // NOP
                     break;
 
-                case '#':
-                    brickGrid.addStandardBrick(gridPosition);
-                    break;
-
-                case 'S':
-                    brickGrid.addSturdyBrick(gridPosition, 3);
-                    break;
-
-                case '+':
-                    brickGrid.addGrowPaddleBrick(gridPosition);
-                    break;
-
-                case '-':
-                    brickGrid.addShrinkPaddleBrick(gridPosition);
-                    break;
-
-                case 'W':
-                    brickGrid.addWeakeningBrick(gridPosition);
-                    break;
-
-                case 'F':
-                    brickGrid.addStrengtheningBrick(gridPosition);
-                    break;
-
-                case '>':
-                    brickGrid.addSpeedUpBrick(gridPosition);
-                    break;
-
-                case '<':
-                    brickGrid.addSlowDownBrick(gridPosition);
+                case CellType.STURDY:
+                    brickGrid.addSturdyBrick(new Point(x, y), CellType.STURDY_LIVES);
                     break;
 
-                case 'M':
-                    masterBricksPositions.add(gridPosition);
+                case CellType.MASTER:
+                    (CellType.getLockGroup(character) == 0 ? masterBricksPositions : masterBricksPositions2).add(new Point(x, y));
                     break;
 
-                case 'm':
-                    masterBricksPositions2.add(gridPosition);
-                    break;
-                    
-                case 'L':
-                {
-                    var brick = brickGrid.addLockedBrick(gridPosition);
-                    lockedBricks.add(brick);
-                    break;
-                }
-                    
-                case 'l':
+                case CellType.LOCKED:
                 {
-                    var brick = brickGrid.addLockedBrick(gridPosition);
-                    lockedBricks2.add(brick);
+                    var brick = brickGrid.addLockedBrick(new Point(x, y));
+                    (CellType.getLockGroup(character) == 0 ? lockedBricks : lockedBricks2).add(brick);
                     break;
                 }
 
-                default:
+                case CellType.INVALID:
                     throw new IllegalArgumentException();
+
+                default:
+                    brickGrid.addCompactBrick(x, y, type);
                 }
             }
         }
@@ -211,6 +188,54 @@ public class GameMapParser
         return brickGrid;
     }
 
+    /**
+     * Returns the shipped map with the given name, e.g. {@code "descr2"} or {@code "OGP_MAP"}.
+     * Returns {@code null} if there is no map with this name.
+     *
+     * @pre | name != null
+     * @post | result == null || MAP_NAMES.contains(name)
+     */
+    public static String[] getMap(String name)
+    {
+        switch ( name )
+        {
+        case "descr1":
+            return descr1;
+
+        case "descr2":
+            return descr2;
+
+        case "descr3":
+            return descr3;
+
+        case "descr4":
+            return descr4;
+
+        case "descr5":
+            return descr5;
+
+        case "descr6":
+            return descr6;
+
+        case "descr7":
+            return descr7;
+
+        case "OGP_MAP":
+            return OGP_MAP;
+
+        case "OOP_MAP":
+            return OOP_MAP;
+
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Names of all maps that can be looked up using {@link #getMap(String)}.
+     */
+    public final static List<String> MAP_NAMES = List.of("descr1", "descr2", "descr3", "descr4", "descr5", "descr6", "descr7", "OGP_MAP", "OOP_MAP");
+
     /**
      * LEGIT
      */
@@ -0,0 +1,406 @@
+package breakout;
+
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+
+import breakout.balls.Ball;
+import breakout.balls.BallStore;
+
+/**
+ * Event-driven alternative to the fixed-step engine of {@link BreakoutState#tick(long)}.
+ *
+ * Instead of updating every ball every {@link BreakoutState#MAXIMUM_TIME_DELTA} milliseconds,
+ * the scheduler predicts for each ball the time of its next impact (a wall, a brick,
+ * the plane of the paddle or leaving the field) and keeps these predictions in a priority queue.
+ * Balls are only updated when their next impact is due, so a ball flying through empty space
+ * costs a constant amount of work, regardless of how long the flight takes.
+ *
+ * A ball is updated by calling {@link Ball#tick(BreakoutState, long)} with the time since its
+ * previous update, so all ball behaviors (including temporary ones) work unchanged.
+ *
+ * Impacts are handled in the order in which the fixed-step engine would handle them:
+ * by step of {@link BreakoutState#MAXIMUM_TIME_DELTA} milliseconds, then by ball in the order of the balls, then by time.
+ * Like in {@link BreakoutState#tick(long)}, the paddle is moved to the end of a step before any ball is updated in it,
+ * and balls added during a step only start moving at its end.
+ *
+ * Predictions only need to be recomputed when something they depend on changes:
+ * - A ball's own prediction is recomputed after each of its impacts, since that is the only moment its velocity can change.
+ * - Removing a brick can only make impacts happen later, so a prediction is only recomputed if the
+ *   cell of the brick it was aimed at has been emptied in the meantime.
+ * - Predicting the paddle plane instead of the paddle itself means paddle moves do not invalidate anything.
+ *
+ * As a result, the game plays out identically to the fixed-step engine, also while the paddle is being steered.
+ *
+ * From {@link BreakoutState#PARALLEL_BALL_COUNT} balls on, the first predictions of an advance are computed by a {@link CollisionBatch}, in parallel.
+ * For fewer balls, the brick predictions that each ball keeps are cheaper.
+ */
+public class ImpactScheduler
+{
+    /**
+     * @invar | state != null
+     */
+    private final BreakoutState state;
+
+    /**
+     * Time (relative to the start of the current {@link #advance(long)}) up to which each ball has been updated.
+     */
+    private final IdentityHashMap<Ball, Long> ballTimes = new IdentityHashMap<>();
+
+    private final PriorityQueue<Impact> impacts = new PriorityQueue<>();
+
+    private long paddleTime;
+
+    /**
+     * Position of each ball in the order of the balls: the fixed-step engine updates them in this order within a step.
+     */
+    private final IdentityHashMap<Ball, Long> ballOrdinals = new IdentityHashMap<>();
+
+    private long nextBallOrdinal;
+
+    /**
+     * The elapsedMilliseconds of the current {@link #advance(long)}.
+     */
+    private long endTime;
+
+    private long sequenceNumber;
+
+    /**
+     * Created when first needed.
+     */
+    private CollisionBatch batch;
+
+    /**
+     * @throws IllegalArgumentException | state == null
+     */
+    public ImpactScheduler(BreakoutState state)
+    {
+        if ( state == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.state = state;
+    }
+
+    /**
+     * Predicted impact of a ball.
+     *
+     * @immutable
+     */
+    private static class Impact implements Comparable<Impact>
+    {
+        private final long time;
+
+        /**
+         * End of the step of the fixed-step engine in which the impact happens, see {@link ImpactScheduler#getStepEnd(long)},
+         * and the position of the ball in the order of the balls.
+         */
+        private final long stepEnd;
+
+        private final long ballOrdinal;
+
+        private final long sequenceNumber;
+
+        private final Ball ball;
+
+        /**
+         * The index of the cell of the brick the ball is predicted to hit, or -1 if the impact is not a brick impact.
+         */
+        private final long brickCell;
+
+        private Impact(long time, long stepEnd, long ballOrdinal, long sequenceNumber, Ball ball, long brickCell)
+        {
+            this.time = time;
+            this.stepEnd = stepEnd;
+            this.ballOrdinal = ballOrdinal;
+            this.sequenceNumber = sequenceNumber;
+            this.ball = ball;
+            this.brickCell = brickCell;
+        }
+
+        @Override
+        public int compareTo(Impact other)
+        {
+            if ( this.stepEnd != other.stepEnd )
+            {
+                return Long.compare(this.stepEnd, other.stepEnd);
+            }
+
+            if ( this.ballOrdinal != other.ballOrdinal )
+            {
+                return Long.compare(this.ballOrdinal, other.ballOrdinal);
+            }
+
+            if ( this.time != other.time )
+            {
+                return Long.compare(this.time, other.time);
+            }
+
+            return Long.compare(this.sequenceNumber, other.sequenceNumber);
+        }
+    }
+
+    /**
+     * Moves all moving objects elapsedMilliseconds forward, jumping from impact to impact.
+     *
+     * @pre | elapsedMilliseconds >= 0
+     * @mutates | state
+     */
+    public void advance(long elapsedMilliseconds)
+    {
+        var balls = state.getBallStore();
+
+        ballTimes.clear();
+        ballOrdinals.clear();
+        impacts.clear();
+        paddleTime = 0;
+        sequenceNumber = 0;
+        nextBallOrdinal = 0;
+        endTime = elapsedMilliseconds;
+
+        if ( balls.getBallCount() >= BreakoutState.PARALLEL_BALL_COUNT )
+        {
+            scheduleInParallel(balls);
+        }
+        else
+        {
+            for ( int i = 0; i != balls.getBallCount(); ++i )
+            {
+                var ball = balls.getBall(i);
+                ballTimes.put(ball, 0L);
+                ballOrdinals.put(ball, nextBallOrdinal++);
+                schedule(ball, 0);
+            }
+        }
+
+        while ( !impacts.isEmpty() && impacts.peek().time <= elapsedMilliseconds )
+        {
+            var impact = impacts.poll();
+            var ball = impact.ball;
+            var ballTime = ballTimes.get(ball);
+
+            if ( impact.brickCell >= 0 && !containsBrickAt(impact.brickCell) )
+            {
+                // The brick has been removed by another ball, so the ball's next impact can only come later.
+                schedule(ball, ballTime);
+                continue;
+            }
+
+            syncPaddle(impact.stepEnd);
+
+            var ballCount = balls.getBallCount();
+            ball.tick(state, impact.time - ballTime);
+            var removed = !balls.contains(ball);
+            scheduleAddedBalls(balls, balls.getBallCount() - ballCount + (removed ? 1 : 0), impact.stepEnd);
+
+            if ( removed )
+            {
+                ballTimes.remove(ball);
+                ballOrdinals.remove(ball);
+            }
+            else
+            {
+                ballTimes.put(ball, impact.time);
+                schedule(ball, impact.time);
+            }
+        }
+
+        syncPaddle(elapsedMilliseconds);
+
+        for ( var ball : balls.getBalls() )
+        {
+            var ballTime = ballTimes.get(ball);
+
+            if ( ballTime != null && ballTime < elapsedMilliseconds )
+            {
+                ball.tick(state, elapsedMilliseconds - ballTime);
+            }
+        }
+    }
+
+    /**
+     * Returns the time at which the step of the fixed-step engine that contains the given time ends,
+     * or {@link Long#MAX_VALUE} if the time lies beyond the current advance.
+     * The fixed-step engine moves the paddle at the start of each step, so a ball's impact sees the paddle as it is at the end of the step.
+     */
+    private long getStepEnd(long time)
+    {
+        if ( time > endTime )
+        {
+            return Long.MAX_VALUE;
+        }
+
+        var step = BreakoutState.MAXIMUM_TIME_DELTA;
+
+        return Math.min(endTime, (time + step - 1) / step * step);
+    }
+
+    private void syncPaddle(long time)
+    {
+        if ( time > paddleTime )
+        {
+            state.getPaddle().tick(state, time - paddleTime);
+            paddleTime = time;
+        }
+    }
+
+    /**
+     * Balls are only ever appended to the list of balls, and at most one ball
+     * (the one that was just updated) can have been removed, so the added balls are the last ones.
+     * Only looks them up if there are any, because that closes the gap left by a removed ball.
+     * Like in the fixed-step engine, added balls only start moving at the end of the current step.
+     */
+    private void scheduleAddedBalls(BallStore balls, int addedBallCount, long time)
+    {
+        for ( int i = balls.getBallCount() - addedBallCount; i < balls.getBallCount(); ++i )
+        {
+            var ball = balls.getBall(i);
+
+            ballTimes.put(ball, time);
+            ballOrdinals.put(ball, nextBallOrdinal++);
+            schedule(ball, time);
+        }
+    }
+
+    /**
+     * Schedules the first impact of every ball, like {@link #schedule(Ball, long)} at time 0.
+     */
+    private void scheduleInParallel(BallStore balls)
+    {
+        if ( batch == null )
+        {
+            batch = new CollisionBatch();
+        }
+
+        batch.clear();
+        for ( int i = 0; i != balls.getBallCount(); ++i )
+        {
+            batch.add(balls.getBall(i));
+        }
+
+        batch.computeInParallel(state);
+
+        for ( int i = 0; i != balls.getBallCount(); ++i )
+        {
+            var ball = balls.getBall(i);
+
+            ballTimes.put(ball, 0L);
+            ballOrdinals.put(ball, nextBallOrdinal++);
+            schedule(ball, 0, batch.getWallCollisionTime(i), batch.getBrickCollisionTime(i), batch.getBrickCell(i));
+        }
+    }
+
+    /**
+     * Predicts the next impact of the given ball, which has been updated up to the given time.
+     * The impact is scheduled at least one millisecond later, so that an impact that is due immediately
+     * is handled by the ball's update instead of being predicted over and over again.
+     */
+    private void schedule(Ball ball, long ballTime)
+    {
+        var wallTime = Long.MAX_VALUE;
+
+        for ( int i = 0; i != state.getWallCount(); ++i )
+        {
+            wallTime = Math.min(wallTime, state.getWall(i).findCollisionTime(ball));
+        }
+
+        var brickTime = ball.predictBrickCollisionTime(state.getBrickGrid());
+
+        schedule(ball, ballTime, wallTime, brickTime, ball.predictBrickCollisionCell(state.getBrickGrid()));
+    }
+
+    /**
+     * Schedules the earliest of the given impacts, the ball reaching the paddle plane and the ball leaving the field.
+     * The brick cell is only kept if the brick impact comes first.
+     */
+    private void schedule(Ball ball, long ballTime, long wallTime, long brickTime, long brickCell)
+    {
+        var earliest = wallTime;
+
+        if ( brickTime >= earliest )
+        {
+            brickCell = -1;
+        }
+        else
+        {
+            earliest = brickTime;
+        }
+
+        var paddlePlaneTime = findPaddlePlaneTime(ball);
+
+        if ( paddlePlaneTime < earliest )
+        {
+            earliest = paddlePlaneTime;
+            brickCell = -1;
+        }
+
+        var lostTime = findLostTime(ball);
+
+        if ( lostTime < earliest )
+        {
+            earliest = lostTime;
+            brickCell = -1;
+        }
+
+        if ( earliest != Long.MAX_VALUE )
+        {
+            var time = ballTime + Math.max(1, earliest);
+
+            impacts.add(new Impact(time, getStepEnd(time), ballOrdinals.get(ball), sequenceNumber++, ball, brickCell));
+        }
+    }
+
+    private boolean containsBrickAt(long cell)
+    {
+        var brickGrid = state.getBrickGrid();
+        var columnCount = brickGrid.getColumnCount();
+
+        return brickGrid.containsBrickAt((int) (cell % columnCount), (int) (cell / columnCount));
+    }
+
+    /**
+     * Returns the time until the ball reaches the height of the top of the paddle,
+     * computed the same way as {@link breakout.paddles.Paddle#findCollision(Ball)} but ignoring the paddle's horizontal position.
+     */
+    private long findPaddlePlaneTime(Ball ball)
+    {
+        var velocityY = ball.getVelocityY();
+        var bottom = ball.getCenterY() + ball.getRadius();
+        var paddleTop = state.getPaddle().getTopCenterY();
+
+        if ( velocityY > 0 && bottom < paddleTop )
+        {
+            return (paddleTop - bottom) / velocityY;
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns a time at which the ball's center will have left the field, see {@link BreakoutState#isBallLost(Ball)}.
+     */
+    private long findLostTime(Ball ball)
+    {
+        var field = state.getBoundingRectangle();
+        var horizontalTime = findExitTime(ball.getCenterX(), ball.getVelocityX(), field.getLeft(), field.getRight());
+        var verticalTime = findExitTime(ball.getCenterY(), ball.getVelocityY(), field.getTop(), field.getBottom());
+
+        return Math.min(horizontalTime, verticalTime);
+    }
+
+    private static long findExitTime(long position, long velocity, long minimum, long maximum)
+    {
+        if ( velocity > 0 )
+        {
+            return Math.max(0, (maximum - position) / velocity + 1);
+        }
+        else if ( velocity < 0 )
+        {
+            return Math.max(0, (position - minimum) / -velocity + 1);
+        }
+        else
+        {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package breakout;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import breakout.bricks.SturdyBrick;
+import breakout.bricks.lock.LockedBrick;
+import breakout.bricks.lock.MasterBrick;
+
+/**
+ * A parsed level from which any number of fresh games can be created, without parsing the level again.
+ *
+ * The template keeps a brick grid that is never played on. A new game gets a grid that shares the template's cells
+ * copy-on-write, see {@link BrickGrid#BrickGrid(BrickGrid)}. Bricks without mutable state are stored as compact bricks
+ * by the parser, so each game only creates their objects when it needs them.
+ * Other bricks without mutable state are shared between games. Only the bricks with mutable state
+ * (sturdy, locked and master bricks) are created again, and the links between master and locked bricks
+ * are rebuilt in the same order as the parser built them.
+ * A game created from a template is therefore identical to one created by {@link GameMapParser#parse(String[], int, int)},
+ * and creating one costs time proportional to the number of rows and columns plus the number of bricks with mutable state.
+ * Games may be created from the same template on several threads at once.
+ *
+ * @immutable
+ */
+public class LevelTemplate
+{
+    /**
+     * Never given out and never modified. A copy of the parsed grid, so it owns none of its cells
+     * and copying it for a new game only reads it, see {@link BrickGrid#BrickGrid(BrickGrid)}.
+     */
+    private final BrickGrid brickGrid;
+
+    private final SturdyBrick[] sturdyBricks;
+
+    private final LockedBrick[] lockedBricks;
+
+    /**
+     * In the order in which they were linked to their locked bricks.
+     */
+    private final MasterBrick[] masterBricks;
+
+    /**
+     * For every master brick, the indices in {@link #lockedBricks} of its locked bricks, in order.
+     */
+    private final int[][] masterLinks;
+
+    /**
+     * Parses the level the way {@link GameMapParser#parse(String[], int, int)} does.
+     *
+     * @pre | lines != null
+     * @pre | Arrays.stream(lines).allMatch(line -> line != null)
+     * @pre | lines.length >= 1
+     * @pre | IntStream.range(1, lines.length).allMatch(i -> lines[0].length() == lines[i].length())
+     * @pre | brickWidth > 0
+     * @pre | brickHeight > 0
+     * @post | getColumnCount() == lines[0].length()
+     * @post | getRowCount() == lines.length
+     */
+    public LevelTemplate(String[] lines, int brickWidth, int brickHeight)
+    {
+        this(GameMapParser.parseBrickGrid(lines, brickWidth, brickHeight));
+    }
+
+    /**
+     * Takes ownership of a freshly created grid: the caller must not use it anymore.
+     *
+     * @throws IllegalArgumentException | brickGrid == null
+     * @throws IllegalArgumentException if the grid contains a brick with mutable state that the template cannot create again
+     */
+    LevelTemplate(BrickGrid brickGrid)
+    {
+        if ( brickGrid == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        var sturdy = new ArrayList<SturdyBrick>();
+        var locked = new ArrayList<LockedBrick>();
+        var masters = new ArrayList<MasterBrick>();
+
+        for ( var brick : brickGrid.getStoredBricks() )
+        {
+            if ( brick instanceof SturdyBrick sturdyBrick )
+            {
+                sturdy.add(sturdyBrick);
+            }
+            else if ( brick instanceof LockedBrick lockedBrick )
+            {
+                locked.add(lockedBrick);
+            }
+            else if ( brick instanceof MasterBrick masterBrick )
+            {
+                masters.add(masterBrick);
+            }
+            else if ( brick.createMemento() != null )
+            {
+                throw new IllegalArgumentException("Cannot share a " + brick.getClass().getSimpleName() + " between games");
+            }
+        }
+
+        var lockedIndices = new IdentityHashMap<LockedBrick, Integer>();
+
+        for ( var i = 0; i != locked.size(); ++i )
+        {
+            lockedIndices.put(locked.get(i), i);
+        }
+
+        // A locked brick lists its master bricks in the order they were created; masters without locked bricks come last
+        var orderedMasters = new ArrayList<MasterBrick>(masters.size());
+        var ordered = new IdentityHashMap<MasterBrick, Boolean>();
+
+        for ( var lockedBrick : locked )
+        {
+            for ( var masterBrick : lockedBrick.getMasterBricks() )
+            {
+                if ( ordered.put(masterBrick, Boolean.TRUE) == null )
+                {
+                    orderedMasters.add(masterBrick);
+                }
+            }
+        }
+
+        for ( var masterBrick : masters )
+        {
+            if ( ordered.put(masterBrick, Boolean.TRUE) == null )
+            {
+                orderedMasters.add(masterBrick);
+            }
+        }
+
+        this.brickGrid = new BrickGrid(brickGrid);
+        this.sturdyBricks = sturdy.toArray(new SturdyBrick[sturdy.size()]);
+        this.lockedBricks = locked.toArray(new LockedBrick[locked.size()]);
+        this.masterBricks = orderedMasters.toArray(new MasterBrick[orderedMasters.size()]);
+        this.masterLinks = new int[masterBricks.length][];
+
+        for ( var i = 0; i != masterBricks.length; ++i )
+        {
+            masterLinks[i] = masterBricks[i].getLockedBricks().stream().mapToInt(lockedIndices::get).toArray();
+        }
+    }
+
+    public int getColumnCount()
+    {
+        return brickGrid.getColumnCount();
+    }
+
+    public int getRowCount()
+    {
+        return brickGrid.getRowCount();
+    }
+
+    public int getBrickWidth()
+    {
+        return brickGrid.getBrickWidth();
+    }
+
+    public int getBrickHeight()
+    {
+        return brickGrid.getBrickHeight();
+    }
+
+    /**
+     * Creates the bricks of a fresh game on this level.
+     *
+     * @creates | result
+     * @post | result != null
+     * @post | result.getColumnCount() == getColumnCount()
+     * @post | result.getRowCount() == getRowCount()
+     */
+    public BrickGrid createBrickGrid()
+    {
+        // Safe on several threads at once: the template's grid is only read
+        var copy = new BrickGrid(brickGrid);
+
+        for ( var brick : sturdyBricks )
+        {
+            copy.replaceBrick(new SturdyBrick(brick.getGeometry(), brick.getGridPosition(), brick.getLivesLeft()));
+        }
+
+        var freshLockedBricks = new LockedBrick[lockedBricks.length];
+
+        for ( var i = 0; i != lockedBricks.length; ++i )
+        {
+            freshLockedBricks[i] = new LockedBrick(lockedBricks[i].getGeometry(), lockedBricks[i].getGridPosition());
+            copy.replaceBrick(freshLockedBricks[i]);
+        }
+
+        for ( var i = 0; i != masterBricks.length; ++i )
+        {
+            var links = new ArrayList<LockedBrick>(masterLinks[i].length);
+
+            for ( var index : masterLinks[i] )
+            {
+                links.add(freshLockedBricks[index]);
+            }
+
+            copy.replaceBrick(new MasterBrick(masterBricks[i].getGeometry(), masterBricks[i].getGridPosition(), links));
+        }
+
+        return copy;
+    }
+
+    /**
+     * Creates a fresh game on this level, with the paddle and ball of {@link GameMapParser#parse(String[], int, int)}.
+     *
+     * @creates | result
+     * @post | result != null
+     */
+    public BreakoutState createState()
+    {
+        return GameMapParser.createState(createBrickGrid());
+    }
+}
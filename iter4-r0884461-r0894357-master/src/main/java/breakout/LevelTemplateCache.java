@@ -0,0 +1,151 @@
+package breakout;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the {@link LevelTemplate}s of the most recently played shipped maps, so that starting a game
+ * on one of them does not parse the map again.
+ *
+ * A template depends on the map and on the size of the bricks.
+ * The least recently used templates are dropped when the cache is full.
+ * Games are started from many threads at once by batch evaluations, so the methods are synchronized;
+ * the games themselves are created outside the lock.
+ */
+public class LevelTemplateCache
+{
+    private static class Key
+    {
+        private final String mapName;
+
+        private final int brickWidth;
+
+        private final int brickHeight;
+
+        private Key(String mapName, int brickWidth, int brickHeight)
+        {
+            this.mapName = mapName;
+            this.brickWidth = brickWidth;
+            this.brickHeight = brickHeight;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof Key other && mapName.equals(other.mapName) && brickWidth == other.brickWidth && brickHeight == other.brickHeight;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(mapName, brickWidth, brickHeight);
+        }
+    }
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private static final LevelTemplateCache SHARED = new LevelTemplateCache(DEFAULT_CAPACITY);
+
+    private final Map<Key, LevelTemplate> templates;
+
+    private long hitCount;
+
+    private long missCount;
+
+    /**
+     * @throws IllegalArgumentException | capacity <= 0
+     */
+    public LevelTemplateCache(int capacity)
+    {
+        if ( capacity <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.templates = new LinkedHashMap<Key, LevelTemplate>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, LevelTemplate> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns a cache shared by the whole program.
+     */
+    public static LevelTemplateCache getShared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Returns the template of the shipped map with the given name.
+     *
+     * @throws IllegalArgumentException | !GameMapParser.MAP_NAMES.contains(mapName)
+     * @throws IllegalArgumentException | brickWidth <= 0 || brickHeight <= 0
+     * @post | result != null
+     * @post | result.getBrickWidth() == brickWidth && result.getBrickHeight() == brickHeight
+     */
+    public synchronized LevelTemplate getTemplate(String mapName, int brickWidth, int brickHeight)
+    {
+        if ( mapName == null || !GameMapParser.MAP_NAMES.contains(mapName) )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( brickWidth <= 0 || brickHeight <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        var key = new Key(mapName, brickWidth, brickHeight);
+        var template = templates.get(key);
+
+        if ( template == null )
+        {
+            missCount++;
+            template = new LevelTemplate(GameMapParser.getMap(mapName), brickWidth, brickHeight);
+            templates.put(key, template);
+        }
+        else
+        {
+            hitCount++;
+        }
+
+        return template;
+    }
+
+    /**
+     * Creates a fresh game on the shipped map with the given name,
+     * identical to the one created by {@link GameMapParser#parse(String[], int, int)}.
+     *
+     * @throws IllegalArgumentException | !GameMapParser.MAP_NAMES.contains(mapName)
+     * @throws IllegalArgumentException | brickWidth <= 0 || brickHeight <= 0
+     * @creates | result
+     * @post | result != null
+     */
+    public BreakoutState createState(String mapName, int brickWidth, int brickHeight)
+    {
+        return getTemplate(mapName, brickWidth, brickHeight).createState();
+    }
+
+    public synchronized int size()
+    {
+        return templates.size();
+    }
+
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+}
@@ -0,0 +1,359 @@
+package breakout;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import breakout.bricks.lock.LockedBrick;
+import breakout.math.Point;
+
+/**
+ * Parses levels stored in text files, in the form read by {@link GameMapParser#parse(String[], int, int)}:
+ * one line per row of cells, all of the same length, ended by {@code \n}, {@code \r\n} or {@code \r}.
+ *
+ * The file is streamed instead of read into memory as a whole. A first pass over it determines the size of the level.
+ * A second pass fills the grid row by row and only remembers the cell indices of master and locked bricks.
+ * The links between them are resolved from these index lists once all rows are read,
+ * so memory besides the grid stays proportional to one row plus the link tables.
+ * The result is identical to parsing the same lines with {@link GameMapParser}.
+ */
+public class MapFileParser
+{
+    /**
+     * Number of characters read from the file at once.
+     */
+    static final int BUFFER_SIZE = 8192;
+
+    private MapFileParser()
+    {
+        // NOP
+    }
+
+    /**
+     * Creates a fresh BreakoutState from a level stored in a text file, like {@link GameMapParser#parse(String[], int, int)} does
+     * for the lines of the file.
+     *
+     * @throws IllegalArgumentException | path == null || brickWidth <= 0 || brickHeight <= 0
+     * @throws IOException if the file cannot be read or does not describe a valid level
+     * @post | result != null
+     */
+    public static BreakoutState parse(Path path, int brickWidth, int brickHeight) throws IOException
+    {
+        return GameMapParser.createState(parseBrickGrid(path, brickWidth, brickHeight));
+    }
+
+    /**
+     * Creates the bricks of a level stored in a text file.
+     *
+     * @throws IllegalArgumentException | path == null || brickWidth <= 0 || brickHeight <= 0
+     * @throws IOException if the file cannot be read or does not describe a valid level
+     * @post | result != null
+     * @post | result.getBrickWidth() == brickWidth
+     * @post | result.getBrickHeight() == brickHeight
+     */
+    public static BrickGrid parseBrickGrid(Path path, int brickWidth, int brickHeight) throws IOException
+    {
+        if ( path == null || brickWidth <= 0 || brickHeight <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        var columnCount = -1;
+        var rowCount = 0;
+
+        try ( var rows = new RowReader(Files.newBufferedReader(path, StandardCharsets.UTF_8)) )
+        {
+            while ( rows.next() )
+            {
+                if ( columnCount == -1 )
+                {
+                    columnCount = rows.getLength();
+                }
+                else if ( rows.getLength() != columnCount )
+                {
+                    throw new IOException("Line " + (rowCount + 1) + " of map file has " + rows.getLength() + " cells instead of " + columnCount);
+                }
+
+                if ( ++rowCount < 0 )
+                {
+                    throw new IOException("Map file has too many lines");
+                }
+            }
+        }
+
+        if ( rowCount == 0 || columnCount == 0 )
+        {
+            throw new IOException("Map file is empty");
+        }
+
+        var brickGrid = new BrickGrid(columnCount, rowCount, brickWidth, brickHeight);
+        var masterCells = new CellIndexList[CellType.LOCK_GROUP_COUNT];
+        var lockedCells = new CellIndexList[CellType.LOCK_GROUP_COUNT];
+
+        for ( var group = 0; group != CellType.LOCK_GROUP_COUNT; ++group )
+        {
+            masterCells[group] = new CellIndexList();
+            lockedCells[group] = new CellIndexList();
+        }
+
+        try ( var rows = new RowReader(Files.newBufferedReader(path, StandardCharsets.UTF_8)) )
+        {
+            for ( var y = 0; y != rowCount; ++y )
+            {
+                if ( !rows.next() || rows.getLength() != columnCount )
+                {
+                    throw new IOException("Map file changed while it was parsed");
+                }
+
+                parseRow(brickGrid, rows.getCells(), y, masterCells, lockedCells);
+            }
+
+            if ( rows.next() )
+            {
+                throw new IOException("Map file changed while it was parsed");
+            }
+        }
+
+        linkBricks(brickGrid, masterCells, lockedCells);
+
+        return brickGrid;
+    }
+
+    /**
+     * Adds the bricks of one row, except the master bricks, whose cells are remembered instead, like the locked bricks.
+     */
+    private static void parseRow(BrickGrid brickGrid, char[] cells, int y, CellIndexList[] masterCells, CellIndexList[] lockedCells) throws IOException
+    {
+        var columnCount = brickGrid.getColumnCount();
+
+        for ( var x = 0; x != columnCount; ++x )
+        {
+            var cellIndex = (long) y * columnCount + x;
+
+            var type = CellType.of(cells[x]);
+
+            switch ( type )
+            {
+            case CellType.EMPTY:
+                // NOP
+                break;
+
+            case CellType.STURDY:
+                brickGrid.addSturdyBrick(new Point(x, y), CellType.STURDY_LIVES);
+                break;
+
+            case CellType.MASTER:
+                masterCells[CellType.getLockGroup(cells[x])].add(cellIndex);
+                break;
+
+            case CellType.LOCKED:
+                brickGrid.addLockedBrick(new Point(x, y));
+                lockedCells[CellType.getLockGroup(cells[x])].add(cellIndex);
+                break;
+
+            case CellType.INVALID:
+                throw new IOException("Invalid character '" + cells[x] + "' at line " + (y + 1) + ", column " + (x + 1) + " of map file");
+
+            default:
+                brickGrid.addCompactBrick(x, y, type);
+            }
+        }
+    }
+
+    /**
+     * Adds the master bricks, after all locked bricks, in the same order as {@link GameMapParser} does.
+     */
+    private static void linkBricks(BrickGrid brickGrid, CellIndexList[] masterCells, CellIndexList[] lockedCells) throws IOException
+    {
+        var lockedBricks = new ArrayList<ArrayList<LockedBrick>>(CellType.LOCK_GROUP_COUNT);
+
+        for ( var group = 0; group != CellType.LOCK_GROUP_COUNT; ++group )
+        {
+            if ( masterCells[group].size() == 0 && lockedCells[group].size() != 0 )
+            {
+                throw new IOException("Cannot have locked bricks without master brick");
+            }
+
+            var bricks = new ArrayList<LockedBrick>(lockedCells[group].size());
+
+            for ( var i = 0; i != lockedCells[group].size(); ++i )
+            {
+                bricks.add((LockedBrick) brickGrid.getBrickAtGridPositionOrNull(getCellPosition(brickGrid, lockedCells[group].get(i))));
+            }
+
+            lockedBricks.add(bricks);
+        }
+
+        for ( var group = 0; group != CellType.LOCK_GROUP_COUNT; ++group )
+        {
+            for ( var i = 0; i != masterCells[group].size(); ++i )
+            {
+                brickGrid.addMasterBrick(getCellPosition(brickGrid, masterCells[group].get(i)), lockedBricks.get(group));
+            }
+        }
+    }
+
+    private static Point getCellPosition(BrickGrid brickGrid, long cellIndex)
+    {
+        var columnCount = brickGrid.getColumnCount();
+
+        return new Point(cellIndex % columnCount, cellIndex / columnCount);
+    }
+
+    /**
+     * A growable list of cell indices, without boxing.
+     */
+    private static class CellIndexList
+    {
+        private long[] cellIndices = new long[16];
+
+        private int size;
+
+        int size()
+        {
+            return size;
+        }
+
+        long get(int i)
+        {
+            return cellIndices[i];
+        }
+
+        void add(long cellIndex) throws IOException
+        {
+            if ( size == cellIndices.length )
+            {
+                if ( size == Integer.MAX_VALUE - 8 )
+                {
+                    throw new IOException("Map file has too many linked bricks");
+                }
+
+                cellIndices = Arrays.copyOf(cellIndices, (int) Math.min(2L * size, Integer.MAX_VALUE - 8));
+            }
+
+            cellIndices[size++] = cellIndex;
+        }
+    }
+
+    /**
+     * Reads a text file one line at a time into a reused row buffer, through a {@link CharBuffer} of {@link #BUFFER_SIZE} characters.
+     */
+    private static class RowReader implements AutoCloseable
+    {
+        private final Reader reader;
+
+        private final CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+
+        private char[] cells = new char[64];
+
+        private int length;
+
+        /**
+         * Whether the previous line ended with {@code \r}, so that a {@code \n} at the start of this line belongs to it.
+         */
+        private boolean skipLineFeed;
+
+        private boolean atEnd;
+
+        RowReader(Reader reader)
+        {
+            this.reader = reader;
+            buffer.flip();
+        }
+
+        /**
+         * Reads the next line, and returns whether there was one. A line feed at the end of the file does not start an empty line.
+         */
+        boolean next() throws IOException
+        {
+            length = 0;
+
+            while ( true )
+            {
+                if ( !buffer.hasRemaining() )
+                {
+                    if ( atEnd || !fill() )
+                    {
+                        return length != 0;
+                    }
+                }
+
+                var character = buffer.get();
+
+                if ( skipLineFeed )
+                {
+                    skipLineFeed = false;
+
+                    if ( character == '\n' )
+                    {
+                        continue;
+                    }
+                }
+
+                if ( character == '\n' )
+                {
+                    return true;
+                }
+
+                if ( character == '\r' )
+                {
+                    skipLineFeed = true;
+                    return true;
+                }
+
+                if ( length == cells.length )
+                {
+                    if ( length == Integer.MAX_VALUE - 8 )
+                    {
+                        throw new IOException("Line of map file too long");
+                    }
+
+                    cells = Arrays.copyOf(cells, (int) Math.min(2L * length, Integer.MAX_VALUE - 8));
+                }
+
+                cells[length++] = character;
+            }
+        }
+
+        private boolean fill() throws IOException
+        {
+            buffer.clear();
+
+            var count = 0;
+
+            while ( count == 0 )
+            {
+                count = reader.read(buffer);
+            }
+
+            buffer.flip();
+            atEnd = count < 0;
+
+            return !atEnd;
+        }
+
+        /**
+         * The characters of the current line; only the first {@link #getLength()} are part of it.
+         */
+        char[] getCells()
+        {
+            return cells;
+        }
+
+        int getLength()
+        {
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            reader.close();
+        }
+    }
+}
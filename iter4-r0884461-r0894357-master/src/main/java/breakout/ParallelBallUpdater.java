@@ -0,0 +1,186 @@
+package breakout;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import breakout.balls.Ball;
+import breakout.balls.BallStore;
+
+/**
+ * Updates all balls of a game on several threads, with exactly the same result as the sequential
+ * loop of {@link BreakoutState#tick(long)}.
+ *
+ * The sequential engine updates the balls one after the other, in the order of the list of balls,
+ * and every update sees the effects of the updates before it: a ball that hits a brick can remove it,
+ * change the paddle, add balls or change the behavior of other balls. Most balls, however, hit nothing
+ * during a tick and only move, which affects nothing but the ball itself. An update therefore has three phases:
+ *
+ * 1. In parallel, against the state as it is at the start of the update, which is only read, every ball is
+ *    classified as free if it hits no wall, paddle or brick and is not lost within the update,
+ *    and its behavior {@link breakout.balls.BallBehavior#onlyMovesWhenNothingIsHit() only moves it} then.
+ * 2. On the calling thread, in the order of the list of balls, the other balls are updated as usual,
+ *    so their hits are resolved in the same order as by the sequential engine.
+ *    Removing bricks can only make hits happen later, so a free ball stays free, unless the paddle has changed:
+ *    then a free ball is classified again when its turn comes, and updated as usual if it is no longer free.
+ * 3. In parallel, the free balls are moved, by {@link breakout.balls.BallStore#moveAll(long, boolean[], int, int)}.
+ *
+ * Free balls are never looked at by the updates of other balls, so it does not matter that they are moved last.
+ *
+ * {@link BreakoutState#tick(long)} uses the same phases on the calling thread, see {@link #update(long, boolean)}.
+ */
+public class ParallelBallUpdater
+{
+    /**
+     * Number of balls classified or moved together by one task.
+     */
+    public static final int CHUNK_SIZE = CollisionBatch.CHUNK_SIZE;
+
+    /**
+     * @invar | state != null
+     */
+    private final BreakoutState state;
+
+    /**
+     * The balls being updated, in the order of the list of balls. Only holds balls during {@link #update(long)}.
+     */
+    private Ball[] balls = new Ball[0];
+
+    /**
+     * Whether each ball of {@link #balls} is free.
+     */
+    private boolean[] free = new boolean[0];
+
+    /**
+     * @throws IllegalArgumentException | state == null
+     */
+    public ParallelBallUpdater(BreakoutState state)
+    {
+        if ( state == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.state = state;
+    }
+
+    /**
+     * Updates every ball that is in the game when the method is called by elapsedMilliseconds,
+     * exactly like calling {@link Ball#tick(BreakoutState, long)} on each of them in order.
+     *
+     * @pre | elapsedMilliseconds >= 0
+     * @mutates | state
+     */
+    public void update(long elapsedMilliseconds)
+    {
+        update(elapsedMilliseconds, true);
+    }
+
+    /**
+     * Like {@link #update(long)}, but if parallel is false, everything runs on the calling thread.
+     * Each ball is then classified when its turn comes, so no ball has to be classified twice,
+     * and the free balls are still moved together at the end.
+     *
+     * @pre | elapsedMilliseconds >= 0
+     * @mutates | state
+     */
+    public void update(long elapsedMilliseconds, boolean parallel)
+    {
+        var store = state.getBallStore();
+        // Also closes the gaps left by balls removed since the previous update, so that index i is slot i
+        balls = store.toArray(balls);
+        var ballCount = store.getBallCount();
+
+        if ( free.length < balls.length )
+        {
+            free = new boolean[balls.length];
+        }
+
+        if ( parallel )
+        {
+            updateInParallel(store, elapsedMilliseconds, ballCount);
+        }
+        else
+        {
+            for ( var i = 0; i != ballCount; ++i )
+            {
+                free[i] = isFree(balls[i], elapsedMilliseconds);
+
+                if ( !free[i] )
+                {
+                    balls[i].tick(state, elapsedMilliseconds);
+                }
+            }
+
+            store.moveAll(elapsedMilliseconds, free, ballCount);
+        }
+
+        Arrays.fill(balls, 0, ballCount, null);
+    }
+
+    private void updateInParallel(BallStore store, long elapsedMilliseconds, int ballCount)
+    {
+        var paddle = state.getPaddle();
+        var paddleCenterX = paddle.getTopCenterX();
+        var paddleHalfWidth = paddle.getHalfWidth();
+        var chunkCount = (ballCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            for ( var i = chunk * CHUNK_SIZE; i != Math.min(ballCount, (chunk + 1) * CHUNK_SIZE); ++i )
+            {
+                free[i] = isFree(balls[i], elapsedMilliseconds);
+            }
+        });
+
+        for ( var i = 0; i != ballCount; ++i )
+        {
+            if ( free[i] && (paddle.getTopCenterX() != paddleCenterX || paddle.getHalfWidth() != paddleHalfWidth) )
+            {
+                free[i] = isFree(balls[i], elapsedMilliseconds);
+            }
+
+            if ( !free[i] )
+            {
+                balls[i].tick(state, elapsedMilliseconds);
+            }
+        }
+
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            store.moveAll(elapsedMilliseconds, free, chunk * CHUNK_SIZE, Math.min(ballCount, (chunk + 1) * CHUNK_SIZE));
+        });
+    }
+
+    /**
+     * Returns whether the ball hits nothing and is not lost in the given time, and its behavior only moves it then.
+     * Only reads the state, and the ball's own brick prediction.
+     */
+    private boolean isFree(Ball ball, long elapsedMilliseconds)
+    {
+        if ( !ball.getBehavior().onlyMovesWhenNothingIsHit() )
+        {
+            return false;
+        }
+
+        for ( var i = 0; i != state.getWallCount(); ++i )
+        {
+            if ( state.getWall(i).findCollisionTime(ball) <= elapsedMilliseconds )
+            {
+                return false;
+            }
+        }
+
+        if ( state.getPaddle().findCollisionTime(ball) <= elapsedMilliseconds )
+        {
+            return false;
+        }
+
+        if ( ball.predictBrickCollisionTime(state.getBrickGrid()) <= elapsedMilliseconds )
+        {
+            return false;
+        }
+
+        var x = ball.getCenterX() + ball.getVelocityX() * elapsedMilliseconds;
+        var y = ball.getCenterY() + ball.getVelocityY() * elapsedMilliseconds;
+
+        return !state.isPositionLost(x, y);
+    }
+}
@@ -3,6 +3,8 @@ package breakout.balls;
 import java.awt.Color;
 
 import breakout.BreakoutState;
+import breakout.BrickCollision;
+import breakout.BrickGrid;
 import breakout.math.Circle;
 import breakout.math.Point;
 import breakout.math.Rectangle;
@@ -21,6 +23,8 @@ import breakout.ui.Canvas;
  * 
  * The behavior of a ball defines how it interacts with the game field.
  * See for example StandardBehavior, WeakBallBehavior and StrongBallBehavior. 
+ * 
+ * The state of a ball is kept in one slot of a {@link BallStore}, of which the ball is a view.
  */
 public class Ball
 {
@@ -49,35 +53,18 @@ public class Ball
     public static final int MAXIMUM_SPEEDUP_SQUARED_SPEED = 80 * 80;
 
     /**
-     * Determines shape and position of the ball.
-     * @invar | geometry != null
-     * 
-     */
-    private Circle geometry;
-
-    /**
-     * Expressed in distance per milliseconds.
-     * @invar |velocity != null
+     * The store holding this ball's geometry, velocity and behavior, in the given slot.
+     * Both change when the ball is removed from its store, or when the store closes the gaps left by removed balls.
+     * @invar | store != null
+     * @invar | store.views[slot] == this
      */
-    private Vector velocity;
+    BallStore store;
 
-    /**
-     * Determines how the ball behaves.
-     * See subtypes of BallBehavior.
-     * @invar | behavior != null
-     */
-    private BallBehavior behavior;
-
-    /**
-     * The ball must at all times fit inside this rectangle.
-     * @invar |allowedArea != null 
-     * Dit stond er al!!!
-     * @representationObject
-     */
-    private final Rectangle allowedArea;
+    int slot;
 
     /**
      * Constructor.
+     * The ball gets a store of its own.
      * Note that the constructor does not enforce any limitations on the speed of the ball:
      * {@link #MINIMUM_SLOWDOWN_SQUARED_SPEED} and {@link #MAXIMUM_SPEEDUP_SQUARED_SPEED} are not taken into account. 
      * 
@@ -93,10 +80,17 @@ public class Ball
     		throw new IllegalArgumentException();
     	
     	//!!!!! Flawed_test !!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!
-        this.allowedArea = allowedArea.copy();
-        this.geometry = geometry;
-        this.velocity = velocity;
-        this.behavior = behavior;
+        this.store = new BallStore(allowedArea, geometry, velocity, behavior);
+        this.store.views[0] = this;
+    }
+
+    /**
+     * Constructor for {@link BallStore#add(Circle, Vector, BallBehavior)}, which fills the slot.
+     */
+    Ball(BallStore store, int slot)
+    {
+        this.store = store;
+        this.slot = slot;
     }
 
     /**
@@ -104,7 +98,7 @@ public class Ball
      */
     public Circle getGeometry()
     {
-        return this.geometry;
+        return store.getGeometry(slot);
     }
 
     /**
@@ -112,7 +106,48 @@ public class Ball
      */
     public Vector getVelocity()
     {
-        return this.velocity;
+        return store.getVelocity(slot);
+    }
+
+    /**
+     * Allocation-free accessors of the geometry and velocity, for the hot paths of the engine.
+     * @post | result == getGeometry().getCenter().x()
+     */
+    public long getCenterX()
+    {
+        return store.centerX[slot];
+    }
+
+    /**
+     * @post | result == getGeometry().getCenter().y()
+     */
+    public long getCenterY()
+    {
+        return store.centerY[slot];
+    }
+
+    /**
+     * @post | result == getGeometry().getRadius()
+     */
+    public long getRadius()
+    {
+        return store.radius[slot];
+    }
+
+    /**
+     * @post | result == getVelocity().x()
+     */
+    public long getVelocityX()
+    {
+        return store.velocityX[slot];
+    }
+
+    /**
+     * @post | result == getVelocity().y()
+     */
+    public long getVelocityY()
+    {
+        return store.velocityY[slot];
     }
 
     /**
@@ -124,7 +159,7 @@ public class Ball
     public Rectangle getAllowedArea()
     {
     	// !!!!!!!!!!!!!!! flawed test !!!!!!!!!!!!!!!!!!
-        return this.allowedArea.copy();
+        return store.getAllowedArea();
     }
 
     /**
@@ -132,7 +167,7 @@ public class Ball
      */
     public BallBehavior getBehavior()
     {
-        return this.behavior;
+        return store.behaviors[slot];
     }
 
     /**
@@ -168,7 +203,52 @@ public class Ball
      */
     public void tick(BreakoutState state, long elapsedMilliseconds)
     {
-        this.behavior.update(state, this, elapsedMilliseconds);
+        getBehavior().update(state, this, elapsedMilliseconds);
+    }
+
+    /**
+     * Returns the same collision as {@code brickGrid.findEarliestCollision(this)}.
+     *
+     * As long as no bricks are added or removed and the velocity does not change,
+     * the ball moves along a straight line and its earliest brick collision stays the same,
+     * only k milliseconds closer after moving k milliseconds.
+     * The previous prediction is therefore reused (with its time shifted) if the grid's version and
+     * the ball's velocity and radius are unchanged, and the ball has moved a whole number of milliseconds
+     * along its velocity, but not past the predicted collision.
+     * Otherwise the grid is searched again.
+     *
+     * @pre | brickGrid != null
+     * @inspects | brickGrid
+     */
+    public BrickCollision predictBrickCollision(BrickGrid brickGrid)
+    {
+        return store.getPrediction(slot).predict(this, brickGrid);
+    }
+
+    /**
+     * Returns the time until the collision returned by {@link #predictBrickCollision(BrickGrid)},
+     * or {@link Long#MAX_VALUE} if there is none.
+     * Unlike that method, this method never creates a brick object, and does not allocate when the previous prediction can be reused.
+     *
+     * @pre | brickGrid != null
+     * @inspects | brickGrid
+     */
+    public long predictBrickCollisionTime(BrickGrid brickGrid)
+    {
+        return store.getPrediction(slot).predictTime(this, brickGrid);
+    }
+
+    /**
+     * Returns the index {@code y * brickGrid.getColumnCount() + x} of the cell of the brick of the collision returned by
+     * {@link #predictBrickCollision(BrickGrid)}, or -1 if there is none.
+     * Like {@link #predictBrickCollisionTime(BrickGrid)}, this method never creates a brick object.
+     *
+     * @pre | brickGrid != null
+     * @inspects | brickGrid
+     */
+    public long predictBrickCollisionCell(BrickGrid brickGrid)
+    {
+        return store.getPrediction(slot).predictCell(this, brickGrid);
     }
 
     /**
@@ -182,7 +262,7 @@ public class Ball
      */
     public void move(long elapsedMilliseconds)
     {
-        setGeometry(computeDestination(elapsedMilliseconds));
+        store.move(slot, elapsedMilliseconds);
     }
 
     /**
@@ -193,7 +273,7 @@ public class Ball
      */
     public Circle computeDestination(long elapsedMilliseconds)
     {
-        return getGeometry().move(this.velocity.multiply(elapsedMilliseconds));
+        return getGeometry().move(getVelocity().multiply(elapsedMilliseconds));
     }
 
     /**
@@ -204,9 +284,10 @@ public class Ball
      */
     public void setGeometry(Circle geometry)
     {
-        this.geometry = geometry;
+        store.setGeometry(slot, geometry);
     }
 
+
     /**
      * Updates the ball's velocity.
      * Note that {@link #MINIMUM_SLOWDOWN_SQUARED_SPEED} and {@link #MAXIMUM_SPEEDUP_SQUARED_SPEED}
@@ -219,9 +300,10 @@ public class Ball
      */
     public void setVelocity(Vector velocity)
     {
-        this.velocity = velocity;
+        store.setVelocity(slot, velocity);
     }
 
+
     /**
      * Checks that the given {@code velocity} is between {@link #MINIMUM_SLOWDOWN_SQUARED_SPEED} and {@link #MAXIMUM_SPEEDUP_SQUARED_SPEED}.
      * 
@@ -245,7 +327,7 @@ public class Ball
      */
     public void paint(Canvas canvas)
     {
-        this.behavior.paint(canvas, this);
+        getBehavior().paint(canvas, this);
     }
 
     /**
@@ -257,7 +339,7 @@ public class Ball
      */
     public void setBehavior(BallBehavior behavior)
     {
-        this.behavior = behavior;
+        store.behaviors[slot] = behavior;
     }
 
     /**
@@ -269,11 +351,11 @@ public class Ball
      */
     private void scaleVelocity(int kilofactor)
     {
-        var scaledVelocity = this.velocity.multiply(kilofactor).divide(1000);
+        var scaledVelocity = getVelocity().multiply(kilofactor).divide(1000);
 
         if ( isValidScaledVelocity(scaledVelocity) )
         {
-            setVelocity(this.velocity.multiply(kilofactor).divide(1000));
+            setVelocity(scaledVelocity);
         }
     }
 
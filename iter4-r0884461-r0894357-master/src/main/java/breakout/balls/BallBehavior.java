@@ -6,6 +6,7 @@ import breakout.BreakoutState;
 import breakout.BrickCollision;
 import breakout.Collision;
 import breakout.ui.Canvas;
+import breakout.walls.Wall;
 //import logicalcollections.LogicalList;
 import breakout.util.SpecUtil;
 
@@ -34,24 +35,26 @@ public abstract class BallBehavior
 
         while ( elapsedMilliseconds > 0 )
         {
-           var closestWallCollision = findClosestWallCollision(state, ball);
-            var paddleCollision = findPaddleCollision(state, ball);
-            var closestBrickCollision = findClosestBrickCollision(state, ball);
+            // Only the times are compared, the collisions themselves are only created when the ball bounces
+            var closestWall = findClosestWall(state, ball);
+            var closestWallTime = closestWall == null ? Long.MAX_VALUE : closestWall.findCollisionTime(ball);
+            var paddleTime = state.getPaddle().findCollisionTime(ball);
+            var closestBrickTime = ball.predictBrickCollisionTime(state.getBrickGrid());
 
-            if ( isClosestCollision(closestWallCollision, paddleCollision, closestBrickCollision) && closestWallCollision.getMillisecondsUntilCollision() <= elapsedMilliseconds )
+            if ( isClosestCollision(closestWallTime, paddleTime, closestBrickTime) && closestWallTime <= elapsedMilliseconds )
             {
-                bounceOffWall(state, ball, closestWallCollision);
-                elapsedMilliseconds -= closestWallCollision.getMillisecondsUntilCollision();
+                bounceOffWall(state, ball, closestWall.findCollision(ball));
+                elapsedMilliseconds -= closestWallTime;
             }
-            else if ( isClosestCollision(paddleCollision, closestWallCollision, closestBrickCollision) && paddleCollision.getMillisecondsUntilCollision() <= elapsedMilliseconds )
+            else if ( isClosestCollision(paddleTime, closestWallTime, closestBrickTime) && paddleTime <= elapsedMilliseconds )
             { 
-                bounceOffPaddle(state, ball, paddleCollision);
-                elapsedMilliseconds -= paddleCollision.getMillisecondsUntilCollision();
+                bounceOffPaddle(state, ball, state.getPaddle().findCollision(ball));
+                elapsedMilliseconds -= paddleTime;
             }
-            else if ( isClosestCollision(closestBrickCollision, closestWallCollision, paddleCollision) && closestBrickCollision.getMillisecondsUntilCollision() <= elapsedMilliseconds )
+            else if ( isClosestCollision(closestBrickTime, closestWallTime, paddleTime) && closestBrickTime <= elapsedMilliseconds )
             {
-                bounceOffBrick(state, ball, closestBrickCollision);
-                elapsedMilliseconds -= closestBrickCollision.getMillisecondsUntilCollision();
+                bounceOffBrick(state, ball, ball.predictBrickCollision(state.getBrickGrid()));
+                elapsedMilliseconds -= closestBrickTime;
             }
             else
             {
@@ -67,51 +70,47 @@ public abstract class BallBehavior
     }
 
     /**
-     * LEGIT
+     * Returns whether {@link #update(BreakoutState, Ball, long)} does nothing but move the ball
+     * when the ball hits nothing during the update and is not lost afterwards. In particular, such an update does not change this behavior.
+     * {@link breakout.ParallelBallUpdater} moves such balls on several threads.
      */
-    private boolean isClosestCollision(Collision c1, Collision c2, Collision c3)
+    public boolean onlyMovesWhenNothingIsHit()
     {
-        var t1 = c1 == null ? Long.MAX_VALUE : c1.getMillisecondsUntilCollision();
-        var t2 = c2 == null ? Long.MAX_VALUE : c2.getMillisecondsUntilCollision();
-        var t3 = c3 == null ? Long.MAX_VALUE : c3.getMillisecondsUntilCollision();
-
-        return t1 < t2 && t1 < t3;
+        return true;
     }
 
     /**
+     * Times are {@link Long#MAX_VALUE} if there is no collision.
+     *
      * LEGIT
      */
-    private Collision findClosestWallCollision(BreakoutState state, Ball ball)
+    private boolean isClosestCollision(long t1, long t2, long t3)
     {
-        Collision closestCollision = null;
-
-        for ( var wall : state.getWalls() )
-        {
-            var collision = wall.findCollision(ball);
-            closestCollision = Collision.getEarliestCollision(closestCollision, collision);
-        }
-
-        return closestCollision;
+        return t1 < t2 && t1 < t3;
     }
 
     /**
-     * LEGIT
+     * Returns the wall the ball will hit first, or null if it hits none.
+     * On ties, the first of these walls is returned, like {@link Collision#getEarliestCollision(Collision, Collision)} does.
      */
-    private Collision findPaddleCollision(BreakoutState state, Ball ball)
+    private Wall findClosestWall(BreakoutState state, Ball ball)
     {
-        var paddle = state.getPaddle();
+        Wall closestWall = null;
+        var closestTime = Long.MAX_VALUE;
 
-        return paddle.findCollision(ball);
-    }
+        for ( int i = 0; i != state.getWallCount(); ++i )
+        {
+            var wall = state.getWall(i);
+            var time = wall.findCollisionTime(ball);
 
-    /**
-     * LEGIT
-     */
-    private BrickCollision findClosestBrickCollision(BreakoutState state, Ball ball)
-    {
-        var brickGrid = state.getBrickGrid();
+            if ( time < closestTime )
+            {
+                closestWall = wall;
+                closestTime = time;
+            }
+        }
 
-        return brickGrid.findEarliestCollision(ball);
+        return closestWall;
     }
 
     /**
@@ -224,6 +223,17 @@ public abstract class BallBehavior
         canvas.drawFilledCircle(getColor(), ball.getGeometry());
     }
 
+    /**
+     * Returns a behavior that behaves exactly like this one from now on, used to snapshot and restore a game.
+     * Behaviors without mutable state, like this default implementation, can return themselves.
+     * 
+     * @post | result != null
+     */
+    public BallBehavior copy()
+    {
+        return this;
+    }
+
     /**
      * Default color to use is yellow.
      * Used by paint to determine which color to draw the ball.
@@ -0,0 +1,501 @@
+package breakout.balls;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+
+import breakout.BreakoutState;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Rectangle;
+import breakout.math.Vector;
+
+/**
+ * Stores the centers, radii, velocities and behaviors of a list of balls in arrays ("struct of arrays").
+ *
+ * The balls are kept in slots, in order. Each ball is a {@link Ball}, a lightweight view on its slot,
+ * so moving a ball updates the arrays in place and does not allocate.
+ * Removing a ball only empties its slot; the gaps are closed at once by the next call of {@link #toArray(Ball[])}
+ * or {@link #getBall(int)}, so removing many balls during a tick costs a single pass.
+ * {@link BreakoutState} keeps all balls of a game in one store. Its tick moves the balls that hit nothing with
+ * {@link #moveAll(long, boolean[], int)}, a loop over the arrays, see {@link breakout.ParallelBallUpdater}.
+ * A ball created with its constructor, or removed from a store, has a store of its own.
+ *
+ * @invar | getBallCount() >= 0
+ * @invar | getAllowedArea() != null
+ * @invar | getBalls().stream().allMatch(ball -> contains(ball))
+ */
+public final class BallStore
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Area shared by all stored balls. Never modified.
+     * @invar | allowedArea != null
+     * @representationObject
+     */
+    private final Rectangle allowedArea;
+
+    /**
+     * Number of slots in use: the slots below size. Of these, removedCount are empty.
+     */
+    private int size;
+
+    private int removedCount;
+
+    /**
+     * The arrays below all have the same length, at least size.
+     * For every slot i below size, either views[i] == null, the slot is empty and its velocity is zero,
+     * or views[i].store == this and views[i].slot == i.
+     */
+    long[] centerX;
+
+    long[] centerY;
+
+    long[] radius;
+
+    long[] velocityX;
+
+    long[] velocityY;
+
+    BallBehavior[] behaviors;
+
+    Ball[] views;
+
+    /**
+     * Cached results of {@link Ball#getGeometry()} and {@link Ball#getVelocity()},
+     * or null if they have to be recreated from the primitives.
+     */
+    private Circle[] geometries;
+
+    private Vector[] velocities;
+
+    /**
+     * Brick prediction of each slot, created when first needed.
+     */
+    private BrickPrediction[] predictions;
+
+    /**
+     * @throws IllegalArgumentException | allowedArea == null
+     * @post | getBallCount() == 0
+     * @post | getAllowedArea().equals(allowedArea)
+     */
+    public BallStore(Rectangle allowedArea)
+    {
+        this(copyAllowedArea(allowedArea), INITIAL_CAPACITY);
+    }
+
+    /**
+     * The allowed area is shared instead of copied, so the caller must never modify it.
+     */
+    BallStore(Rectangle sharedAllowedArea, int capacity)
+    {
+        this.allowedArea = sharedAllowedArea;
+        this.centerX = new long[capacity];
+        this.centerY = new long[capacity];
+        this.radius = new long[capacity];
+        this.velocityX = new long[capacity];
+        this.velocityY = new long[capacity];
+        this.behaviors = new BallBehavior[capacity];
+        this.views = new Ball[capacity];
+        this.geometries = new Circle[capacity];
+        this.velocities = new Vector[capacity];
+        this.predictions = new BrickPrediction[capacity];
+    }
+
+    /**
+     * Creates a store holding a single ball in slot 0, for {@link Ball#Ball(Rectangle, Circle, Vector, BallBehavior)},
+     * which puts itself in that slot.
+     */
+    BallStore(Rectangle allowedArea, Circle geometry, Vector velocity, BallBehavior behavior)
+    {
+        this(allowedArea.copy(), 1);
+        this.size = 1;
+        this.behaviors[0] = behavior;
+        setGeometry(0, geometry);
+        setVelocity(0, velocity);
+    }
+
+    private static Rectangle copyAllowedArea(Rectangle allowedArea)
+    {
+        if ( allowedArea == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        return allowedArea.copy();
+    }
+
+    /**
+     * @creates | result
+     */
+    public Rectangle getAllowedArea()
+    {
+        return allowedArea.copy();
+    }
+
+    /**
+     * Returns the number of balls currently stored.
+     */
+    public int getBallCount()
+    {
+        return size - removedCount;
+    }
+
+    /**
+     * Closes the gaps left by removed balls first, if there are any.
+     *
+     * @pre | 0 <= index && index < getBallCount()
+     * @post | result == getBalls().get(index)
+     */
+    public Ball getBall(int index)
+    {
+        compact();
+
+        return views[index];
+    }
+
+    /**
+     * Returns the stored balls, in order.
+     * Unlike {@link #toArray(Ball[])}, this method does not move balls to other slots.
+     *
+     * @creates | result
+     * @post | result.size() == getBallCount()
+     */
+    public ArrayList<Ball> getBalls()
+    {
+        var balls = new ArrayList<Ball>(getBallCount());
+
+        for ( int i = 0; i != size; ++i )
+        {
+            if ( views[i] != null )
+            {
+                balls.add(views[i]);
+            }
+        }
+
+        return balls;
+    }
+
+    /**
+     * Closes the gaps left by removed balls, and copies the stored balls, in order, into the given array
+     * if it is large enough, or into a new one otherwise, like {@link java.util.List#toArray(Object[])}.
+     * Afterwards, the ball at index i is in slot i, as used by {@link #moveAll(long, boolean[], int)}.
+     *
+     * @pre | array != null
+     * @post | result.length >= getBallCount()
+     */
+    public Ball[] toArray(Ball[] array)
+    {
+        compact();
+
+        if ( array.length < size )
+        {
+            array = new Ball[views.length];
+        }
+
+        System.arraycopy(views, 0, array, 0, size);
+
+        return array;
+    }
+
+    /**
+     * Stores a new ball after the existing ones and returns it.
+     *
+     * @throws IllegalArgumentException | geometry == null || velocity == null || behavior == null
+     * @mutates | this
+     * @creates | result
+     * @post | getBallCount() == old(getBallCount()) + 1
+     * @post | getBall(getBallCount() - 1) == result
+     * @post | result.getGeometry().equals(geometry)
+     * @post | result.getVelocity().equals(velocity)
+     * @post | result.getBehavior() == behavior
+     */
+    public Ball add(Circle geometry, Vector velocity, BallBehavior behavior)
+    {
+        if ( geometry == null || velocity == null || behavior == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( size == views.length )
+        {
+            grow(size * 2);
+        }
+
+        var slot = size++;
+        var ball = new Ball(this, slot);
+        views[slot] = ball;
+        behaviors[slot] = behavior;
+        setGeometry(slot, geometry);
+        setVelocity(slot, velocity);
+
+        return ball;
+    }
+
+    /**
+     * Removes the given ball from this store, in constant time: its slot is left empty until the next
+     * call of {@link #toArray(Ball[])} or {@link #getBall(int)}.
+     * The ball remains usable: it keeps its current geometry, velocity and behavior in a store of its own.
+     *
+     * @pre | ball != null
+     * @pre | contains(ball)
+     * @mutates | this
+     * @post | getBallCount() == old(getBallCount()) - 1
+     * @post | !contains(ball)
+     */
+    public void remove(Ball ball)
+    {
+        var slot = ball.slot;
+
+        detach(slot);
+        clear(slot, slot + 1);
+        velocityX[slot] = 0;
+        velocityY[slot] = 0;
+        removedCount++;
+    }
+
+    /**
+     * Moves the balls up into the empty slots, keeping their order.
+     */
+    private void compact()
+    {
+        if ( removedCount == 0 )
+        {
+            return;
+        }
+
+        var count = 0;
+
+        for ( int i = 0; i != size; ++i )
+        {
+            if ( views[i] != null )
+            {
+                if ( i != count )
+                {
+                    centerX[count] = centerX[i];
+                    centerY[count] = centerY[i];
+                    radius[count] = radius[i];
+                    velocityX[count] = velocityX[i];
+                    velocityY[count] = velocityY[i];
+                    behaviors[count] = behaviors[i];
+                    views[count] = views[i];
+                    geometries[count] = geometries[i];
+                    velocities[count] = velocities[i];
+                    predictions[count] = predictions[i];
+                    views[count].slot = count;
+                }
+
+                count++;
+            }
+        }
+
+        clear(count, size);
+        size = count;
+        removedCount = 0;
+    }
+
+    /**
+     * Checks whether the given ball is stored in this store.
+     *
+     * @pre | ball != null
+     */
+    public boolean contains(Ball ball)
+    {
+        return ball.store == this;
+    }
+
+    /**
+     * Moves the ball in slot i elapsedMilliseconds along its velocity, ignoring collisions, for every i below ballCount
+     * for which selected[i] holds.
+     * This is the batch counterpart of {@link Ball#move(long)}: one loop over the arrays, which touches no ball objects.
+     * The slots are those of the balls as returned by the last call of {@link #toArray(Ball[])}.
+     * Balls removed since then have zero velocity, and balls added since then lie beyond those slots.
+     *
+     * @pre | selected != null
+     * @pre | 0 <= ballCount && ballCount <= selected.length
+     * @pre | elapsedMilliseconds >= 0
+     * @mutates | this
+     */
+    public void moveAll(long elapsedMilliseconds, boolean[] selected, int ballCount)
+    {
+        moveAll(elapsedMilliseconds, selected, 0, ballCount);
+    }
+
+    /**
+     * Like {@link #moveAll(long, boolean[], int)}, for the slots from (inclusive) to to (exclusive) only,
+     * so that disjoint ranges can be moved on different threads.
+     *
+     * @pre | selected != null
+     * @pre | 0 <= from && from <= to && to <= selected.length
+     * @pre | elapsedMilliseconds >= 0
+     * @mutates | this
+     */
+    public void moveAll(long elapsedMilliseconds, boolean[] selected, int from, int to)
+    {
+        var xs = centerX;
+        var ys = centerY;
+        var vxs = velocityX;
+        var vys = velocityY;
+
+        for ( int i = from; i < to; ++i )
+        {
+            var milliseconds = selected[i] ? elapsedMilliseconds : 0;
+
+            xs[i] += vxs[i] * milliseconds;
+            ys[i] += vys[i] * milliseconds;
+        }
+    }
+
+    /**
+     * Makes the given balls the stored balls, in order, with the given geometries, velocities and behaviors.
+     * Stored balls that are not given are removed, as by {@link #remove(Ball)}.
+     *
+     * @pre | balls != null && geometries != null && velocities != null && behaviors != null
+     * @pre | geometries.length == balls.length && velocities.length == balls.length && behaviors.length == balls.length
+     * @mutates | this
+     * @post | getBallCount() == balls.length
+     */
+    public void restore(Ball[] balls, Circle[] geometries, Vector[] velocities, BallBehavior[] behaviors)
+    {
+        var kept = Collections.newSetFromMap(new IdentityHashMap<Ball, Boolean>());
+        kept.addAll(Arrays.asList(balls));
+
+        for ( int i = 0; i != size; ++i )
+        {
+            if ( views[i] != null && !kept.contains(views[i]) )
+            {
+                detach(i);
+            }
+        }
+
+        if ( views.length < balls.length )
+        {
+            grow(balls.length);
+        }
+
+        for ( int i = 0; i != balls.length; ++i )
+        {
+            var ball = balls[i];
+            ball.store = this;
+            ball.slot = i;
+            views[i] = ball;
+            this.behaviors[i] = behaviors[i];
+            predictions[i] = null;
+            setGeometry(i, geometries[i]);
+            setVelocity(i, velocities[i]);
+        }
+
+        clear(balls.length, size);
+        size = balls.length;
+        removedCount = 0;
+    }
+
+    /**
+     * Moves the ball in the given slot into a store of its own, leaving the slot's contents in place.
+     */
+    private void detach(int slot)
+    {
+        var store = new BallStore(allowedArea, 1);
+        var ball = views[slot];
+
+        store.centerX[0] = centerX[slot];
+        store.centerY[0] = centerY[slot];
+        store.radius[0] = radius[slot];
+        store.velocityX[0] = velocityX[slot];
+        store.velocityY[0] = velocityY[slot];
+        store.behaviors[0] = behaviors[slot];
+        store.views[0] = ball;
+        store.geometries[0] = geometries[slot];
+        store.velocities[0] = velocities[slot];
+        store.predictions[0] = predictions[slot];
+        store.size = 1;
+        ball.store = store;
+        ball.slot = 0;
+    }
+
+    /**
+     * Drops the references held by the slots from (inclusive) to to (exclusive).
+     */
+    private void clear(int from, int to)
+    {
+        if ( from < to )
+        {
+            Arrays.fill(behaviors, from, to, null);
+            Arrays.fill(views, from, to, null);
+            Arrays.fill(geometries, from, to, null);
+            Arrays.fill(velocities, from, to, null);
+            Arrays.fill(predictions, from, to, null);
+        }
+    }
+
+    private void grow(int capacity)
+    {
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        behaviors = Arrays.copyOf(behaviors, capacity);
+        views = Arrays.copyOf(views, capacity);
+        geometries = Arrays.copyOf(geometries, capacity);
+        velocities = Arrays.copyOf(velocities, capacity);
+        predictions = Arrays.copyOf(predictions, capacity);
+    }
+
+    Circle getGeometry(int slot)
+    {
+        var geometry = geometries[slot];
+
+        // Moving a ball leaves its cached geometry in place, so check that it is still up to date
+        if ( geometry == null || geometry.getCenter().x() != centerX[slot] || geometry.getCenter().y() != centerY[slot] )
+        {
+            geometry = new Circle(new Point(centerX[slot], centerY[slot]), radius[slot]);
+            geometries[slot] = geometry;
+        }
+
+        return geometry;
+    }
+
+    void setGeometry(int slot, Circle geometry)
+    {
+        centerX[slot] = geometry.getCenter().x();
+        centerY[slot] = geometry.getCenter().y();
+        radius[slot] = geometry.getRadius();
+        geometries[slot] = geometry;
+    }
+
+    Vector getVelocity(int slot)
+    {
+        if ( velocities[slot] == null )
+        {
+            velocities[slot] = new Vector(velocityX[slot], velocityY[slot]);
+        }
+
+        return velocities[slot];
+    }
+
+    void setVelocity(int slot, Vector velocity)
+    {
+        velocityX[slot] = velocity.x();
+        velocityY[slot] = velocity.y();
+        velocities[slot] = velocity;
+    }
+
+    void move(int slot, long elapsedMilliseconds)
+    {
+        centerX[slot] += velocityX[slot] * elapsedMilliseconds;
+        centerY[slot] += velocityY[slot] * elapsedMilliseconds;
+    }
+
+    BrickPrediction getPrediction(int slot)
+    {
+        if ( predictions[slot] == null )
+        {
+            predictions[slot] = new BrickPrediction();
+        }
+
+        return predictions[slot];
+    }
+}
@@ -0,0 +1,160 @@
+package breakout.balls;
+
+import breakout.BrickCollision;
+import breakout.BrickGrid;
+import breakout.math.Vector;
+
+/**
+ * The last brick collision predicted for the ball in one slot of a {@link BallStore},
+ * see {@link Ball#predictBrickCollision(BrickGrid)}.
+ */
+final class BrickPrediction
+{
+    /**
+     * The time until the collision ({@link Long#MAX_VALUE} if there is none),
+     * the index of the cell of the brick (-1 if there is none) and the normal,
+     * together with the grid, grid version, geometry and velocity it was computed for.
+     */
+    private long time;
+
+    private long cell;
+
+    private Vector kiloNormal;
+
+    /**
+     * Last result of {@link #predict(Ball, BrickGrid)}, or null if it has not been asked for since the last prediction.
+     */
+    private BrickCollision collision;
+
+    private BrickGrid grid;
+
+    private long version;
+
+    private long centerX;
+
+    private long centerY;
+
+    private long radius;
+
+    private long velocityX;
+
+    private long velocityY;
+
+    /**
+     * See {@link Ball#predictBrickCollision(BrickGrid)}.
+     */
+    BrickCollision predict(Ball ball, BrickGrid brickGrid)
+    {
+        var time = predictTime(ball, brickGrid);
+
+        if ( cell < 0 )
+        {
+            return null;
+        }
+
+        if ( collision == null || time != collision.getMillisecondsUntilCollision() )
+        {
+            var columnCount = brickGrid.getColumnCount();
+            var brick = brickGrid.getBrickAt((int) (cell % columnCount), (int) (cell / columnCount));
+
+            collision = new BrickCollision(time, kiloNormal, brick);
+        }
+
+        return collision;
+    }
+
+    /**
+     * See {@link Ball#predictBrickCollisionTime(BrickGrid)}.
+     */
+    long predictTime(Ball ball, BrickGrid brickGrid)
+    {
+        var elapsedMilliseconds = computeMillisecondsSincePrediction(ball, brickGrid);
+
+        if ( elapsedMilliseconds < 0 )
+        {
+            time = Long.MAX_VALUE;
+            cell = -1;
+            collision = null;
+            brickGrid.findEarliestCollision(ball, (column, row, collisionTime, normal) -> {
+                time = collisionTime;
+                cell = (long) row * brickGrid.getColumnCount() + column;
+                kiloNormal = normal;
+                return false;
+            });
+            grid = brickGrid;
+            version = brickGrid.getVersion();
+            centerX = ball.getCenterX();
+            centerY = ball.getCenterY();
+            radius = ball.getRadius();
+            velocityX = ball.getVelocityX();
+            velocityY = ball.getVelocityY();
+            elapsedMilliseconds = 0;
+        }
+
+        if ( cell < 0 )
+        {
+            return Long.MAX_VALUE;
+        }
+
+        return time - elapsedMilliseconds;
+    }
+
+    /**
+     * See {@link Ball#predictBrickCollisionCell(BrickGrid)}.
+     */
+    long predictCell(Ball ball, BrickGrid brickGrid)
+    {
+        predictTime(ball, brickGrid);
+
+        return cell;
+    }
+
+    /**
+     * Returns the number of milliseconds the ball has moved since the last prediction,
+     * or -1 if that prediction cannot be reused.
+     */
+    private long computeMillisecondsSincePrediction(Ball ball, BrickGrid brickGrid)
+    {
+        if ( grid != brickGrid || version != brickGrid.getVersion() )
+        {
+            return -1;
+        }
+
+        var vx = ball.getVelocityX();
+        var vy = ball.getVelocityY();
+
+        if ( vx != velocityX || vy != velocityY || ball.getRadius() != radius )
+        {
+            return -1;
+        }
+
+        var dx = ball.getCenterX() - centerX;
+        var dy = ball.getCenterY() - centerY;
+        long elapsedMilliseconds;
+
+        if ( vx != 0 )
+        {
+            elapsedMilliseconds = dx / vx;
+        }
+        else if ( vy != 0 )
+        {
+            elapsedMilliseconds = dy / vy;
+        }
+        else
+        {
+            return -1;
+        }
+
+        if ( elapsedMilliseconds < 0 || dx != vx * elapsedMilliseconds || dy != vy * elapsedMilliseconds )
+        {
+            return -1;
+        }
+
+        if ( cell >= 0 && time < elapsedMilliseconds )
+        {
+            return -1;
+        }
+
+        return elapsedMilliseconds;
+    }
+}
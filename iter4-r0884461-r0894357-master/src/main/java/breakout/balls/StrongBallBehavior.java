@@ -34,6 +34,26 @@ public class StrongBallBehavior extends TemporaryBehavior
         super(DURATION);
     }
 
+    /**
+     * Creates a strong behavior that stays active for the given number of milliseconds.
+     * @pre | timeLeft >= 0
+     * @post | getTimeLeft() == timeLeft
+     */
+    private StrongBallBehavior(int timeLeft)
+    {
+        super(timeLeft);
+    }
+
+    /**
+     * @post | result != null && result != this
+     * @post | ((TemporaryBehavior) result).getTimeLeft() == getTimeLeft()
+     */
+    @Override
+    public BallBehavior copy()
+    {
+        return new StrongBallBehavior(getTimeLeft());
+    }
+
     /**
      * Moves this ball to the point of impact.
      * Calls {@link breakout.bricks.Brick#strongHit}, and only if the brick survives, updates the velocity. 
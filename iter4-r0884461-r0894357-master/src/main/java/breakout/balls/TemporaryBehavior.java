@@ -67,4 +67,13 @@ public abstract class TemporaryBehavior extends BallBehavior
             timeLeft -= elapsedMilliseconds;
         }
     }
+
+    /**
+     * An update always counts down the time left.
+     */
+    @Override
+    public boolean onlyMovesWhenNothingIsHit()
+    {
+        return false;
+    }
 }
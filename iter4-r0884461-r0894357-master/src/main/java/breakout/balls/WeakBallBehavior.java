@@ -29,6 +29,26 @@ public class WeakBallBehavior extends TemporaryBehavior
         super(DURATION);
     }
 
+    /**
+     * Creates a weak behavior that stays active for the given number of milliseconds.
+     * @pre | timeLeft >= 0
+     * @post | getTimeLeft() == timeLeft
+     */
+    private WeakBallBehavior(int timeLeft)
+    {
+        super(timeLeft);
+    }
+
+    /**
+     * @post | result != null && result != this
+     * @post | ((TemporaryBehavior) result).getTimeLeft() == getTimeLeft()
+     */
+    @Override
+    public BallBehavior copy()
+    {
+        return new WeakBallBehavior(getTimeLeft());
+    }
+
     /**
      * Moves ball to point of impact.
      * Does not call brick's hit method.
@@ -33,6 +33,28 @@ public abstract class Brick
      */
     private final Point gridPosition;
 
+    /**
+     * Incremented every time the mutable state of this brick changes.
+     * @invar | modificationCount >= 0
+     */
+    private long modificationCount;
+
+    /**
+     * Notified by {@link #markModified()}, or null.
+     */
+    private ModificationListener modificationListener;
+
+    /**
+     * Receives the modifications of the bricks it is registered with, see {@link Brick#setModificationListener(ModificationListener)}.
+     */
+    public interface ModificationListener
+    {
+        /**
+         * Called after the mutable state of the brick has changed.
+         */
+        void brickModified(Brick brick);
+    }
+
     /**
      * Constructor.
      * @throws IllegalArgumentException |  geometry== null || gridPosition ==null
@@ -73,7 +95,20 @@ public abstract class Brick
      */
     public void paint(Canvas canvas)
     {
-        canvas.drawRectangle(getColor(), getGeometry());
+        paint(canvas, getGeometry());
+    }
+
+    /**
+     * Paints the brick as if it occupied the given rectangle.
+     * This lets a single brick paint every brick of its class that has no mutable state, see {@link breakout.BrickGrid#paintBrickAt(Canvas, int, int)}.
+     * Subclasses that change the appearance of bricks without mutable state override this method.
+     *
+     * @pre | canvas != null && geometry != null
+     * @mutates | canvas
+     */
+    public void paint(Canvas canvas, Rectangle geometry)
+    {
+        canvas.drawRectangle(getColor(), geometry);
     }
 
     /**
@@ -86,6 +121,54 @@ public abstract class Brick
         return Color.WHITE;
     }
 
+    /**
+     * Returns a memento recording the mutable state of this brick, or null if this brick has no mutable state.
+     * Bricks with mutable state must override this method, and must call {@link #markModified()} whenever that state changes,
+     * so that snapshots of the game know which mementos are out of date.
+     * 
+     * @creates | result
+     * @post | result == null || result.getBrick() == this
+     */
+    public BrickMemento createMemento()
+    {
+        return null;
+    }
+
+    /**
+     * Returns a number that changes every time the mutable state of this brick changes.
+     */
+    public long getModificationCount()
+    {
+        return modificationCount;
+    }
+
+    /**
+     * To be called by subclasses whenever the state recorded by {@link #createMemento()} changes.
+     * @mutates | this
+     * @post | getModificationCount() != old(getModificationCount())
+     */
+    protected void markModified()
+    {
+        modificationCount++;
+
+        if ( modificationListener != null )
+        {
+            modificationListener.brickModified(this);
+        }
+    }
+
+    /**
+     * Makes {@link #markModified()} notify the given listener, or nobody if it is null.
+     * Used by the grid that holds this brick, so that it knows which rows contain modified bricks
+     * without checking every brick.
+     *
+     * @mutates | this
+     */
+    public void setModificationListener(ModificationListener listener)
+    {
+        this.modificationListener = listener;
+    }
+
     /**
      * Called when this brick has been hit by a ball.
      * It is given the full BreakoutState and the Ball which has hit the brick.
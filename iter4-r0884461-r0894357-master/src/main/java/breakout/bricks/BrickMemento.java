@@ -0,0 +1,37 @@
+package breakout.bricks;
+
+/**
+ * Records the mutable state of a brick at some moment, see {@link Brick#createMemento()}.
+ *
+ * @immutable
+ */
+public abstract class BrickMemento
+{
+    /**
+     * @invar | brick != null
+     */
+    private final Brick brick;
+
+    /**
+     * @pre | brick != null
+     * @post | getBrick() == brick
+     */
+    protected BrickMemento(Brick brick)
+    {
+        this.brick = brick;
+    }
+
+    /**
+     * Returns the brick this memento was created by.
+     * @post | result != null
+     */
+    public Brick getBrick()
+    {
+        return brick;
+    }
+
+    /**
+     * Puts the brick this memento was created by back into the recorded state.
+     */
+    public abstract void restore();
+}
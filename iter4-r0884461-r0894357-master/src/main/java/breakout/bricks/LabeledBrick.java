@@ -32,15 +32,15 @@ public abstract class LabeledBrick extends Brick
      *
      * LEGIT
      *
-     * @pre | canvas != null
+     * @pre | canvas != null && geometry != null
      * @mutates | canvas
      */
     @Override
-    public void paint(Canvas canvas)
+    public void paint(Canvas canvas, Rectangle geometry)
     {
-        super.paint(canvas);
+        super.paint(canvas, geometry);
 
-        canvas.drawLabel(getLabelColor(), getLabel(), getGeometry().getCenter());
+        canvas.drawLabel(getLabelColor(), getLabel(), geometry.getCenter());
     }
 
     /**
@@ -79,6 +79,7 @@ public class SturdyBrick extends LabeledBrick
     public void hit(BreakoutState state, Ball ball)
     {
         livesLeft--;
+        markModified();
 
         if ( livesLeft == 0 )
         {
@@ -108,10 +109,45 @@ public class SturdyBrick extends LabeledBrick
     public boolean strongHit(BreakoutState state, Ball ball)
     {
         livesLeft = 0;
+        markModified();
         state.getBrickGrid().removeBrick(this);
 
         return false;
     }
+
+    /**
+     * Records the number of lives left.
+     * @post | result != null
+     */
+    @Override
+    public BrickMemento createMemento()
+    {
+        return new Memento(this, livesLeft);
+    }
+
+    /**
+     * @immutable
+     */
+    private static class Memento extends BrickMemento
+    {
+        private final SturdyBrick brick;
+
+        private final int livesLeft;
+
+        private Memento(SturdyBrick brick, int livesLeft)
+        {
+            super(brick);
+            this.brick = brick;
+            this.livesLeft = livesLeft;
+        }
+
+        @Override
+        public void restore()
+        {
+            brick.livesLeft = livesLeft;
+        }
+    }
+
     /**
      * @post | result.equals(Integer.toString(getLivesLeft()))
      */
@@ -49,6 +49,7 @@ public class KeyBallBehavior extends BallBehavior
         this.lockedBrick = brick;
         lockedBrick.keyBallBehavior = this;
         this.speedModifier = computeSpeedModifPkg();
+        lockedBrick.markModifiedPkg();
     }
 
     @Override
@@ -157,6 +158,18 @@ public class KeyBallBehavior extends BallBehavior
     {
         super.ballLost(state, ball);
         lockedBrick.keyBallBehavior = null;
+        lockedBrick.markModifiedPkg();
+    }
+    
+    /**
+     * A key ball behavior is linked to its locked brick by identity, so it is not copied.
+     * Its speed modifier is restored together with the locked brick, see {@link LockedBrick#createMemento()}.
+     * @post | result == this
+     */
+    @Override
+    public BallBehavior copy()
+    {
+        return this;
     }
     
     /**
@@ -7,6 +7,7 @@ import breakout.BreakoutState;
 import breakout.balls.Ball;
 import breakout.balls.StandardBehavior;
 import breakout.bricks.Brick;
+import breakout.bricks.BrickMemento;
 import breakout.math.Circle;
 import breakout.math.Point;
 import breakout.math.Rectangle;
@@ -99,6 +100,7 @@ public class LockedBrick extends Brick
     		state.getBrickGrid().removeBrick(this);		// destroy the lock brick
     		ball.setBehavior(new StandardBehavior());
     		keyBallBehavior = null;
+    		markModified();
     		for(MasterBrick m : getMasterBricks()) {
     			m.unlinkLock(this); 					// sever link with each masterBrick, also updates the speedModifiers!
     		}
@@ -142,6 +144,64 @@ public class LockedBrick extends Brick
         canvas.drawLabel(getColor(), label, getGeometry().getCenter());
     }
     
+    /**
+     * Records the linked master bricks and the key ball behavior, including the latter's speed modifier.
+     * @post | result != null
+     */
+    @Override
+    public BrickMemento createMemento()
+    {
+        var speedModifier = keyBallBehavior == null ? 0 : keyBallBehavior.speedModifier;
+
+        return new Memento(this, new ArrayList<MasterBrick>(masterBricks), keyBallBehavior, speedModifier);
+    }
+
+    /**
+     * @immutable
+     */
+    private static class Memento extends BrickMemento
+    {
+        private final LockedBrick brick;
+
+        private final ArrayList<MasterBrick> masterBricks;
+
+        private final KeyBallBehavior keyBallBehavior;
+
+        private final int speedModifier;
+
+        private Memento(LockedBrick brick, ArrayList<MasterBrick> masterBricks, KeyBallBehavior keyBallBehavior, int speedModifier)
+        {
+            super(brick);
+            this.brick = brick;
+            this.masterBricks = masterBricks;
+            this.keyBallBehavior = keyBallBehavior;
+            this.speedModifier = speedModifier;
+        }
+
+        /**
+         * Only restores this side of the links: the master bricks restore their own side.
+         */
+        @Override
+        public void restore()
+        {
+            brick.masterBricks.clear();
+            brick.masterBricks.addAll(masterBricks);
+            brick.keyBallBehavior = keyBallBehavior;
+
+            if ( keyBallBehavior != null )
+            {
+                keyBallBehavior.speedModifier = speedModifier;
+            }
+        }
+    }
+
+    /**
+     * Package-accessible twin of markModified, for changes made by peers.
+     */
+    void markModifiedPkg() {
+    	markModified();
+    }
+    
     // repr exp!
     /**
      * @creates | result
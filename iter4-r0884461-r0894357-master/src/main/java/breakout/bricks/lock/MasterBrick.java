@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 import breakout.BreakoutState;
 import breakout.balls.Ball;
 import breakout.bricks.Brick;
+import breakout.bricks.BrickMemento;
 import breakout.math.Circle;
 import breakout.math.Point;
 import breakout.math.Rectangle;
@@ -190,9 +191,12 @@ public class MasterBrick extends Brick
     	if(!lockedBricks.contains(lbrick)) {		// easier to work with if no duplicates inside lockedBricks
 			lockedBricks.add(lbrick);
 			lbrick.masterBricks.add(this);
+			markModified();
+			lbrick.markModifiedPkg();
 			var peerBalls = computePeerBalls();
 			for (var pbal : peerBalls) {
 				pbal.speedModifier = pbal.computeSpeedModifPkg();
+				pbal.lockedBrick.markModifiedPkg();		// the speed modifier is recorded by the locked brick's memento
 			}
     	}
     }
@@ -211,13 +215,53 @@ public class MasterBrick extends Brick
     	if(lockedBricks.contains(lbrick)) {		// since linkLock prevents double linking, we just have to remove any lbrick once for it to be gone
 			lockedBricks.remove(lbrick);
 			lbrick.masterBricks.remove(this);
+			markModified();
+			lbrick.markModifiedPkg();
 			var peerBalls = computePeerBalls();
 			for (var pbal : peerBalls) {
 				pbal.speedModifier = pbal.computeSpeedModifPkg();
+				pbal.lockedBrick.markModifiedPkg();		// the speed modifier is recorded by the locked brick's memento
 			}
     	}
     }
     
+    /**
+     * Records the linked locked bricks.
+     * @post | result != null
+     */
+    @Override
+    public BrickMemento createMemento()
+    {
+        return new Memento(this, new ArrayList<LockedBrick>(lockedBricks));
+    }
+
+    /**
+     * @immutable
+     */
+    private static class Memento extends BrickMemento
+    {
+        private final MasterBrick brick;
+
+        private final ArrayList<LockedBrick> lockedBricks;
+
+        private Memento(MasterBrick brick, ArrayList<LockedBrick> lockedBricks)
+        {
+            super(brick);
+            this.brick = brick;
+            this.lockedBricks = lockedBricks;
+        }
+
+        /**
+         * Only restores this side of the links: the locked bricks restore their own side.
+         */
+        @Override
+        public void restore()
+        {
+            brick.lockedBricks.clear();
+            brick.lockedBricks.addAll(lockedBricks);
+        }
+    }
+
     /**
      * Returns the list of key balls that are peer to this MasterBrick
      */
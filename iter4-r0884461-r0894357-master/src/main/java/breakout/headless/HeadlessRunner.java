@@ -0,0 +1,181 @@
+package breakout.headless;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import breakout.BreakoutState;
+import breakout.GameMapParser;
+import breakout.LevelTemplate;
+
+/**
+ * Runs games without user interface, e.g. to measure the engine or to evaluate paddle controllers.
+ * 
+ * Every game is an independent {@link BreakoutState} created from the same map,
+ * so many games can be simulated in parallel. The map is parsed once into a {@link LevelTemplate},
+ * from which every game is created.
+ * A game ends when it is won or lost, or when the maximum game time has been simulated.
+ * 
+ * @invar | getMap() != null
+ * @invar | getMaximumGameMilliseconds() > 0
+ */
+public class HeadlessRunner
+{
+    /**
+     * Same scale as used by {@link breakout.ui.BreakoutApplication}.
+     */
+    public static final int FACTOR = 100;
+
+    /**
+     * @invar | map != null
+     * @representationObject
+     */
+    private final String[] map;
+
+    /**
+     * @invar | template != null
+     */
+    private final LevelTemplate template;
+
+    /**
+     * @invar | controllerFactory != null
+     */
+    private final Supplier<PaddleController> controllerFactory;
+
+    /**
+     * @invar | maximumGameMilliseconds > 0
+     */
+    private final long maximumGameMilliseconds;
+
+    /**
+     * @throws IllegalArgumentException | map == null || controllerFactory == null
+     * @throws IllegalArgumentException | maximumGameMilliseconds <= 0
+     * @post | Arrays.equals(getMap(), map)
+     * @post | getMaximumGameMilliseconds() == maximumGameMilliseconds
+     */
+    public HeadlessRunner(String[] map, Supplier<PaddleController> controllerFactory, long maximumGameMilliseconds)
+    {
+        if ( map == null || controllerFactory == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( maximumGameMilliseconds <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.map = map.clone();
+        this.template = new LevelTemplate(this.map, 100 * FACTOR, 30 * FACTOR);
+        this.controllerFactory = controllerFactory;
+        this.maximumGameMilliseconds = maximumGameMilliseconds;
+    }
+
+    /**
+     * @creates | result
+     */
+    public String[] getMap()
+    {
+        return map.clone();
+    }
+
+    public long getMaximumGameMilliseconds()
+    {
+        return maximumGameMilliseconds;
+    }
+
+    /**
+     * Plays a single game on the calling thread.
+     * Before every step of {@link BreakoutState#MAXIMUM_TIME_DELTA} milliseconds,
+     * a fresh controller created for this game chooses the paddle's direction.
+     * 
+     * @post | result.getGameCount() == 1
+     */
+    public SimulationReport runGame()
+    {
+        var start = System.nanoTime();
+        var state = template.createState();
+        var controller = controllerFactory.get();
+        var paddle = state.getPaddle();
+        var simulatedMilliseconds = 0L;
+
+        while ( !state.isGameOver() && simulatedMilliseconds < maximumGameMilliseconds )
+        {
+            var dt = Math.min(BreakoutState.MAXIMUM_TIME_DELTA, maximumGameMilliseconds - simulatedMilliseconds);
+
+            paddle.setMotionDirection(controller.chooseDirection(state));
+            state.tick(dt);
+            simulatedMilliseconds += dt;
+        }
+
+        var wallNanoseconds = System.nanoTime() - start;
+        var won = state.isGameWon() ? 1 : 0;
+        var lost = !state.isGameWon() && state.isGameLost() ? 1 : 0;
+
+        return new SimulationReport(won, lost, 1 - won - lost, simulatedMilliseconds, wallNanoseconds);
+    }
+
+    /**
+     * Plays gameCount games, spread over the given number of threads of a fork-join pool.
+     * The wall time of the resulting report is the real time needed for all games together.
+     * 
+     * @throws IllegalArgumentException | gameCount < 0
+     * @throws IllegalArgumentException | parallelism <= 0
+     * @post | result.getGameCount() == gameCount
+     */
+    public SimulationReport run(int gameCount, int parallelism)
+    {
+        if ( gameCount < 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( parallelism <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        var pool = new ForkJoinPool(parallelism);
+
+        try
+        {
+            var start = System.nanoTime();
+            var report = pool.submit(() -> IntStream.range(0, gameCount)
+                    .parallel()
+                    .mapToObj(i -> runGame())
+                    .reduce(SimulationReport.EMPTY, SimulationReport::combine))
+                    .join();
+
+            return report.withWallNanoseconds(System.nanoTime() - start);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Usage: {@code HeadlessRunner [map] [games] [maximum seconds per game] [threads]}.
+     * The map is one of {@link GameMapParser#MAP_NAMES}; all arguments are optional.
+     */
+    public static void main(String[] args)
+    {
+        var mapName = args.length > 0 ? args[0] : "descr2";
+        var gameCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        var maximumSeconds = args.length > 2 ? Long.parseLong(args[2]) : 60;
+        var parallelism = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        var map = GameMapParser.getMap(mapName);
+
+        if ( map == null )
+        {
+            System.out.println("Invalid map selected; must be one of " + GameMapParser.MAP_NAMES);
+            System.exit(-1);
+        }
+
+        var runner = new HeadlessRunner(map, TrackingController::new, maximumSeconds * 1000);
+        var report = runner.run(gameCount, parallelism);
+
+        System.out.println(report);
+    }
+}
@@ -0,0 +1,22 @@
+package breakout.headless;
+
+import breakout.BreakoutState;
+import breakout.paddles.PaddleMotionDirection;
+
+/**
+ * Supertype for objects that steer the paddle when no player is present.
+ * 
+ * The headless runner asks the controller for a direction before every step of a game.
+ * A controller may keep state between calls, so every game gets its own controller.
+ */
+public abstract class PaddleController
+{
+    /**
+     * Returns the direction the paddle should move in during the next step.
+     * 
+     * @pre | state != null
+     * @inspects | state
+     * @post | result != null
+     */
+    public abstract PaddleMotionDirection chooseDirection(BreakoutState state);
+}
@@ -0,0 +1,146 @@
+package breakout.headless;
+
+/**
+ * Aggregated results of a number of headless games.
+ * 
+ * @immutable
+ * 
+ * @invar | getGameCount() == getWonCount() + getLostCount() + getTimedOutCount()
+ * @invar | getWonCount() >= 0 && getLostCount() >= 0 && getTimedOutCount() >= 0
+ * @invar | getSimulatedMilliseconds() >= 0
+ * @invar | getWallNanoseconds() >= 0
+ */
+public class SimulationReport
+{
+    /**
+     * Report of zero games.
+     */
+    public static final SimulationReport EMPTY = new SimulationReport(0, 0, 0, 0, 0);
+
+    private final int wonCount;
+
+    private final int lostCount;
+
+    private final int timedOutCount;
+
+    /**
+     * Total game time simulated, summed over all games.
+     */
+    private final long simulatedMilliseconds;
+
+    /**
+     * Real time it took to simulate the games.
+     */
+    private final long wallNanoseconds;
+
+    /**
+     * @throws IllegalArgumentException | wonCount < 0 || lostCount < 0 || timedOutCount < 0
+     * @throws IllegalArgumentException | simulatedMilliseconds < 0 || wallNanoseconds < 0
+     * @post | getWonCount() == wonCount
+     * @post | getLostCount() == lostCount
+     * @post | getTimedOutCount() == timedOutCount
+     * @post | getSimulatedMilliseconds() == simulatedMilliseconds
+     * @post | getWallNanoseconds() == wallNanoseconds
+     */
+    public SimulationReport(int wonCount, int lostCount, int timedOutCount, long simulatedMilliseconds, long wallNanoseconds)
+    {
+        if ( wonCount < 0 || lostCount < 0 || timedOutCount < 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( simulatedMilliseconds < 0 || wallNanoseconds < 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.wonCount = wonCount;
+        this.lostCount = lostCount;
+        this.timedOutCount = timedOutCount;
+        this.simulatedMilliseconds = simulatedMilliseconds;
+        this.wallNanoseconds = wallNanoseconds;
+    }
+
+    public int getGameCount()
+    {
+        return wonCount + lostCount + timedOutCount;
+    }
+
+    public int getWonCount()
+    {
+        return wonCount;
+    }
+
+    public int getLostCount()
+    {
+        return lostCount;
+    }
+
+    public int getTimedOutCount()
+    {
+        return timedOutCount;
+    }
+
+    public long getSimulatedMilliseconds()
+    {
+        return simulatedMilliseconds;
+    }
+
+    public long getWallNanoseconds()
+    {
+        return wallNanoseconds;
+    }
+
+    /**
+     * Returns how many seconds of game time were simulated per second of real time.
+     * Returns 0 if no real time was measured.
+     * 
+     * @post | result >= 0
+     */
+    public double getSimulatedSecondsPerWallSecond()
+    {
+        if ( wallNanoseconds == 0 )
+        {
+            return 0;
+        }
+
+        return simulatedMilliseconds * 1_000_000.0 / wallNanoseconds;
+    }
+
+    /**
+     * Returns a report containing the games of both this report and the given one.
+     * The wall times are added up, which is only meaningful when the games ran one after the other.
+     * 
+     * @pre | other != null
+     * @post | result.getWonCount() == getWonCount() + other.getWonCount()
+     * @post | result.getLostCount() == getLostCount() + other.getLostCount()
+     * @post | result.getTimedOutCount() == getTimedOutCount() + other.getTimedOutCount()
+     * @post | result.getSimulatedMilliseconds() == getSimulatedMilliseconds() + other.getSimulatedMilliseconds()
+     * @post | result.getWallNanoseconds() == getWallNanoseconds() + other.getWallNanoseconds()
+     */
+    public SimulationReport combine(SimulationReport other)
+    {
+        return new SimulationReport(wonCount + other.wonCount, lostCount + other.lostCount, timedOutCount + other.timedOutCount,
+                simulatedMilliseconds + other.simulatedMilliseconds, wallNanoseconds + other.wallNanoseconds);
+    }
+
+    /**
+     * Returns a copy of this report with the given wall time.
+     * 
+     * @pre | wallNanoseconds >= 0
+     * @post | result.getGameCount() == getGameCount()
+     * @post | result.getWallNanoseconds() == wallNanoseconds
+     */
+    public SimulationReport withWallNanoseconds(long wallNanoseconds)
+    {
+        return new SimulationReport(wonCount, lostCount, timedOutCount, simulatedMilliseconds, wallNanoseconds);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%d games: %d won, %d lost, %d timed out; %.1f simulated seconds in %.3f s (%.1f simulated s/s)",
+                getGameCount(), wonCount, lostCount, timedOutCount, simulatedMilliseconds / 1000.0, wallNanoseconds / 1e9,
+                getSimulatedSecondsPerWallSecond());
+    }
+}
@@ -0,0 +1,19 @@
+package breakout.headless;
+
+import breakout.BreakoutState;
+import breakout.paddles.PaddleMotionDirection;
+
+/**
+ * Controller that never moves the paddle.
+ */
+public class StationaryController extends PaddleController
+{
+    /**
+     * @post | result == PaddleMotionDirection.STATIONARY
+     */
+    @Override
+    public PaddleMotionDirection chooseDirection(BreakoutState state)
+    {
+        return PaddleMotionDirection.STATIONARY;
+    }
+}
@@ -0,0 +1,48 @@
+package breakout.headless;
+
+import breakout.BreakoutState;
+import breakout.balls.Ball;
+import breakout.paddles.PaddleMotionDirection;
+
+/**
+ * Controller that moves the paddle towards the lowest ball.
+ * The paddle stays put while that ball is above its middle half.
+ */
+public class TrackingController extends PaddleController
+{
+    @Override
+    public PaddleMotionDirection chooseDirection(BreakoutState state)
+    {
+        Ball lowestBall = null;
+
+        for ( var ball : state.getBalls() )
+        {
+            if ( lowestBall == null || ball.getCenter().y() > lowestBall.getCenter().y() )
+            {
+                lowestBall = ball;
+            }
+        }
+
+        if ( lowestBall == null )
+        {
+            return PaddleMotionDirection.STATIONARY;
+        }
+
+        var paddle = state.getPaddle();
+        var difference = lowestBall.getCenter().x() - paddle.getTopCenter().x();
+        var margin = paddle.getHalfWidth() / 2;
+
+        if ( difference > margin )
+        {
+            return PaddleMotionDirection.RIGHT;
+        }
+        else if ( difference < -margin )
+        {
+            return PaddleMotionDirection.LEFT;
+        }
+        else
+        {
+            return PaddleMotionDirection.STATIONARY;
+        }
+    }
+}
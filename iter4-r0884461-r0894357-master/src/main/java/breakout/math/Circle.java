@@ -118,7 +118,10 @@ public class Circle
      */
     public Point getPointInDirection(Vector direction)
     {
-        return getCenter().add(direction.multiply(getRadius()).divide(direction.getLength()));
+        var length = direction.getLength();
+
+        return new Point(center.x() + Vector.multiplyDivide(direction.x(), radius, length),
+                center.y() + Vector.multiplyDivide(direction.y(), radius, length));
     }
     
     /**
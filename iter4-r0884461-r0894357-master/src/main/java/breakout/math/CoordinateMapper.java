@@ -1,15 +1,111 @@
 package breakout.math;
 
+import java.math.BigInteger;
 
 /**
  * LEGIT
+ *
+ * Besides {@link #map(Point)}, the mapper offers {@link #mapX(long)} and {@link #mapY(long)}, which map a
+ * single coordinate without allocating. Both compute the exact mapping, rounded down, in fixed-point arithmetic:
+ * the scale of each axis is precomputed once, so mapping a coordinate costs a multiplication and a shift
+ * instead of the two divisions of {@link IntervalMapper#map(long)}, which also loses precision through
+ * {@link Interval#PRECISION_FACTOR}.
+ *
+ * @immutable
  */
 public class CoordinateMapper
 {
+    /**
+     * Maps the coordinates of one axis: x is mapped to
+     * {@code targetLowerBound + floor((x - sourceLowerBound) * targetWidth / sourceWidth)}.
+     *
+     * The ratio targetWidth / sourceWidth is stored as a fixed-point number with {@code fractionBits} fraction bits,
+     * rounded up for positive offsets and rounded down for negative ones. The rounding error of the scale is then
+     * smaller than one unit in the last place and never pushes the product past the next integer, so the result is
+     * exact as long as |x - sourceLowerBound| * sourceWidth < 2^fractionBits.
+     *
+     * @immutable
+     */
+    private static class AxisMapper
+    {
+        /**
+         * The number of fraction bits used for scales below 1, i.e. when zooming out.
+         * Larger scales use fewer fraction bits.
+         */
+        private static final int MAXIMUM_FRACTION_BITS = 62;
+
+        private final long sourceLowerBound;
+
+        private final long targetLowerBound;
+
+        private final int fractionBits;
+
+        private final long scaleRoundedUp;
+
+        private final long scaleRoundedDown;
+
+        private AxisMapper(IntervalMapper intervalMapper)
+        {
+            var sourceInterval = intervalMapper.getSourceInterval();
+            var targetInterval = intervalMapper.getTargetInterval();
+
+            this.sourceLowerBound = sourceInterval.getLowerBound();
+            this.targetLowerBound = targetInterval.getLowerBound();
+
+            if ( sourceInterval.getWidth() == 0 )
+            {
+                // Every coordinate is mapped to the lower bound of the target interval
+                this.fractionBits = MAXIMUM_FRACTION_BITS;
+                this.scaleRoundedUp = 0;
+                this.scaleRoundedDown = 0;
+            }
+            else
+            {
+                var sourceWidth = BigInteger.valueOf(sourceInterval.getWidth());
+                var targetWidth = BigInteger.valueOf(targetInterval.getWidth());
+                var integerBits = targetWidth.divide(sourceWidth).bitLength();
+
+                if ( integerBits > MAXIMUM_FRACTION_BITS - 1 )
+                {
+                    throw new IllegalArgumentException();
+                }
+
+                // Keeps both scales below 2^MAXIMUM_FRACTION_BITS
+                this.fractionBits = MAXIMUM_FRACTION_BITS - integerBits;
+
+                var quotientAndRemainder = targetWidth.shiftLeft(fractionBits).divideAndRemainder(sourceWidth);
+                this.scaleRoundedDown = quotientAndRemainder[0].longValueExact();
+                this.scaleRoundedUp = quotientAndRemainder[1].signum() == 0 ? scaleRoundedDown : scaleRoundedDown + 1;
+            }
+        }
+
+        private long map(long x)
+        {
+            var offset = x - sourceLowerBound;
+            var scale = offset >= 0 ? scaleRoundedUp : scaleRoundedDown;
+            // The 128-bit product offset * scale, shifted right by fractionBits
+            var high = Math.multiplyHigh(offset, scale);
+            var low = offset * scale;
+
+            return targetLowerBound + ((high << (64 - fractionBits)) | (low >>> fractionBits));
+        }
+    }
+
     private final IntervalMapper xCoordinateMapper;
 
     private final IntervalMapper yCoordinateMapper;
 
+    private final AxisMapper xAxisMapper;
+
+    private final AxisMapper yAxisMapper;
+
+    /**
+     * @throws IllegalArgumentException
+     *   | xCoordinateMapper == null
+     * @throws IllegalArgumentException
+     *   | yCoordinateMapper == null
+     * @throws IllegalArgumentException if either mapper magnifies by a factor of 2^61 or more.
+     */
     public CoordinateMapper(IntervalMapper xCoordinateMapper, IntervalMapper yCoordinateMapper)
     {
         if ( xCoordinateMapper == null )
@@ -24,6 +120,8 @@ public class CoordinateMapper
 
         this.xCoordinateMapper = xCoordinateMapper;
         this.yCoordinateMapper = yCoordinateMapper;
+        this.xAxisMapper = new AxisMapper(xCoordinateMapper);
+        this.yAxisMapper = new AxisMapper(yCoordinateMapper);
     }
 
     public Point map(Point p)
@@ -33,4 +131,20 @@ public class CoordinateMapper
 
         return new Point(x, y);
     }
+
+    /**
+     * Returns the exact image of the x coordinate, rounded down.
+     */
+    public long mapX(long x)
+    {
+        return xAxisMapper.map(x);
+    }
+
+    /**
+     * Returns the exact image of the y coordinate, rounded down.
+     */
+    public long mapY(long y)
+    {
+        return yAxisMapper.map(y);
+    }
 }
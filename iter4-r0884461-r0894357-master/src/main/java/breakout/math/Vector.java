@@ -1,5 +1,6 @@
 package breakout.math;
 
+import java.math.BigInteger;
 import java.util.Objects;
 
 import breakout.util.SpecUtil;
@@ -39,6 +40,22 @@ public class Vector
     public static final Vector KILO_DOWN_LEFT = createKiloVector(-707, 707);
     public static final Vector KILO_DOWN_RIGHT = createKiloVector(707, 707);
 
+    /**
+     * Coordinates strictly between -SQUARE_LIMIT and SQUARE_LIMIT can be squared and summed without overflowing.
+     */
+    private static final long SQUARE_LIMIT = 1L << 31;
+
+    /**
+     * Coordinates strictly between -KILO_BOUNCE_LIMIT and KILO_BOUNCE_LIMIT can be bounced without overflowing,
+     * since a kilonormal has coordinates of at most 1005.
+     */
+    private static final long KILO_BOUNCE_LIMIT = 1L << 40;
+
+    /**
+     * Upper bound on the error of the estimate {@code (long) Math.hypot(x, y)} of a length below 2^63.
+     */
+    private static final long HYPOT_ERROR = 1L << 11;
+
     /**
      * Helper method. Used when our intention is to create a kilovector, i.e.,
      * a vector with length 1000. This method checks that the x, y parameters
@@ -161,19 +178,28 @@ public class Vector
     }
 
     /**
-     * Returns the (approximate, due to rounding) length of this vector.
+     * Returns the length of this vector, rounded down.
+     *
+     * @throws ArithmeticException if the length does not fit in a long
+     * @post | result >= 0
      */
     public long getLength()
     {
-        return (long) Math.sqrt(getSquaredLength());
+        return getLength(x, y);
     }
     
     /**
-     * Rescales this vector.
+     * Rescales this vector, rounding each coordinate towards zero.
+     * The intermediate products are computed without overflowing.
+     *
+     * @throws ArithmeticException | getLength() == 0
+     * @creates | result
      */
     public Vector rescale(long newLength)
     {
-        return multiply(newLength).divide(getLength());
+        var length = getLength();
+
+        return new Vector(multiplyDivide(x, newLength, length), multiplyDivide(y, newLength, length));
     }
     
     /**
@@ -183,7 +209,205 @@ public class Vector
      */
     public Vector kiloBounce(Vector kiloNormal)
     {
-        return this.multiply(1000000).subtract(kiloNormal.multiply(2 * this.dotProduct(kiloNormal))).divide(1000000);
+        return new Vector(kiloBounceX(x, y, kiloNormal.x, kiloNormal.y), kiloBounceY(x, y, kiloNormal.x, kiloNormal.y));
+    }
+
+    /**
+     * Primitive twin of {@link #dotProduct(Vector)}, for code that must not allocate.
+     * @post | result == new Vector(x1, y1).dotProduct(new Vector(x2, y2))
+     */
+    public static long dotProduct(long x1, long y1, long x2, long y2)
+    {
+        return x2 * x1 + y2 * y1;
+    }
+
+    /**
+     * Primitive twin of {@link #getLength()}, for code that must not allocate.
+     * Computed exactly: in 64 bits for coordinates below 2^31, in 128 bits otherwise.
+     *
+     * @throws ArithmeticException if the length does not fit in a long
+     * @post | result == new Vector(x, y).getLength()
+     */
+    public static long getLength(long x, long y)
+    {
+        if ( -SQUARE_LIMIT < x && x < SQUARE_LIMIT && -SQUARE_LIMIT < y && y < SQUARE_LIMIT )
+        {
+            return isqrt(x * x + y * y);
+        }
+
+        return getWideLength(x, y);
+    }
+
+    /**
+     * Returns the largest number whose square is at most n.
+     *
+     * @pre | n >= 0
+     * @post | result >= 0
+     * @post | result * result <= n
+     * @post | n - result * result <= 2 * result
+     */
+    public static long isqrt(long n)
+    {
+        var root = (long) Math.sqrt(n);
+
+        // The double estimate is off by at most one, in either direction, once n has more than 53 bits
+        if ( root * root > n )
+        {
+            root--;
+        }
+        else if ( n - root * root > 2 * root )
+        {
+            root++;
+        }
+
+        return root;
+    }
+
+    /**
+     * Computes the length of (x, y) from the 128-bit square x * x + y * y.
+     */
+    private static long getWideLength(long x, long y)
+    {
+        var squareLow = x * x + y * y;
+        var carry = Long.compareUnsigned(squareLow, x * x) < 0 ? 1 : 0;
+        var squareHigh = Math.multiplyHigh(x, x) + Math.multiplyHigh(y, y) + carry;
+
+        // From 2^126 on, the length is at least 2^63
+        if ( Long.compareUnsigned(squareHigh, 1L << 62) >= 0 )
+        {
+            throw new ArithmeticException("Vector length overflows a long");
+        }
+
+        var estimate = (long) Math.hypot(x, y);
+        var low = Math.max(0, estimate - HYPOT_ERROR);
+        var high = estimate > Long.MAX_VALUE - HYPOT_ERROR ? Long.MAX_VALUE : estimate + HYPOT_ERROR;
+
+        while ( low < high )
+        {
+            var middle = low + (high - low + 1) / 2;
+
+            if ( isSquareAtMost(middle, squareHigh, squareLow) )
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns whether root * root is at most the unsigned 128-bit number (high, low).
+     *
+     * @pre | root >= 0
+     */
+    private static boolean isSquareAtMost(long root, long high, long low)
+    {
+        var rootSquareHigh = Math.multiplyHigh(root, root);
+
+        if ( rootSquareHigh != high )
+        {
+            return Long.compareUnsigned(rootSquareHigh, high) < 0;
+        }
+
+        return Long.compareUnsigned(root * root, low) <= 0;
+    }
+
+    /**
+     * Returns a * b / d, rounded towards zero like long division, without overflowing in the product.
+     * The product is checked with {@link Math#multiplyHigh(long, long)}; only a product that needs
+     * more than 64 bits is divided as a {@link BigInteger}.
+     *
+     * @throws ArithmeticException | d == 0
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long multiplyDivide(long a, long b, long d)
+    {
+        var low = a * b;
+
+        if ( Math.multiplyHigh(a, b) == (low >> 63) )
+        {
+            return low / d;
+        }
+
+        return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).divide(BigInteger.valueOf(d)).longValueExact();
+    }
+
+    /**
+     * Returns the x coordinate of {@code new Vector(x, y).kiloBounce(new Vector(kiloNormalX, kiloNormalY))}
+     * without creating any vectors.
+     * @pre | new Vector(kiloNormalX, kiloNormalY).isKiloUnitVector()
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long kiloBounceX(long x, long y, long kiloNormalX, long kiloNormalY)
+    {
+        if ( -KILO_BOUNCE_LIMIT < x && x < KILO_BOUNCE_LIMIT && -KILO_BOUNCE_LIMIT < y && y < KILO_BOUNCE_LIMIT )
+        {
+            return (x * 1000000 - kiloNormalX * (2 * dotProduct(x, y, kiloNormalX, kiloNormalY))) / 1000000;
+        }
+
+        return kiloBounceWide(x, kiloNormalX, x, y, kiloNormalX, kiloNormalY);
+    }
+
+    /**
+     * Returns the y coordinate of {@code new Vector(x, y).kiloBounce(new Vector(kiloNormalX, kiloNormalY))}
+     * without creating any vectors.
+     * @pre | new Vector(kiloNormalX, kiloNormalY).isKiloUnitVector()
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long kiloBounceY(long x, long y, long kiloNormalX, long kiloNormalY)
+    {
+        if ( -KILO_BOUNCE_LIMIT < x && x < KILO_BOUNCE_LIMIT && -KILO_BOUNCE_LIMIT < y && y < KILO_BOUNCE_LIMIT )
+        {
+            return (y * 1000000 - kiloNormalY * (2 * dotProduct(x, y, kiloNormalX, kiloNormalY))) / 1000000;
+        }
+
+        return kiloBounceWide(y, kiloNormalY, x, y, kiloNormalX, kiloNormalY);
+    }
+
+    /**
+     * Computes (coordinate * 1000000 - kiloNormalCoordinate * 2 * dotProduct(x, y, kiloNormalX, kiloNormalY)) / 1000000
+     * like the 64-bit formula. The reflection term can need more than 64 bits even if the result does not,
+     * so the difference is formed as a 128-bit number using {@link Math#multiplyHigh(long, long)}.
+     *
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    private static long kiloBounceWide(long coordinate, long kiloNormalCoordinate, long x, long y, long kiloNormalX, long kiloNormalY)
+    {
+        // Split the dot product as dotQuotient * 1000000 + dotRemainder, with 0 <= dotRemainder < 1000000
+        var remainders = Math.floorMod(x, 1000000) * kiloNormalX + Math.floorMod(y, 1000000) * kiloNormalY;
+        var dotQuotient = Math.floorDiv(x, 1000000) * kiloNormalX + Math.floorDiv(y, 1000000) * kiloNormalY + Math.floorDiv(remainders, 1000000);
+        var dotRemainder = Math.floorMod(remainders, 1000000);
+
+        // coordinate * 1000000 is a multiple of 1000000, so only the reflection term has to be divided:
+        // its floor is factor * dotQuotient + floorDiv(reflection, 1000000)
+        var factor = 2 * kiloNormalCoordinate;
+        var reflection = factor * dotRemainder;
+        var reflectionFloor = Math.floorDiv(reflection, 1000000);
+
+        // (high, low) = coordinate - factor * dotQuotient - reflectionFloor, as a two's complement 128-bit number
+        var productLow = factor * dotQuotient;
+        var low = coordinate - productLow;
+        var high = (coordinate >> 63) - Math.multiplyHigh(factor, dotQuotient) - (Long.compareUnsigned(coordinate, productLow) < 0 ? 1 : 0);
+        high -= (reflectionFloor >> 63) + (Long.compareUnsigned(low, reflectionFloor) < 0 ? 1 : 0);
+        low -= reflectionFloor;
+
+        // The reflection term was rounded down, which rounds the result up; round it towards zero instead
+        if ( high >= 0 && (high | low) != 0 && Math.floorMod(reflection, 1000000) != 0 )
+        {
+            high -= low == 0 ? 1 : 0;
+            low -= 1;
+        }
+
+        if ( high != (low >> 63) )
+        {
+            throw new ArithmeticException("long overflow");
+        }
+
+        return low;
     }
     
     /**
@@ -200,7 +424,15 @@ public class Vector
      */
     public boolean isKiloUnitVector()
     {
-        return Math.abs(getLength() - 1000) < 5;
+        // Same as Math.abs(getLength() - 1000) < 5, without taking the square root
+        if ( x < -1004 || x > 1004 || y < -1004 || y > 1004 )
+        {
+            return false;
+        }
+
+        var squaredLength = x * x + y * y;
+
+        return 996 * 996 <= squaredLength && squaredLength < 1005 * 1005;
     }
     
     @Override
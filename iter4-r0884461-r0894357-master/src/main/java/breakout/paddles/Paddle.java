@@ -4,6 +4,7 @@ import java.awt.Color;
 
 import breakout.BreakoutState;
 import breakout.Collision;
+import breakout.CollisionBatch;
 import breakout.balls.Ball;
 import breakout.math.Interval;
 import breakout.math.Point;
@@ -30,7 +31,15 @@ public class Paddle
     public static final int SHRINK_FACTOR = 900;
 
     /**
-     * @invar | topCenter != null
+     * Position of the paddle's top center, kept as primitives so that moving the paddle does not allocate.
+     */
+    private long topCenterX;
+
+    private final long topCenterY;
+
+    /**
+     * Cached result of {@link #getTopCenter()}, or null if it has to be recreated from the primitives.
+     * @invar | topCenter == null || topCenter.x() == topCenterX && topCenter.y() == topCenterY
      */
     private Point topCenter;
 
@@ -78,6 +87,8 @@ public class Paddle
     	if(!allowedInterval.isInside(topCenter.x() - halfWidth) || !allowedInterval.isInside(topCenter.x() + halfWidth))
     		throw new IllegalArgumentException();
     	
+        this.topCenterX = topCenter.x();
+        this.topCenterY = topCenter.y();
         this.topCenter = topCenter;
         this.halfWidth = halfWidth;
         this.motionDirection = PaddleMotionDirection.STATIONARY;
@@ -108,8 +119,29 @@ public class Paddle
      */
     public Point getTopCenter()
     {
+        if ( topCenter == null )
+        {
+            topCenter = new Point(topCenterX, topCenterY);
+        }
+
         return topCenter;
     }
+
+    /**
+     * @post | result == getTopCenter().x()
+     */
+    public long getTopCenterX()
+    {
+        return topCenterX;
+    }
+
+    /**
+     * @post | result == getTopCenter().y()
+     */
+    public long getTopCenterY()
+    {
+        return topCenterY;
+    }
     
     /**
      * @post | result != null
@@ -135,6 +167,26 @@ public class Paddle
         return this.halfWidth * 2;
     }
 
+    /**
+     * Sets the paddle's half width, e.g., when restoring a snapshot of the game.
+     * If necessary, the paddle's position is updated to ensure that the paddle still lies
+     * within its allowed range.
+     * @throws IllegalArgumentException | halfWidth <= 0 || halfWidth * 2 > getAllowedInterval().getWidth()
+     * @mutates_properties | getHalfWidth(), getTopCenter()
+     * @post | getHalfWidth() == halfWidth
+     * @post | getTopCenter().equals(clamp(old(getTopCenter())))
+     */
+    public void setHalfWidth(long halfWidth)
+    {
+        if ( halfWidth <= 0 || halfWidth * 2 > allowedInterval.getWidth() )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.halfWidth = halfWidth;
+        setTopCenterX(topCenterX);
+    }
+
     /**
      * Returns the paddle's height.
      * @post | result == HEIGHT
@@ -164,7 +216,7 @@ public class Paddle
      */
     public Rectangle getGeometry()
     {
-        return new Rectangle(topCenter.x() - halfWidth, topCenter.y(), halfWidth * 2, HEIGHT);
+        return new Rectangle(topCenterX - halfWidth, topCenterY, halfWidth * 2, HEIGHT);
     }
 
     /**
@@ -176,8 +228,13 @@ public class Paddle
      */
     public void setTopCenterX(long x)
     {
-    	topCenter = new Point(x, topCenter.y());
-    	topCenter = clampPrivate(topCenter);
+        var clampedX = clampPrivate(x);
+
+        if ( clampedX != topCenterX )
+        {
+            topCenterX = clampedX;
+            topCenter = null;
+        }
     }
 
     /**
@@ -189,7 +246,7 @@ public class Paddle
      */
     public void move(long distance)
     {
-    	setTopCenterX(getTopCenter().x() + distance);
+    	setTopCenterX(topCenterX + distance);
     }
 
     /**
@@ -295,21 +352,76 @@ public class Paddle
      */
     public Collision findCollision(Ball ball)
     {
-        var ballVelocity = ball.getVelocity();
-        var ballPosition = ball.getGeometry().getBottommostPoint();
+        var t = findCollisionTime(ball);
+
+        if ( t == Long.MAX_VALUE )
+        {
+            return null;
+        }
+
+        var x = ball.getCenterX() + t * ball.getVelocityX();
+
+        return new Collision(t, getKiloNormal(x));
+    }
+
+    /**
+     * Returns the time until the collision returned by {@link #findCollision(Ball)},
+     * or {@link Long#MAX_VALUE} if there is none.
+     * Unlike findCollision, this method does not allocate.
+     *
+     * @pre | ball != null
+     * @inspects | ball
+     * @post | findCollision(ball) == null ? result == Long.MAX_VALUE : result == findCollision(ball).getMillisecondsUntilCollision()
+     */
+    public long findCollisionTime(Ball ball)
+    {
+        var ballVelocityY = ball.getVelocityY();
+        var ballBottom = ball.getCenterY() + ball.getRadius();
 
-        if ( ballVelocity.y() > 0 && ballPosition.y() < getTopCenter().y() )
+        if ( ballVelocityY > 0 && ballBottom < topCenterY )
         {
-            var t = (getTopCenter().y() - ballPosition.y()) / ballVelocity.y();
-            var x = ballPosition.x() + t * ballVelocity.x();
+            var t = (topCenterY - ballBottom) / ballVelocityY;
+            var x = ball.getCenterX() + t * ball.getVelocityX();
 
-            if ( topCenter.x() - halfWidth <= x && x <= topCenter.x() + halfWidth )
+            if ( topCenterX - halfWidth <= x && x <= topCenterX + halfWidth )
             {
-                return new Collision(t, getKiloNormal(x));
+                return t;
             }
         }
 
-        return null;
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Lowers {@code times[i]} to the time until ball i of the batch collides with this paddle, for every i in [from, to),
+     * as {@link #findCollisionTime(Ball)} would compute it for that ball.
+     *
+     * @pre | balls != null && times != null
+     * @pre | 0 <= from && from <= to && to <= balls.size() && to <= times.length
+     * @inspects | balls
+     * @mutates | times
+     */
+    public void findCollisionTimes(CollisionBatch balls, int from, int to, long[] times)
+    {
+        var left = topCenterX - halfWidth;
+        var right = topCenterX + halfWidth;
+
+        for ( var i = from; i < to; ++i )
+        {
+            var ballVelocityY = balls.getVelocityY(i);
+            var ballBottom = balls.getCenterY(i) + balls.getRadius(i);
+
+            if ( ballVelocityY > 0 && ballBottom < topCenterY )
+            {
+                var t = (topCenterY - ballBottom) / ballVelocityY;
+                var x = balls.getCenterX(i) + t * balls.getVelocityX(i);
+
+                if ( left <= x && x <= right )
+                {
+                    times[i] = Math.min(times[i], t);
+                }
+            }
+        }
     }
 
     /**
@@ -351,7 +463,7 @@ public class Paddle
 			 halfWidth = allowedInterval.getWidth() / 2;
     	 else
     		 halfWidth = newHalfWidth;
-    	 topCenter = clampPrivate(topCenter);
+    	 setTopCenterX(topCenterX);
     }
 
     /**
@@ -383,7 +495,7 @@ public class Paddle
      */
     public Vector getKiloNormal(long x)
     {
-        var relativePosition = (x - this.getTopCenter().x()) * 1000 / halfWidth;
+        var relativePosition = (x - this.topCenterX) * 1000 / halfWidth;
 
         assert -1000 <= relativePosition;
         assert relativePosition <= 1000;
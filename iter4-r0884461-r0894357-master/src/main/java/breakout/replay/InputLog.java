@@ -0,0 +1,328 @@
+package breakout.replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import breakout.GameMapParser;
+import breakout.paddles.PaddleMotionDirection;
+
+/**
+ * The player input of a recorded game: the map it was played on and, for every
+ * {@link breakout.BreakoutState#tick(long)}, the elapsed time and the paddle direction,
+ * followed by the {@link StateHasher#hash(breakout.BreakoutState) hash} of the final state.
+ *
+ * The log is stored in a compact binary format:
+ * <ul>
+ * <li>the magic bytes {@code BRKR} and the format version,</li>
+ * <li>the map name, brick width and brick height,</li>
+ * <li>one record per tick: the unsigned varint {@code elapsedMilliseconds << 2 | direction},
+ *     where direction is 0, 1 or 2 for left, stationary or right,</li>
+ * <li>the varint {@code 3}, marking the end of the records, followed by the 8-byte state hash.</li>
+ * </ul>
+ * A normal tick of the user interface therefore takes a single byte.
+ *
+ * @invar | getMapName() != null
+ * @invar | GameMapParser.MAP_NAMES.contains(getMapName())
+ * @invar | getBrickWidth() > 0
+ * @invar | getBrickHeight() > 0
+ * @invar | getTickCount() >= 0
+ *
+ * @immutable
+ */
+public class InputLog
+{
+    static final byte[] MAGIC = { 'B', 'R', 'K', 'R' };
+
+    static final int VERSION = 1;
+
+    static final int END_OF_RECORDS = 3;
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * @invar | mapName != null
+     */
+    private final String mapName;
+
+    private final int brickWidth;
+
+    private final int brickHeight;
+
+    /**
+     * @invar | elapsedMilliseconds != null
+     * @invar | directions != null
+     * @invar | elapsedMilliseconds.length == directions.length
+     * @representationObject
+     */
+    private final int[] elapsedMilliseconds;
+
+    /**
+     * Every element is 0, 1 or 2, see {@link #encodeDirection(PaddleMotionDirection)}.
+     *
+     * @representationObject
+     */
+    private final byte[] directions;
+
+    private final long finalStateHash;
+
+    InputLog(String mapName, int brickWidth, int brickHeight, int[] elapsedMilliseconds, byte[] directions, long finalStateHash)
+    {
+        this.mapName = mapName;
+        this.brickWidth = brickWidth;
+        this.brickHeight = brickHeight;
+        this.elapsedMilliseconds = elapsedMilliseconds;
+        this.directions = directions;
+        this.finalStateHash = finalStateHash;
+    }
+
+    public String getMapName()
+    {
+        return mapName;
+    }
+
+    public int getBrickWidth()
+    {
+        return brickWidth;
+    }
+
+    public int getBrickHeight()
+    {
+        return brickHeight;
+    }
+
+    public int getTickCount()
+    {
+        return elapsedMilliseconds.length;
+    }
+
+    /**
+     * @pre | 0 <= index && index < getTickCount()
+     * @post | result >= 0
+     */
+    public int getElapsedMilliseconds(int index)
+    {
+        return elapsedMilliseconds[index];
+    }
+
+    /**
+     * @pre | 0 <= index && index < getTickCount()
+     * @post | result != null
+     */
+    public PaddleMotionDirection getDirection(int index)
+    {
+        return decodeDirection(directions[index]);
+    }
+
+    /**
+     * Returns the total game time of the recorded ticks.
+     *
+     * @post | result >= 0
+     */
+    public long getTotalMilliseconds()
+    {
+        var total = 0L;
+
+        for ( var elapsed : elapsedMilliseconds )
+        {
+            total += elapsed;
+        }
+
+        return total;
+    }
+
+    /**
+     * Returns the hash of the game state after the last recorded tick.
+     */
+    public long getFinalStateHash()
+    {
+        return finalStateHash;
+    }
+
+    /**
+     * Reads a log written by an {@link InputRecorder}.
+     *
+     * @throws IllegalArgumentException | path == null
+     * @throws IOException if the file cannot be read or is not a complete input log
+     */
+    public static InputLog read(Path path) throws IOException
+    {
+        if ( path == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        try ( var channel = FileChannel.open(path, StandardOpenOption.READ) )
+        {
+            var size = channel.size();
+
+            if ( size > Integer.MAX_VALUE )
+            {
+                throw new IOException("Input log too large: " + path);
+            }
+
+            var buffer = ByteBuffer.allocate((int) size);
+
+            while ( buffer.hasRemaining() && channel.read(buffer) >= 0 )
+            {
+                // NOP
+            }
+
+            buffer.flip();
+
+            return decode(buffer);
+        }
+    }
+
+    private static InputLog decode(ByteBuffer buffer) throws IOException
+    {
+        try
+        {
+            var magic = new byte[MAGIC.length];
+            buffer.get(magic);
+
+            if ( !Arrays.equals(magic, MAGIC) )
+            {
+                throw new IOException("Not an input log");
+            }
+
+            var version = readVarint(buffer);
+
+            if ( version != VERSION )
+            {
+                throw new IOException("Unsupported input log version: " + version);
+            }
+
+            var mapNameLength = readVarint(buffer);
+
+            if ( mapNameLength > buffer.remaining() )
+            {
+                throw new IOException("Truncated input log");
+            }
+
+            var mapNameBytes = new byte[(int) mapNameLength];
+            buffer.get(mapNameBytes);
+            var mapName = new String(mapNameBytes, StandardCharsets.UTF_8);
+
+            if ( !GameMapParser.MAP_NAMES.contains(mapName) )
+            {
+                throw new IOException("Unknown map in input log: " + mapName);
+            }
+
+            var brickWidth = (int) readVarint(buffer);
+            var brickHeight = (int) readVarint(buffer);
+
+            if ( brickWidth <= 0 || brickHeight <= 0 )
+            {
+                throw new IOException("Invalid brick size in input log");
+            }
+
+            // Every record takes at least one byte
+            var elapsedMilliseconds = new int[buffer.remaining()];
+            var directions = new byte[buffer.remaining()];
+            var count = 0;
+
+            for ( var record = readVarint(buffer); record != END_OF_RECORDS; record = readVarint(buffer) )
+            {
+                if ( (record & 3) == END_OF_RECORDS || record >>> 2 > Integer.MAX_VALUE )
+                {
+                    throw new IOException("Invalid record in input log");
+                }
+
+                elapsedMilliseconds[count] = (int) (record >>> 2);
+                directions[count] = (byte) (record & 3);
+                count++;
+            }
+
+            var finalStateHash = buffer.getLong();
+
+            return new InputLog(mapName, brickWidth, brickHeight, Arrays.copyOf(elapsedMilliseconds, count), Arrays.copyOf(directions, count), finalStateHash);
+        }
+        catch ( BufferUnderflowException e )
+        {
+            throw new IOException("Truncated input log", e);
+        }
+    }
+
+    /**
+     * Writes this log in the format read by {@link #read(Path)}, replacing an existing file.
+     *
+     * @throws IllegalArgumentException | path == null
+     */
+    public void write(Path path) throws IOException
+    {
+        if ( path == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        try ( var recorder = new InputRecorder(path, mapName, brickWidth, brickHeight) )
+        {
+            for ( var i = 0; i != elapsedMilliseconds.length; ++i )
+            {
+                recorder.record(elapsedMilliseconds[i], getDirection(i));
+            }
+
+            recorder.finish(finalStateHash);
+        }
+    }
+
+    static int encodeDirection(PaddleMotionDirection direction)
+    {
+        return direction.getFactor() + 1;
+    }
+
+    static PaddleMotionDirection decodeDirection(int code)
+    {
+        switch ( code )
+        {
+        case 0:
+            return PaddleMotionDirection.LEFT;
+
+        case 1:
+            return PaddleMotionDirection.STATIONARY;
+
+        default:
+            return PaddleMotionDirection.RIGHT;
+        }
+    }
+
+    /**
+     * Writes value as an unsigned LEB128 varint: seven bits per byte, least significant group first.
+     *
+     * @pre | buffer.remaining() >= 10
+     */
+    static void writeVarint(ByteBuffer buffer, long value)
+    {
+        while ( (value & ~0x7FL) != 0 )
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    static long readVarint(ByteBuffer buffer) throws IOException
+    {
+        var value = 0L;
+
+        for ( var shift = 0; shift < 64; shift += 7 )
+        {
+            var b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ( b >= 0 )
+            {
+                return value;
+            }
+        }
+
+        throw new IOException("Invalid varint in input log");
+    }
+}
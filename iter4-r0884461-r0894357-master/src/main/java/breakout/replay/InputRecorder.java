@@ -0,0 +1,179 @@
+package breakout.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import breakout.BreakoutState;
+import breakout.GameMapParser;
+import breakout.paddles.PaddleMotionDirection;
+
+/**
+ * Writes the player input of a game to a file, in the format described by {@link InputLog}.
+ *
+ * Call {@link #record(long, PaddleMotionDirection)} with the arguments of every tick, in order,
+ * and {@link #finish(BreakoutState)} once the game is over.
+ * Records are buffered and written to the file in large blocks, so recording does not slow down the game.
+ * A log that was closed without being finished cannot be read.
+ *
+ * The methods are synchronized, so that a game can be finished from a shutdown hook
+ * while the user interface is still ticking.
+ */
+public class InputRecorder implements Closeable
+{
+    /**
+     * The largest encoding of a single record or of the end marker plus the state hash.
+     */
+    private static final int MAXIMUM_RECORD_SIZE = 18;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(InputLog.BUFFER_SIZE);
+
+    private boolean finished;
+
+    private boolean closed;
+
+    /**
+     * Creates the file at path, replacing an existing file, and writes the header of the log.
+     *
+     * @throws IllegalArgumentException | path == null || mapName == null
+     * @throws IllegalArgumentException | !GameMapParser.MAP_NAMES.contains(mapName)
+     * @throws IllegalArgumentException | brickWidth <= 0 || brickHeight <= 0
+     */
+    public InputRecorder(Path path, String mapName, int brickWidth, int brickHeight) throws IOException
+    {
+        if ( path == null || mapName == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( !GameMapParser.MAP_NAMES.contains(mapName) )
+        {
+            throw new IllegalArgumentException("Unknown map: " + mapName);
+        }
+
+        if ( brickWidth <= 0 || brickHeight <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        var mapNameBytes = mapName.getBytes(StandardCharsets.UTF_8);
+        buffer.put(InputLog.MAGIC);
+        InputLog.writeVarint(buffer, InputLog.VERSION);
+        InputLog.writeVarint(buffer, mapNameBytes.length);
+        buffer.put(mapNameBytes);
+        InputLog.writeVarint(buffer, brickWidth);
+        InputLog.writeVarint(buffer, brickHeight);
+    }
+
+    /**
+     * Records one call of {@link BreakoutState#tick(long)}, with the paddle moving in the given direction.
+     *
+     * @throws IllegalArgumentException | elapsedMilliseconds < 0 || elapsedMilliseconds > Integer.MAX_VALUE
+     * @throws IllegalArgumentException | direction == null
+     * @throws IllegalStateException if the log has been finished or closed
+     */
+    public synchronized void record(long elapsedMilliseconds, PaddleMotionDirection direction) throws IOException
+    {
+        if ( elapsedMilliseconds < 0 || elapsedMilliseconds > Integer.MAX_VALUE || direction == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        ensureOpen();
+        ensureCapacity();
+        InputLog.writeVarint(buffer, elapsedMilliseconds << 2 | InputLog.encodeDirection(direction));
+    }
+
+    /**
+     * Ends the log with the hash of the final state of the game and closes the file.
+     *
+     * @throws IllegalArgumentException | state == null
+     * @throws IllegalStateException if the log has been finished or closed
+     */
+    public void finish(BreakoutState state) throws IOException
+    {
+        if ( state == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        finish(StateHasher.hash(state));
+    }
+
+    synchronized void finish(long finalStateHash) throws IOException
+    {
+        ensureOpen();
+        ensureCapacity();
+        InputLog.writeVarint(buffer, InputLog.END_OF_RECORDS);
+        buffer.putLong(finalStateHash);
+        finished = true;
+        close();
+    }
+
+    /**
+     * Returns whether {@link #finish(BreakoutState)} has been called.
+     */
+    public synchronized boolean isFinished()
+    {
+        return finished;
+    }
+
+    /**
+     * Writes the buffered records and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if ( closed )
+        {
+            return;
+        }
+
+        closed = true;
+
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    private void ensureOpen()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException("Input log has been closed");
+        }
+    }
+
+    private void ensureCapacity() throws IOException
+    {
+        if ( buffer.remaining() < MAXIMUM_RECORD_SIZE )
+        {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException
+    {
+        buffer.flip();
+
+        while ( buffer.hasRemaining() )
+        {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
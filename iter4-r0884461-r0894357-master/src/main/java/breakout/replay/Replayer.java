@@ -0,0 +1,109 @@
+package breakout.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import breakout.BreakoutState;
+import breakout.GameMapParser;
+
+/**
+ * Plays a recorded game again without user interface, as fast as the engine allows.
+ *
+ * The replayer creates a fresh game from the map in the log and feeds every recorded tick
+ * to {@link BreakoutState#tick(long)}, exactly like {@link breakout.ui.GameView} did while recording.
+ * Since the engine is deterministic, the final state then has the recorded hash.
+ */
+public class Replayer
+{
+    private Replayer()
+    {
+        // NOP
+    }
+
+    /**
+     * Creates the game the log was recorded on, in its initial state.
+     *
+     * @throws IllegalArgumentException | log == null
+     * @post | result != null
+     */
+    public static BreakoutState createInitialState(InputLog log)
+    {
+        if ( log == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        return GameMapParser.parse(GameMapParser.getMap(log.getMapName()), log.getBrickWidth(), log.getBrickHeight());
+    }
+
+    /**
+     * Feeds all recorded ticks to the given game.
+     *
+     * @throws IllegalArgumentException | log == null || state == null
+     * @mutates | state
+     */
+    public static void replay(InputLog log, BreakoutState state)
+    {
+        if ( log == null || state == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        var paddle = state.getPaddle();
+
+        for ( var i = 0; i != log.getTickCount(); ++i )
+        {
+            paddle.setMotionDirection(log.getDirection(i));
+            state.tick(log.getElapsedMilliseconds(i));
+        }
+    }
+
+    /**
+     * Replays the whole log on a fresh game and returns whether the final state has the recorded hash.
+     *
+     * @throws IllegalArgumentException | log == null
+     */
+    public static boolean verify(InputLog log)
+    {
+        var state = createInitialState(log);
+        replay(log, state);
+
+        return StateHasher.hash(state) == log.getFinalStateHash();
+    }
+
+    /**
+     * Usage: {@code Replayer <log> [repetitions]}.
+     * Replays the log the given number of times (default 1), checks the final state
+     * and reports how fast the game was simulated.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if ( args.length == 0 )
+        {
+            System.out.println("Usage: Replayer <log> [repetitions]");
+            System.exit(-1);
+        }
+
+        var log = InputLog.read(Path.of(args[0]));
+        var repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        var matches = true;
+        var start = System.nanoTime();
+
+        for ( var i = 0; i != repetitions; ++i )
+        {
+            matches &= verify(log);
+        }
+
+        var wallSeconds = (System.nanoTime() - start) / 1e9;
+        var simulatedSeconds = log.getTotalMilliseconds() / 1000.0 * repetitions;
+
+        System.out.println(String.format("map=%s ticks=%d simulated=%.1fs wall=%.3fs speedup=%.0fx state=%s",
+                log.getMapName(), log.getTickCount(), simulatedSeconds, wallSeconds, simulatedSeconds / wallSeconds,
+                matches ? "match" : "MISMATCH"));
+
+        if ( !matches )
+        {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package breakout.replay;
+
+import breakout.BreakoutState;
+import breakout.BrickGrid;
+import breakout.bricks.Brick;
+
+/**
+ * Computes a hash of the observable state of a game, so that a replayed game can be
+ * checked against the recorded one without storing the whole state.
+ *
+ * The hash covers, in order, the geometry, velocity and behavior type of every ball,
+ * the position, type and color of every brick, and the position and width of the paddle.
+ * It only depends on values that are the same in every run of the same game,
+ * never on object identities.
+ */
+public class StateHasher
+{
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private StateHasher()
+    {
+        // NOP
+    }
+
+    /**
+     * @pre | state != null
+     * @inspects | state
+     */
+    public static long hash(BreakoutState state)
+    {
+        var hash = FNV_OFFSET_BASIS;
+        var balls = state.getBalls();
+
+        hash = mix(hash, balls.size());
+
+        for ( var ball : balls )
+        {
+            hash = mix(hash, ball.getCenterX());
+            hash = mix(hash, ball.getCenterY());
+            hash = mix(hash, ball.getRadius());
+            hash = mix(hash, ball.getVelocityX());
+            hash = mix(hash, ball.getVelocityY());
+            hash = mix(hash, ball.getBehavior().getClass().getName().hashCode());
+        }
+
+        var brickGrid = state.getBrickGrid();
+        var brickHasher = new BrickHasher(mix(hash, brickGrid.getBrickCount()));
+
+        brickGrid.forEachBrick(brickHasher);
+        hash = brickHasher.hash;
+
+        var paddle = state.getPaddle();
+
+        hash = mix(hash, paddle.getTopCenterX());
+        hash = mix(hash, paddle.getHalfWidth());
+
+        return hash;
+    }
+
+    /**
+     * Mixes in the bricks without creating objects for compact bricks: their prototypes have the same class and color.
+     */
+    private static class BrickHasher implements BrickGrid.BrickVisitor
+    {
+        private long hash;
+
+        private BrickHasher(long hash)
+        {
+            this.hash = hash;
+        }
+
+        @Override
+        public void visit(int column, int row, Brick brick)
+        {
+            hash = mix(hash, column);
+            hash = mix(hash, row);
+            hash = mix(hash, brick.getClass().getName().hashCode());
+            hash = mix(hash, brick.getColor().getRGB());
+        }
+    }
+
+    /**
+     * FNV-1a over the eight bytes of value.
+     */
+    private static long mix(long hash, long value)
+    {
+        for ( var i = 0; i != 8; ++i )
+        {
+            hash ^= value & 0xFF;
+            hash *= FNV_PRIME;
+            value >>>= 8;
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,183 @@
+package breakout.ui;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.JOptionPane;
+
+import breakout.BreakoutState;
+import breakout.math.CoordinateMapper;
+import breakout.math.Interval;
+import breakout.math.IntervalMapper;
+import breakout.replay.InputRecorder;
+
+/**
+ * Alternative to {@link GameView} that draws with active rendering instead of through Swing's repaint manager.
+ *
+ * The view is a heavyweight AWT canvas with a page-flipping {@link BufferStrategy}, which Java2D keeps in
+ * accelerated (volatile) memory where the platform allows it. A dedicated render thread waits until the
+ * {@link SimulationLoop} has published a new frame, draws it on the back buffer through a {@link Canvas},
+ * and flips the buffers. Nothing is drawn when no new frame is available.
+ */
+@SuppressWarnings("serial")
+public final class AcceleratedGameView extends java.awt.Canvas
+{
+    private static final int BUFFER_COUNT = 2;
+
+    /**
+     * The render thread also draws when no frame was published for this long, e.g. to repair a damaged window.
+     */
+    private static final long MAXIMUM_FRAME_NANOSECONDS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final BreakoutState breakoutState;
+
+    private final int scaleFactor;
+
+    private final SimulationLoop simulationLoop;
+
+    private volatile Thread renderThread;
+
+    /**
+     * @param breakoutState initial state for the game.
+     * @param recorder recorder for the player input, or null to not record the game.
+     */
+    public AcceleratedGameView(BreakoutState breakoutState, int scaleFactor, InputRecorder recorder)
+    {
+        this.breakoutState = breakoutState;
+        this.scaleFactor = scaleFactor;
+        this.simulationLoop = new SimulationLoop(breakoutState, scaleFactor, new PlayerInput(this), recorder, this::frameAvailable,
+                exitMessage -> EventQueue.invokeLater(() -> exitApplication(exitMessage)));
+
+        setBackground(Color.black);
+        setIgnoreRepaint(true);
+        setFocusable(true);
+    }
+
+    @Override
+    public Dimension getPreferredSize()
+    {
+        var boundingRectangle = breakoutState.getBoundingRectangle();
+
+        return new Dimension((int) (boundingRectangle.getWidth() / scaleFactor), (int) (boundingRectangle.getHeight() / scaleFactor));
+    }
+
+    /**
+     * Starts the game and the render thread as soon as the view is shown.
+     */
+    @Override
+    public void addNotify()
+    {
+        super.addNotify();
+        createBufferStrategy(BUFFER_COUNT);
+
+        var thread = new Thread(this::render, "Breakout renderer");
+        thread.setDaemon(true);
+        renderThread = thread;
+        thread.start();
+
+        simulationLoop.start();
+    }
+
+    @Override
+    public void removeNotify()
+    {
+        stopGame();
+        super.removeNotify();
+    }
+
+    /**
+     * Stops the game and the render thread, and finishes the recording, if any.
+     * Can be called from any thread, e.g. from a shutdown hook.
+     */
+    public void stopGame()
+    {
+        simulationLoop.close();
+
+        var thread = renderThread;
+        renderThread = null;
+
+        if ( thread != null && thread != Thread.currentThread() )
+        {
+            LockSupport.unpark(thread);
+
+            try
+            {
+                thread.join(TimeUnit.NANOSECONDS.toMillis(MAXIMUM_FRAME_NANOSECONDS));
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void frameAvailable()
+    {
+        var thread = renderThread;
+
+        if ( thread != null )
+        {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void render()
+    {
+        var coordinateMapper = createCoordinateMapper();
+        var bufferStrategy = getBufferStrategy();
+
+        while ( renderThread == Thread.currentThread() )
+        {
+            drawFrame(bufferStrategy, coordinateMapper);
+            LockSupport.parkNanos(this, MAXIMUM_FRAME_NANOSECONDS);
+        }
+    }
+
+    private void drawFrame(BufferStrategy bufferStrategy, CoordinateMapper coordinateMapper)
+    {
+        var frame = simulationLoop.getLatestFrame();
+
+        do
+        {
+            do
+            {
+                var graphics = bufferStrategy.getDrawGraphics();
+
+                try
+                {
+                    frame.drawOn(new Canvas(graphics, coordinateMapper));
+                }
+                finally
+                {
+                    graphics.dispose();
+                }
+            }
+            while ( bufferStrategy.contentsRestored() );
+
+            bufferStrategy.show();
+        }
+        while ( bufferStrategy.contentsLost() );
+
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private CoordinateMapper createCoordinateMapper()
+    {
+        var boundingRectangle = breakoutState.getBoundingRectangle();
+        var xIntervalMapper = new IntervalMapper(new Interval(0, boundingRectangle.getWidth()), new Interval(0, boundingRectangle.getWidth() / scaleFactor));
+        var yIntervalMapper = new IntervalMapper(new Interval(0, boundingRectangle.getHeight()), new Interval(0, boundingRectangle.getHeight() / scaleFactor));
+
+        return new CoordinateMapper(xIntervalMapper, yIntervalMapper);
+    }
+
+    private void exitApplication(String exitMessage)
+    {
+        JOptionPane.showMessageDialog(this, exitMessage);
+        System.exit(0);
+    }
+}
@@ -1,19 +1,40 @@
 package breakout.ui;
 
+import java.awt.Component;
 import java.awt.EventQueue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import javax.swing.JFrame;
 
 import breakout.BreakoutState;
+import breakout.CompiledMap;
 import breakout.GameMapParser;
+import breakout.MapFileParser;
+import breakout.replay.InputRecorder;
 
 /**
  * LEGIT
  */
 public class BreakoutApplication
 {
+    /**
+     * Either {@code OGP}, {@code OOP}, or the path of a map file: a text file in the form read by {@link GameMapParser},
+     * or a level compiled by {@link CompiledMap}.
+     */
     private static final String MAP_ENVIRONMENT_VARIABLE = "BREAKOUT_MAP";
     
+    /**
+     * If set, the player input is recorded to the file with this path, see {@link breakout.replay.Replayer}.
+     */
+    private static final String RECORD_ENVIRONMENT_VARIABLE = "BREAKOUT_RECORD";
+    
+    /**
+     * If set to {@code accelerated}, the game is drawn by an {@link AcceleratedGameView} instead of a {@link GameView}.
+     */
+    private static final String RENDERER_ENVIRONMENT_VARIABLE = "BREAKOUT_RENDERER";
+    
     private static final int FACTOR = 100;
     
     /**
@@ -26,25 +47,99 @@ public class BreakoutApplication
 
     public static void main(String[] args)
     {
-        var state = createState();
+        var mapName = getMapName();
+        var state = createState(mapName);
+        var recorder = createRecorder(mapName);
         
         EventQueue.invokeLater(() -> {
-            GameView gameView = new GameView(state, FACTOR); 
             JFrame frame = new JFrame("Breakout");
-            frame.getContentPane().add(gameView);
+            Component view;
+            Runnable stopGame;
+            
+            if ( "accelerated".equals(System.getenv(RENDERER_ENVIRONMENT_VARIABLE)) )
+            {
+                var gameView = new AcceleratedGameView(state, FACTOR, recorder);
+                view = gameView;
+                stopGame = gameView::stopGame;
+            }
+            else
+            {
+                GameView gameView = new GameView(state, FACTOR, recorder); 
+                view = gameView;
+                stopGame = gameView::stopGame;
+            }
+            
+            // Closing the window exits without ending the game; stop it first so that the recording is finished
+            Runtime.getRuntime().addShutdownHook(new Thread(stopGame));
+            frame.getContentPane().add(view);
             frame.pack();
             frame.setLocationRelativeTo(null);
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
             frame.setVisible(true);
+            view.requestFocusInWindow();
         });
     }
     
-    private static BreakoutState createState()
+    /**
+     * Creates the game on the given shipped map, or on the map file selected by {@link #MAP_ENVIRONMENT_VARIABLE} if mapName is null.
+     */
+    private static BreakoutState createState(String mapName)
     {
-        return GameMapParser.parse(getMap(), 100 * FACTOR, 30 * FACTOR);
+        if ( mapName != null )
+        {
+            return GameMapParser.parse(GameMapParser.getMap(mapName), 100 * FACTOR, 30 * FACTOR);
+        }
+        
+        var path = Path.of(System.getenv(MAP_ENVIRONMENT_VARIABLE));
+        
+        try
+        {
+            if ( CompiledMap.isCompiledMap(path) )
+            {
+                return CompiledMap.load(path, 100 * FACTOR, 30 * FACTOR);
+            }
+            
+            return MapFileParser.parse(path, 100 * FACTOR, 30 * FACTOR);
+        }
+        catch ( IOException e )
+        {
+            System.out.println("Cannot load map " + path + ": " + e.getMessage());
+            System.exit(-1);
+            return null;
+        }
+    }
+    
+    private static InputRecorder createRecorder(String mapName)
+    {
+        var path = System.getenv(RECORD_ENVIRONMENT_VARIABLE);
+        
+        if ( path == null )
+        {
+            return null;
+        }
+        
+        if ( mapName == null )
+        {
+            System.out.println("Only games on OGP, OOP or descr2 can be recorded");
+            System.exit(-1);
+        }
+        
+        try
+        {
+            return new InputRecorder(Path.of(path), mapName, 100 * FACTOR, 30 * FACTOR);
+        }
+        catch ( IOException e )
+        {
+            System.out.println("Cannot record to " + path + ": " + e.getMessage());
+            System.exit(-1);
+            return null;
+        }
     }
     
-    private static String[] getMap()
+    /**
+     * Returns one of {@link GameMapParser#MAP_NAMES}, or null if {@link #MAP_ENVIRONMENT_VARIABLE} is the path of a map file.
+     */
+    private static String getMapName()
     {
         var environmentVariables = System.getenv();
 
@@ -55,13 +150,18 @@ public class BreakoutApplication
             switch ( value )
             {
             case "OGP":
-                return GameMapParser.OGP_MAP;
+                return "OGP_MAP";
                 
             case "OOP":
-                return GameMapParser.OOP_MAP;
+                return "OOP_MAP";
                 
             default:
-                System.out.println("Invalid map selected; must be either OGP or OOP");
+                if ( Files.isRegularFile(Path.of(value)) )
+                {
+                    return null;
+                }
+                
+                System.out.println("Invalid map selected; must be OGP, OOP or the path of a map file");
                 System.exit(-1);   
                 return null; // compiler does not seem to realize System.exit does not return
             }
@@ -69,7 +169,7 @@ public class BreakoutApplication
         else
         {
             // Change the map to be used here
-            return GameMapParser.descr2;
+            return "descr2";
         }
     }
 }
@@ -0,0 +1,295 @@
+package breakout.ui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+
+import breakout.BrickGrid;
+import breakout.bricks.Brick;
+import breakout.math.CoordinateMapper;
+import breakout.math.Interval;
+import breakout.math.IntervalMapper;
+import breakout.math.Point;
+
+/**
+ * Keeps renderings of the bricks in offscreen images, so that drawing all bricks costs a single image blit.
+ *
+ * Bricks only change appearance when they are added or removed, which the grid records in its cell change
+ * journal, or when their mutable state changes (e.g. a sturdy brick losing a life), which this layer
+ * notices through {@link Brick#getModificationCount()} of the few bricks that have mutable state.
+ * Each {@link Raster} remembers up to which change it has been drawn, so that it only redraws the cells
+ * that changed since. Several rasters can be used for one layer, e.g. one per frame of a {@link SimulationLoop},
+ * so that one raster is updated while another one is being drawn on the screen.
+ *
+ * A layer is used by a single thread, like the grid it draws.
+ */
+public class BrickLayer
+{
+    /**
+     * An image of the bricks, in pixels, as drawn by a {@link BrickLayer}.
+     */
+    public static class Raster
+    {
+        private final BufferedImage image;
+
+        /**
+         * The number of changes of the layer that are visible in the image, or -1 if the image has not been drawn yet.
+         */
+        private long change = -1;
+
+        private Raster(int width, int height)
+        {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        public BufferedImage getImage()
+        {
+            return image;
+        }
+    }
+
+    /**
+     * Number of cell changes that can be retrieved from {@link #changeJournal}.
+     */
+    private static final int JOURNAL_SIZE = 4096;
+
+    private final BrickGrid grid;
+
+    private final int scaleFactor;
+
+    private final CoordinateMapper coordinateMapper;
+
+    /**
+     * Index of the cell changed by change c of this layer, stored at c % JOURNAL_SIZE.
+     */
+    private final long[] changeJournal = new long[JOURNAL_SIZE];
+
+    private long changeCount;
+
+    /**
+     * Changes before this one cannot be retrieved anymore.
+     */
+    private long firstAvailableChange;
+
+    /**
+     * The number of grid cell changes that have been copied into {@link #changeJournal}.
+     */
+    private long gridChangeCount;
+
+    /**
+     * The modification count of every brick with mutable state, as last seen by this layer.
+     * May contain bricks that have been removed; these are dropped the next time the layer checks them.
+     */
+    private final IdentityHashMap<Brick, Long> modificationCounts = new IdentityHashMap<>();
+
+    /**
+     * @throws IllegalArgumentException | grid == null
+     * @throws IllegalArgumentException | scaleFactor <= 0
+     */
+    public BrickLayer(BrickGrid grid, int scaleFactor)
+    {
+        if ( grid == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( scaleFactor <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.grid = grid;
+        this.scaleFactor = scaleFactor;
+
+        var xIntervalMapper = new IntervalMapper(new Interval(0, grid.getWidth()), new Interval(0, grid.getWidth() / scaleFactor));
+        var yIntervalMapper = new IntervalMapper(new Interval(0, grid.getHeight()), new Interval(0, grid.getHeight() / scaleFactor));
+        this.coordinateMapper = new CoordinateMapper(xIntervalMapper, yIntervalMapper);
+        this.gridChangeCount = grid.getCellChangeCount();
+
+        grid.forEachBrick((x, y, brick) -> observe(brick));
+    }
+
+    /**
+     * Creates an image for this layer. It is drawn the first time it is passed to {@link #paint(Raster, Canvas)}.
+     */
+    public Raster createRaster()
+    {
+        return new Raster(Math.max(1, grid.getWidth() / scaleFactor), Math.max(1, grid.getHeight() / scaleFactor));
+    }
+
+    /**
+     * Brings the raster up to date with the bricks and draws it on the canvas.
+     * The canvas must use the same scale factor as this layer.
+     *
+     * @pre | raster != null && canvas != null
+     * @mutates | raster
+     */
+    public void paint(Raster raster, Canvas canvas)
+    {
+        update(raster);
+        canvas.drawImage(raster.image, new Point(0, 0));
+    }
+
+    /**
+     * Brings the raster up to date with the bricks.
+     *
+     * @pre | raster != null
+     * @mutates | raster
+     */
+    public void update(Raster raster)
+    {
+        collectChanges();
+
+        if ( raster.change < firstAvailableChange )
+        {
+            redrawAll(raster);
+        }
+        else
+        {
+            var graphics = raster.image.createGraphics();
+
+            try
+            {
+                for ( var change = raster.change; change != changeCount; ++change )
+                {
+                    var cellIndex = changeJournal[(int) (change % JOURNAL_SIZE)];
+                    redrawCell(graphics, (int) (cellIndex % grid.getColumnCount()), (int) (cellIndex / grid.getColumnCount()));
+                }
+            }
+            finally
+            {
+                graphics.dispose();
+            }
+        }
+
+        raster.change = changeCount;
+    }
+
+    /**
+     * Copies the cell changes of the grid to this layer's journal and adds the cells of bricks whose state changed.
+     */
+    private void collectChanges()
+    {
+        if ( !grid.areCellChangesAvailableSince(gridChangeCount) )
+        {
+            // Every cell may have changed
+            changeCount++;
+            firstAvailableChange = changeCount;
+            modificationCounts.clear();
+            grid.forEachBrick((x, y, brick) -> observe(brick));
+        }
+        else
+        {
+            for ( var change = gridChangeCount; change != grid.getCellChangeCount(); ++change )
+            {
+                var cellIndex = grid.getChangedCellIndex(change);
+                var brick = grid.getBrickOrPrototypeAt((int) (cellIndex % grid.getColumnCount()), (int) (cellIndex / grid.getColumnCount()));
+
+                recordChange(cellIndex);
+
+                if ( brick != null )
+                {
+                    observe(brick);
+                }
+            }
+        }
+
+        gridChangeCount = grid.getCellChangeCount();
+
+        var iterator = modificationCounts.entrySet().iterator();
+
+        while ( iterator.hasNext() )
+        {
+            var entry = iterator.next();
+            var brick = entry.getKey();
+
+            var position = brick.getGridPosition();
+
+            if ( grid.getBrickOrPrototypeAt((int) position.x(), (int) position.y()) != brick )
+            {
+                iterator.remove();
+            }
+            else if ( brick.getModificationCount() != entry.getValue() )
+            {
+                entry.setValue(brick.getModificationCount());
+                recordChange(getCellIndex(brick));
+            }
+        }
+    }
+
+    /**
+     * Starts watching the brick's modification count if it has mutable state.
+     * Compact bricks, which the grid passes as shared prototypes, have none.
+     */
+    private void observe(Brick brick)
+    {
+        if ( !modificationCounts.containsKey(brick) && brick.createMemento() != null )
+        {
+            modificationCounts.put(brick, brick.getModificationCount());
+        }
+    }
+
+    private long getCellIndex(Brick brick)
+    {
+        var position = brick.getGridPosition();
+
+        return position.y() * grid.getColumnCount() + position.x();
+    }
+
+    private void recordChange(long cellIndex)
+    {
+        changeJournal[(int) (changeCount % JOURNAL_SIZE)] = cellIndex;
+        changeCount++;
+
+        if ( changeCount - firstAvailableChange > JOURNAL_SIZE )
+        {
+            firstAvailableChange = changeCount - JOURNAL_SIZE;
+        }
+    }
+
+    private void redrawAll(Raster raster)
+    {
+        var graphics = raster.image.createGraphics();
+
+        try
+        {
+            graphics.setColor(Color.BLACK);
+            graphics.fillRect(0, 0, raster.image.getWidth(), raster.image.getHeight());
+
+            var canvas = new Canvas(graphics, coordinateMapper);
+
+            grid.forEachBrick((x, y, brick) -> grid.paintBrickAt(canvas, x, y));
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Clears the pixels of the cell, including its right and bottom edge, which it shares with its neighbours,
+     * and repaints everything that the cell and its neighbours draw there.
+     */
+    private void redrawCell(Graphics2D graphics, int x, int y)
+    {
+        var left = (int) coordinateMapper.mapX((long) x * grid.getBrickWidth());
+        var top = (int) coordinateMapper.mapY((long) y * grid.getBrickHeight());
+        var right = (int) coordinateMapper.mapX((long) (x + 1) * grid.getBrickWidth());
+        var bottom = (int) coordinateMapper.mapY((long) (y + 1) * grid.getBrickHeight());
+
+        graphics.setClip(left, top, right - left + 1, bottom - top + 1);
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(left, top, right - left + 1, bottom - top + 1);
+
+        var canvas = new Canvas(graphics, coordinateMapper);
+
+        for ( var neighbourY = Math.max(0, y - 1); neighbourY <= Math.min(grid.getRowCount() - 1, y + 1); ++neighbourY )
+        {
+            for ( var neighbourX = Math.max(0, x - 1); neighbourX <= Math.min(grid.getColumnCount() - 1, x + 1); ++neighbourX )
+            {
+                grid.paintBrickAt(canvas, neighbourX, neighbourY);
+            }
+        }
+    }
+}
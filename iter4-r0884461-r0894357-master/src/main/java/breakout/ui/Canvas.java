@@ -2,6 +2,7 @@ package breakout.ui;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Image;
 
 import breakout.math.Circle;
 import breakout.math.CoordinateMapper;
@@ -17,6 +18,15 @@ public class Canvas
     
     private CoordinateMapper pointMapper;
     
+    /**
+     * For subclasses that override all drawing methods and do not draw on a Graphics themselves.
+     */
+    protected Canvas()
+    {
+        this.graphics = null;
+        this.pointMapper = null;
+    }
+    
     public Canvas(Graphics graphics, CoordinateMapper pointMapper)
     {
         if ( graphics == null )
@@ -35,12 +45,10 @@ public class Canvas
     
     public void drawFilledRectangle(Color color, Rectangle rectangle)
     {
-        var topLeft = transform(rectangle.getTopLeft());
-        var bottomRight = transform(rectangle.getBottomRight());
-        var left = topLeft.x();
-        var top = topLeft.y();
-        var width = bottomRight.x() - topLeft.x();
-        var height = bottomRight.y() - topLeft.y();
+        var left = pointMapper.mapX(rectangle.getLeft());
+        var top = pointMapper.mapY(rectangle.getTop());
+        var width = pointMapper.mapX(rectangle.getRight()) - left;
+        var height = pointMapper.mapY(rectangle.getBottom()) - top;
         
         this.graphics.setColor(color);
         this.graphics.fillRect((int) left, (int) top, (int) width, (int) height);
@@ -48,12 +56,10 @@ public class Canvas
     
     public void drawRectangle(Color color, Rectangle rectangle)
     {
-        var topLeft = transform(rectangle.getTopLeft());
-        var bottomRight = transform(rectangle.getBottomRight());
-        var left = topLeft.x();
-        var top = topLeft.y();
-        var width = bottomRight.x() - topLeft.x();
-        var height = bottomRight.y() - topLeft.y();
+        var left = pointMapper.mapX(rectangle.getLeft());
+        var top = pointMapper.mapY(rectangle.getTop());
+        var width = pointMapper.mapX(rectangle.getRight()) - left;
+        var height = pointMapper.mapY(rectangle.getBottom()) - top;
         
         this.graphics.setColor(color);
         this.graphics.drawRect((int) left, (int) top, (int) width, (int) height);
@@ -61,40 +67,39 @@ public class Canvas
     
     public void drawFilledCircle(Color color, Circle circle)
     {
-        var boundingRectangle = circle.getBoundingRectangle();
-        var topLeft = transform(boundingRectangle.getTopLeft());
-        var bottomRight = transform(boundingRectangle.getBottomRight());
-        var x = topLeft.x();
-        var y = topLeft.y();
-        var width = bottomRight.x() - topLeft.x();
-        var height = bottomRight.y() - topLeft.y();
+        var x = pointMapper.mapX(circle.getLeft());
+        var y = pointMapper.mapY(circle.getTop());
+        var width = pointMapper.mapX(circle.getRight()) - x;
+        var height = pointMapper.mapY(circle.getBottom()) - y;
         
         this.graphics.setColor(color);
         this.graphics.fillOval((int) x, (int) y, (int) width, (int) height);
     }
     
+    /**
+     * Draws the label centered on the given position, in the current color of the graphics.
+     * The label is laid out only the first time; afterwards a pre-rendered image from {@link LabelCache} is drawn.
+     */
     public void drawLabel(Color color, String label, Point position)
     {
-        var transformedPosition = transform(position);
-        var fontMetrics = this.graphics.getFontMetrics();
-        var bounds = fontMetrics.getStringBounds(label, this.graphics);
-        var width = (int) bounds.getWidth();
-        var height = (int) bounds.getHeight();
+        var x = pointMapper.mapX(position.x());
+        var y = pointMapper.mapY(position.y());
         
-        this.graphics.drawString(label, (int) transformedPosition.x() - width / 2, (int) transformedPosition.y() + height / 2);
+        LabelCache.getShared().getLabel(this.graphics, label).draw(this.graphics, (int) x, (int) y);
     }
     
     public void drawLine(Color color, Point startPoint, Point endPoint)
     {
-        var transformedStartPoint = transform(startPoint);
-        var transformedEndPoint = transform(endPoint);
-        
         this.graphics.setColor(color);
-        this.graphics.drawLine((int) transformedStartPoint.x(), (int) transformedStartPoint.y(), (int) transformedEndPoint.x(), (int) transformedEndPoint.y());
+        this.graphics.drawLine((int) pointMapper.mapX(startPoint.x()), (int) pointMapper.mapY(startPoint.y()), (int) pointMapper.mapX(endPoint.x()),
+                (int) pointMapper.mapY(endPoint.y()));
     }
     
-    private Point transform(Point p)
+    /**
+     * Draws the image unscaled, with its top left corner at the given position.
+     */
+    public void drawImage(Image image, Point topLeft)
     {
-        return pointMapper.map(p);
+        this.graphics.drawImage(image, (int) pointMapper.mapX(topLeft.x()), (int) pointMapper.mapY(topLeft.y()), null);
     }
 }
@@ -0,0 +1,188 @@
+package breakout.ui;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.util.Arrays;
+
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Rectangle;
+
+/**
+ * A canvas that remembers what is drawn on it, in game coordinates, so that it can be drawn
+ * on another canvas later, possibly on another thread.
+ *
+ * The simulation thread paints the game objects on a display list after every tick;
+ * the event dispatch thread draws the latest complete display list on the screen.
+ * Only immutable values (colors, circles, points, labels) and the coordinates of rectangles are remembered,
+ * so a display list that is no longer drawn on does not depend on the game state anymore.
+ * Images are remembered by reference: whoever draws an image must not change it while the display list is in use.
+ * The arrays are reused after {@link #clear()}, so recording a frame of the same size does not allocate.
+ */
+public class DisplayList extends Canvas
+{
+    private static final byte FILLED_RECTANGLE = 0;
+
+    private static final byte RECTANGLE = 1;
+
+    private static final byte FILLED_CIRCLE = 2;
+
+    private static final byte LABEL = 3;
+
+    private static final byte LINE = 4;
+
+    private static final byte IMAGE = 5;
+
+    private int size;
+
+    private byte[] kinds = new byte[16];
+
+    private Color[] colors = new Color[16];
+
+    /**
+     * The left, top, width and height of each rectangle command; {@link Rectangle} is mutable.
+     */
+    private long[] rectangles = new long[4 * 16];
+
+    /**
+     * The circle, label position, start point or image of each other command.
+     */
+    private Object[] shapes = new Object[16];
+
+    /**
+     * The label, end point or image position of each command, if any.
+     */
+    private Object[] arguments = new Object[16];
+
+    /**
+     * Returns the number of remembered drawing commands.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Forgets all drawing commands.
+     *
+     * @post | size() == 0
+     */
+    public void clear()
+    {
+        Arrays.fill(shapes, 0, size, null);
+        Arrays.fill(arguments, 0, size, null);
+        Arrays.fill(colors, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Performs all remembered drawing commands on the given canvas, in order.
+     *
+     * @pre | canvas != null
+     */
+    public void drawOn(Canvas canvas)
+    {
+        for ( var i = 0; i != size; ++i )
+        {
+            switch ( kinds[i] )
+            {
+            case FILLED_RECTANGLE:
+                canvas.drawFilledRectangle(colors[i], getRectangle(i));
+                break;
+
+            case RECTANGLE:
+                canvas.drawRectangle(colors[i], getRectangle(i));
+                break;
+
+            case FILLED_CIRCLE:
+                canvas.drawFilledCircle(colors[i], (Circle) shapes[i]);
+                break;
+
+            case LABEL:
+                canvas.drawLabel(colors[i], (String) arguments[i], (Point) shapes[i]);
+                break;
+
+            case LINE:
+                canvas.drawLine(colors[i], (Point) shapes[i], (Point) arguments[i]);
+                break;
+
+            default:
+                canvas.drawImage((Image) shapes[i], (Point) arguments[i]);
+                break;
+            }
+        }
+    }
+
+    private Rectangle getRectangle(int index)
+    {
+        var offset = 4 * index;
+
+        return new Rectangle(rectangles[offset], rectangles[offset + 1], rectangles[offset + 2], rectangles[offset + 3]);
+    }
+
+    @Override
+    public void drawFilledRectangle(Color color, Rectangle rectangle)
+    {
+        addRectangle(FILLED_RECTANGLE, color, rectangle);
+    }
+
+    @Override
+    public void drawRectangle(Color color, Rectangle rectangle)
+    {
+        addRectangle(RECTANGLE, color, rectangle);
+    }
+
+    @Override
+    public void drawFilledCircle(Color color, Circle circle)
+    {
+        add(FILLED_CIRCLE, color, circle, null);
+    }
+
+    @Override
+    public void drawLabel(Color color, String label, Point position)
+    {
+        add(LABEL, color, position, label);
+    }
+
+    @Override
+    public void drawLine(Color color, Point startPoint, Point endPoint)
+    {
+        add(LINE, color, startPoint, endPoint);
+    }
+
+    @Override
+    public void drawImage(Image image, Point topLeft)
+    {
+        add(IMAGE, null, image, topLeft);
+    }
+
+    private void addRectangle(byte kind, Color color, Rectangle rectangle)
+    {
+        var offset = 4 * size;
+
+        add(kind, color, null, null);
+        rectangles[offset] = rectangle.getLeft();
+        rectangles[offset + 1] = rectangle.getTop();
+        rectangles[offset + 2] = rectangle.getWidth();
+        rectangles[offset + 3] = rectangle.getHeight();
+    }
+
+    private void add(byte kind, Color color, Object shape, Object argument)
+    {
+        if ( size == kinds.length )
+        {
+            var capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            rectangles = Arrays.copyOf(rectangles, 4 * capacity);
+            shapes = Arrays.copyOf(shapes, capacity);
+            arguments = Arrays.copyOf(arguments, capacity);
+        }
+
+        kinds[size] = kind;
+        colors[size] = color;
+        shapes[size] = shape;
+        arguments[size] = argument;
+        size++;
+    }
+}
@@ -2,6 +2,7 @@ package breakout.ui;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Toolkit;
 
@@ -9,12 +10,10 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
 import breakout.BreakoutState;
-import breakout.balls.Ball;
-import breakout.bricks.Brick;
 import breakout.math.CoordinateMapper;
 import breakout.math.Interval;
 import breakout.math.IntervalMapper;
-import breakout.paddles.Paddle;
+import breakout.replay.InputRecorder;
 
 /**
  * LEGIT
@@ -24,14 +23,15 @@ public class GameView extends JPanel
 {
     public BreakoutState breakoutState;
 
-    private final PlayerInput playerInput;
-
-    private final Chronometer chronometer;
-
     private final int scaleFactor;
 
     private CoordinateMapper coordinateMapper;
 
+    /**
+     * Ticks the game; this view only draws the frames it publishes.
+     */
+    private final SimulationLoop simulationLoop;
+
     /**
      * Create a new GameView for playing breakout starting from a given
      * breakoutState.
@@ -39,12 +39,24 @@ public class GameView extends JPanel
      * @param breakoutState initial state for the game.
      */
     public GameView(BreakoutState breakoutState, int scaleFactor)
+    {
+        this(breakoutState, scaleFactor, null);
+    }
+
+    /**
+     * Create a new GameView for playing breakout starting from a given
+     * breakoutState, recording the player input with the given recorder.
+     *
+     * @param breakoutState initial state for the game.
+     * @param recorder recorder for the player input, or null to not record the game.
+     */
+    public GameView(BreakoutState breakoutState, int scaleFactor, InputRecorder recorder)
     {
         this.breakoutState = breakoutState;
-        this.playerInput = new PlayerInput(this);
-        this.chronometer = new Chronometer();
         this.scaleFactor = scaleFactor;
         this.coordinateMapper = null;
+        this.simulationLoop = new SimulationLoop(breakoutState, scaleFactor, new PlayerInput(this), recorder, this::repaint,
+                exitMessage -> EventQueue.invokeLater(() -> exitApplication(exitMessage)));
 
         setBackground(Color.black);
     }
@@ -75,38 +87,36 @@ public class GameView extends JPanel
         return new CoordinateMapper(xIntervalMapper, yIntervalMapper);
     }
 
-    private void tick(int elapsedMilliseconds)
+    /**
+     * Starts the game as soon as the view is shown.
+     */
+    @Override
+    public void addNotify()
     {
-        breakoutState.getPaddle().setMotionDirection(playerInput.getPaddleMovement());;
-
-        breakoutState.tick(elapsedMilliseconds);
-
-        if ( breakoutState.isGameOver() )
-        {
-            exitApplication();
-        }
+        super.addNotify();
+        simulationLoop.start();
     }
 
-    private void exitApplication()
+    @Override
+    public void removeNotify()
     {
-        var exitMessage = getExitMessage();
-        JOptionPane.showMessageDialog(this, exitMessage);
-        System.exit(0);
+        simulationLoop.close();
+        super.removeNotify();
     }
 
-    private String getExitMessage()
+    /**
+     * Stops the game and finishes its recording, if any.
+     * Can be called from any thread, e.g. from a shutdown hook.
+     */
+    public void stopGame()
     {
-        if ( breakoutState.isGameLost() )
-        {
-            return "Game over :-(";
-        }
-
-        if ( breakoutState.isGameWon() )
-        {
-            return "You won!";
-        }
+        simulationLoop.close();
+    }
 
-        throw new IllegalStateException();
+    private void exitApplication(String exitMessage)
+    {
+        JOptionPane.showMessageDialog(this, exitMessage);
+        System.exit(0);
     }
 
     @Override
@@ -135,15 +145,18 @@ public class GameView extends JPanel
         return true;
     }
 
+    /**
+     * Draws the latest frame published by the simulation loop.
+     * The loop requests a repaint after every tick; Swing merges requests that arrive
+     * while a repaint is pending, so a slow screen skips frames instead of slowing down the game.
+     */
     @Override
     protected void paintComponent(Graphics g)
     {
         super.paintComponent(g);
 
-        updateGameState();
         renderGameState(g);
         pauseForBreath();
-        repaint();
     }
 
     /**
@@ -151,56 +164,13 @@ public class GameView extends JPanel
      */
     private void pauseForBreath()
     {
-//        try
-//        {
-//            Thread.sleep(1);
-//        } catch (InterruptedException e)
-//        {
-//        }
         Toolkit.getDefaultToolkit().sync();
     }
 
-    private void updateGameState()
-    {
-        var elapsedMilliseconds = chronometer.millisecondsSinceLastMeasurement();
-        tick(elapsedMilliseconds);
-    }
-
     private void renderGameState(Graphics g)
     {
         var canvas = new Canvas(g, this.getCoordinateMapper());
 
-        clearScreen(canvas);
-        paintBricks(canvas);
-        paintBalls(canvas);
-        paintPaddle(canvas);
-    }
-
-    private void clearScreen(Canvas canvas)
-    {
-        canvas.drawFilledRectangle(Color.BLACK, breakoutState.getBoundingRectangle());
-    }
-
-    private void paintPaddle(Canvas canvas)
-    {
-        Paddle paddle = breakoutState.getPaddle();
-
-        paddle.paint(canvas);
-    }
-
-    private void paintBalls(Canvas canvas)
-    {
-        for ( Ball ball : breakoutState.getBalls() )
-        {
-            ball.paint(canvas);
-        }
-    }
-
-    private void paintBricks(Canvas canvas)
-    {
-        for ( Brick brick : breakoutState.getBricks() )
-        {
-            brick.paint(canvas);
-        }
+        simulationLoop.getLatestFrame().drawOn(canvas);
     }
 }
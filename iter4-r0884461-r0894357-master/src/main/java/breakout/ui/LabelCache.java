@@ -0,0 +1,220 @@
+package breakout.ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps pre-rendered images of the most recently drawn labels, so that drawing a label
+ * does not lay out its text again but only copies an image.
+ *
+ * A label image depends on the text, the color, the font and the scale of the graphics it is drawn on.
+ * The least recently used images are dropped when the cache is full.
+ * The cache is shared by the simulation thread, which draws the brick layer,
+ * and the thread that draws the frames, so its methods are synchronized.
+ */
+public class LabelCache
+{
+    /**
+     * A rendered label.
+     *
+     * @immutable
+     */
+    public static class Label
+    {
+        private final BufferedImage image;
+
+        private final int width;
+
+        private final int height;
+
+        private final int ascent;
+
+        private final int imageWidth;
+
+        private final int imageHeight;
+
+        private Label(BufferedImage image, int width, int height, int ascent, int imageWidth, int imageHeight)
+        {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+            this.ascent = ascent;
+            this.imageWidth = imageWidth;
+            this.imageHeight = imageHeight;
+        }
+
+        /**
+         * Draws the label centered on (x, y), exactly where {@link Graphics#drawString(String, int, int)}
+         * would draw it when called with the baseline used by {@link Canvas#drawLabel}.
+         */
+        public void draw(Graphics graphics, int x, int y)
+        {
+            var left = x - width / 2;
+            var top = y + height / 2 - ascent;
+
+            graphics.drawImage(image, left, top, imageWidth, imageHeight, null);
+        }
+    }
+
+    private static class Key
+    {
+        private final String text;
+
+        private final Color color;
+
+        private final Font font;
+
+        private final double scaleX;
+
+        private final double scaleY;
+
+        private Key(String text, Color color, Font font, double scaleX, double scaleY)
+        {
+            this.text = text;
+            this.color = color;
+            this.font = font;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof Key other && text.equals(other.text) && Objects.equals(color, other.color) && Objects.equals(font, other.font)
+                    && scaleX == other.scaleX && scaleY == other.scaleY;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(text, color, font, scaleX, scaleY);
+        }
+    }
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final LabelCache SHARED = new LabelCache(DEFAULT_CAPACITY);
+
+    private final Map<Key, Label> labels;
+
+    private long hitCount;
+
+    private long missCount;
+
+    /**
+     * @throws IllegalArgumentException | capacity <= 0
+     */
+    public LabelCache(int capacity)
+    {
+        if ( capacity <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.labels = new LinkedHashMap<Key, Label>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Label> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache used by {@link Canvas}.
+     */
+    public static LabelCache getShared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Returns the label drawn in the current color and font of the graphics.
+     *
+     * @pre | graphics != null && text != null
+     * @post | result != null
+     */
+    public synchronized Label getLabel(Graphics graphics, String text)
+    {
+        var scaleX = 1.0;
+        var scaleY = 1.0;
+
+        if ( graphics instanceof Graphics2D graphics2D )
+        {
+            scaleX = graphics2D.getTransform().getScaleX();
+            scaleY = graphics2D.getTransform().getScaleY();
+        }
+
+        var key = new Key(text, graphics.getColor(), graphics.getFont(), scaleX, scaleY);
+        var label = labels.get(key);
+
+        if ( label == null )
+        {
+            missCount++;
+            label = render(graphics, key);
+            labels.put(key, label);
+        }
+        else
+        {
+            hitCount++;
+        }
+
+        return label;
+    }
+
+    public synchronized int size()
+    {
+        return labels.size();
+    }
+
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    private static Label render(Graphics graphics, Key key)
+    {
+        var fontMetrics = graphics.getFontMetrics();
+        var bounds = fontMetrics.getStringBounds(key.text, graphics);
+        var ascent = (int) Math.ceil(-bounds.getY());
+        // The glyphs may extend a little beyond the logical bounds
+        var imageWidth = (int) Math.ceil(bounds.getWidth()) + 2;
+        var imageHeight = (int) Math.ceil(bounds.getHeight()) + 2;
+        var image = new BufferedImage(Math.max(1, (int) Math.ceil(imageWidth * key.scaleX)), Math.max(1, (int) Math.ceil(imageHeight * key.scaleY)),
+                BufferedImage.TYPE_INT_ARGB);
+        var imageGraphics = image.createGraphics();
+
+        try
+        {
+            if ( graphics instanceof Graphics2D graphics2D )
+            {
+                imageGraphics.setRenderingHints(graphics2D.getRenderingHints());
+            }
+
+            imageGraphics.scale(key.scaleX, key.scaleY);
+            imageGraphics.setColor(key.color);
+            imageGraphics.setFont(key.font);
+            imageGraphics.drawString(key.text, 0, ascent);
+        }
+        finally
+        {
+            imageGraphics.dispose();
+        }
+
+        return new Label(image, (int) bounds.getWidth(), (int) bounds.getHeight(), ascent, imageWidth, imageHeight);
+    }
+}
@@ -10,9 +10,12 @@ import breakout.paddles.PaddleMotionDirection;
  */
 public class PlayerInput
 {
-    private boolean leftKeyDown = false;
+    /**
+     * Written on the event dispatch thread, read on the simulation thread.
+     */
+    private volatile boolean leftKeyDown = false;
 
-    private boolean rightKeyDown = false;
+    private volatile boolean rightKeyDown = false;
 
     public PlayerInput(java.awt.Component component)
     {
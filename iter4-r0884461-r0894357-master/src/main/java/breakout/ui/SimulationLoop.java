@@ -0,0 +1,268 @@
+package breakout.ui;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import breakout.BreakoutState;
+import breakout.paddles.PaddleMotionDirection;
+import breakout.replay.InputRecorder;
+import breakout.util.TripleBuffer;
+
+/**
+ * Runs the game on a dedicated thread, at a fixed rate, independently of the screen.
+ *
+ * Every {@link #TICK_MILLISECONDS} milliseconds, the loop reads the player input, ticks the game
+ * by that amount and paints the new state on a {@link DisplayList}, which it publishes through a
+ * {@link TripleBuffer}. Each display list has its own {@link BrickLayer.Raster} of the bricks,
+ * which is brought up to date when the display list is reused. The event dispatch thread draws the latest published display list
+ * whenever it repaints, and never touches the game state itself.
+ * If a tick takes too long, the scheduler runs the next ticks back to back until the game has caught up.
+ *
+ * All game state is confined to the simulation thread while the loop is running.
+ */
+public class SimulationLoop
+{
+    public static final int TICK_MILLISECONDS = 10;
+
+    private final BreakoutState state;
+
+    private final PlayerInput playerInput;
+
+    /**
+     * Receives the player input of every tick, or null if the game is not recorded.
+     */
+    private InputRecorder recorder;
+
+    /**
+     * Called on the simulation thread after a frame has been published.
+     */
+    private final Runnable frameListener;
+
+    /**
+     * Called on the simulation thread, with the exit message, once the game is over.
+     */
+    private final Consumer<String> gameOverListener;
+
+    private final TripleBuffer<DisplayList> frames = new TripleBuffer<>(new DisplayList(), new DisplayList(), new DisplayList());
+
+    private final BrickLayer brickLayer;
+
+    /**
+     * The brick raster drawn by each display list, created when the display list is first written.
+     * Only used on the thread that paints the frames.
+     */
+    private final IdentityHashMap<DisplayList, BrickLayer.Raster> brickRasters = new IdentityHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    private Thread simulationThread;
+
+    /**
+     * @throws IllegalArgumentException | state == null || playerInput == null
+     * @throws IllegalArgumentException | frameListener == null || gameOverListener == null
+     * @throws IllegalArgumentException | scaleFactor <= 0
+     */
+    public SimulationLoop(BreakoutState state, int scaleFactor, PlayerInput playerInput, InputRecorder recorder, Runnable frameListener,
+            Consumer<String> gameOverListener)
+    {
+        if ( state == null || playerInput == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( frameListener == null || gameOverListener == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.state = state;
+        this.playerInput = playerInput;
+        this.recorder = recorder;
+        this.frameListener = frameListener;
+        this.gameOverListener = gameOverListener;
+        this.brickLayer = new BrickLayer(state.getBrickGrid(), scaleFactor);
+
+        // Make the initial state visible before the first tick
+        paintFrame();
+    }
+
+    /**
+     * Starts ticking the game. Does nothing if the loop is already running.
+     */
+    public synchronized void start()
+    {
+        if ( executor != null )
+        {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "Breakout simulation");
+            thread.setDaemon(true);
+            simulationThread = thread;
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::tick, TICK_MILLISECONDS, TICK_MILLISECONDS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops ticking the game. When called from another thread than the simulation thread,
+     * waits until a tick that is running has completed.
+     */
+    public void stop()
+    {
+        ScheduledExecutorService stoppedExecutor;
+
+        synchronized ( this )
+        {
+            stoppedExecutor = executor;
+            executor = null;
+        }
+
+        if ( stoppedExecutor == null )
+        {
+            return;
+        }
+
+        stoppedExecutor.shutdown();
+
+        if ( Thread.currentThread() != simulationThread )
+        {
+            try
+            {
+                stoppedExecutor.awaitTermination(1, TimeUnit.SECONDS);
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops ticking the game and finishes the recording, if any, with the current state.
+     * To be called when the game is abandoned, e.g. because its window is closed.
+     */
+    public void close()
+    {
+        stop();
+
+        finishRecording();
+    }
+
+    /**
+     * Returns the most recently published frame. Only to be called by the thread that draws the frames.
+     *
+     * @post | result != null
+     */
+    public DisplayList getLatestFrame()
+    {
+        frames.update();
+
+        return frames.getReadBuffer();
+    }
+
+    private void tick()
+    {
+        var direction = playerInput.getPaddleMovement();
+
+        state.getPaddle().setMotionDirection(direction);
+        record(direction);
+        state.tick(TICK_MILLISECONDS);
+        paintFrame();
+        frameListener.run();
+
+        if ( state.isGameOver() )
+        {
+            stop();
+            finishRecording();
+            gameOverListener.accept(getExitMessage());
+        }
+    }
+
+    private void paintFrame()
+    {
+        var frame = frames.getWriteBuffer();
+
+        frame.clear();
+        frame.drawFilledRectangle(Color.BLACK, state.getBoundingRectangle());
+        brickLayer.paint(brickRasters.computeIfAbsent(frame, f -> brickLayer.createRaster()), frame);
+
+        for ( var ball : state.getBalls() )
+        {
+            ball.paint(frame);
+        }
+
+        state.getPaddle().paint(frame);
+        frames.publish();
+    }
+
+    private String getExitMessage()
+    {
+        if ( state.isGameLost() )
+        {
+            return "Game over :-(";
+        }
+
+        if ( state.isGameWon() )
+        {
+            return "You won!";
+        }
+
+        throw new IllegalStateException();
+    }
+
+    private void record(PaddleMotionDirection direction)
+    {
+        if ( recorder != null )
+        {
+            try
+            {
+                recorder.record(TICK_MILLISECONDS, direction);
+            }
+            catch ( IOException e )
+            {
+                stopRecording(e);
+            }
+        }
+    }
+
+    /**
+     * Synchronized because the game may end while {@link #close()} is called.
+     */
+    private synchronized void finishRecording()
+    {
+        if ( recorder != null && !recorder.isFinished() )
+        {
+            try
+            {
+                recorder.finish(state);
+            }
+            catch ( IOException e )
+            {
+                stopRecording(e);
+            }
+        }
+    }
+
+    private void stopRecording(IOException e)
+    {
+        System.err.println("Recording stopped: " + e.getMessage());
+
+        try
+        {
+            recorder.close();
+        }
+        catch ( IOException closeException )
+        {
+            // The file is unusable anyway
+        }
+
+        recorder = null;
+    }
+}
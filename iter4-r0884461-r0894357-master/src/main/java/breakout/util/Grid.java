@@ -1,31 +1,210 @@
 package breakout.util;
 
+import java.util.AbstractList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import breakout.math.Point;
 
 /**
+ * Cells can also be addressed by their index {@code y * getWidth() + x}, see {@link #getCellIndex(int, int)}.
+ *
+ * The cells are stored in tiles of {@link #TILE_SIZE} by {@link #TILE_SIZE} cells. A tile is only allocated
+ * while it holds a value, and so is a row of tiles, so a large grid with few values takes memory proportional
+ * to the number of values rather than to its area. Positions are only created when asked for.
+ * The values of a tile can also be supplied by a {@link TileLoader} the first time one of its cells is accessed.
+ *
  * LEGIT
  */
 public class Grid<T>
 {
-    private T[][] grid;
+    /**
+     * Width and height of a tile, in cells.
+     */
+    public static final int TILE_SIZE = 64;
+
+    private static final int TILE_SHIFT = 6;
+
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    /**
+     * Receives the cells of a grid that hold a value, see {@link Grid#forEachOccupiedCell(CellVisitor)}.
+     */
+    public interface CellVisitor<T>
+    {
+        void visit(int x, int y, T value);
+    }
+
+    /**
+     * Supplies the values of a tile the first time one of its cells is accessed, see {@link Grid#setTileLoader(int, int, TileLoader)}.
+     */
+    public interface TileLoader<T>
+    {
+        /**
+         * Calls {@code cells.visit(x, y, value)} for every cell of the tile whose top left cell is (left, top) that holds a value.
+         * Called at most once per tile, on whichever thread first accesses the tile, possibly while other threads read the grid.
+         */
+        void loadTile(int left, int top, CellVisitor<T> cells);
+    }
+
+    /**
+     * The cells of one tile, row by row. A tile or row of tiles may only be modified by the grid whose owner it has;
+     * any other grid shares it with a copy made by {@link #giveCopy()} and must copy it first.
+     */
+    private static class Tile
+    {
+        final Object owner;
+
+        final Object[] cells;
+
+        /**
+         * Number of cells that hold a value.
+         */
+        int count;
+
+        Tile(Object owner, Object[] cells, int count)
+        {
+            this.owner = owner;
+            this.cells = cells;
+            this.count = count;
+        }
+    }
+
+    /**
+     * A tile whose cells are loaded the first time they are needed. It holds no cells itself and belongs to no grid,
+     * so a grid that modifies it first copies the loaded tile, which belongs to no grid either.
+     * Loading happens at most once, even when several threads read the tile at the same time:
+     * the loaded tile is published through a volatile field, and its cells through its final fields.
+     */
+    private static class LazyTile<T> extends Tile
+    {
+        private final TileLoader<T> loader;
+
+        private final int left;
+
+        private final int top;
+
+        private volatile Tile loaded;
+
+        LazyTile(TileLoader<T> loader, int left, int top)
+        {
+            super(null, null, 0);
+            this.loader = loader;
+            this.left = left;
+            this.top = top;
+        }
+
+        Tile load()
+        {
+            var tile = loaded;
+
+            if ( tile == null )
+            {
+                synchronized ( this )
+                {
+                    tile = loaded;
+
+                    if ( tile == null )
+                    {
+                        var cells = new Object[TILE_SIZE * TILE_SIZE];
+                        var count = new int[1];
+
+                        loader.loadTile(left, top, (x, y, value) -> {
+                            if ( x - left < 0 || x - left >= TILE_SIZE || y - top < 0 || y - top >= TILE_SIZE )
+                            {
+                                throw new IllegalStateException("Tile loader stored a value outside its tile");
+                            }
+
+                            var index = (y - top) << TILE_SHIFT | (x - left);
+
+                            if ( cells[index] == null && value != null )
+                            {
+                                count[0]++;
+                            }
+
+                            cells[index] = value;
+                        });
+
+                        tile = loaded = new Tile(null, cells, count[0]);
+                    }
+                }
+            }
+
+            return tile;
+        }
+    }
+
+    /**
+     * Returns the cells of the given tile, loading them if needed.
+     */
+    private static Object[] getCells(Tile tile)
+    {
+        var cells = tile.cells;
+
+        return cells != null ? cells : ((LazyTile<?>) tile).load().cells;
+    }
+
+    private static class TileRow
+    {
+        final Object owner;
+
+        final Tile[] tiles;
+
+        /**
+         * Number of tiles that are allocated.
+         */
+        int count;
+
+        TileRow(Object owner, Tile[] tiles, int count)
+        {
+            this.owner = owner;
+            this.tiles = tiles;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Row of tiles {@code y / TILE_SIZE} holds the cells of rows y; it is null as long as none of those cells holds a value.
+     */
+    private TileRow[] tileRows;
+
+    /**
+     * The tiles and rows of tiles with this owner belong to this grid alone.
+     * Null while the grid owns none of them, e.g. after it was copied: the first modification creates a new owner.
+     */
+    private Object owner = new Object();
+
+    /**
+     * @invar | width > 0
+     */
+    private final int width;
 
-    private final List<Point> positions; // to speed things up a bit
+    /**
+     * @invar | height > 0
+     */
+    private final int height;
+
+    /**
+     * A view that creates the positions when they are asked for; created on first use.
+     */
+    private List<Point> positions;
 
     /**
      * Creates a grid with the given dimensions.
      * Initially all values in the grid are null.
-     * 
+     *
      * @throws IllegalArgumentException
      *   | width <= 0 || height <= 0
      * @post | getWidth() == width
      * @post | getHeight() == height
-     * @post | getPositions().stream().allMatch(p -> at(p) == null)
+     * @post | getPositionStream().allMatch(p -> at(p) == null)
      */
-    @SuppressWarnings("unchecked")
     public Grid(int width, int height)
     {
         if ( width <= 0 || height <= 0 )
@@ -33,57 +212,267 @@ public class Grid<T>
             throw new IllegalArgumentException();
         }
 
-        this.grid = (T[][]) new Object[height][width];
-        this.positions = IntStream.range(0, getWidth() * getHeight()).mapToObj(i -> new Point(i % getWidth(), i / getWidth())).toList();
+        this.width = width;
+        this.height = height;
+        this.tileRows = new TileRow[getTileCount(height)];
+    }
+
+    /**
+     * Creates a grid that shares the given rows of tiles and positions with another grid.
+     */
+    private Grid(TileRow[] tileRows, int width, int height, List<Point> positions)
+    {
+        this.owner = null;
+        this.tileRows = tileRows;
+        this.width = width;
+        this.height = height;
+        this.positions = positions;
+    }
+
+    private static int getTileCount(int cellCount)
+    {
+        return (cellCount + TILE_MASK) >>> TILE_SHIFT;
     }
 
     /**
      * Returns the width of the grid.
-     * 
+     *
      * @post | result > 0
      */
     public int getWidth()
     {
-        return this.grid[0].length;
+        return this.width;
     }
 
     /**
      * Returns the height of the grid.
-     * 
+     *
      * @post | result > 0
      */
     public int getHeight()
     {
-        return this.grid.length;
+        return this.height;
     }
 
     /**
      * Returns the value at a particular position.
-     * 
+     *
      * @pre | position != null
      * @pre | isValidPosition(position)
      */
     public T at(Point position)
     {
-        return this.grid[(int) position.y()][(int) position.x()];
+        return at((int) position.x(), (int) position.y());
+    }
+
+    /**
+     * Returns the value at the given coordinates.
+     * Equivalent to {@code at(new Point(x, y))}, but does not require a Point to be created.
+     *
+     * @pre | 0 <= x && x < getWidth() && 0 <= y && y < getHeight()
+     * @post | result == at(new Point(x, y))
+     */
+    @SuppressWarnings("unchecked")
+    public T at(int x, int y)
+    {
+        var tileRow = this.tileRows[y >>> TILE_SHIFT];
+
+        if ( tileRow == null )
+        {
+            return null;
+        }
+
+        var tile = tileRow.tiles[x >>> TILE_SHIFT];
+
+        return tile == null ? null : (T) getCells(tile)[(y & TILE_MASK) << TILE_SHIFT | (x & TILE_MASK)];
+    }
+
+    /**
+     * Returns whether no cell of the tile that contains the given coordinates holds a value.
+     * The tile is the square of {@link #TILE_SIZE} by {@link #TILE_SIZE} cells whose corner coordinates are multiples of {@link #TILE_SIZE}.
+     *
+     * @pre | 0 <= x && x < getWidth() && 0 <= y && y < getHeight()
+     */
+    public boolean isTileEmpty(int x, int y)
+    {
+        var tileRow = this.tileRows[y >>> TILE_SHIFT];
+
+        return tileRow == null || tileRow.tiles[x >>> TILE_SHIFT] == null;
+    }
+
+    /**
+     * Returns the value in the cell with the given index.
+     *
+     * @pre | 0 <= index && index < getCellCount()
+     * @post | result == at(getCellX(index), getCellY(index))
+     */
+    public T atIndex(long index)
+    {
+        return at(getCellX(index), getCellY(index));
+    }
+
+    /**
+     * Returns the number of cells of the grid.
+     *
+     * @post | result == (long) getWidth() * getHeight()
+     */
+    public long getCellCount()
+    {
+        return (long) width * height;
+    }
+
+    /**
+     * Returns the index of the cell at the given coordinates. Cells are numbered row by row.
+     *
+     * @pre | 0 <= x && x < getWidth() && 0 <= y && y < getHeight()
+     * @post | result == (long) y * getWidth() + x
+     */
+    public long getCellIndex(int x, int y)
+    {
+        return (long) y * width + x;
+    }
+
+    /**
+     * @pre | 0 <= index && index < getCellCount()
+     * @post | result == index % getWidth()
+     */
+    public int getCellX(long index)
+    {
+        return (int) (index % width);
+    }
+
+    /**
+     * @pre | 0 <= index && index < getCellCount()
+     * @post | result == index / getWidth()
+     */
+    public int getCellY(long index)
+    {
+        return (int) (index / width);
     }
 
     /**
      * Sets the value at a particular position.
      * It is allowed to store null values.
-     * 
+     *
      * @pre | position != null
      * @pre | isValidPosition(position)
      * @post | at(position) == value
      */
     public void setAt(Point position, T value)
     {
-        this.grid[(int) position.y()][(int) position.x()] = value;
+        setAt((int) position.x(), (int) position.y(), value);
+    }
+
+    /**
+     * Sets the value at the given coordinates, without requiring a Point to be created.
+     * A tile is released as soon as none of its cells holds a value.
+     *
+     * @pre | 0 <= x && x < getWidth() && 0 <= y && y < getHeight()
+     * @post | at(x, y) == value
+     */
+    public void setAt(int x, int y, T value)
+    {
+        var previous = at(x, y);
+
+        if ( previous == value )
+        {
+            return;
+        }
+
+        if ( owner == null )
+        {
+            owner = new Object();
+        }
+
+        var tileY = y >>> TILE_SHIFT;
+        var tileX = x >>> TILE_SHIFT;
+        var tileRow = tileRows[tileY];
+
+        if ( tileRow == null )
+        {
+            tileRow = tileRows[tileY] = new TileRow(owner, new Tile[getTileCount(width)], 0);
+        }
+        else if ( tileRow.owner != owner )
+        {
+            tileRow = tileRows[tileY] = new TileRow(owner, tileRow.tiles.clone(), tileRow.count);
+        }
+
+        var tile = tileRow.tiles[tileX];
+
+        if ( tile == null )
+        {
+            tile = tileRow.tiles[tileX] = new Tile(owner, new Object[TILE_SIZE * TILE_SIZE], 0);
+            tileRow.count++;
+        }
+        else if ( tile.owner != owner )
+        {
+            if ( tile.cells == null )
+            {
+                tile = ((LazyTile<?>) tile).load();
+            }
+
+            tile = tileRow.tiles[tileX] = new Tile(owner, tile.cells.clone(), tile.count);
+        }
+
+        tile.cells[(y & TILE_MASK) << TILE_SHIFT | (x & TILE_MASK)] = value;
+
+        if ( previous == null )
+        {
+            tile.count++;
+        }
+        else if ( value == null && --tile.count == 0 )
+        {
+            tileRow.tiles[tileX] = null;
+
+            if ( --tileRow.count == 0 )
+            {
+                tileRows[tileY] = null;
+            }
+        }
+    }
+
+    /**
+     * Lets the given loader supply the values of the tile that contains the given coordinates, the first time one of its cells is accessed,
+     * instead of storing them now. This way the values of a large grid that are never looked at need not be created.
+     * Until then, the tile counts as holding values for {@link #isTileEmpty(int, int)}.
+     * The tile may be loaded by any thread that reads the grid, also by several at the same time.
+     *
+     * @pre | 0 <= x && x < getWidth() && 0 <= y && y < getHeight()
+     * @pre | isTileEmpty(x, y)
+     * @throws IllegalArgumentException | loader == null
+     */
+    public void setTileLoader(int x, int y, TileLoader<T> loader)
+    {
+        if ( loader == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( owner == null )
+        {
+            owner = new Object();
+        }
+
+        var tileY = y >>> TILE_SHIFT;
+        var tileX = x >>> TILE_SHIFT;
+        var tileRow = tileRows[tileY];
+
+        if ( tileRow == null )
+        {
+            tileRow = tileRows[tileY] = new TileRow(owner, new Tile[getTileCount(width)], 0);
+        }
+        else if ( tileRow.owner != owner )
+        {
+            tileRow = tileRows[tileY] = new TileRow(owner, tileRow.tiles.clone(), tileRow.count);
+        }
+
+        tileRow.tiles[tileX] = new LazyTile<T>(loader, tileX << TILE_SHIFT, tileY << TILE_SHIFT);
+        tileRow.count++;
     }
 
     /**
      * Checks if the given position falls within the bounds of the grid.
-     * 
+     *
      * @pre | position != null
      * @post | result == (0 <= position.x() && position.x() < getWidth() && 0 <= position.y() && position.y() < getHeight())
      */
@@ -93,6 +482,10 @@ public class Grid<T>
     }
 
     /**
+     * The positions are created when they are asked for, so the list takes no memory of its own.
+     * A list cannot hold more than {@link Integer#MAX_VALUE} elements; use {@link #getPositionStream()} for larger grids.
+     *
+     * @throws IllegalStateException | getCellCount() > Integer.MAX_VALUE
      * @creates | result
      * @post | result != null
      * @post | IntStream.range(0, this.getWidth()).allMatch(x -> IntStream.range(0, this.getHeight()).allMatch(y -> result.contains(new Point(x, y))))
@@ -100,24 +493,273 @@ public class Grid<T>
      */
     public List<Point> getPositions()
     {
+        if ( getCellCount() > Integer.MAX_VALUE )
+        {
+            throw new IllegalStateException("Grid has too many cells for a list");
+        }
+
+        if ( positions == null )
+        {
+            positions = new PositionList(width, height);
+        }
+
         return this.positions;
     }
 
+    /**
+     * Returns the positions of all cells, row by row, creating each position as the stream reaches it.
+     */
     public Stream<Point> getPositionStream()
     {
-        return positions.stream();
+        return LongStream.range(0, getCellCount()).mapToObj(index -> new Point(getCellX(index), getCellY(index)));
+    }
+
+    /**
+     * Calls the visitor for every cell that holds a value, row by row. Tiles without values are skipped.
+     *
+     * @pre | visitor != null
+     */
+    public void forEachOccupiedCell(CellVisitor<? super T> visitor)
+    {
+        for ( var y = 0; y != height; ++y )
+        {
+            if ( tileRows[y >>> TILE_SHIFT] == null )
+            {
+                // Continue with the first row of the next row of tiles
+                y |= TILE_MASK;
+                y = Math.min(y, height - 1);
+            }
+            else
+            {
+                forEachOccupiedCellInRow(y, visitor);
+            }
+        }
+    }
+
+    /**
+     * Calls the visitor for every cell of row y that holds a value, from left to right. Tiles without values are skipped.
+     *
+     * @pre | 0 <= y && y < getHeight()
+     * @pre | visitor != null
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachOccupiedCellInRow(int y, CellVisitor<? super T> visitor)
+    {
+        var tileRow = tileRows[y >>> TILE_SHIFT];
+
+        if ( tileRow == null )
+        {
+            return;
+        }
+
+        var rowOffset = (y & TILE_MASK) << TILE_SHIFT;
+
+        for ( var tileX = 0; tileX != tileRow.tiles.length; ++tileX )
+        {
+            var tile = tileRow.tiles[tileX];
+
+            if ( tile != null )
+            {
+                var cells = getCells(tile);
+                var left = tileX << TILE_SHIFT;
+                var cellCount = Math.min(TILE_SIZE, width - left);
+
+                for ( var x = 0; x != cellCount; ++x )
+                {
+                    var value = cells[rowOffset | x];
+
+                    if ( value != null )
+                    {
+                        visitor.visit(left + x, y, (T) value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a spliterator over the indices of the cells that hold a value, in increasing order.
+     * It splits by rows of tiles, so the cells can be processed in parallel.
+     * The grid must not be modified while the spliterator is in use.
+     */
+    public Spliterator.OfLong occupiedCellSpliterator()
+    {
+        return new OccupiedCellSpliterator(0, tileRows.length);
+    }
+
+    /**
+     * Returns the indices of the cells that hold a value, in increasing order.
+     *
+     * @post | result != null
+     */
+    public LongStream getOccupiedCellIndexStream()
+    {
+        return StreamSupport.longStream(occupiedCellSpliterator(), false);
     }
 
     /**
      * shallow copy
+     *
+     * The tiles are shared copy-on-write: a tile, and its row of tiles, are only copied when either grid modifies it,
+     * so copying costs time proportional to the number of rows of tiles instead of the area of the grid.
+     * Copying a grid that owns no tiles, such as a copy that has not been modified since, does not modify it,
+     * so several threads may copy such a grid at once.
+     *
+     * @creates | result
+     * @post | result.getWidth() == getWidth() && result.getHeight() == getHeight()
+     * @post | getPositionStream().allMatch(p -> result.at(p) == at(p))
      */
     public Grid<T> giveCopy()
     {
-        Grid<T> res = new Grid<T>(getWidth(), getHeight());
-        for ( Point p : positions )
+        // From now on, this grid shares its tiles as well
+        if ( this.owner != null )
+        {
+            this.owner = null;
+        }
+
+        return new Grid<T>(this.tileRows.clone(), this.width, this.height, this.positions);
+    }
+
+    /**
+     * The positions of the cells of a grid of the given size, row by row.
+     */
+    private static class PositionList extends AbstractList<Point> implements RandomAccess
+    {
+        private final int width;
+
+        private final int height;
+
+        PositionList(int width, int height)
+        {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public Point get(int index)
+        {
+            if ( index < 0 || index >= size() )
+            {
+                throw new IndexOutOfBoundsException(index);
+            }
+
+            return new Point(index % width, index / width);
+        }
+
+        @Override
+        public int size()
+        {
+            return width * height;
+        }
+
+        @Override
+        public boolean contains(Object object)
+        {
+            return object instanceof Point point && 0 <= point.x() && point.x() < width && 0 <= point.y() && point.y() < height;
+        }
+
+        @Override
+        public int indexOf(Object object)
+        {
+            return contains(object) ? (int) (((Point) object).y() * width + ((Point) object).x()) : -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object object)
+        {
+            return indexOf(object);
+        }
+    }
+
+    /**
+     * Enumerates the indices of the occupied cells in the rows of tiles [tileY, endTileY).
+     */
+    private class OccupiedCellSpliterator implements Spliterator.OfLong
+    {
+        private int tileY;
+
+        private final int endTileY;
+
+        /**
+         * Position of the next cell to look at, relative to row of tiles tileY.
+         */
+        private int y;
+
+        private int x;
+
+        OccupiedCellSpliterator(int tileY, int endTileY)
+        {
+            this.tileY = tileY;
+            this.endTileY = endTileY;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action)
+        {
+            for ( ; tileY != endTileY; ++tileY, y = 0 )
+            {
+                var tileRow = tileRows[tileY];
+
+                if ( tileRow == null )
+                {
+                    continue;
+                }
+
+                for ( ; y != TILE_SIZE; ++y, x = 0 )
+                {
+                    for ( ; x < width; ++x )
+                    {
+                        var tile = tileRow.tiles[x >>> TILE_SHIFT];
+
+                        if ( tile == null )
+                        {
+                            // Continue with the first cell of the next tile
+                            x |= TILE_MASK;
+                        }
+                        else if ( getCells(tile)[y << TILE_SHIFT | (x & TILE_MASK)] != null )
+                        {
+                            action.accept(getCellIndex(x++, (tileY << TILE_SHIFT) + y));
+
+                            return true;
+                        }
+                    }
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit()
+        {
+            if ( y != 0 || x != 0 || endTileY - tileY < 2 )
+            {
+                return null;
+            }
+
+            var middle = tileY + (endTileY - tileY) / 2;
+            var prefix = new OccupiedCellSpliterator(tileY, middle);
+            tileY = middle;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            return (long) (endTileY - tileY) * TILE_SIZE * width;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return ORDERED | DISTINCT | SORTED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator()
         {
-            res.setAt(p, at(p));
+            return null;
         }
-        return res;
     }
 }
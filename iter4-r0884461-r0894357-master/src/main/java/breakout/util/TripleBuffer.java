@@ -0,0 +1,110 @@
+package breakout.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands values over from one producer thread to one consumer thread without locking and without waiting.
+ *
+ * The three buffers are owned by the producer (the write buffer), by the consumer (the read buffer)
+ * and by neither (the middle buffer). {@link #publish()} swaps the write buffer with the middle one,
+ * {@link #update()} swaps the read buffer with the middle one if something was published since.
+ * A thread therefore never sees a buffer while the other thread is using it:
+ * the producer may fill its write buffer in place, and the consumer reads the latest complete value,
+ * skipping values that were overwritten before it got to them.
+ *
+ * @invar | getWriteBuffer() != null
+ * @invar | getReadBuffer() != null
+ */
+public class TripleBuffer<T>
+{
+    /**
+     * Set in {@link #middle} when the middle buffer holds a value the consumer has not seen yet.
+     */
+    private static final int FRESH = 4;
+
+    private static final int INDEX_MASK = 3;
+
+    /**
+     * @invar | buffers != null && buffers.length == 3
+     * @representationObject
+     */
+    private final Object[] buffers;
+
+    /**
+     * Index of the middle buffer, possibly combined with {@link #FRESH}.
+     */
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    /**
+     * Only accessed by the producer.
+     */
+    private int write = 0;
+
+    /**
+     * Only accessed by the consumer.
+     */
+    private int read = 2;
+
+    /**
+     * @throws IllegalArgumentException | first == null || second == null || third == null
+     * @throws IllegalArgumentException | first == second || first == third || second == third
+     */
+    public TripleBuffer(T first, T second, T third)
+    {
+        if ( first == null || second == null || third == null )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if ( first == second || first == third || second == third )
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.buffers = new Object[] { first, second, third };
+    }
+
+    /**
+     * Returns the buffer the producer fills. Only to be called by the producer.
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer()
+    {
+        return (T) buffers[write];
+    }
+
+    /**
+     * Makes the write buffer available to the consumer and gives the producer a new write buffer.
+     * Only to be called by the producer.
+     */
+    public void publish()
+    {
+        write = middle.getAndSet(write | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Returns the buffer the consumer reads. Only to be called by the consumer.
+     */
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer()
+    {
+        return (T) buffers[read];
+    }
+
+    /**
+     * Makes the most recently published buffer the read buffer.
+     * Returns whether anything was published since the previous call.
+     * Only to be called by the consumer.
+     */
+    public boolean update()
+    {
+        if ( (middle.get() & FRESH) == 0 )
+        {
+            return false;
+        }
+
+        read = middle.getAndSet(read) & INDEX_MASK;
+
+        return true;
+    }
+}
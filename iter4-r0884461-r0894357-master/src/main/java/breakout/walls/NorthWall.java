@@ -1,6 +1,7 @@
 package breakout.walls;
 
 import breakout.Collision;
+import breakout.CollisionBatch;
 import breakout.balls.Ball;
 import breakout.math.Vector;
 
@@ -32,18 +33,53 @@ public class NorthWall extends HorizontalWall
     @Override
     public Collision findCollision(Ball ball)
     {
-        var ballPosition = ball.getGeometry().getTopmostPoint();
-        var ballVelocity = ball.getVelocity();
+        var t = findCollisionTime(ball);
 
-        if ( ballVelocity.y() < 0 && ballPosition.y() > getYCoordinate() )
+        if ( t == Long.MAX_VALUE )
         {
-            var t = (ballPosition.y() - getYCoordinate()) / -ballVelocity.y();
+            return null;
+        }
+
+        return new Collision(t, Vector.KILO_DOWN);
+    }
+
+    /**
+     * Allocation-free twin of {@link #findCollision(Ball)}.
+     */
+    @Override
+    public long findCollisionTime(Ball ball)
+    {
+        var ballPosition = ball.getCenterY() - ball.getRadius();
+        var ballVelocity = ball.getVelocityY();
 
-            return new Collision(t, Vector.KILO_DOWN);
+        if ( ballVelocity < 0 && ballPosition > getYCoordinate() )
+        {
+            return (ballPosition - getYCoordinate()) / -ballVelocity;
         }
 
-        return null;
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Batched twin of {@link #findCollisionTime(Ball)}.
+     */
+    @Override
+    public void findCollisionTimes(CollisionBatch balls, int from, int to, long[] times)
+    {
+        var yCoordinate = getYCoordinate();
+
+        for ( var i = from; i < to; ++i )
+        {
+            var ballPosition = balls.getCenterY(i) - balls.getRadius(i);
+            var ballVelocity = balls.getVelocityY(i);
+
+            if ( ballVelocity < 0 && ballPosition > yCoordinate )
+            {
+                times[i] = Math.min(times[i], (ballPosition - yCoordinate) / -ballVelocity);
+            }
+        }
     }
+
     /**
      * @post | result != null
      * @post | result.isUnitVector()
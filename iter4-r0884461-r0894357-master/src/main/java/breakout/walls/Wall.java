@@ -1,6 +1,7 @@
 package breakout.walls;
 
 import breakout.Collision;
+import breakout.CollisionBatch;
 import breakout.balls.Ball;
 import breakout.math.Vector;
 
@@ -22,6 +23,25 @@ public abstract class Wall
      * 
      */
     public abstract Collision findCollision(Ball ball);
+
+    /**
+     * Returns the time until the collision returned by {@link #findCollision(Ball)},
+     * or {@link Long#MAX_VALUE} if there is none.
+     * Unlike findCollision, this method does not allocate.
+     * @pre | ball != null
+     * @post | findCollision(ball) == null ? result == Long.MAX_VALUE : result == findCollision(ball).getMillisecondsUntilCollision()
+     */
+    public abstract long findCollisionTime(Ball ball);
+
+    /**
+     * Lowers {@code times[i]} to the time until ball i of the batch collides with this wall, for every i in [from, to),
+     * as {@link #findCollisionTime(Ball)} would compute it for that ball.
+     * @pre | balls != null && times != null
+     * @pre | 0 <= from && from <= to && to <= balls.size() && to <= times.length
+     * @inspects | balls
+     * @mutates | times
+     */
+    public abstract void findCollisionTimes(CollisionBatch balls, int from, int to, long[] times);
     
     /**
      * Normal unit vector.
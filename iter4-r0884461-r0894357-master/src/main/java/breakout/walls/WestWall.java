@@ -1,6 +1,7 @@
 package breakout.walls;
 
 import breakout.Collision;
+import breakout.CollisionBatch;
 import breakout.balls.Ball;
 import breakout.math.Vector;
 
@@ -30,18 +31,53 @@ public class WestWall extends VerticalWall
     @Override
     public Collision findCollision(Ball ball)
     {
-        var ballPosition = ball.getGeometry().getLeftmostPoint();
-        var ballVelocity = ball.getVelocity();
+        var t = findCollisionTime(ball);
 
-        if ( ballVelocity.x() < 0 && ballPosition.x() >= getXCoordinate() )
+        if ( t == Long.MAX_VALUE )
         {
-            var t = (ballPosition.x() - getXCoordinate()) / -ballVelocity.x();
-            
-            return new Collision(t, Vector.KILO_LEFT);
+            return null;
         }
 
-        return null;
+        return new Collision(t, Vector.KILO_LEFT);
     }
+
+    /**
+     * Allocation-free twin of {@link #findCollision(Ball)}.
+     */
+    @Override
+    public long findCollisionTime(Ball ball)
+    {
+        var ballPosition = ball.getCenterX() - ball.getRadius();
+        var ballVelocity = ball.getVelocityX();
+
+        if ( ballVelocity < 0 && ballPosition >= getXCoordinate() )
+        {
+            return (ballPosition - getXCoordinate()) / -ballVelocity;
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Batched twin of {@link #findCollisionTime(Ball)}.
+     */
+    @Override
+    public void findCollisionTimes(CollisionBatch balls, int from, int to, long[] times)
+    {
+        var xCoordinate = getXCoordinate();
+
+        for ( var i = from; i < to; ++i )
+        {
+            var ballPosition = balls.getCenterX(i) - balls.getRadius(i);
+            var ballVelocity = balls.getVelocityX(i);
+
+            if ( ballVelocity < 0 && ballPosition >= xCoordinate )
+            {
+                times[i] = Math.min(times[i], (ballPosition - xCoordinate) / -ballVelocity);
+            }
+        }
+    }
+
     /**
      * @post | result != null
      * @post | result.isUnitVector()
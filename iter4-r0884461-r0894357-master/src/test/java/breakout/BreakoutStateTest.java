@@ -14,6 +14,9 @@ import breakout.balls.Ball;
 import breakout.balls.StandardBehavior;
 import breakout.bricks.Brick;
 import breakout.bricks.StandardBrick;
+import breakout.bricks.SturdyBrick;
+import breakout.bricks.lock.LockedBrick;
+import breakout.balls.StrongBallBehavior;
 import breakout.paddles.Paddle;
 import breakout.util.SpecUtil;
 import breakout.walls.Wall;
@@ -96,4 +99,103 @@ public class BreakoutStateTest {
     	assertNotNull(state.getBrickGrid());
     }
 
+    @Test
+    void testSnapshotRestore() {
+    	var sturdy = state.getBrickGrid().addSturdyBrick(new Point(3, 0), 3);
+    	var standard = state.getBrickGrid().addStandardBrick(new Point(4, 0));
+    	var ball = state.getBalls().get(0);
+    	var behavior = new StrongBallBehavior();
+    	ball.setBehavior(behavior);
+    	var timeLeft = behavior.getTimeLeft();
+    	var snapshot = state.snapshot();
+    	
+    	sturdy.hit(state, ball);
+    	state.getBrickGrid().removeBrick(standard);
+    	state.getPaddle().grow();
+    	state.tick(1000);
+    	state.removeBall(ball);
+    	state.addBall(new Circle(new Point(5000, 5000), 500), new Vector(1, 1), new StandardBehavior());
+    	
+    	state.restore(snapshot);
+    	
+    	assertEquals(3, sturdy.getLivesLeft());
+    	assertEquals(2, state.getBricks().size());
+    	assertSame(standard, state.getBrickGrid().getBrickAt(new Point(4, 0)));
+    	assertEquals(1, state.getBalls().size());
+    	assertSame(ball, state.getBalls().get(0));
+    	assertEquals(new Vector(25, -25), ball.getVelocity());
+    	assertEquals(timeLeft, ((StrongBallBehavior) ball.getBehavior()).getTimeLeft());
+    	assertEquals(paddleHalfWidth, state.getPaddle().getHalfWidth());
+    }
+    
+    @Test
+    void testSnapshotCanBeRestoredRepeatedly() {
+    	var sturdy = state.getBrickGrid().addSturdyBrick(new Point(3, 0), 3);
+    	var first = state.snapshot();
+    	sturdy.hit(state, state.getBalls().get(0));
+    	var second = state.snapshot();
+    	sturdy.hit(state, state.getBalls().get(0));
+    	
+    	state.restore(first);
+    	assertEquals(3, sturdy.getLivesLeft());
+    	state.restore(second);
+    	assertEquals(2, sturdy.getLivesLeft());
+    	state.restore(first);
+    	assertEquals(3, sturdy.getLivesLeft());
+    	
+    	// A snapshot taken after restoring must record the restored state
+    	var third = state.snapshot();
+    	sturdy.hit(state, state.getBalls().get(0));
+    	state.restore(third);
+    	assertEquals(3, sturdy.getLivesLeft());
+    }
+    
+    @Test
+    void testSnapshotRecordsBricksOfTemplateGames() {
+    	// Bricks put in place by a template must report their modifications like bricks added to the grid
+    	var game = new LevelTemplate(new String[] { "S#", "  " }, 10000, 2000).createState();
+    	var sturdy = (SturdyBrick) game.getBrickGrid().getBrickAt(new Point(0, 0));
+    	var first = game.snapshot();
+    	sturdy.hit(game, game.getBalls().get(0));
+    	var second = game.snapshot();
+    	sturdy.hit(game, game.getBalls().get(0));
+    	
+    	game.restore(second);
+    	assertEquals(2, sturdy.getLivesLeft());
+    	game.restore(first);
+    	assertEquals(3, sturdy.getLivesLeft());
+    }
+    
+    @Test
+    void testSnapshotRestoresLockLinks() {
+    	var grid = state.getBrickGrid();
+    	var locked = grid.addLockedBrick(new Point(1, 0));
+    	var locks = new ArrayList<LockedBrick>();
+    	locks.add(locked);
+    	var master = grid.addMasterBrick(new Point(2, 0), locks);
+    	var snapshot = state.snapshot();
+    	
+    	master.hit(state, state.getBalls().get(0));
+    	var keyBall = state.getBalls().get(1);
+    	locked.hit(state, keyBall);
+    	assertTrue(master.getLockedBricks().isEmpty());
+    	assertNull(grid.getBrickAt(new Point(1, 0)));
+    	
+    	state.restore(snapshot);
+    	
+    	assertEquals(1, state.getBalls().size());
+    	assertSame(locked, grid.getBrickAt(new Point(1, 0)));
+    	assertEquals(locks, master.getLockedBricks());
+    	assertEquals(1, locked.getMasterBricks().size());
+    	assertSame(master, locked.getMasterBricks().get(0));
+    	assertNull(locked.getKeyBallBehavior());
+    }
+    
+    @Test
+    void testRestoreOtherGame() {
+    	var other = new BreakoutState(new BrickGrid(10, 10, 10000, 2000), paddleHalfWidth, paddleSpeed);
+    	assertThrows(IllegalArgumentException.class, () -> state.restore(other.snapshot()));
+    	assertThrows(IllegalArgumentException.class, () -> state.restore(null));
+    }
+
 }
@@ -2,11 +2,15 @@ package breakout;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import breakout.balls.Ball;
+import breakout.balls.StandardBehavior;
+import breakout.bricks.Brick;
 import breakout.bricks.GrowPaddleBrick;
 import breakout.bricks.ShrinkPaddleBrick;
 import breakout.bricks.SlowDownBrick;
@@ -16,8 +20,10 @@ import breakout.bricks.StrengtheningBrick;
 import breakout.bricks.WeakeningBrick;
 import breakout.bricks.lock.LockedBrick;
 import breakout.bricks.lock.MasterBrick;
+import breakout.math.Circle;
 import breakout.math.Point;
 import breakout.math.Rectangle;
+import breakout.math.Vector;
 import breakout.paddles.Paddle;
 
 class BrickGridTest {
@@ -117,10 +123,225 @@ class BrickGridTest {
 		assertTrue(bg.isEmpty());
 	}
 	
+	@Test
+	void testOccupancy() {
+		assertEquals(0, bg.getBrickCount());
+		assertTrue(bg.isRowEmpty(3));
+		assertTrue(bg.isColumnEmpty(4));
+		
+		StandardBrick br1 = bg.addStandardBrick(new Point(4, 3));
+		bg.addSturdyBrick(new Point(4, 5), 3);
+		assertEquals(2, bg.getBrickCount());
+		assertFalse(bg.isEmpty());
+		assertFalse(bg.isRowEmpty(3));
+		assertFalse(bg.isRowEmpty(5));
+		assertTrue(bg.isRowEmpty(4));
+		assertFalse(bg.isColumnEmpty(4));
+		assertTrue(bg.isColumnEmpty(3));
+		
+		bg.removeBrick(br1);
+		assertEquals(1, bg.getBrickCount());
+		assertTrue(bg.isRowEmpty(3));
+		assertFalse(bg.isColumnEmpty(4));
+		
+		bg.removeBrickAt(new Point(4, 5));
+		assertEquals(0, bg.getBrickCount());
+		assertTrue(bg.isEmpty());
+		assertTrue(bg.isRowEmpty(5));
+		assertTrue(bg.isColumnEmpty(4));
+	}
+	
+	@Test
+	void testFindEarliestCollisionSkipsEmptyRowsAndColumns() {
+		var ballArea = new Rectangle(0, 0, bg.getWidth(), bg.getHeight() + Paddle.HEIGHT);
+		var upwards = new Ball(ballArea, new Circle(new Point(25000, 19000), 500), new Vector(0, -10), new StandardBehavior());
+		var leftwards = new Ball(ballArea, new Circle(new Point(85000, 3000), 500), new Vector(-10, 0), new StandardBehavior());
+		assertNull(bg.findEarliestCollision(upwards));
+		assertNull(bg.findEarliestCollision(leftwards));
+		
+		StandardBrick br1 = bg.addStandardBrick(new Point(2, 0));
+		StandardBrick br2 = bg.addStandardBrick(new Point(0, 1));
+		var upwardsCollision = bg.findEarliestCollision(upwards);
+		assertSame(br1, upwardsCollision.getBrick());
+		assertEquals((19000 - 500 - 2000) / 10, upwardsCollision.getMillisecondsUntilCollision());
+		var leftwardsCollision = bg.findEarliestCollision(leftwards);
+		assertSame(br2, leftwardsCollision.getBrick());
+		assertEquals((85000 - 500 - 10000) / 10, leftwardsCollision.getMillisecondsUntilCollision());
+		
+		bg.removeBrick(br1);
+		assertNull(bg.findEarliestCollision(upwards));
+	}
+	
+	@Test
+	void testGetBricksRowOrder() {
+		StandardBrick br1 = bg.addStandardBrick(new Point(2, 7));
+		StandardBrick br2 = bg.addStandardBrick(new Point(8, 1));
+		StandardBrick br3 = bg.addStandardBrick(new Point(0, 7));
+		assertEquals(java.util.List.of(br2, br3, br1), bg.getBricks());
+	}
+	
 	@Test
 	void testBoundRect() {
 		assertEquals(new Rectangle(0, 0, bg.getWidth(), bg.getHeight()), bg.getBoundingRectangle());
 	}
 	
 
+	@Test
+	void testCellChangeJournal() {
+		assertEquals(0, bg.getCellChangeCount());
+		var brick = bg.addStandardBrick(new Point(2, 3));
+		bg.removeBrick(brick);
+		assertEquals(2, bg.getCellChangeCount());
+		assertTrue(bg.areCellChangesAvailableSince(0));
+		assertEquals(3 * 9 + 2, bg.getChangedCellIndex(0));
+		assertEquals(3 * 9 + 2, bg.getChangedCellIndex(1));
+		
+		for (int i = 0; i != BrickGrid.CELL_CHANGE_JOURNAL_SIZE / 2; ++i) {
+			bg.addStandardBrick(new Point(1, 0));
+			bg.removeBrickAt(new Point(1, 0));
+		}
+		assertFalse(bg.areCellChangesAvailableSince(1));
+		assertTrue(bg.areCellChangesAvailableSince(2));
+		assertEquals(1, bg.getChangedCellIndex(bg.getCellChangeCount() - 1));
+	}
+	
+	@Test
+	void testRaycastReportsAllBricksInOrder() {
+		StandardBrick br1 = bg.addStandardBrick(new Point(0, 8));
+		StandardBrick br2 = bg.addStandardBrick(new Point(1, 8));
+		StandardBrick br3 = bg.addStandardBrick(new Point(1, 7));
+		bg.addStandardBrick(new Point(8, 0));
+		var bricks = new ArrayList<Object>();
+		bg.raycast(new Point(5000, 19000), new Vector(10, -4), Long.MAX_VALUE, (brick, time, kiloNormal) -> {
+			bricks.add(brick);
+			bricks.add(time);
+			bricks.add(kiloNormal);
+			return true;
+		});
+		assertEquals(java.util.List.of(br1, 250L, Vector.KILO_DOWN, br2, 500L, Vector.KILO_LEFT, br3, 750L, Vector.KILO_DOWN), bricks);
+	}
+	
+	@Test
+	void testRaycastStopsAtMaxTimeAndWhenVisitorDeclines() {
+		StandardBrick br1 = bg.addStandardBrick(new Point(2, 5));
+		StandardBrick br2 = bg.addStandardBrick(new Point(3, 5));
+		bg.addStandardBrick(new Point(7, 5));
+		bg.addStandardBrick(new Point(4, 4));
+		var bricks = new ArrayList<Object>();
+		bg.raycast(new Point(1000, 11000), new Vector(10, 0), 5000, (brick, time, kiloNormal) -> {
+			bricks.add(brick);
+			bricks.add(time);
+			return true;
+		});
+		assertEquals(java.util.List.of(br1, 1900L, br2, 2900L), bricks);
+		
+		bricks.clear();
+		bg.raycast(new Point(1000, 11000), new Vector(10, 0), Long.MAX_VALUE, (brick, time, kiloNormal) -> {
+			bricks.add(brick);
+			return false;
+		});
+		assertEquals(java.util.List.of(br1), bricks);
+	}
+	
+	@Test
+	void testRaycastOnHugeSparseGrid() {
+		var huge = new BrickGrid(100000, 100000, 10, 10);
+		// Occupy the rows and columns the ray passes through, far away from it
+		huge.addStandardBrick(new Point(30000, 2));
+		huge.addStandardBrick(new Point(2, 30000));
+		StandardBrick target = huge.addStandardBrick(new Point(50000, 50000));
+		var hits = new ArrayList<Object>();
+		huge.raycast(new Point(5, 7), new Vector(10, 10), Long.MAX_VALUE, (brick, time, kiloNormal) -> {
+			hits.add(brick);
+			hits.add(time);
+			hits.add(kiloNormal);
+			return true;
+		});
+		assertEquals(java.util.List.of(target, 49999L, Vector.KILO_LEFT), hits);
+		assertEquals(3, huge.getBricks().size());
+	}
+	
+	@Test
+	void testFindEarliestCollisionIsFirstRaycastHit() {
+		StandardBrick br1 = bg.addStandardBrick(new Point(0, 8));
+		bg.addStandardBrick(new Point(1, 8));
+		var ballArea = new Rectangle(0, 0, bg.getWidth(), bg.getHeight() + Paddle.HEIGHT);
+		// Moving horizontally, the ball stays in row 9, which has no bricks
+		var ball = new Ball(ballArea, new Circle(new Point(5000, 19000), 500), new Vector(10, 0), new StandardBehavior());
+		assertNull(bg.findEarliestCollision(ball));
+		ball.setVelocity(new Vector(10, -4));
+		var collision = bg.findEarliestCollision(ball);
+		var hits = new ArrayList<Object>();
+		var leadingPoint = new Point(5000 + 10 * 500 / Vector.getLength(10, -4), 19000 - 4 * 500 / Vector.getLength(10, -4));
+		bg.raycast(leadingPoint, new Vector(10, -4), Long.MAX_VALUE, (brick, time, kiloNormal) -> {
+			hits.add(brick);
+			hits.add(time);
+			hits.add(kiloNormal);
+			return false;
+		});
+		assertEquals(java.util.List.of(collision.getBrick(), collision.getMillisecondsUntilCollision(), collision.getKiloNormal()), hits);
+		assertSame(br1, collision.getBrick());
+	}
+	
+	@Test
+	void testCompactBricks() {
+		bg.addCompactBrick(2, 3, CellType.STANDARD);
+		bg.addCompactBrick(3, 3, CellType.SLOW_DOWN);
+		assertThrows(IllegalArgumentException.class, () -> bg.addCompactBrick(4, 3, CellType.STURDY));
+		assertEquals(2, bg.getBrickCount());
+		assertTrue(bg.getStoredBricks().isEmpty());
+		
+		var brick = bg.getBrickAt(new Point(2, 3));
+		assertTrue(brick instanceof StandardBrick);
+		assertTrue(bg.getBrickAt(new Point(3, 3)) instanceof SlowDownBrick);
+		assertEquals(bg.getBrickRectangle(new Point(2, 3)), brick.getGeometry());
+		assertEquals(new Point(2, 3), brick.getGridPosition());
+		assertSame(brick, bg.getBrickAt(new Point(2, 3)));
+		assertSame(brick, bg.getBricks().get(0));
+		assertTrue(bg.getStoredBricks().isEmpty());
+		
+		// Two compact bricks of the same type next to each other are both reported
+		var hits = new ArrayList<Brick>();
+		bg.addCompactBrick(4, 3, CellType.SLOW_DOWN);
+		bg.raycast(new Point(0, 7000), new Vector(10, 0), Long.MAX_VALUE, (hit, time, kiloNormal) -> hits.add(hit));
+		assertEquals(java.util.List.of(brick, bg.getBrickAt(new Point(3, 3)), bg.getBrickAt(new Point(4, 3))), hits);
+		
+		var snapshot = bg.createSnapshot();
+		bg.removeBrick(brick);
+		assertNull(bg.getBrickAt(new Point(2, 3)));
+		assertEquals(2, bg.getBrickCount());
+		bg.restore(snapshot);
+		assertSame(brick, bg.getBrickAt(new Point(2, 3)));
+		assertEquals(3, bg.getBrickCount());
+		
+		var copy = new BrickGrid(bg);
+		assertNotSame(brick, copy.getBrickAt(new Point(2, 3)));
+		assertTrue(copy.getBrickAt(new Point(2, 3)) instanceof StandardBrick);
+		
+		// Prototypes stand in for compact bricks without creating their objects
+		var prototype = copy.getBrickOrPrototypeAt(3, 3);
+		assertTrue(prototype instanceof SlowDownBrick);
+		assertSame(prototype, copy.getBrickOrPrototypeAt(4, 3));
+		assertSame(prototype, bg.getBrickOrPrototypeAt(4, 3));
+		assertNull(copy.getBrickOrPrototypeAt(1, 3));
+		var visited = new ArrayList<Brick>();
+		copy.forEachBrick((x, y, visitedBrick) -> visited.add(visitedBrick));
+		assertEquals(java.util.List.of(copy.getBrickOrPrototypeAt(2, 3), prototype, prototype), visited);
+		
+		// A compact brick put in an emptied cell is a new brick
+		bg.removeBrickAt(new Point(2, 3));
+		bg.addCompactBrick(2, 3, CellType.STANDARD);
+		assertNotSame(brick, bg.getBrickAt(new Point(2, 3)));
+		assertSame(bg.getBrickAt(new Point(2, 3)), bg.getBrickAt(2, 3));
+		
+		// Neither the grid nor its snapshots keep the objects of compact bricks alive
+		var released = new WeakReference<Brick>(bg.getBricks().get(0));
+		bg.createSnapshot();
+		for (int i = 0; i != 100 && released.get() != null; ++i) {
+			System.gc();
+		}
+		assertNull(released.get());
+		assertTrue(bg.getBrickAt(2, 3) instanceof StandardBrick);
+	}
+	
 }
@@ -0,0 +1,116 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.balls.StandardBehavior;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Vector;
+
+public class CollisionBatchTest
+{
+    BreakoutState state;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        var random = new Random(17);
+        var brickGrid = new BrickGrid(10, 10, 10000, 2000);
+
+        for ( var i = 0; i != 30; ++i )
+        {
+            var position = new Point(random.nextInt(10), random.nextInt(8));
+
+            if ( !brickGrid.containsBrickAt(position) )
+            {
+                brickGrid.addStandardBrick(position);
+            }
+        }
+
+        state = new BreakoutState(brickGrid, 10000, 100);
+
+        for ( var i = 0; i != 3 * CollisionBatch.CHUNK_SIZE + 17; ++i )
+        {
+            var center = new Point(random.nextInt(1000, 99000), random.nextInt(1000, 29000));
+            var velocity = new Vector(random.nextInt(-20, 21), random.nextInt(-20, 21));
+            state.addBall(new Circle(center, random.nextInt(100, 1000)), velocity, new StandardBehavior());
+        }
+    }
+
+    private void assertMatchesSingleBallQueries(CollisionBatch batch)
+    {
+        var balls = state.getBalls();
+        assertEquals(balls.size(), batch.size());
+
+        for ( var i = 0; i != balls.size(); ++i )
+        {
+            var ball = balls.get(i);
+            var wallTime = Long.MAX_VALUE;
+
+            for ( var wall : state.getWalls() )
+            {
+                wallTime = Math.min(wallTime, wall.findCollisionTime(ball));
+            }
+
+            var brickCollision = state.getBrickGrid().findEarliestCollision(ball);
+
+            assertEquals(wallTime, batch.getWallCollisionTime(i));
+            assertEquals(state.getPaddle().findCollisionTime(ball), batch.getPaddleCollisionTime(i));
+            assertEquals(brickCollision == null ? Long.MAX_VALUE : brickCollision.getMillisecondsUntilCollision(), batch.getBrickCollisionTime(i));
+            assertSame(brickCollision == null ? null : brickCollision.getBrick(), batch.getBrick(i));
+        }
+    }
+
+    @Test
+    void testCompute()
+    {
+        var batch = new CollisionBatch();
+        batch.addAll(state.getBalls());
+        batch.compute(state);
+
+        assertMatchesSingleBallQueries(batch);
+    }
+
+    @Test
+    void testComputeInParallel()
+    {
+        var batch = new CollisionBatch();
+        batch.addAll(state.getBalls());
+        batch.computeInParallel(state);
+
+        assertMatchesSingleBallQueries(batch);
+    }
+
+    @Test
+    void testClearAndReuse()
+    {
+        var batch = new CollisionBatch();
+        batch.add(50000, 15000, 500, 0, -10);
+        batch.compute(state);
+        batch.clear();
+        assertEquals(0, batch.size());
+
+        batch.addAll(state.getBalls());
+        batch.compute(state);
+
+        assertMatchesSingleBallQueries(batch);
+    }
+
+    @Test
+    void testStationaryBall()
+    {
+        var batch = new CollisionBatch();
+        batch.add(50000, 25000, 500, 0, 0);
+        batch.compute(state);
+
+        assertEquals(Long.MAX_VALUE, batch.getWallCollisionTime(0));
+        assertEquals(Long.MAX_VALUE, batch.getPaddleCollisionTime(0));
+        assertEquals(Long.MAX_VALUE, batch.getBrickCollisionTime(0));
+        assertNull(batch.getBrick(0));
+    }
+}
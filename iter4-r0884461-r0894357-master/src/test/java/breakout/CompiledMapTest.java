@@ -0,0 +1,154 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.bricks.SturdyBrick;
+import breakout.bricks.lock.LockedBrick;
+import breakout.bricks.lock.MasterBrick;
+import breakout.headless.TrackingController;
+import breakout.math.Point;
+import breakout.replay.StateHasher;
+
+class CompiledMapTest
+{
+    Path path;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        path = Files.createTempFile("breakout", ".map");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void testShippedMapsLoadLikeParsed() throws IOException
+    {
+        var controller = new TrackingController();
+
+        for ( var mapName : GameMapParser.MAP_NAMES )
+        {
+            CompiledMap.compile(GameMapParser.getMap(mapName), path);
+
+            var parsed = GameMapParser.parse(GameMapParser.getMap(mapName), 10000, 3000);
+            var loaded = CompiledMap.load(path, 10000, 3000);
+
+            assertEquals(StateHasher.hash(parsed), StateHasher.hash(loaded), mapName);
+
+            for ( var i = 0; i != 300 && !parsed.isGameOver(); ++i )
+            {
+                var direction = controller.chooseDirection(parsed);
+                parsed.getPaddle().setMotionDirection(direction);
+                loaded.getPaddle().setMotionDirection(direction);
+                parsed.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+                loaded.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+
+                assertEquals(StateHasher.hash(parsed), StateHasher.hash(loaded), mapName);
+            }
+        }
+    }
+
+    @Test
+    void testLockGroups() throws IOException
+    {
+        CompiledMap.compile(new String[] { "L m l", "S M #", "l  L " }, path);
+
+        var grid = CompiledMap.loadBrickGrid(path, 1000, 500);
+        var master = (MasterBrick) grid.getBrickAt(new Point(2, 1));
+        var master2 = (MasterBrick) grid.getBrickAt(new Point(2, 0));
+
+        assertEquals(Arrays.asList(grid.getBrickAt(new Point(0, 0)), grid.getBrickAt(new Point(3, 2))), master.getLockedBricks());
+        assertEquals(Arrays.asList(grid.getBrickAt(new Point(4, 0)), grid.getBrickAt(new Point(0, 2))), master2.getLockedBricks());
+        assertTrue(master.getLockedBricks().stream().allMatch(brick -> brick instanceof LockedBrick));
+        assertEquals(CellType.STURDY_LIVES, ((SturdyBrick) grid.getBrickAt(new Point(0, 1))).getLivesLeft());
+        assertEquals(8, grid.getBrickCount());
+    }
+
+    @Test
+    void testLargeSparseLevel() throws IOException
+    {
+        var lines = new String[1500];
+        Arrays.fill(lines, " ".repeat(3000));
+        lines[0] = "#" + " ".repeat(2999);
+        lines[700] = " ".repeat(1000) + "S" + " ".repeat(1999);
+        lines[1499] = " ".repeat(2999) + "#";
+        CompiledMap.compile(lines, path);
+
+        // Header, directory, brick counts, sturdy and link tables and three chunks of cells
+        var chunkCount = (3000 + 63) / 64 * ((1500 + 63) / 64);
+        assertEquals(CompiledMap.HEADER_SIZE + 4 * chunkCount + 4 * (1500 + 3000) + 12 + 2 * 8 + 3 * CompiledMap.CHUNK_BYTES, Files.size(path));
+
+        var grid = CompiledMap.loadBrickGrid(path, 10, 10);
+        assertEquals(3000, grid.getColumnCount());
+        assertEquals(1500, grid.getRowCount());
+        assertEquals(3, grid.getBrickCount());
+        assertFalse(grid.isRowEmpty(700));
+        assertTrue(grid.isRowEmpty(701));
+        assertFalse(grid.isColumnEmpty(2999));
+        assertTrue(grid.isColumnEmpty(2998));
+        assertNotNull(grid.getBrickAt(new Point(0, 0)));
+        assertTrue(grid.getBrickAt(new Point(1000, 700)) instanceof SturdyBrick);
+        assertNotNull(grid.getBrickAt(new Point(2999, 1499)));
+    }
+
+    @Test
+    void testChunksAreDecodedWhenFirstAccessed() throws IOException
+    {
+        var lines = new String[100];
+        Arrays.fill(lines, " ".repeat(100));
+        lines[0] = "#" + " ".repeat(99);
+        lines[99] = " ".repeat(99) + "#";
+        CompiledMap.compile(lines, path);
+
+        // Make the second cell of the last chunk invalid: only accessing that chunk notices
+        var bytes = Files.readAllBytes(path);
+        bytes[bytes.length - CompiledMap.CHUNK_BYTES] |= (byte) 0xF0;
+        Files.write(path, bytes);
+
+        var grid = CompiledMap.loadBrickGrid(path, 10, 10);
+        assertEquals(2, grid.getBrickCount());
+        assertNotNull(grid.getBrickAt(new Point(0, 0)));
+        assertThrows(UncheckedIOException.class, () -> grid.getBrickAt(new Point(99, 99)));
+    }
+
+    @Test
+    void testCompileRejectsInvalidText()
+    {
+        assertThrows(IllegalArgumentException.class, () -> CompiledMap.compile(null, path));
+        assertThrows(IllegalArgumentException.class, () -> CompiledMap.compile(new String[] { "#" }, null));
+        assertThrows(IllegalArgumentException.class, () -> CompiledMap.compile(new String[] { "# ", "#" }, path));
+        assertThrows(IllegalArgumentException.class, () -> CompiledMap.compile(new String[] { "#?" }, path));
+        assertThrows(IllegalArgumentException.class, () -> CompiledMap.compile(new String[] { "#L" }, path));
+    }
+
+    @Test
+    void testLoadRejectsInvalidFiles() throws IOException
+    {
+        assertThrows(IllegalArgumentException.class, () -> CompiledMap.load(path, 0, 3000));
+
+        Files.write(path, new byte[0]);
+        assertThrows(IOException.class, () -> CompiledMap.load(path, 10000, 3000));
+
+        Files.write(path, "BRKR not a map".getBytes());
+        assertThrows(IOException.class, () -> CompiledMap.load(path, 10000, 3000));
+
+        CompiledMap.compile(GameMapParser.descr2, path);
+        var bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> CompiledMap.load(path, 10000, 3000));
+    }
+}
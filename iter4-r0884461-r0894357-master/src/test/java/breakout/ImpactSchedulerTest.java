@@ -0,0 +1,143 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.balls.StandardBehavior;
+import breakout.headless.TrackingController;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Vector;
+import breakout.replay.StateHasher;
+
+public class ImpactSchedulerTest
+{
+    BreakoutState fixedStepState;
+    BreakoutState eventDrivenState;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        fixedStepState = createState();
+        eventDrivenState = createState();
+    }
+
+    private static BreakoutState createState()
+    {
+        var brickGrid = new BrickGrid(10, 10, 10000, 2000);
+        brickGrid.addStandardBrick(new Point(5, 0));
+        var state = new BreakoutState(brickGrid, 10000, 100);
+        state.addBall(new Circle(new Point(55000, 15000), 500), new Vector(0, -10), new StandardBehavior());
+
+        return state;
+    }
+
+    @Test
+    void testConstructorNullState()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ImpactScheduler(null));
+    }
+
+    @Test
+    void testFreeFlight()
+    {
+        fixedStepState.tick(500);
+        eventDrivenState.tickEventDriven(500);
+
+        assertEquals(new Point(55000, 10000), eventDrivenState.getBalls().get(0).getCenter());
+        assertEquals(StateHasher.hash(fixedStepState), StateHasher.hash(eventDrivenState));
+    }
+
+    @Test
+    void testBrickHit()
+    {
+        fixedStepState.tick(2000);
+        eventDrivenState.tickEventDriven(2000);
+
+        assertTrue(eventDrivenState.getBricks().isEmpty());
+        assertEquals(new Vector(0, 10), eventDrivenState.getBalls().get(0).getVelocity());
+        assertEquals(StateHasher.hash(fixedStepState), StateHasher.hash(eventDrivenState));
+    }
+
+    @Test
+    void testBallLost()
+    {
+        var ball = eventDrivenState.getBalls().get(0);
+        ball.setVelocity(new Vector(30, 10));
+        fixedStepState.getBalls().get(0).setVelocity(new Vector(30, 10));
+
+        fixedStepState.tick(2000);
+        eventDrivenState.tickEventDriven(2000);
+
+        assertTrue(eventDrivenState.isGameLost());
+        assertEquals(StateHasher.hash(fixedStepState), StateHasher.hash(eventDrivenState));
+    }
+
+    @Test
+    void testMovingPaddle()
+    {
+        fixedStepState.getPaddle().setMotionDirection(breakout.paddles.PaddleMotionDirection.LEFT);
+        eventDrivenState.getPaddle().setMotionDirection(breakout.paddles.PaddleMotionDirection.LEFT);
+
+        fixedStepState.tick(300);
+        eventDrivenState.tickEventDriven(300);
+
+        assertEquals(StateHasher.hash(fixedStepState), StateHasher.hash(eventDrivenState));
+    }
+
+    @Test
+    void testSplitAdvanceMatchesSingleAdvance()
+    {
+        var scheduler = new ImpactScheduler(eventDrivenState);
+
+        for ( int i = 0; i != 7; ++i )
+        {
+            scheduler.advance(1000);
+        }
+
+        fixedStepState.tickEventDriven(7000);
+
+        assertEquals(StateHasher.hash(fixedStepState), StateHasher.hash(eventDrivenState));
+    }
+
+    @Test
+    void testShippedMapsMatchFixedStepEngine()
+    {
+        for ( var map : new String[][] { GameMapParser.descr3, GameMapParser.descr4, GameMapParser.descr6, GameMapParser.OOP_MAP } )
+        {
+            var fixedStep = GameMapParser.parse(map, 10000, 3000);
+            var eventDriven = GameMapParser.parse(map, 10000, 3000);
+
+            for ( int i = 0; i != 100; ++i )
+            {
+                fixedStep.tick(100);
+                eventDriven.tickEventDriven(100);
+
+                assertEquals(StateHasher.hash(fixedStep), StateHasher.hash(eventDriven));
+            }
+        }
+    }
+
+    @Test
+    void testSteeredGamesMatchFixedStepEngine()
+    {
+        for ( var map : new String[][] { GameMapParser.descr5, GameMapParser.descr7 } )
+        {
+            var fixedStep = GameMapParser.parse(map, 10000, 3000);
+            var eventDriven = GameMapParser.parse(map, 10000, 3000);
+            var controller = new TrackingController();
+
+            for ( int i = 0; i != 1000 && !fixedStep.isGameOver(); ++i )
+            {
+                fixedStep.getPaddle().setMotionDirection(controller.chooseDirection(fixedStep));
+                fixedStep.tick(20);
+                eventDriven.getPaddle().setMotionDirection(controller.chooseDirection(eventDriven));
+                eventDriven.tickEventDriven(20);
+
+                assertEquals(StateHasher.hash(fixedStep), StateHasher.hash(eventDriven));
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.replay.StateHasher;
+
+class LevelTemplateCacheTest
+{
+    @Test
+    void testConstructor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new LevelTemplateCache(0));
+    }
+
+    @Test
+    void testInvalidArguments()
+    {
+        var cache = new LevelTemplateCache(2);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getTemplate(null, 1000, 300));
+        assertThrows(IllegalArgumentException.class, () -> cache.getTemplate("descr8", 1000, 300));
+        assertThrows(IllegalArgumentException.class, () -> cache.getTemplate("descr2", 0, 300));
+        assertThrows(IllegalArgumentException.class, () -> cache.getTemplate("descr2", 1000, -1));
+    }
+
+    @Test
+    void testHitsAndMisses()
+    {
+        var cache = new LevelTemplateCache(2);
+
+        var first = cache.getTemplate("descr2", 1000, 300);
+        assertSame(first, cache.getTemplate("descr2", 1000, 300));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertNotSame(first, cache.getTemplate("descr2", 2000, 300));
+        assertEquals(2, cache.size());
+
+        // descr2 at 1000 by 300 is the least recently used template
+        cache.getTemplate("OGP_MAP", 1000, 300);
+        assertEquals(2, cache.size());
+        assertNotSame(first, cache.getTemplate("descr2", 1000, 300));
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    void testCreateState()
+    {
+        var state = LevelTemplateCache.getShared().createState("OGP_MAP", 10000, 3000);
+
+        assertEquals(StateHasher.hash(GameMapParser.parse(GameMapParser.OGP_MAP, 10000, 3000)), StateHasher.hash(state));
+        assertNotSame(state.getBrickGrid(), LevelTemplateCache.getShared().createState("OGP_MAP", 10000, 3000).getBrickGrid());
+    }
+}
@@ -0,0 +1,120 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.bricks.StandardBrick;
+import breakout.bricks.SturdyBrick;
+import breakout.bricks.lock.LockedBrick;
+import breakout.bricks.lock.MasterBrick;
+import breakout.headless.TrackingController;
+import breakout.math.Point;
+import breakout.replay.StateHasher;
+
+class LevelTemplateTest
+{
+    private static void assertPlaysLikeParsed(String mapName, BreakoutState parsed, BreakoutState created)
+    {
+        var controller = new TrackingController();
+
+        assertEquals(StateHasher.hash(parsed), StateHasher.hash(created), mapName);
+
+        for ( var i = 0; i != 600 && !parsed.isGameOver(); ++i )
+        {
+            var direction = controller.chooseDirection(parsed);
+            parsed.getPaddle().setMotionDirection(direction);
+            created.getPaddle().setMotionDirection(direction);
+            parsed.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+            created.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+
+            assertEquals(StateHasher.hash(parsed), StateHasher.hash(created), mapName);
+        }
+    }
+
+    @Test
+    void testGamesPlayLikeParsedGames()
+    {
+        for ( var mapName : GameMapParser.MAP_NAMES )
+        {
+            var template = new LevelTemplate(GameMapParser.getMap(mapName), 10000, 3000);
+
+            // The second game starts after the first one has been played, which must not have changed the template
+            for ( var game = 0; game != 2; ++game )
+            {
+                assertPlaysLikeParsed(mapName, GameMapParser.parse(GameMapParser.getMap(mapName), 10000, 3000), template.createState());
+            }
+        }
+    }
+
+    @Test
+    void testGamesHaveTheirOwnBricks()
+    {
+        var template = new LevelTemplate(GameMapParser.descr7, 1000, 300);
+        var first = template.createBrickGrid();
+        var second = template.createBrickGrid();
+
+        assertEquals(first.getBrickCount(), second.getBrickCount());
+
+        for ( var brick : first.getBricks() )
+        {
+            var other = second.getBrickAt(brick.getGridPosition());
+
+            // The parser stores bricks without mutable state as compact bricks, whose objects each game creates itself
+            assertEquals(brick.getClass(), other.getClass());
+            assertEquals(brick.getGeometry(), other.getGeometry());
+            assertNotSame(brick, other);
+        }
+
+        var master = (MasterBrick) first.getBrickAt(new Point(2, 0));
+        assertEquals(2, master.getLockedBricks().size());
+
+        for ( var lockedBrick : master.getLockedBricks() )
+        {
+            assertSame(first.getBrickAt(lockedBrick.getGridPosition()), lockedBrick);
+            assertTrue(lockedBrick.getMasterBricks().contains(master));
+        }
+
+        var parsed = GameMapParser.parse(GameMapParser.descr7, 1000, 300).getBrickGrid();
+
+        for ( var brick : parsed.getBricks() )
+        {
+            if ( brick instanceof LockedBrick lockedBrick )
+            {
+                var created = (LockedBrick) first.getBrickAt(brick.getGridPosition());
+
+                assertEquals(lockedBrick.getMasterBricks().stream().map(m -> m.getGridPosition()).toList(),
+                        created.getMasterBricks().stream().map(m -> m.getGridPosition()).toList());
+            }
+        }
+    }
+
+    @Test
+    void testGamesAreIndependent()
+    {
+        var template = new LevelTemplate(GameMapParser.descr2, 1000, 300);
+        var first = template.createBrickGrid();
+        var second = template.createBrickGrid();
+
+        first.removeBrick(first.getBrickAt(new Point(0, 0)));
+
+        assertNull(first.getBrickAt(new Point(0, 0)));
+        assertTrue(second.getBrickAt(new Point(0, 0)) instanceof StandardBrick);
+        assertEquals(second.getBrickCount() - 1, first.getBrickCount());
+        assertEquals(second.getBrickCount(), template.createBrickGrid().getBrickCount());
+        assertEquals(CellType.STURDY_LIVES, ((SturdyBrick) second.getBrickAt(new Point(0, 1))).getLivesLeft());
+    }
+
+    @Test
+    void testGamesCreatedInParallel()
+    {
+        var template = new LevelTemplate(GameMapParser.descr7, 10000, 3000);
+        var expected = StateHasher.hash(GameMapParser.parse(GameMapParser.descr7, 10000, 3000));
+
+        var hashes = java.util.stream.IntStream.range(0, 64).parallel()
+                .mapToLong(i -> StateHasher.hash(template.createState()))
+                .distinct().toArray();
+
+        assertArrayEquals(new long[] { expected }, hashes);
+    }
+}
@@ -0,0 +1,92 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.bricks.SturdyBrick;
+import breakout.bricks.lock.MasterBrick;
+import breakout.math.Point;
+import breakout.replay.StateHasher;
+
+class MapFileParserTest
+{
+    Path path;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        path = Files.createTempFile("breakout", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void testShippedMapsParseLikeLines() throws IOException
+    {
+        for ( var mapName : GameMapParser.MAP_NAMES )
+        {
+            var lines = GameMapParser.getMap(mapName);
+            Files.write(path, Arrays.asList(lines));
+
+            var expected = GameMapParser.parse(lines, 10000, 3000);
+            var actual = MapFileParser.parse(path, 10000, 3000);
+
+            assertEquals(StateHasher.hash(expected), StateHasher.hash(actual), mapName);
+        }
+    }
+
+    @Test
+    void testLineEndings() throws IOException
+    {
+        for ( var text : new String[] { "L m\r\nS M\r\n", "L m\rS M", "L m\nS M", "L m\r\nS M\n" } )
+        {
+            Files.writeString(path, text);
+
+            var grid = MapFileParser.parseBrickGrid(path, 1000, 500);
+            assertEquals(3, grid.getColumnCount());
+            assertEquals(2, grid.getRowCount());
+            assertEquals(4, grid.getBrickCount());
+            assertEquals(Arrays.asList(grid.getBrickAt(new Point(0, 0))), ((MasterBrick) grid.getBrickAt(new Point(2, 1))).getLockedBricks());
+            assertEquals(Arrays.asList(), ((MasterBrick) grid.getBrickAt(new Point(2, 0))).getLockedBricks());
+            assertTrue(grid.getBrickAt(new Point(0, 1)) instanceof SturdyBrick);
+        }
+    }
+
+    @Test
+    void testRowsLongerThanBuffer() throws IOException
+    {
+        var width = 3 * MapFileParser.BUFFER_SIZE + 5;
+        var lines = new String[] { "#" + " ".repeat(width - 2) + "l", " ".repeat(width), " ".repeat(width - 1) + "m" };
+        Files.write(path, Arrays.asList(lines));
+
+        assertEquals(StateHasher.hash(GameMapParser.parse(lines, 100, 30)), StateHasher.hash(MapFileParser.parse(path, 100, 30)));
+    }
+
+    @Test
+    void testRejectsInvalidFiles() throws IOException
+    {
+        assertThrows(IllegalArgumentException.class, () -> MapFileParser.parse(null, 10000, 3000));
+        assertThrows(IllegalArgumentException.class, () -> MapFileParser.parse(path, 10000, 0));
+
+        for ( var text : new String[] { "", "\n", "# \n#\n", "#\n\n#\n", "#?\n", "#L\n" } )
+        {
+            Files.writeString(path, text);
+            assertThrows(IOException.class, () -> MapFileParser.parse(path, 10000, 3000), text);
+        }
+
+        Files.delete(path);
+        assertThrows(IOException.class, () -> MapFileParser.parse(path, 10000, 3000));
+    }
+}
@@ -0,0 +1,80 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.balls.StandardBehavior;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Vector;
+import breakout.paddles.PaddleMotionDirection;
+import breakout.replay.StateHasher;
+
+public class ParallelBallUpdaterTest
+{
+    private static final PaddleMotionDirection[] DIRECTIONS = { PaddleMotionDirection.LEFT, PaddleMotionDirection.STATIONARY, PaddleMotionDirection.RIGHT };
+
+    private static BreakoutState createState(String mapName, int extraBallCount)
+    {
+        var state = GameMapParser.parse(GameMapParser.getMap(mapName), 10000, 3000);
+        var random = new Random(18);
+        var field = state.getBoundingRectangle();
+
+        for ( var i = 0; i != extraBallCount; ++i )
+        {
+            var center = new Point(random.nextLong(1000, field.getRight() - 1000), random.nextLong(field.getBottom() / 2, field.getBottom() - 2000));
+            var velocity = new Vector(random.nextInt(-15, 16), -random.nextInt(1, 16));
+            state.addBall(new Circle(center, 700), velocity, new StandardBehavior());
+        }
+
+        return state;
+    }
+
+    @Test
+    void testConstructorNullState()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelBallUpdater(null));
+    }
+
+    @Test
+    void testShippedMapsMatchSequentialEngine()
+    {
+        for ( var mapName : GameMapParser.MAP_NAMES )
+        {
+            var sequential = createState(mapName, BreakoutState.PARALLEL_BALL_COUNT);
+            var parallel = createState(mapName, BreakoutState.PARALLEL_BALL_COUNT);
+
+            for ( int i = 0; i != 150 && !sequential.isGameOver(); ++i )
+            {
+                var direction = DIRECTIONS[i / 10 % DIRECTIONS.length];
+                sequential.getPaddle().setMotionDirection(direction);
+                parallel.getPaddle().setMotionDirection(direction);
+
+                sequential.tick(BreakoutState.MAXIMUM_TIME_DELTA);
+                parallel.tickInParallel(BreakoutState.MAXIMUM_TIME_DELTA);
+
+                assertEquals(StateHasher.hash(sequential), StateHasher.hash(parallel));
+            }
+        }
+    }
+
+    @Test
+    void testUpdaterMatchesSequentialUpdateForFewBalls()
+    {
+        var sequential = createState("OGP_MAP", 10);
+        var parallel = createState("OGP_MAP", 10);
+        var updater = new ParallelBallUpdater(parallel);
+
+        for ( int i = 0; i != 300; ++i )
+        {
+            sequential.tick(10);
+            parallel.getPaddle().tick(parallel, 10);
+            updater.update(10);
+
+            assertEquals(StateHasher.hash(sequential), StateHasher.hash(parallel));
+        }
+    }
+}
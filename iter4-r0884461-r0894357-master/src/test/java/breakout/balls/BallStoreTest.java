@@ -0,0 +1,200 @@
+package breakout.balls;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.GameMapParser;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Rectangle;
+import breakout.math.Vector;
+
+class BallStoreTest
+{
+    BallStore store;
+    Rectangle area;
+
+    @BeforeEach
+    void setUp()
+    {
+        area = new Rectangle(0, 0, 100000, 50000);
+        store = new BallStore(area);
+    }
+
+    @Test
+    void testConstructor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new BallStore(null));
+        assertEquals(0, store.getBallCount());
+        assertEquals(area, store.getAllowedArea());
+    }
+
+    @Test
+    void testAdd()
+    {
+        var behavior = new StandardBehavior();
+        var ball = store.add(new Circle(new Point(1000, 2000), 500), new Vector(3, -4), behavior);
+        assertEquals(1, store.getBallCount());
+        assertTrue(store.contains(ball));
+        assertEquals(new Circle(new Point(1000, 2000), 500), ball.getGeometry());
+        assertEquals(new Point(1000, 2000), ball.getCenter());
+        assertEquals(new Vector(3, -4), ball.getVelocity());
+        assertSame(behavior, ball.getBehavior());
+        assertEquals(area, ball.getAllowedArea());
+        assertThrows(IllegalArgumentException.class, () -> store.add(null, new Vector(1, 1), behavior));
+        assertThrows(IllegalArgumentException.class, () -> store.add(new Circle(new Point(0, 0), 1), null, behavior));
+        assertThrows(IllegalArgumentException.class, () -> store.add(new Circle(new Point(0, 0), 1), new Vector(1, 1), null));
+    }
+
+    @Test
+    void testMoveAndSetters()
+    {
+        var ball = store.add(new Circle(new Point(1000, 2000), 500), new Vector(3, -4), new StandardBehavior());
+        ball.move(10);
+        assertEquals(new Point(1030, 1960), ball.getCenter());
+        ball.setVelocity(new Vector(-1, 1));
+        ball.setGeometry(new Circle(new Point(5, 6), 7));
+        assertEquals(new Vector(-1, 1), ball.getVelocity());
+        assertEquals(new Circle(new Point(5, 6), 7), ball.getGeometry());
+        ball.speedUp();
+        assertEquals(new Vector(-1, 1).multiply(Ball.SPEED_UP_FACTOR).divide(1000), ball.getVelocity());
+    }
+
+    @Test
+    void testRemoveShiftsLaterBalls()
+    {
+        var balls = new ArrayList<Ball>();
+
+        for ( int i = 0; i != 100; ++i )
+        {
+            balls.add(store.add(new Circle(new Point(i * 100, 1000), 50), new Vector(i, -i), new StandardBehavior()));
+        }
+
+        store.remove(balls.get(0));
+        store.remove(balls.get(50));
+        balls.remove(50);
+        balls.remove(0);
+        assertEquals(balls, store.getBalls());
+
+        for ( int i = 0; i != balls.size(); ++i )
+        {
+            assertSame(balls.get(i), store.getBall(i));
+            balls.get(i).move(10);
+        }
+
+        assertEquals(new Point(100 + 10, 1000 - 10), balls.get(0).getCenter());
+        assertEquals(new Point(9900 + 990, 1000 - 990), balls.get(97).getCenter());
+    }
+
+    @Test
+    void testMoveAll()
+    {
+        var balls = new ArrayList<Ball>();
+
+        for ( int i = 0; i != 100; ++i )
+        {
+            balls.add(store.add(new Circle(new Point(i * 100, 1000), 50), new Vector(i, -i), new StandardBehavior()));
+        }
+
+        // Removed balls leave their slot empty until the next toArray, so the other balls keep their slots
+        store.remove(balls.get(10));
+        assertEquals(99, store.getBallCount());
+        var selected = new boolean[100];
+
+        for ( int i = 0; i != 100; ++i )
+        {
+            selected[i] = i % 2 == 0;
+        }
+
+        store.moveAll(10, selected, 100);
+
+        for ( int i = 0; i != 100; ++i )
+        {
+            var moved = i % 2 == 0 && i != 10;
+            assertEquals(new Point(i * 100 + (moved ? 10 * i : 0), 1000 - (moved ? 10 * i : 0)), balls.get(i).getCenter());
+        }
+
+        assertEquals(new Circle(new Point(20 * 100 + 200, 1000 - 200), 50), balls.get(20).getGeometry());
+
+        var array = store.toArray(new Ball[0]);
+        balls.remove(10);
+
+        for ( int i = 0; i != 99; ++i )
+        {
+            assertSame(balls.get(i), array[i]);
+        }
+    }
+
+    @Test
+    void testRemovedBallKeepsItsState()
+    {
+        var behavior = new StandardBehavior();
+        var ball1 = store.add(new Circle(new Point(1000, 2000), 500), new Vector(3, -4), behavior);
+        var ball2 = store.add(new Circle(new Point(3000, 4000), 500), new Vector(1, 1), new StandardBehavior());
+        store.remove(ball1);
+        assertEquals(1, store.getBallCount());
+        assertFalse(store.contains(ball1));
+        assertEquals(new Circle(new Point(1000, 2000), 500), ball1.getGeometry());
+        assertSame(behavior, ball1.getBehavior());
+        assertEquals(area, ball1.getAllowedArea());
+        ball1.move(1);
+        assertEquals(new Point(1003, 1996), ball1.getCenter());
+
+        var ball3 = store.add(new Circle(new Point(7000, 8000), 500), new Vector(-2, 2), new StandardBehavior());
+        assertEquals(2, store.getBallCount());
+        assertTrue(store.contains(ball3));
+        assertEquals(new Point(1003, 1996), ball1.getCenter());
+        assertEquals(new Point(3000, 4000), ball2.getCenter());
+        assertEquals(new Point(7000, 8000), ball3.getCenter());
+    }
+
+    @Test
+    void testRestore()
+    {
+        var ball1 = store.add(new Circle(new Point(1000, 2000), 500), new Vector(3, -4), new StandardBehavior());
+        var ball2 = store.add(new Circle(new Point(3000, 4000), 500), new Vector(1, 1), new StandardBehavior());
+        store.remove(ball1);
+        var ball3 = store.add(new Circle(new Point(7000, 8000), 500), new Vector(-2, 2), new StandardBehavior());
+        var behavior = new StandardBehavior();
+
+        store.restore(new Ball[] { ball1, ball2 }, new Circle[] { new Circle(new Point(1, 2), 3), ball2.getGeometry() },
+                new Vector[] { new Vector(4, 5), ball2.getVelocity() }, new BallBehavior[] { behavior, ball2.getBehavior() });
+        assertEquals(List.of(ball1, ball2), store.getBalls());
+        assertFalse(store.contains(ball3));
+        assertEquals(new Point(7000, 8000), ball3.getCenter());
+        assertEquals(new Circle(new Point(1, 2), 3), ball1.getGeometry());
+        assertEquals(new Vector(4, 5), ball1.getVelocity());
+        assertSame(behavior, ball1.getBehavior());
+        assertEquals(new Point(3000, 4000), ball2.getCenter());
+    }
+
+    @Test
+    void testConstructedBallHasItsOwnStore()
+    {
+        var ball = new Ball(area, new Circle(new Point(1000, 2000), 500), new Vector(3, -4), new StandardBehavior());
+        var stored = store.add(new Circle(new Point(1000, 2000), 500), new Vector(3, -4), new StandardBehavior());
+        assertFalse(store.contains(ball));
+        ball.move(10);
+        assertEquals(new Point(1030, 1960), ball.getCenter());
+        assertEquals(new Point(1000, 2000), stored.getCenter());
+    }
+
+    @Test
+    void testGameKeepsBallsInStore()
+    {
+        var state = GameMapParser.parse(GameMapParser.descr6, 10000, 3000);
+        var ball = state.getBalls().get(0);
+        state.removeBall(ball);
+        var center = ball.getCenter();
+        var added = state.addBall(ball.getGeometry(), ball.getVelocity(), ball.getBehavior());
+        state.tick(20);
+        assertEquals(List.of(added), state.getBalls());
+        assertEquals(center, ball.getCenter());
+        assertNotEquals(center, added.getCenter());
+    }
+}
@@ -7,6 +7,7 @@ import java.awt.Color;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import breakout.BrickGrid;
 import breakout.math.Circle;
 import breakout.math.Point;
 import breakout.math.Rectangle;
@@ -136,6 +137,62 @@ class BallTest {
 			
 		}
 		
+		@Test
+		void testPredictBrickCollision() {
+			var brickGrid = new BrickGrid(5, 5, 10000, 2000);
+			var brick = brickGrid.addStandardBrick(new Point(1, 1));
+			var lowerBrick = brickGrid.addStandardBrick(new Point(1, 3));
+			var ball = new Ball(new Rectangle(0, 0, 50000, 11000), new Circle(new Point(15000, 10000), 500), new Vector(0, -10), behavior);
+			
+			var collision = ball.predictBrickCollision(brickGrid);
+			assertSame(lowerBrick, collision.getBrick());
+			assertEquals(brickGrid.findEarliestCollision(ball).getMillisecondsUntilCollision(), collision.getMillisecondsUntilCollision());
+			
+			ball.move(100);
+			var shifted = ball.predictBrickCollision(brickGrid);
+			assertSame(lowerBrick, shifted.getBrick());
+			assertEquals(collision.getMillisecondsUntilCollision() - 100, shifted.getMillisecondsUntilCollision());
+			assertEquals(Vector.KILO_DOWN, shifted.getKiloNormal());
+			
+			brickGrid.removeBrick(lowerBrick);
+			var next = ball.predictBrickCollision(brickGrid);
+			assertSame(brick, next.getBrick());
+			assertEquals(brickGrid.findEarliestCollision(ball).getMillisecondsUntilCollision(), next.getMillisecondsUntilCollision());
+			
+			ball.setVelocity(new Vector(0, 10));
+			assertNull(ball.predictBrickCollision(brickGrid));
+		}
+		
+		@Test
+		void testPrimitiveAccessors() {
+			assertEquals(0, testBall.getCenterX());
+			assertEquals(0, testBall.getCenterY());
+			assertEquals(3, testBall.getRadius());
+			assertEquals(2, testBall.getVelocityX());
+			assertEquals(2, testBall.getVelocityY());
+			assertSame(geometry, testBall.getGeometry());
+			
+			testBall.move(10);
+			assertEquals(20, testBall.getCenterX());
+			assertEquals(20, testBall.getCenterY());
+			assertEquals(new Circle(new Point(20, 20), 3), testBall.getGeometry());
+			assertSame(testBall.getGeometry(), testBall.getGeometry());
+		}
+		
+		@Test
+		void testPredictBrickCollisionTime() {
+			var brickGrid = new BrickGrid(5, 5, 10000, 2000);
+			brickGrid.addStandardBrick(new Point(1, 1));
+			var ball = new Ball(new Rectangle(0, 0, 50000, 11000), new Circle(new Point(15000, 10000), 500), new Vector(0, -10), behavior);
+			
+			assertEquals(ball.predictBrickCollision(brickGrid).getMillisecondsUntilCollision(), ball.predictBrickCollisionTime(brickGrid));
+			ball.move(100);
+			assertEquals(ball.predictBrickCollision(brickGrid).getMillisecondsUntilCollision(), ball.predictBrickCollisionTime(brickGrid));
+			
+			ball.setVelocity(new Vector(0, 10));
+			assertEquals(Long.MAX_VALUE, ball.predictBrickCollisionTime(brickGrid));
+		}
+		
 		
 		
 		
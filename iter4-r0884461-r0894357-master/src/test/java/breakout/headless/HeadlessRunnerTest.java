@@ -0,0 +1,76 @@
+package breakout.headless;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.GameMapParser;
+import breakout.paddles.PaddleMotionDirection;
+
+class HeadlessRunnerTest
+{
+    HeadlessRunner stationaryRunner;
+
+    @BeforeEach
+    void setUp()
+    {
+        stationaryRunner = new HeadlessRunner(GameMapParser.descr4, StationaryController::new, 60_000);
+    }
+
+    @Test
+    void testConstructor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(null, StationaryController::new, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(GameMapParser.descr4, null, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(GameMapParser.descr4, StationaryController::new, 0));
+        assertArrayEquals(GameMapParser.descr4, stationaryRunner.getMap());
+        assertEquals(60_000, stationaryRunner.getMaximumGameMilliseconds());
+    }
+
+    @Test
+    void testRunGame()
+    {
+        var report = stationaryRunner.runGame();
+        assertEquals(1, report.getGameCount());
+        assertEquals(1, report.getLostCount());
+        assertTrue(report.getSimulatedMilliseconds() > 0);
+        assertTrue(report.getSimulatedMilliseconds() < 60_000);
+    }
+
+    @Test
+    void testTimeOut()
+    {
+        var runner = new HeadlessRunner(GameMapParser.descr4, StationaryController::new, 50);
+        var report = runner.runGame();
+        assertEquals(1, report.getTimedOutCount());
+        assertEquals(50, report.getSimulatedMilliseconds());
+    }
+
+    @Test
+    void testRunParallel()
+    {
+        var single = stationaryRunner.runGame();
+        var report = stationaryRunner.run(20, 4);
+        assertEquals(20, report.getGameCount());
+        assertEquals(20, report.getLostCount());
+        assertEquals(20 * single.getSimulatedMilliseconds(), report.getSimulatedMilliseconds());
+        assertThrows(IllegalArgumentException.class, () -> stationaryRunner.run(-1, 4));
+        assertThrows(IllegalArgumentException.class, () -> stationaryRunner.run(10, 0));
+    }
+
+    @Test
+    void testTrackingController()
+    {
+        var state = GameMapParser.parse(GameMapParser.descr4, 10000, 3000);
+        var controller = new TrackingController();
+        var ball = state.getBalls().get(0);
+        var paddleX = state.getPaddle().getTopCenter().x();
+
+        assertEquals(PaddleMotionDirection.STATIONARY, controller.chooseDirection(state));
+        ball.setGeometry(ball.getGeometry().move(new breakout.math.Vector(paddleX, 0)));
+        assertEquals(PaddleMotionDirection.RIGHT, controller.chooseDirection(state));
+        ball.setGeometry(ball.getGeometry().move(new breakout.math.Vector(-2 * paddleX + 1000, 0)));
+        assertEquals(PaddleMotionDirection.LEFT, controller.chooseDirection(state));
+    }
+}
@@ -0,0 +1,35 @@
+package breakout.headless;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SimulationReportTest
+{
+    @Test
+    void testConstructor()
+    {
+        var report = new SimulationReport(1, 2, 3, 4000, 2_000_000_000);
+        assertEquals(6, report.getGameCount());
+        assertEquals(1, report.getWonCount());
+        assertEquals(2, report.getLostCount());
+        assertEquals(3, report.getTimedOutCount());
+        assertEquals(4000, report.getSimulatedMilliseconds());
+        assertEquals(2_000_000_000, report.getWallNanoseconds());
+        assertEquals(2.0, report.getSimulatedSecondsPerWallSecond(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> new SimulationReport(-1, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SimulationReport(0, 0, 0, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SimulationReport(0, 0, 0, 0, -1));
+    }
+
+    @Test
+    void testCombine()
+    {
+        var report = new SimulationReport(1, 0, 0, 1000, 10).combine(new SimulationReport(0, 1, 1, 500, 5));
+        assertEquals(3, report.getGameCount());
+        assertEquals(1500, report.getSimulatedMilliseconds());
+        assertEquals(15, report.getWallNanoseconds());
+        assertEquals(0, SimulationReport.EMPTY.getSimulatedSecondsPerWallSecond());
+        assertEquals(99, report.withWallNanoseconds(99).getWallNanoseconds());
+    }
+}
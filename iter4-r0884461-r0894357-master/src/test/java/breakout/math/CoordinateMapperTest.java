@@ -0,0 +1,126 @@
+package breakout.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CoordinateMapperTest
+{
+    private static CoordinateMapper createMapper(Interval xSource, Interval xTarget, Interval ySource, Interval yTarget)
+    {
+        return new CoordinateMapper(new IntervalMapper(xSource, xTarget), new IntervalMapper(ySource, yTarget));
+    }
+
+    /**
+     * Maps x with rational arithmetic, rounding down.
+     */
+    private static long mapExactly(Interval source, Interval target, long x)
+    {
+        var offset = BigInteger.valueOf(x - source.getLowerBound()).multiply(BigInteger.valueOf(target.getWidth()));
+        var quotientAndRemainder = offset.divideAndRemainder(BigInteger.valueOf(source.getWidth()));
+        var quotient = quotientAndRemainder[0].longValueExact();
+
+        if ( quotientAndRemainder[1].signum() < 0 )
+        {
+            quotient--;
+        }
+
+        return target.getLowerBound() + quotient;
+    }
+
+    @Test
+    void testMapAgreesWithIntervalMapperWhenNoPrecisionIsLost()
+    {
+        var mapper = createMapper(new Interval(0, 50000), new Interval(0, 500), new Interval(0, 20000), new Interval(0, 1000));
+
+        for ( var x = 0; x <= 50000; x += 7 )
+        {
+            assertEquals(mapper.map(new Point(x, 0)).x(), mapper.mapX(x));
+        }
+
+        for ( var y = 0; y <= 20000; y += 7 )
+        {
+            assertEquals(mapper.map(new Point(0, y)).y(), mapper.mapY(y));
+        }
+    }
+
+    @Test
+    void testMapIsExactWhenZoomingOut()
+    {
+        var xSource = new Interval(-3000, 97001);
+        var xTarget = new Interval(10, 1009);
+        var ySource = new Interval(0, 3);
+        var yTarget = new Interval(0, 1);
+        var mapper = createMapper(xSource, xTarget, ySource, yTarget);
+
+        for ( var x = -10000; x <= 110000; ++x )
+        {
+            assertEquals(mapExactly(xSource, xTarget, x), mapper.mapX(x));
+        }
+
+        for ( var y = -100; y <= 100; ++y )
+        {
+            assertEquals(mapExactly(ySource, yTarget, y), mapper.mapY(y));
+        }
+    }
+
+    @Test
+    void testMapIsExactAtHighZoom()
+    {
+        // Interval.toRelative only keeps three decimals, which is off by many pixels here
+        var source = new Interval(0, 10007);
+        var target = new Interval(0, 10007L * 1000003);
+        var mapper = createMapper(source, target, source, target);
+
+        for ( var x = 0; x <= 10007; ++x )
+        {
+            assertEquals(mapExactly(source, target, x), mapper.mapX(x));
+        }
+
+        assertNotEquals(mapExactly(source, target, 5003), mapper.map(new Point(5003, 0)).x());
+    }
+
+    @Test
+    void testMapRandomIntervals()
+    {
+        var random = new Random(15);
+
+        for ( var i = 0; i != 1000; ++i )
+        {
+            var sourceLowerBound = random.nextLong(-1000000, 1000000);
+            var source = new Interval(sourceLowerBound, sourceLowerBound + random.nextLong(1, 1 << 16));
+            var targetLowerBound = random.nextLong(-1000000, 1000000);
+            var target = new Interval(targetLowerBound, targetLowerBound + random.nextLong(0, 1 << 24));
+            var mapper = createMapper(source, target, target, source);
+
+            for ( var j = 0; j != 100; ++j )
+            {
+                var x = random.nextLong(source.getLowerBound() - source.getWidth(), source.getUpperBound() + source.getWidth());
+                var y = random.nextLong(target.getLowerBound(), target.getUpperBound() + 1);
+
+                assertEquals(mapExactly(source, target, x), mapper.mapX(x));
+                assertEquals(mapExactly(target, source, y), mapper.mapY(y));
+            }
+        }
+    }
+
+    @Test
+    void testMapEmptySourceInterval()
+    {
+        var mapper = createMapper(new Interval(5, 5), new Interval(10, 20), new Interval(0, 10), new Interval(0, 10));
+
+        assertEquals(10, mapper.mapX(5));
+        assertEquals(10, mapper.mapX(100));
+    }
+
+    @Test
+    void testConstructorRejectsExcessiveZoom()
+    {
+        assertThrows(IllegalArgumentException.class,
+                () -> createMapper(new Interval(0, 1), new Interval(0, 1L << 61), new Interval(0, 1), new Interval(0, 1)));
+        createMapper(new Interval(0, 1), new Interval(0, (1L << 61) - 1), new Interval(0, 1), new Interval(0, 1));
+    }
+}
@@ -0,0 +1,127 @@
+package breakout.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class VectorTest {
+
+	private static BigInteger big(long value) {
+		return BigInteger.valueOf(value);
+	}
+
+	@Test
+	void testIsqrt() {
+		assertEquals(0, Vector.isqrt(0));
+		assertEquals(1, Vector.isqrt(3));
+		assertEquals(2, Vector.isqrt(4));
+		assertEquals(3037000499L, Vector.isqrt(Long.MAX_VALUE));
+		assertEquals(3037000498L, Vector.isqrt(3037000499L * 3037000499L - 1));
+
+		var random = new Random(19);
+		for (var i = 0; i != 100000; ++i) {
+			var n = random.nextLong() >>> random.nextInt(1, 64);
+			assertEquals(big(n).sqrt().longValueExact(), Vector.isqrt(n));
+		}
+	}
+
+	@Test
+	void testGetLength() {
+		assertEquals(5, new Vector(3, 4).getLength());
+		assertEquals(5, new Vector(-3, -4).getLength());
+		assertEquals(1000, Vector.KILO_UP.getLength());
+		assertEquals(Long.MAX_VALUE, new Vector(Long.MAX_VALUE, 0).getLength());
+		assertThrows(ArithmeticException.class, () -> new Vector(Long.MIN_VALUE, Long.MIN_VALUE).getLength());
+
+		var random = new Random(19);
+		for (var i = 0; i != 100000; ++i) {
+			var x = random.nextLong() >> random.nextInt(1, 64);
+			var y = random.nextLong() >> random.nextInt(1, 64);
+			var expected = big(x).pow(2).add(big(y).pow(2)).sqrt().longValueExact();
+			assertEquals(expected, Vector.getLength(x, y));
+		}
+	}
+
+	@Test
+	void testIsKiloUnitVector() {
+		assertTrue(Vector.KILO_UP_LEFT.isKiloUnitVector());
+		assertTrue(new Vector(600, 800).isKiloUnitVector());
+		assertTrue(new Vector(0, 1004).isKiloUnitVector());
+		assertFalse(new Vector(0, 1005).isKiloUnitVector());
+		assertFalse(new Vector(995, 0).isKiloUnitVector());
+		assertFalse(new Vector(Long.MIN_VALUE, 0).isKiloUnitVector());
+	}
+
+	@Test
+	void testRescale() {
+		assertEquals(new Vector(600, -800), new Vector(3, -4).rescale(1000));
+		assertEquals(new Vector(3, 4), new Vector(3000000000000L, 4000000000000L).rescale(5));
+
+		var large = new Vector(3L << 50, -(4L << 50));
+		assertEquals(new Vector(3L << 52, -(4L << 52)), large.rescale(5L << 52));
+	}
+
+	@Test
+	void testKiloBounce() {
+		assertEquals(new Vector(3, -4), new Vector(3, 4).kiloBounce(Vector.KILO_UP));
+		assertEquals(new Vector(-3, 4), new Vector(3, 4).kiloBounce(Vector.KILO_LEFT));
+
+		var large = new Vector(5L << 45, 7L << 45);
+		assertEquals(new Vector(5L << 45, -(7L << 45)), large.kiloBounce(Vector.KILO_UP));
+
+		long[][] kiloNormals = { { 0, 1000 }, { -707, 707 }, { 600, -800 }, { 1003, 0 } };
+		var random = new Random(19);
+		for (var i = 0; i != 100000; ++i) {
+			var x = random.nextLong() >> random.nextInt(8, 64);
+			var y = random.nextLong() >> random.nextInt(8, 64);
+			var kiloNormal = kiloNormals[random.nextInt(kiloNormals.length)];
+
+			var dot = big(x).multiply(big(kiloNormal[0])).add(big(y).multiply(big(kiloNormal[1])));
+			var million = big(1000000);
+			var expectedX = big(x).multiply(million).subtract(big(2 * kiloNormal[0]).multiply(dot)).divide(million);
+			var expectedY = big(y).multiply(million).subtract(big(2 * kiloNormal[1]).multiply(dot)).divide(million);
+
+			assertEquals(expectedX.longValueExact(), Vector.kiloBounceX(x, y, kiloNormal[0], kiloNormal[1]));
+			assertEquals(expectedY.longValueExact(), Vector.kiloBounceY(x, y, kiloNormal[0], kiloNormal[1]));
+		}
+	}
+
+	@Test
+	void testKiloBounceNearOverflow() {
+		// The reflection term does not fit in a long, but the result does
+		assertEquals(-5286287784146240093L, Vector.kiloBounceX(5286287784146240093L, -1099511627777L, 1000, 0));
+		assertThrows(ArithmeticException.class, () -> Vector.kiloBounceX(Long.MIN_VALUE, 0, 1000, 0));
+
+		long[][] kiloNormals = { { 0, 1000 }, { -707, 707 }, { 600, -800 }, { 1003, 0 } };
+		var random = new Random(1019);
+		for (var i = 0; i != 100000; ++i) {
+			var x = random.nextLong() >> random.nextInt(0, 4);
+			var y = random.nextLong() >> random.nextInt(0, 64);
+			var kiloNormal = kiloNormals[random.nextInt(kiloNormals.length)];
+
+			var dot = big(x).multiply(big(kiloNormal[0])).add(big(y).multiply(big(kiloNormal[1])));
+			var million = big(1000000);
+			var expectedX = big(x).multiply(million).subtract(big(2 * kiloNormal[0]).multiply(dot)).divide(million);
+
+			if (expectedX.bitLength() < 64) {
+				assertEquals(expectedX.longValueExact(), Vector.kiloBounceX(x, y, kiloNormal[0], kiloNormal[1]));
+			} else {
+				assertThrows(ArithmeticException.class, () -> Vector.kiloBounceX(x, y, kiloNormal[0], kiloNormal[1]));
+			}
+		}
+	}
+
+	@Test
+	void testMultiplyDivide() {
+		assertEquals(7, Vector.multiplyDivide(15, 7, 15));
+		assertEquals(-2, Vector.multiplyDivide(-5, 1, 2));
+		assertEquals(1L << 62, Vector.multiplyDivide(1L << 62, 1L << 40, 1L << 40));
+		assertEquals(-(3L << 60) / 7, Vector.multiplyDivide(-(3L << 40), 1L << 20, 7));
+		assertThrows(ArithmeticException.class, () -> Vector.multiplyDivide(Long.MAX_VALUE, 2, 1));
+		assertThrows(ArithmeticException.class, () -> Vector.multiplyDivide(1, 1, 0));
+	}
+
+}
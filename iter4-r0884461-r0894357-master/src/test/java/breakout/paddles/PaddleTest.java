@@ -6,9 +6,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import breakout.BreakoutState;
+import breakout.balls.Ball;
+import breakout.balls.StandardBehavior;
+import breakout.math.Circle;
 import breakout.math.Interval;
 import breakout.math.Point;
 import breakout.math.Rectangle;
+import breakout.math.Vector;
 
 public class PaddleTest {
     private Paddle paddle;
@@ -130,4 +134,30 @@ public class PaddleTest {
         assertEquals(allowedInterval.getWidth() / 2, paddle.getHalfWidth());
     }
 
+    @Test
+    public void testFindCollisionTime() {
+        var ball = new Ball(new Rectangle(0, -10000, 10000, 11000), new Circle(new Point(5000, -1500), 500), new Vector(10, 10), new StandardBehavior());
+        
+        assertEquals(100, paddle.findCollisionTime(ball));
+        assertEquals(100, paddle.findCollision(ball).getMillisecondsUntilCollision());
+        assertEquals(paddle.getKiloNormal(6000), paddle.findCollision(ball).getKiloNormal());
+        
+        // The ball passes the paddle's top next to the paddle
+        ball.setVelocity(new Vector(30, 10));
+        assertEquals(Long.MAX_VALUE, paddle.findCollisionTime(ball));
+        assertNull(paddle.findCollision(ball));
+    }
+
+    @Test
+    public void testTopCenterCoordinates() {
+        var before = paddle.getTopCenter();
+        paddle.setTopCenterX(5000);
+        assertSame(before, paddle.getTopCenter());
+        
+        paddle.setTopCenterX(7000);
+        assertEquals(7000, paddle.getTopCenterX());
+        assertEquals(0, paddle.getTopCenterY());
+        assertEquals(new Point(7000, 0), paddle.getTopCenter());
+    }
+
 }
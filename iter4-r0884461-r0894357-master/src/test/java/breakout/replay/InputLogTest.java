@@ -0,0 +1,170 @@
+package breakout.replay;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.BreakoutState;
+import breakout.GameMapParser;
+import breakout.headless.TrackingController;
+import breakout.paddles.PaddleMotionDirection;
+
+class InputLogTest
+{
+    Path path;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        path = Files.createTempFile("breakout", ".log");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Plays descr2 like the user interface would, with varying tick lengths, and records it.
+     */
+    private BreakoutState recordGame(int tickCount) throws IOException
+    {
+        var state = GameMapParser.parse(GameMapParser.descr2, 10000, 3000);
+        var controller = new TrackingController();
+
+        try ( var recorder = new InputRecorder(path, "descr2", 10000, 3000) )
+        {
+            for ( var i = 0; i != tickCount && !state.isGameOver(); ++i )
+            {
+                var elapsed = i % 7 == 0 ? 0 : 5 + i % 31;
+                var direction = controller.chooseDirection(state);
+
+                state.getPaddle().setMotionDirection(direction);
+                recorder.record(elapsed, direction);
+                state.tick(elapsed);
+            }
+
+            recorder.finish(state);
+            assertTrue(recorder.isFinished());
+        }
+
+        return state;
+    }
+
+    @Test
+    void testRecordAndReplay() throws IOException
+    {
+        var recorded = recordGame(2000);
+        var log = InputLog.read(path);
+
+        assertEquals("descr2", log.getMapName());
+        assertEquals(10000, log.getBrickWidth());
+        assertEquals(3000, log.getBrickHeight());
+        assertEquals(StateHasher.hash(recorded), log.getFinalStateHash());
+        assertTrue(log.getTickCount() > 0);
+
+        var replayed = Replayer.createInitialState(log);
+        Replayer.replay(log, replayed);
+        assertEquals(StateHasher.hash(recorded), StateHasher.hash(replayed));
+        assertEquals(recorded.getPaddle().getTopCenter(), replayed.getPaddle().getTopCenter());
+        assertEquals(recorded.getBricks().size(), replayed.getBricks().size());
+        assertTrue(Replayer.verify(log));
+    }
+
+    @Test
+    void testRecordsAreCompact() throws IOException
+    {
+        try ( var recorder = new InputRecorder(path, "descr1", 10000, 3000) )
+        {
+            for ( var i = 0; i != 1000; ++i )
+            {
+                recorder.record(20, PaddleMotionDirection.RIGHT);
+            }
+
+            recorder.finish(0);
+        }
+
+        // Header, one byte per tick, end marker and hash
+        var header = 4 + 1 + 1 + "descr1".length() + 2 + 2;
+        assertEquals(header + 1000 + 1 + 8, Files.size(path));
+
+        var log = InputLog.read(path);
+        assertEquals(1000, log.getTickCount());
+        assertEquals(20_000, log.getTotalMilliseconds());
+        assertSame(PaddleMotionDirection.RIGHT, log.getDirection(999));
+    }
+
+    @Test
+    void testWrite() throws IOException
+    {
+        recordGame(300);
+        var log = InputLog.read(path);
+        var copy = Files.createTempFile("breakout", ".log");
+
+        try
+        {
+            log.write(copy);
+            assertArrayEquals(Files.readAllBytes(path), Files.readAllBytes(copy));
+        }
+        finally
+        {
+            Files.delete(copy);
+        }
+    }
+
+    @Test
+    void testVarint() throws IOException
+    {
+        var buffer = java.nio.ByteBuffer.allocate(64);
+
+        for ( var value : new long[] { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, Long.MAX_VALUE, -1 } )
+        {
+            buffer.clear();
+            InputLog.writeVarint(buffer, value);
+            buffer.flip();
+            assertEquals(value, InputLog.readVarint(buffer));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void testInvalidLogs() throws IOException
+    {
+        Files.write(path, new byte[] { 'N', 'O', 'P', 'E', 1 });
+        assertThrows(IOException.class, () -> InputLog.read(path));
+
+        recordGame(100);
+        var bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> InputLog.read(path));
+
+        // Closed without being finished
+        try ( var recorder = new InputRecorder(path, "descr1", 10000, 3000) )
+        {
+            recorder.record(20, PaddleMotionDirection.LEFT);
+        }
+        assertThrows(IOException.class, () -> InputLog.read(path));
+    }
+
+    @Test
+    void testRecorderPreconditions() throws IOException
+    {
+        assertThrows(IllegalArgumentException.class, () -> new InputRecorder(null, "descr1", 10000, 3000));
+        assertThrows(IllegalArgumentException.class, () -> new InputRecorder(path, "nope", 10000, 3000));
+        assertThrows(IllegalArgumentException.class, () -> new InputRecorder(path, "descr1", 0, 3000));
+
+        var recorder = new InputRecorder(path, "descr1", 10000, 3000);
+        assertThrows(IllegalArgumentException.class, () -> recorder.record(-1, PaddleMotionDirection.LEFT));
+        assertThrows(IllegalArgumentException.class, () -> recorder.record(20, null));
+        recorder.finish(0);
+        assertThrows(IllegalStateException.class, () -> recorder.record(20, PaddleMotionDirection.LEFT));
+    }
+}
@@ -0,0 +1,143 @@
+package breakout.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.BrickGrid;
+import breakout.bricks.SturdyBrick;
+import breakout.bricks.lock.LockedBrick;
+import breakout.math.Point;
+
+class BrickLayerTest
+{
+    BrickGrid grid;
+
+    BrickLayer layer;
+
+    SturdyBrick sturdy;
+
+    @BeforeEach
+    void setUp()
+    {
+        grid = new BrickGrid(12, 8, 10000, 3000);
+        sturdy = grid.addSturdyBrick(new Point(4, 4), 3);
+
+        for ( var x = 0; x != 12; ++x )
+        {
+            grid.addStandardBrick(new Point(x, 1));
+        }
+
+        var locks = new ArrayList<LockedBrick>();
+        locks.add(grid.addLockedBrick(new Point(7, 6)));
+        grid.addMasterBrick(new Point(2, 6), locks);
+
+        layer = new BrickLayer(grid, 100);
+    }
+
+    /**
+     * The raster must look exactly like a raster drawn from scratch.
+     */
+    private void assertUpToDate(BrickLayer.Raster raster)
+    {
+        layer.update(raster);
+        var expected = new BrickLayer(grid, 100).createRaster();
+        new BrickLayer(grid, 100).update(expected);
+
+        assertSameImage(expected.getImage(), raster.getImage());
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual)
+    {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+
+        for ( var y = 0; y != expected.getHeight(); ++y )
+        {
+            for ( var x = 0; x != expected.getWidth(); ++x )
+            {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "pixel " + x + ", " + y);
+            }
+        }
+    }
+
+    @Test
+    void testConstructor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new BrickLayer(null, 100));
+        assertThrows(IllegalArgumentException.class, () -> new BrickLayer(grid, 0));
+
+        var raster = layer.createRaster();
+        assertEquals(grid.getWidth() / 100, raster.getImage().getWidth());
+        assertEquals(grid.getHeight() / 100, raster.getImage().getHeight());
+    }
+
+    @Test
+    void testAddAndRemove()
+    {
+        var raster = layer.createRaster();
+        assertUpToDate(raster);
+
+        grid.removeBrickAt(new Point(5, 1));
+        grid.addStandardBrick(new Point(5, 2));
+        grid.removeBrickAt(new Point(7, 6));
+        assertUpToDate(raster);
+        assertEquals(0xFF000000, raster.getImage().getRGB(5 * 100 + 50, 1 * 30 + 15));
+    }
+
+    @Test
+    void testSturdyBrickLosesLife()
+    {
+        var raster = layer.createRaster();
+        assertUpToDate(raster);
+        var before = raster.getImage().getRGB(400, 120, 100, 30, null, 0, 100);
+
+        sturdy.hit(null, null);
+        assertUpToDate(raster);
+        assertFalse(Arrays.equals(before, raster.getImage().getRGB(400, 120, 100, 30, null, 0, 100)));
+    }
+
+    @Test
+    void testSeveralRasters()
+    {
+        var first = layer.createRaster();
+        var second = layer.createRaster();
+        assertUpToDate(first);
+
+        grid.removeBrickAt(new Point(0, 1));
+        assertUpToDate(second);
+        grid.removeBrickAt(new Point(11, 1));
+        sturdy.hit(null, null);
+        assertUpToDate(first);
+        assertUpToDate(second);
+    }
+
+    @Test
+    void testManyChanges()
+    {
+        var raster = layer.createRaster();
+        assertUpToDate(raster);
+
+        // More changes than the journals can hold
+        for ( var i = 0; i != 3000; ++i )
+        {
+            var position = new Point(i % 12, 3);
+
+            if ( grid.containsBrickAt(position) )
+            {
+                grid.removeBrickAt(position);
+            }
+            else
+            {
+                grid.addStandardBrick(position);
+            }
+        }
+
+        assertUpToDate(raster);
+    }
+}
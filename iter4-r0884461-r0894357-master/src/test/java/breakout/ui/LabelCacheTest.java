@@ -0,0 +1,83 @@
+package breakout.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+class LabelCacheTest
+{
+    @Test
+    void testConstructor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new LabelCache(0));
+    }
+
+    @Test
+    void testHitsAndMisses()
+    {
+        var cache = new LabelCache(2);
+        var graphics = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB).createGraphics();
+
+        graphics.setColor(Color.WHITE);
+        var first = cache.getLabel(graphics, "A");
+        assertSame(first, cache.getLabel(graphics, "A"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        graphics.setColor(Color.RED);
+        assertNotSame(first, cache.getLabel(graphics, "A"));
+        assertEquals(2, cache.size());
+
+        // "A" in white is the least recently used label
+        cache.getLabel(graphics, "B");
+        assertEquals(2, cache.size());
+        graphics.setColor(Color.WHITE);
+        assertNotSame(first, cache.getLabel(graphics, "A"));
+        assertEquals(4, cache.getMissCount());
+        graphics.dispose();
+    }
+
+    @Test
+    void testDrawsLikeDrawString()
+    {
+        var expected = new BufferedImage(60, 40, BufferedImage.TYPE_INT_RGB);
+        var actual = new BufferedImage(60, 40, BufferedImage.TYPE_INT_RGB);
+        var expectedGraphics = expected.createGraphics();
+        var actualGraphics = actual.createGraphics();
+
+        expectedGraphics.setColor(Color.WHITE);
+        actualGraphics.setColor(Color.WHITE);
+
+        var bounds = expectedGraphics.getFontMetrics().getStringBounds("7", expectedGraphics);
+        expectedGraphics.drawString("7", 30 - (int) bounds.getWidth() / 2, 20 + (int) bounds.getHeight() / 2);
+        new LabelCache(4).getLabel(actualGraphics, "7").draw(actualGraphics, 30, 20);
+
+        var differences = 0;
+        var lit = 0;
+
+        for ( var y = 0; y != 40; ++y )
+        {
+            for ( var x = 0; x != 60; ++x )
+            {
+                if ( expected.getRGB(x, y) != 0xFF000000 )
+                {
+                    lit++;
+                }
+
+                if ( (expected.getRGB(x, y) == 0xFF000000) != (actual.getRGB(x, y) == 0xFF000000) )
+                {
+                    differences++;
+                }
+            }
+        }
+
+        assertTrue(lit > 0);
+        // Anti-aliasing may differ slightly at the edges of the glyph
+        assertTrue(differences <= lit / 4, differences + " of " + lit);
+        expectedGraphics.dispose();
+        actualGraphics.dispose();
+    }
+}
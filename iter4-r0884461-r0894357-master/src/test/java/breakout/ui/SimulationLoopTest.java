@@ -0,0 +1,91 @@
+package breakout.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.GameMapParser;
+import breakout.math.Point;
+
+class SimulationLoopTest
+{
+    @Test
+    void testInitialFrame()
+    {
+        var state = GameMapParser.parse(GameMapParser.descr4, 10000, 3000);
+        var loop = new SimulationLoop(state, 100, new PlayerInput(new JPanel()), null, () -> { }, message -> { });
+        var expected = new DisplayList();
+
+        // The bricks are drawn as a single image
+        expected.drawFilledRectangle(Color.BLACK, state.getBoundingRectangle());
+        expected.drawImage(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), new Point(0, 0));
+        state.getBalls().forEach(ball -> ball.paint(expected));
+        state.getPaddle().paint(expected);
+
+        assertEquals(expected.size(), loop.getLatestFrame().size());
+    }
+
+    @Test
+    void testRunsUntilGameOver() throws Exception
+    {
+        // The paddle does not move, so the single ball is lost after a few seconds of game time
+        var state = GameMapParser.parse(GameMapParser.descr4, 10000, 3000);
+        var exitMessage = new CompletableFuture<String>();
+        var loop = new SimulationLoop(state, 100, new PlayerInput(new JPanel()), null, () -> { }, exitMessage::complete);
+
+        loop.start();
+
+        assertEquals("Game over :-(", exitMessage.get(60, TimeUnit.SECONDS));
+        assertTrue(state.isGameLost());
+        loop.close();
+    }
+
+    @Test
+    void testReadsFramesWhileRunning() throws Exception
+    {
+        // Reading frames hands every display list in turn to the simulation thread
+        var state = GameMapParser.parse(GameMapParser.descr4, 10000, 3000);
+        var exitMessage = new CompletableFuture<String>();
+        var loop = new SimulationLoop(state, 100, new PlayerInput(new JPanel()), null, () -> { }, exitMessage::complete);
+
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+
+        loop.start();
+
+        while ( !exitMessage.isDone() )
+        {
+            assertTrue(loop.getLatestFrame().size() > 0);
+            assertTrue(System.nanoTime() < deadline, "the simulation stopped before the game was over");
+            Thread.sleep(1);
+        }
+
+        assertEquals("Game over :-(", exitMessage.get());
+        loop.close();
+    }
+
+    @Test
+    void testDisplayList()
+    {
+        var state = GameMapParser.parse(GameMapParser.descr2, 10000, 3000);
+        var recorded = new DisplayList();
+        var copy = new DisplayList();
+
+        for ( var brick : state.getBricks() )
+        {
+            brick.paint(recorded);
+        }
+
+        recorded.drawOn(copy);
+        assertTrue(recorded.size() >= state.getBricks().size());
+        assertEquals(recorded.size(), copy.size());
+        recorded.clear();
+        assertEquals(0, recorded.size());
+    }
+}
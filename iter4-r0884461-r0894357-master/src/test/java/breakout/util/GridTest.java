@@ -0,0 +1,196 @@
+package breakout.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.math.Point;
+
+class GridTest
+{
+    private static Grid<String> createGrid()
+    {
+        var grid = new Grid<String>(5, 4);
+        grid.setAt(new Point(1, 0), "a");
+        grid.setAt(new Point(4, 0), "b");
+        grid.setAt(3, 2, "c");
+        grid.setAt(0, 3, "d");
+
+        return grid;
+    }
+
+    @Test
+    void testConstructor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new Grid<String>(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Grid<String>(1, -1));
+
+        var grid = new Grid<String>(100000, 100000);
+        assertEquals(100000, grid.getWidth());
+        assertEquals(100000, grid.getHeight());
+        assertEquals(10000000000L, grid.getCellCount());
+        assertNull(grid.at(99999, 99999));
+        assertThrows(IllegalStateException.class, () -> grid.getPositions());
+    }
+
+    @Test
+    void testHugeSparseGrid()
+    {
+        var grid = new Grid<String>(100000, 100000);
+        grid.setAt(99999, 99999, "a");
+        grid.setAt(64, 70000, "b");
+        grid.setAt(0, 0, "c");
+
+        assertEquals("a", grid.at(99999, 99999));
+        assertEquals(9999999999L, grid.getCellIndex(99999, 99999));
+        assertEquals("a", grid.atIndex(9999999999L));
+        assertEquals(List.of(0L, 7000000064L, 9999999999L), grid.getOccupiedCellIndexStream().boxed().toList());
+
+        var visited = new ArrayList<String>();
+        grid.forEachOccupiedCell((x, y, value) -> visited.add(value));
+        assertEquals(List.of("c", "b", "a"), visited);
+    }
+
+    @Test
+    void testTiles()
+    {
+        var grid = new Grid<String>(200, 100);
+
+        assertTrue(grid.isTileEmpty(70, 10));
+        grid.setAt(64, 0, "a");
+        grid.setAt(127, 63, "b");
+        assertFalse(grid.isTileEmpty(70, 10));
+        assertTrue(grid.isTileEmpty(63, 0));
+        assertTrue(grid.isTileEmpty(64, 64));
+
+        grid.setAt(64, 0, null);
+        assertFalse(grid.isTileEmpty(70, 10));
+        grid.setAt(127, 63, null);
+        assertTrue(grid.isTileEmpty(70, 10));
+        assertEquals(0, grid.getOccupiedCellIndexStream().count());
+    }
+
+    @Test
+    void testPositions()
+    {
+        var grid = createGrid();
+        var expected = IntStream.range(0, 20).mapToObj(i -> new Point(i % 5, i / 5)).toList();
+
+        assertEquals(expected, grid.getPositions());
+        assertEquals(expected, grid.getPositionStream().toList());
+        assertTrue(grid.getPositions().contains(new Point(4, 3)));
+        assertFalse(grid.getPositions().contains(new Point(5, 0)));
+        assertEquals(13, grid.getPositions().indexOf(new Point(3, 2)));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.getPositions().get(20));
+    }
+
+    @Test
+    void testCellIndices()
+    {
+        var grid = createGrid();
+
+        assertEquals(13, grid.getCellIndex(3, 2));
+        assertEquals(3, grid.getCellX(13));
+        assertEquals(2, grid.getCellY(13));
+        assertEquals("c", grid.atIndex(13));
+        assertNull(grid.atIndex(12));
+    }
+
+    @Test
+    void testForEachOccupiedCell()
+    {
+        var grid = createGrid();
+        grid.setAt(4, 0, null);
+        var visited = new ArrayList<String>();
+
+        grid.forEachOccupiedCell((x, y, value) -> visited.add(x + "," + y + "=" + value));
+
+        assertEquals(List.of("1,0=a", "3,2=c", "0,3=d"), visited);
+    }
+
+    @Test
+    void testOccupiedCellSpliterator()
+    {
+        var grid = new Grid<Long>(150, 300);
+
+        for ( var i = 0L; i < grid.getCellCount(); i += 7 )
+        {
+            if ( grid.getCellX(i) < 64 || grid.getCellY(i) >= 128 )
+            {
+                grid.setAt(grid.getCellX(i), grid.getCellY(i), i);
+            }
+        }
+
+        var expected = LongStream.iterate(0, i -> i < grid.getCellCount(), i -> i + 7).filter(i -> grid.atIndex(i) != null).boxed().toList();
+
+        assertEquals(expected, grid.getOccupiedCellIndexStream().boxed().toList());
+        assertEquals(expected, StreamSupport.longStream(grid.occupiedCellSpliterator(), true).boxed().toList());
+
+        var spliterator = grid.occupiedCellSpliterator();
+        var prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+
+        var indices = new ArrayList<Long>();
+        prefix.forEachRemaining((long index) -> indices.add(index));
+        spliterator.forEachRemaining((long index) -> indices.add(index));
+        assertEquals(expected, indices);
+    }
+
+    @Test
+    void testGiveCopy()
+    {
+        var grid = createGrid();
+        var copy = grid.giveCopy();
+
+        copy.setAt(2, 1, "e");
+        copy.setAt(1, 0, null);
+        grid.setAt(0, 3, "f");
+        copy.giveCopy().setAt(2, 1, "g");
+
+        assertNull(grid.at(2, 1));
+        assertEquals("a", grid.at(1, 0));
+        assertEquals("f", grid.at(0, 3));
+        assertEquals("e", copy.at(2, 1));
+        assertNull(copy.at(1, 0));
+        assertEquals("d", copy.at(0, 3));
+        assertEquals(grid.getPositions(), copy.getPositions());
+    }
+
+    @Test
+    void testTileLoader()
+    {
+        var grid = new Grid<String>(200, 100);
+        var loads = new ArrayList<Point>();
+        grid.setTileLoader(70, 10, (left, top, cells) -> {
+            loads.add(new Point(left, top));
+            cells.visit(left + 1, top + 2, "x");
+            cells.visit(left + 3, top + 2, "y");
+        });
+
+        assertFalse(grid.isTileEmpty(64, 0));
+        assertTrue(grid.isTileEmpty(0, 0));
+        assertTrue(loads.isEmpty());
+
+        var copy = grid.giveCopy();
+        assertEquals("x", grid.at(65, 2));
+        assertNull(grid.at(66, 2));
+        assertEquals(List.of(new Point(64, 0)), loads);
+
+        // Both grids share the loaded tile until one of them modifies it
+        grid.setAt(65, 2, null);
+        assertNull(grid.at(65, 2));
+        assertEquals("x", copy.at(65, 2));
+        assertEquals("y", copy.at(67, 2));
+        assertEquals(List.of(new Point(64, 0)), loads);
+
+        var values = new ArrayList<String>();
+        copy.forEachOccupiedCell((x, y, value) -> values.add(value));
+        assertEquals(List.of("x", "y"), values);
+    }
+}
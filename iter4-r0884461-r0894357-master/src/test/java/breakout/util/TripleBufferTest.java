@@ -0,0 +1,85 @@
+package breakout.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class TripleBufferTest
+{
+    @Test
+    void testConstructor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new TripleBuffer<>(null, new int[1], new int[1]));
+        var array = new int[1];
+        assertThrows(IllegalArgumentException.class, () -> new TripleBuffer<>(array, array, new int[1]));
+    }
+
+    @Test
+    void testPublishAndUpdate()
+    {
+        var buffer = new TripleBuffer<>(new int[1], new int[1], new int[1]);
+        var initialRead = buffer.getReadBuffer();
+
+        assertFalse(buffer.update());
+        assertSame(initialRead, buffer.getReadBuffer());
+
+        var first = buffer.getWriteBuffer();
+        first[0] = 1;
+        buffer.publish();
+        assertNotSame(first, buffer.getWriteBuffer());
+
+        var second = buffer.getWriteBuffer();
+        second[0] = 2;
+        buffer.publish();
+
+        // The consumer skips the overwritten value and gets the latest one
+        assertTrue(buffer.update());
+        assertSame(second, buffer.getReadBuffer());
+        assertFalse(buffer.update());
+        assertSame(second, buffer.getReadBuffer());
+        assertNotSame(second, buffer.getWriteBuffer());
+    }
+
+    @Test
+    void testConcurrentHandOff() throws InterruptedException
+    {
+        // Every buffer holds a counter in both elements; a torn read would see different values
+        var buffer = new TripleBuffer<>(new long[2], new long[2], new long[2]);
+        var torn = new AtomicBoolean();
+        var count = 200_000;
+
+        var producer = new Thread(() -> {
+            for ( long i = 1; i <= count; ++i )
+            {
+                var value = buffer.getWriteBuffer();
+                value[0] = i;
+                value[1] = i;
+                buffer.publish();
+            }
+        });
+        producer.start();
+
+        var last = 0L;
+
+        while ( last != count )
+        {
+            if ( buffer.update() )
+            {
+                var value = buffer.getReadBuffer();
+
+                if ( value[0] != value[1] || value[0] < last )
+                {
+                    torn.set(true);
+                    break;
+                }
+
+                last = value[0];
+            }
+        }
+
+        producer.join();
+        assertFalse(torn.get());
+    }
+}
@@ -5,6 +5,11 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import breakout.balls.Ball;
+import breakout.balls.StandardBehavior;
+import breakout.math.Circle;
+import breakout.math.Point;
+import breakout.math.Rectangle;
 import breakout.math.Vector;
 
 class NorthWallTest {
@@ -47,4 +52,17 @@ class NorthWallTest {
         
 
 }
+
+    @Test
+    void testFindCollisionTime() {
+        var ball = new Ball(new Rectangle(0, 0, 1000, 1000), new Circle(new Point(500, 510), 100), new Vector(3, -10), new StandardBehavior());
+        
+        assertEquals(40, wall.findCollisionTime(ball));
+        assertEquals(40, wall.findCollision(ball).getMillisecondsUntilCollision());
+        assertEquals(Vector.KILO_DOWN, wall.findCollision(ball).getKiloNormal());
+        
+        ball.setVelocity(new Vector(3, 10));
+        assertEquals(Long.MAX_VALUE, wall.findCollisionTime(ball));
+        assertNull(wall.findCollision(ball));
+    }
 }